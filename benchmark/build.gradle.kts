@@ -0,0 +1,29 @@
+plugins {
+    application
+    id("vaadin-boot.jlink")
+}
+
+// Benchmarks Jetty by default; run with -Pbenchmark.server=tomcat to benchmark Tomcat instead.
+val benchmarkServer = findProperty("benchmark.server") ?: "jetty"
+
+dependencies {
+    if (benchmarkServer == "tomcat") {
+        implementation(project(":vaadin-boot-tomcat"))
+    } else {
+        implementation(project(":vaadin-boot"))
+    }
+    implementation(libs.slf4j.simple)
+    implementation(libs.vaadin.core)
+}
+
+application {
+    mainClass = "com.github.mvysny.vaadinboot.benchmark.Main"
+}
+
+// Runs the app of the startup benchmark on another Java runtime, e.g. -Pbenchmark.javaHome=build/jlink/image
+// for the runtime built by the jlinkImage task.
+findProperty("benchmark.javaHome")?.let { javaHome ->
+    tasks.named<JavaExec>("run") {
+        systemProperty("benchmark.javaHome", file(javaHome).absolutePath)
+    }
+}
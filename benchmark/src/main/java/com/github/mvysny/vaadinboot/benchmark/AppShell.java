@@ -0,0 +1,11 @@
+package com.github.mvysny.vaadinboot.benchmark;
+
+import com.vaadin.flow.component.page.AppShellConfigurator;
+import com.vaadin.flow.component.page.Push;
+
+/**
+ * Enables push, for {@link PushBenchmark}.
+ */
+@Push
+public class AppShell implements AppShellConfigurator {
+}
@@ -0,0 +1,15 @@
+package com.github.mvysny.vaadinboot.benchmark;
+
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.router.Route;
+
+/**
+ * A trivial view; {@link PushBenchmark} opens a push connection for every instance.
+ */
+@Route("")
+public class BenchmarkView extends VerticalLayout {
+    public BenchmarkView() {
+        add(new Span("Vaadin Boot benchmark"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.mvysny.vaadinboot.benchmark;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+/**
+ * Measures the CPU cost of response compression against the bytes saved (see
+ * {@link com.github.mvysny.vaadinboot.common.VaadinBootBase#compression(boolean)}), on a JSON file resembling a large UIDL
+ * response served by Vaadin's servlet.
+ * <br/>
+ * The CPU time is measured for the entire JVM, including the load generator; compare the CPU time between the runs
+ * rather than looking at the absolute numbers.
+ */
+public class CompressionBenchmark implements Callable<Void> {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(CompressionBenchmark.class);
+
+    private static final int CLIENTS = 16;
+    @NotNull
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    @NotNull
+    private static final Duration MEASUREMENT = Duration.ofSeconds(10);
+
+    @Override
+    public Void call() throws Exception {
+        generateUidl();
+        benchmark("uncompressed", new VaadinBoot());
+        benchmark("gzip default", new VaadinBoot().compression(true));
+        // ignored by Tomcat, which always uses the default level
+        benchmark("gzip level 1", new VaadinBoot().compression(true).compressionLevel(1));
+        benchmark("gzip level 9", new VaadinBoot().compression(true).compressionLevel(9));
+        return null;
+    }
+
+    /**
+     * Generates <code>/webapp/bench/uidl.json</code>, roughly 64kb of JSON shaped like a UIDL response
+     * rendering a grid: repeated keys, with varying ids and values.
+     */
+    private static void generateUidl() throws IOException {
+        final Random random = new Random(0);
+        final StringBuilder json = new StringBuilder("{\"syncId\":1,\"clientId\":1,\"changes\":[");
+        for (int node = 0; json.length() < 64 * 1024; node++) {
+            if (node > 0) {
+                json.append(',');
+            }
+            json.append("{\"node\":").append(node + 10)
+                    .append(",\"type\":\"put\",\"key\":\"text\",\"feat\":7,\"value\":\"Person ")
+                    .append(random.nextInt(100000)).append(", born ").append(1950 + random.nextInt(60))
+                    .append("\"},{\"node\":").append(node + 10)
+                    .append(",\"type\":\"splice\",\"feat\":2,\"index\":0,\"add\":[\"v-grid-cell-content\"]}");
+        }
+        json.append("],\"timings\":[112,3]}");
+        Files.writeString(StaticFilesBenchmark.getBenchFolder().resolve("uidl.json"), json);
+    }
+
+    private static void benchmark(@NotNull String name, @NotNull VaadinBoot boot) throws Exception {
+        boot.withPort(0).localhostOnly().openBrowserInDevMode(false);
+        boot.start();
+        try {
+            final HttpRequest request = HttpRequest.newBuilder(URI.create(boot.getServerURL() + "/bench/uidl.json"))
+                    .header("Accept-Encoding", "gzip")
+                    .build();
+            LoadGenerator.run(request, CLIENTS, WARMUP);
+            final LoadGenerator.Result result = LoadGenerator.run(request, CLIENTS, MEASUREMENT);
+            log.info(String.format("%-14s %,8.0f bytes/response %,8.0f CPU us/request %s", name, result.bytesPerRequest(), result.cpuMicrosPerRequest(), result));
+        } finally {
+            boot.stop("Benchmark done");
+        }
+    }
+}
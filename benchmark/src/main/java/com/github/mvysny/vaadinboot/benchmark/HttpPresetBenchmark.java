@@ -0,0 +1,79 @@
+package com.github.mvysny.vaadinboot.benchmark;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import com.github.mvysny.vaadinboot.common.HttpPreset;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+/**
+ * Compares the HTTP presets (see {@link com.github.mvysny.vaadinboot.common.VaadinBootBase#httpPreset(HttpPreset)})
+ * against the web server's defaults, serving a small and a large static file. Reports the throughput and the CPU time per
+ * request. The JVM is warmed up first, so that the first configuration measured isn't penalized by the JIT compilation.
+ * <br/>
+ * The CPU time is measured for the entire JVM, including the load generator; compare the CPU time between the runs
+ * rather than looking at the absolute numbers.
+ */
+public class HttpPresetBenchmark implements Callable<Void> {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(HttpPresetBenchmark.class);
+
+    /**
+     * The files to generate into <code>/webapp/bench</code>: file name to file size.
+     */
+    @NotNull
+    private static final Map<String, Integer> FILES = Map.of("preset-small.bin", 2 * 1024, "preset-large.bin", 256 * 1024);
+
+    private static final int CLIENTS = 16;
+    @NotNull
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    @NotNull
+    private static final Duration MEASUREMENT = Duration.ofSeconds(10);
+
+    @Override
+    public Void call() throws Exception {
+        generateFiles();
+        benchmark(null, false);
+        benchmark(null, true);
+        for (HttpPreset preset : HttpPreset.values()) {
+            benchmark(preset, true);
+        }
+        return null;
+    }
+
+    private static void generateFiles() throws IOException {
+        final Random random = new Random(0);
+        for (Map.Entry<String, Integer> file : FILES.entrySet()) {
+            final byte[] content = new byte[file.getValue()];
+            random.nextBytes(content);
+            Files.write(StaticFilesBenchmark.getBenchFolder().resolve(file.getKey()), content);
+        }
+    }
+
+    private static void benchmark(@Nullable HttpPreset preset, boolean report) throws Exception {
+        final String name = preset == null ? "defaults" : preset.toString();
+        final VaadinBoot boot = new VaadinBoot().httpPreset(preset).withPort(0).localhostOnly().openBrowserInDevMode(false);
+        boot.start();
+        try {
+            for (String file : FILES.keySet()) {
+                final URI uri = URI.create(boot.getServerURL() + "/bench/" + file);
+                LoadGenerator.run(uri, CLIENTS, WARMUP);
+                final LoadGenerator.Result result = LoadGenerator.run(uri, CLIENTS, MEASUREMENT);
+                if (report) {
+                    log.info(String.format("%-15s %-16s %,8.0f CPU us/request %s", name, file, result.cpuMicrosPerRequest(), result));
+                }
+            }
+        } finally {
+            boot.stop("Benchmark done");
+        }
+    }
+}
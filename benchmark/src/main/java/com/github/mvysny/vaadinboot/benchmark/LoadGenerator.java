@@ -0,0 +1,119 @@
+package com.github.mvysny.vaadinboot.benchmark;
+
+import com.sun.management.OperatingSystemMXBean;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A simple closed-loop load generator: given number of clients send requests to given URL back-to-back,
+ * for given duration.
+ */
+public final class LoadGenerator {
+    private LoadGenerator() {
+    }
+
+    /**
+     * The outcome of a load test.
+     * @param requests the number of completed requests.
+     * @param bytes the number of response body bytes received.
+     * @param failures the number of requests which failed or didn't respond with 200.
+     * @param duration the duration of the load test.
+     * @param cpuTime the CPU time consumed by the entire JVM during the load test, including the load generator itself.
+     */
+    public record Result(long requests, long bytes, long failures, @NotNull Duration duration, @NotNull Duration cpuTime) {
+        public double requestsPerSecond() {
+            return requests * 1000d / duration.toMillis();
+        }
+
+        public double megabytesPerSecond() {
+            return bytes * 1000d / duration.toMillis() / 1024 / 1024;
+        }
+
+        public double bytesPerRequest() {
+            return requests == 0 ? 0 : (double) bytes / requests;
+        }
+
+        public double cpuMicrosPerRequest() {
+            return requests == 0 ? 0 : cpuTime.toNanos() / 1000d / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,10.0f req/s %,10.1f MB/s (%d requests, %d failures)", requestsPerSecond(), megabytesPerSecond(), requests, failures);
+        }
+    }
+
+    /**
+     * Runs the load test.
+     * @param uri the URL to GET.
+     * @param clients the number of concurrent clients.
+     * @param duration how long to run the test for.
+     * @return the result, not null.
+     * @throws Exception if the load test fails.
+     */
+    @NotNull
+    public static Result run(@NotNull URI uri, int clients, @NotNull Duration duration) throws Exception {
+        return run(HttpRequest.newBuilder(uri).build(), clients, duration);
+    }
+
+    /**
+     * Runs the load test. The response bodies are counted as received: for example compressed responses are not inflated.
+     * @param request the request to send.
+     * @param clients the number of concurrent clients.
+     * @param duration how long to run the test for.
+     * @return the result, not null.
+     * @throws Exception if the load test fails.
+     */
+    @NotNull
+    public static Result run(@NotNull HttpRequest request, int clients, @NotNull Duration duration) throws Exception {
+        final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        final LongAdder requests = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final OperatingSystemMXBean os = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        final long startCpu = os.getProcessCpuTime();
+        final long start = System.nanoTime();
+        final long deadline = start + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            final HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                            try (InputStream body = response.body()) {
+                                bytes.add(body.transferTo(OutputStream.nullOutputStream()));
+                            }
+                            if (response.statusCode() == 200) {
+                                requests.increment();
+                            } else {
+                                failures.increment();
+                            }
+                        } catch (Exception e) {
+                            failures.increment();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return new Result(requests.sum(), bytes.sum(), failures.sum(), Duration.ofNanos(System.nanoTime() - start), Duration.ofNanos(os.getProcessCpuTime() - startCpu));
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.mvysny.vaadinboot.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs the Vaadin Boot benchmarks. Run via <code>./gradlew benchmark:run --args="static-files"</code>; run without arguments
+ * to list all available benchmarks. Benchmarks Jetty by default; add <code>-Pbenchmark.server=tomcat</code> to benchmark Tomcat.
+ */
+public class Main {
+    @NotNull
+    private static Map<String, Callable<?>> benchmarks() {
+        final Map<String, Callable<?>> benchmarks = new LinkedHashMap<>();
+        benchmarks.put("static-files", new StaticFilesBenchmark());
+        benchmarks.put("compression", new CompressionBenchmark());
+        benchmarks.put("push", new PushBenchmark());
+        benchmarks.put("rate-limiter", new RateLimiterBenchmark());
+        benchmarks.put("http-presets", new HttpPresetBenchmark());
+        benchmarks.put("startup", new StartupBenchmark());
+        return benchmarks;
+    }
+
+    public static void main(@NotNull String[] args) throws Exception {
+        final Map<String, Callable<?>> benchmarks = benchmarks();
+        if (args.length == 0) {
+            System.out.println("Usage: ./gradlew benchmark:run --args=\"<benchmark>\"; available benchmarks: " + benchmarks.keySet());
+            return;
+        }
+        for (String arg : args) {
+            final Callable<?> benchmark = benchmarks.get(arg);
+            if (benchmark == null) {
+                throw new IllegalArgumentException("Parameter args: invalid value " + arg + ": no such benchmark; available benchmarks: " + benchmarks.keySet());
+            }
+            benchmark.call();
+        }
+        // Vaadin and the web server may leave non-daemon threads behind.
+        System.exit(0);
+    }
+}
@@ -0,0 +1,217 @@
+package com.github.mvysny.vaadinboot.benchmark;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the memory footprint of idle push WebSocket connections (see
+ * {@link com.github.mvysny.vaadinboot.common.VaadinBootBase#pushCompression(boolean)}): opens a Vaadin UI and a push
+ * connection per client, then measures how much memory the connections hold while idle.
+ * <br/>
+ * The clients are raw sockets, which offer permessage-deflate the same way browsers do; they barely take any memory
+ * in the JVM. The memory is measured twice: the Java heap plus direct buffers, and the resident set size of the process
+ * (Linux only) which also includes the native memory of the zlib deflaters and inflaters.
+ */
+public class PushBenchmark implements Callable<Void> {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(PushBenchmark.class);
+
+    private static final int CONNECTIONS = 1000;
+
+    @NotNull
+    private static final Pattern PUSH_ID = Pattern.compile("\"Vaadin-Push-ID\":\"([^\"]+)\"");
+    @NotNull
+    private static final Pattern SESSION_ID = Pattern.compile("JSESSIONID=([^;]+)");
+
+    @Override
+    public Void call() throws Exception {
+        benchmark("default", new VaadinBoot());
+        benchmark("no deflate", new VaadinBoot().pushCompression(false));
+        benchmark("no deflate, 4kb", new VaadinBoot().pushCompression(false).pushMaxMessageSize(4096));
+        return null;
+    }
+
+    /**
+     * A Vaadin UI with its push id.
+     * @param sessionId the session cookie.
+     * @param pushId the push id.
+     */
+    private record Client(@NotNull String sessionId, @NotNull String pushId) {
+    }
+
+    private static void benchmark(@NotNull String name, @NotNull VaadinBoot boot) throws Exception {
+        boot.withPort(0).localhostOnly().openBrowserInDevMode(false);
+        boot.start();
+        final List<Socket> sockets = new ArrayList<>();
+        try {
+            final List<Client> clients = openUIs(boot.getServerURL());
+            final Memory before = Memory.measure();
+            int deflate = 0;
+            for (Client client : clients) {
+                final Socket socket = new Socket("localhost", boot.getPort());
+                sockets.add(socket);
+                if (openPush(socket, client)) {
+                    deflate++;
+                }
+            }
+            // let the server settle down: Atmosphere sends the initial message to every connection.
+            Thread.sleep(2000);
+            final Memory after = Memory.measure();
+            log.info(String.format("%-16s %,8d heap+direct bytes/connection %,8d RSS bytes/connection (%d connections, %d with permessage-deflate)",
+                    name, (after.heapAndDirect() - before.heapAndDirect()) / CONNECTIONS,
+                    before.rss() < 0 ? -1 : (after.rss() - before.rss()) / CONNECTIONS, CONNECTIONS, deflate));
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            boot.stop("Benchmark done");
+        }
+    }
+
+    /**
+     * Opens {@link #CONNECTIONS} Vaadin UIs, each in its own session.
+     */
+    @NotNull
+    private static List<Client> openUIs(@NotNull String serverURL) throws Exception {
+        // no cookie handler: every request creates a new session
+        final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(serverURL + "/?v-r=init&location=")).build();
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            final List<Future<Client>> futures = new ArrayList<>();
+            for (int i = 0; i < CONNECTIONS; i++) {
+                futures.add(executor.submit(() -> {
+                    final HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() != 200) {
+                        throw new IOException("Failed to open the UI: " + response.statusCode() + " " + response.body());
+                    }
+                    return new Client(find(SESSION_ID, response.headers().firstValue("Set-Cookie").orElse("")), find(PUSH_ID, response.body()));
+                }));
+            }
+            final List<Client> clients = new ArrayList<>();
+            for (Future<Client> future : futures) {
+                clients.add(future.get());
+            }
+            return clients;
+        }
+    }
+
+    @NotNull
+    private static String find(@NotNull Pattern pattern, @NotNull String text) throws IOException {
+        final Matcher matcher = pattern.matcher(text);
+        if (!matcher.find()) {
+            throw new IOException("Failed to find " + pattern + " in " + text);
+        }
+        return matcher.group(1);
+    }
+
+    /**
+     * Opens the push WebSocket connection, offering permessage-deflate like the browsers do.
+     * @return true if the server accepted permessage-deflate.
+     */
+    private static boolean openPush(@NotNull Socket socket, @NotNull Client client) throws IOException {
+        final byte[] key = new byte[16];
+        new Random().nextBytes(key);
+        final String path = "/VAADIN/push?v-r=push&v-uiId=0&v-pushId=" + client.pushId()
+                + "&X-Atmosphere-tracking-id=0&X-Atmosphere-Framework=3.1.5-javascript&X-Atmosphere-Transport=websocket"
+                + "&X-Atmosphere-TrackMessageSize=true&Content-Type=" + URLEncoder.encode("application/json; charset=UTF-8", StandardCharsets.UTF_8)
+                + "&X-atmo-protocol=true";
+        final String handshake = "GET " + path + " HTTP/1.1\r\n"
+                + "Host: localhost:" + socket.getPort() + "\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Key: " + Base64.getEncoder().encodeToString(key) + "\r\n"
+                + "Sec-WebSocket-Version: 13\r\n"
+                + "Sec-WebSocket-Extensions: permessage-deflate; client_max_window_bits\r\n"
+                + "Cookie: JSESSIONID=" + client.sessionId() + "\r\n"
+                + "\r\n";
+        final OutputStream out = socket.getOutputStream();
+        out.write(handshake.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        final String response = readHeaders(socket.getInputStream());
+        if (!response.startsWith("HTTP/1.1 101")) {
+            throw new IOException("WebSocket upgrade failed: " + response);
+        }
+        return response.toLowerCase().contains("permessage-deflate");
+    }
+
+    /**
+     * Reads the HTTP response headers, leaving the WebSocket frames which may follow unread.
+     */
+    @NotNull
+    private static String readHeaders(@NotNull InputStream in) throws IOException {
+        final ByteArrayOutputStream headers = new ByteArrayOutputStream();
+        while (true) {
+            final int b = in.read();
+            if (b < 0) {
+                throw new IOException("Connection closed: " + headers.toString(StandardCharsets.US_ASCII));
+            }
+            headers.write(b);
+            if (headers.toString(StandardCharsets.US_ASCII).endsWith("\r\n\r\n")) {
+                return headers.toString(StandardCharsets.US_ASCII);
+            }
+        }
+    }
+
+    /**
+     * The memory used by the JVM.
+     * @param heapAndDirect the heap used after GC, plus the direct buffers, in bytes.
+     * @param rss the resident set size of the process in bytes; -1 if not available.
+     */
+    private record Memory(long heapAndDirect, long rss) {
+        @NotNull
+        static Memory measure() throws Exception {
+            for (int i = 0; i < 3; i++) {
+                System.gc();
+                Thread.sleep(200);
+            }
+            long used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+                if (pool.getName().equals("direct")) {
+                    used += pool.getMemoryUsed();
+                }
+            }
+            return new Memory(used, getRss());
+        }
+
+        private static long getRss() throws IOException {
+            final Path status = Path.of("/proc/self/status");
+            if (!Files.exists(status)) {
+                return -1;
+            }
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+            return -1;
+        }
+    }
+}
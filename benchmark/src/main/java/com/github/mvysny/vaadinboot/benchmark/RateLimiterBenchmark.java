@@ -0,0 +1,89 @@
+package com.github.mvysny.vaadinboot.benchmark;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import com.github.mvysny.vaadinboot.common.RateLimiter;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the throughput of the rate limiter (see {@link com.github.mvysny.vaadinboot.common.VaadinBootBase#rateLimit(int, int)})
+ * with a growing number of threads, to check that the limiter doesn't become a contention point. The limiter is called
+ * directly, without a web server.
+ * <br/>
+ * Two scenarios are measured: many clients, which spread over the lock stripes, and a single client hammering the limiter
+ * from all threads, the worst case with all threads contending for a single stripe.
+ */
+public class RateLimiterBenchmark implements Callable<Void> {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(RateLimiterBenchmark.class);
+
+    private static final int CLIENTS = 10_000;
+    @NotNull
+    private static final Duration WARMUP = Duration.ofSeconds(1);
+    @NotNull
+    private static final Duration MEASUREMENT = Duration.ofSeconds(3);
+
+    @Override
+    public Void call() throws Exception {
+        final String[] clients = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "10." + (i >> 16 & 0xFF) + "." + (i >> 8 & 0xFF) + "." + (i & 0xFF);
+        }
+        final int maxThreads = Runtime.getRuntime().availableProcessors() * 2;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            benchmark("many clients", clients, threads);
+        }
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            benchmark("single client", new String[]{clients[0]}, threads);
+        }
+        return null;
+    }
+
+    private static void benchmark(@NotNull String name, @NotNull String[] clients, int threads) throws Exception {
+        // the limits are high enough for nearly all requests to be allowed.
+        final RateLimiter limiter = new RateLimiter(new VaadinBoot().rateLimit(100_000_000, 100_000_000), () -> true);
+        run(limiter, clients, threads, WARMUP);
+        final long calls = run(limiter, clients, threads, MEASUREMENT);
+        final double callsPerSecond = calls * 1000d / MEASUREMENT.toMillis();
+        log.info(String.format("%-13s %3d threads %,14.0f calls/s %,8.1f ns/call per thread", name, threads, callsPerSecond,
+                threads * MEASUREMENT.toNanos() / (double) calls));
+    }
+
+    private static long run(@NotNull RateLimiter limiter, @NotNull String[] clients, int threads, @NotNull Duration duration) throws InterruptedException {
+        final LongAdder calls = new LongAdder();
+        final CountDownLatch start = new CountDownLatch(1);
+        final long deadline = System.nanoTime() + duration.toNanos();
+        final List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * 7919 % clients.length;
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long count = 0;
+                int index = offset;
+                while ((count & 0xFF) != 0 || System.nanoTime() < deadline) {
+                    limiter.tryAcquire(clients[index], false);
+                    index = index + 1 == clients.length ? 0 : index + 1;
+                    count++;
+                }
+                calls.add(count);
+            }));
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return calls.sum();
+    }
+}
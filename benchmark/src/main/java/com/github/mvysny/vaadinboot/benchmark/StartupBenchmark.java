@@ -0,0 +1,167 @@
+package com.github.mvysny.vaadinboot.benchmark;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compares the startup of the full web server against the minimal container (see
+ * {@link com.github.mvysny.vaadinboot.common.VaadinBootBase#minimalContainer(boolean)}) and the flat classloader (see
+ * {@link com.github.mvysny.vaadinboot.common.VaadinBootBase#flatClassLoader(boolean)}). Every startup runs in a fresh JVM, since
+ * the classes loaded by the previous startup would make the next one faster; reports the medians of the time
+ * {@link VaadinBoot#start()} took, the number of classes loaded by the JVM once the app is up, the metaspace used, the
+ * time the JVM spent loading classes (as reported by <code>jstat -class</code>; -1 if the JVM comes without <code>jstat</code>)
+ * and the resident set size of the JVM process (-1 outside Linux).
+ * <br/>
+ * The child JVMs run on the same Java runtime as the benchmark, unless the <code>benchmark.javaHome</code> system property
+ * points to another one, e.g. to the trimmed runtime built by the <code>jlinkImage</code> task.
+ */
+public class StartupBenchmark implements Callable<Void> {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(StartupBenchmark.class);
+
+    private static final int ITERATIONS = 7;
+    @NotNull
+    private static final String RESULT_PREFIX = "startup-result:";
+
+    /**
+     * The configurations to compare: name to the configuration.
+     */
+    @NotNull
+    private static final Map<String, UnaryOperator<VaadinBoot>> MODES = new LinkedHashMap<>();
+
+    static {
+        MODES.put("default", boot -> boot);
+        MODES.put("minimal", boot -> boot.minimalContainer(true));
+        MODES.put("flat", boot -> boot.flatClassLoader(true));
+    }
+
+    @Override
+    public Void call() throws Exception {
+        log.info("Running the app on " + getJava());
+        for (String mode : MODES.keySet()) {
+            final List<long[]> results = new ArrayList<>();
+            for (int i = 0; i < ITERATIONS; i++) {
+                results.add(runChild(mode));
+            }
+            log.info(String.format("%-8s startup %,6d ms, %,6d classes loaded, metaspace %,7d KB, class loading %,6d ms, RSS %,7d KB (median of %d JVMs)", mode,
+                    median(results, 0), median(results, 1), median(results, 2) / 1024, median(results, 3), median(results, 4) / 1024, ITERATIONS));
+        }
+        return null;
+    }
+
+    private static long median(@NotNull List<long[]> results, int index) {
+        return results.stream().mapToLong(it -> it[index]).sorted().toArray()[results.size() / 2];
+    }
+
+    /**
+     * The <code>java</code> executable to run the app on.
+     * @return the executable of the <code>benchmark.javaHome</code> runtime if set, this JVM's executable otherwise.
+     */
+    @NotNull
+    private static String getJava() {
+        final String javaHome = System.getProperty("benchmark.javaHome");
+        return javaHome == null ? ProcessHandle.current().info().command().orElseThrow() : Path.of(javaHome, "bin", "java").toString();
+    }
+
+    /**
+     * Starts the app in a fresh JVM, with the same classpath and JVM arguments as this one.
+     * @param mode one of {@link #MODES}.
+     * @return the startup time in milliseconds, the number of classes loaded, the metaspace used in bytes, the class loading
+     * time in milliseconds and the resident set size in bytes.
+     */
+    @NotNull
+    private static long[] runChild(@NotNull String mode) throws Exception {
+        final List<String> command = new ArrayList<>();
+        command.add(getJava());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), StartupBenchmark.class.getName(), mode));
+        final Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        String result = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    result = line.substring(RESULT_PREFIX.length());
+                }
+            }
+        }
+        if (process.waitFor() != 0 || result == null) {
+            throw new IllegalStateException("Invalid state: the " + mode + " startup failed with exit code " + process.exitValue());
+        }
+        return Arrays.stream(result.split(",")).mapToLong(Long::parseLong).toArray();
+    }
+
+    /**
+     * Returns the time this JVM spent loading classes, via <code>jstat -class</code>.
+     * @return the time in milliseconds, -1 if <code>jstat</code> isn't available.
+     */
+    private static long getClassLoadingMillis() throws Exception {
+        final Path jstat = Path.of(System.getProperty("java.home"), "bin", "jstat");
+        if (!Files.isExecutable(jstat)) {
+            return -1;
+        }
+        final Process process = new ProcessBuilder(jstat.toString(), "-class", String.valueOf(ProcessHandle.current().pid()))
+                .redirectErrorStream(true).start();
+        final List<String> lines = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        if (process.waitFor() != 0 || lines.size() < 2) {
+            return -1;
+        }
+        // Loaded Bytes Unloaded Bytes Time; the time is in seconds.
+        final String[] columns = lines.get(1).trim().split("\\s+");
+        return Math.round(Double.parseDouble(columns[columns.length - 1]) * 1000);
+    }
+
+    /**
+     * Returns the resident set size of this JVM process: the heap, the metaspace, the code cache, the thread stacks and
+     * the mapped runtime image actually held in memory.
+     * @return the RSS in bytes, -1 if <code>/proc</code> isn't available.
+     */
+    private static long getRss() throws IOException {
+        final Path status = Path.of("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        // VmRSS:    123456 kB
+        return Files.readAllLines(status).stream()
+                .filter(it -> it.startsWith("VmRSS:"))
+                .mapToLong(it -> Long.parseLong(it.replaceAll("\\D", "")) * 1024)
+                .findFirst().orElse(-1);
+    }
+
+    /**
+     * Runs in the child JVM: starts the app, prints the result and exits.
+     * @param args one of {@link #MODES}.
+     */
+    public static void main(@NotNull String[] args) throws Exception {
+        final VaadinBoot boot = MODES.get(args[0]).apply(new VaadinBoot())
+                .withPort(0).localhostOnly().openBrowserInDevMode(false);
+        final long start = System.nanoTime();
+        boot.start();
+        final long startupMillis = (System.nanoTime() - start) / 1_000_000;
+        final int loadedClasses = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+        final long metaspace = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(it -> it.getName().equals("Metaspace"))
+                .mapToLong(it -> it.getUsage().getUsed())
+                .sum();
+        System.out.println(RESULT_PREFIX + startupMillis + "," + loadedClasses + "," + metaspace + "," + getClassLoadingMillis() + "," + getRss());
+        boot.stop("Benchmark done");
+        // Vaadin and the web server may leave non-daemon threads behind.
+        System.exit(0);
+    }
+}
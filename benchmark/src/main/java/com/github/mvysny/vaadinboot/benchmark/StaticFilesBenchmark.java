@@ -0,0 +1,93 @@
+package com.github.mvysny.vaadinboot.benchmark;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import com.github.mvysny.vaadinboot.common.Env;
+import com.github.mvysny.vaadinboot.common.Util;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+/**
+ * Measures the throughput of serving large static files (fonts, JavaScript bundles) from the <code>/webapp</code> folder:
+ * first served by Vaadin's servlet, then served by the web server's default servlet with zero copying
+ * (see {@link com.github.mvysny.vaadinboot.common.VaadinBootBase#zeroCopyStaticPaths(String...)}).
+ */
+public class StaticFilesBenchmark implements Callable<Void> {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(StaticFilesBenchmark.class);
+
+    /**
+     * The files to generate into <code>/webapp/bench</code>: file name to file size.
+     */
+    @NotNull
+    private static final Map<String, Integer> FILES = Map.of("font.woff2", 200 * 1024, "bundle.js", 4 * 1024 * 1024);
+
+    private static final int CLIENTS = 16;
+    @NotNull
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    @NotNull
+    private static final Duration MEASUREMENT = Duration.ofSeconds(10);
+
+    @Override
+    public Void call() throws Exception {
+        generateFiles();
+        benchmark("served by Vaadin", new VaadinBoot());
+        benchmark("zero-copy", new VaadinBoot().zeroCopyStaticPaths("/bench/*"));
+        return null;
+    }
+
+    /**
+     * Generates {@link #FILES} into the <code>/webapp/bench</code> folder.
+     */
+    private static void generateFiles() throws IOException {
+        final Path bench = getBenchFolder();
+        final Random random = new Random(0);
+        for (Map.Entry<String, Integer> file : FILES.entrySet()) {
+            // random bytes are incompressible, like fonts and minified bundles mostly are.
+            final byte[] content = new byte[file.getValue()];
+            random.nextBytes(content);
+            Files.write(bench.resolve(file.getKey()), content);
+        }
+    }
+
+    /**
+     * Returns the <code>/webapp/bench</code> folder where the benchmarks generate the files to serve. Only works when the
+     * benchmark runs from the exploded build, e.g. via <code>./gradlew benchmark:run</code>.
+     * @return the folder, created if it doesn't exist.
+     * @throws IOException on i/o error.
+     */
+    @NotNull
+    static Path getBenchFolder() throws IOException {
+        final File webRoot = Util.toFile(Env.findWebRoot());
+        if (webRoot == null) {
+            throw new IllegalStateException("Invalid state: the /webapp folder isn't served from a folder; run the benchmark via ./gradlew benchmark:run");
+        }
+        final Path bench = webRoot.toPath().resolve("bench");
+        Files.createDirectories(bench);
+        return bench;
+    }
+
+    private static void benchmark(@NotNull String name, @NotNull VaadinBoot boot) throws Exception {
+        boot.withPort(0).localhostOnly().openBrowserInDevMode(false);
+        boot.start();
+        try {
+            for (String file : FILES.keySet()) {
+                final URI uri = URI.create(boot.getServerURL() + "/bench/" + file);
+                LoadGenerator.run(uri, CLIENTS, WARMUP);
+                log.info(String.format("%-16s %-12s %s", name, file, LoadGenerator.run(uri, CLIENTS, MEASUREMENT)));
+            }
+        } finally {
+            boot.stop("Benchmark done");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import java.io.ByteArrayOutputStream
+import java.lang.module.ModuleFinder
+
+// Adds the jlink tasks to an app with the `application` plugin: `jdepsModules` computes the JDK modules the app needs,
+// `jlinkImage` builds a Java runtime with just those modules.
+// Run `./gradlew <app>:jlinkImage -Pvaadin.productionMode`; add `-Pjlink.cds` to include the default CDS archive
+// of the JDK classes, and `-Pjlink.addModules=jdk.localedata,...` for the modules the app loads reflectively.
+
+plugins {
+    java
+}
+
+val jlinkDir = layout.buildDirectory.dir("jlink")
+val modulesFile = jlinkDir.map { it.file("modules.txt") }
+// the JDK running Gradle builds the runtime.
+val jdkBin = File(System.getProperty("java.home"), "bin")
+val addModules = findProperty("jlink.addModules")?.toString()?.split(",") ?: listOf()
+val cds = hasProperty("jlink.cds")
+
+// jdeps can't see the modules loaded as services: Jetty and Tomcat serve the resources packaged in jars via the
+// zip file system, and TLS needs the elliptic curve ciphers. Only the modules which still provide a service in the JDK
+// running Gradle are added: JDK 22+ ships the elliptic curve ciphers in java.base, leaving jdk.crypto.ec empty.
+val serviceModules = listOf("jdk.zipfs", "jdk.crypto.ec").filter { name ->
+    ModuleFinder.ofSystem().find(name).map { it.descriptor().provides().isNotEmpty() }.orElse(false)
+}
+
+val jdepsModules = tasks.register<Exec>("jdepsModules") {
+    description = "Computes the JDK modules the app needs, into build/jlink/modules.txt"
+    val jars = files(tasks.named("jar"), configurations.named("runtimeClasspath"))
+    inputs.files(jars)
+    inputs.property("serviceModules", serviceModules)
+    inputs.property("addModules", addModules)
+    outputs.file(modulesFile)
+    val output = ByteArrayOutputStream()
+    standardOutput = output
+    executable = File(jdkBin, "jdeps").absolutePath
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf("--ignore-missing-deps", "--print-module-deps", "--multi-release", JavaVersion.current().majorVersion) +
+                jars.filter { it.name.endsWith(".jar") }.map { it.absolutePath }
+    })
+    doLast {
+        val modules = output.toString().trim().split(",") + serviceModules + addModules
+        modulesFile.get().asFile.writeText(modules.map { it.trim() }.filter { it.isNotEmpty() }.distinct().sorted().joinToString(",") + "\n")
+    }
+}
+
+tasks.register<Exec>("jlinkImage") {
+    description = "Builds a Java runtime with just the JDK modules the app needs, into build/jlink/image"
+    val image = jlinkDir.map { it.dir("image") }
+    inputs.file(modulesFile)
+    inputs.property("cds", cds)
+    outputs.dir(image)
+    dependsOn(jdepsModules)
+    executable = File(jdkBin, "jlink").absolutePath
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf("--add-modules", modulesFile.get().asFile.readText().trim(),
+                "--strip-debug", "--no-header-files", "--no-man-pages", "--compress=zip-6",
+                "--output", image.get().asFile.absolutePath) +
+                (if (cds) listOf("--generate-cds-archive") else listOf())
+    })
+    doFirst {
+        // jlink refuses to overwrite the previous image.
+        delete(image)
+    }
+}
@@ -8,9 +8,14 @@ dependencies {
 
     // opens url in a browser
     implementation(libs.vaadin.open)
+    // the servlet filters; the Servlet API itself is provided by the web server.
+    compileOnly(libs.jakarta.servlet.api)
+    // the session lock profiler; the app provides Vaadin at runtime.
+    compileOnly(libs.vaadin.core)
 
     testImplementation(libs.slf4j.simple)
     testImplementation(libs.junit)
+    testImplementation(libs.jakarta.servlet.api)
     testImplementation(libs.vaadin.core)
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
@@ -0,0 +1,446 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The asynchronous access log, shared by all web servers; see {@link VaadinBootBase#accessLog(java.io.File)}.
+ * Only {@link #getDroppedEntries()} and {@link #getWrittenEntries()} are meant to be called by the app; the rest is
+ * internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * The request threads never block and never do any i/o: {@link #log} claims a slot of a preallocated ring buffer
+ * with a single CAS and fills it in. A background writer thread drains the ring buffer in batches, formats the entries
+ * and writes every batch to the file with a single gathering write. When the ring buffer is full, the entry is dropped and counted.
+ * <br/>
+ * The file is rotated when it grows over the max size or when the rotation interval elapses: it's renamed to
+ * <code>access.log.2024-01-31-101530</code> and a new file is started. Rotated files are never deleted.
+ */
+public final class AccessLog implements Closeable {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(AccessLog.class);
+
+    /**
+     * The writer thread formats and writes at most this many entries at once.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * How long the writer thread sleeps when there's nothing to write.
+     */
+    private static final long IDLE_PARK_NANOS = Duration.ofMillis(50).toNanos();
+
+    /**
+     * {@link #close()} adds this to {@link #tail}: the request threads which haven't claimed a slot yet see a position
+     * at least this large, and drop the entry.
+     */
+    private static final long SEALED = 1L << 62;
+
+    @NotNull
+    private static final DateTimeFormatter ROTATED_SUFFIX = DateTimeFormatter.ofPattern("yyyy-MM-dd-HHmmss").withZone(ZoneOffset.UTC);
+
+    /**
+     * A ring buffer slot, reused over and over. The fields are written by a request thread and read by the writer
+     * thread; the volatile {@link #sequence} publishes them.
+     */
+    private static final class Entry {
+        /**
+         * Equals to the ring position when the slot is free for the producer at that position;
+         * equals to the position + 1 when the entry at that position has been filled in.
+         */
+        volatile long sequence;
+        long timestamp;
+        String remoteAddress;
+        String method;
+        String path;
+        String query;
+        String protocol;
+        int status;
+        long bytes;
+        long serviceTimeNanos;
+        String userAgent;
+
+        Entry(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    @NotNull
+    private final Path file;
+    @NotNull
+    private final List<AccessLogField> fields;
+    private final long maxFileSize;
+    @Nullable
+    private final Duration rotationInterval;
+
+    @NotNull
+    private final Entry[] ring;
+    private final int mask;
+    /**
+     * The next position to be claimed by a request thread; {@link #SEALED} or larger once {@link #close()} has been called.
+     */
+    @NotNull
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * The next position to be drained by the writer thread. Only accessed by the writer thread.
+     */
+    private long head = 0;
+
+    @NotNull
+    private final LongAdder dropped = new LongAdder();
+    @NotNull
+    private final LongAdder written = new LongAdder();
+
+    // the following fields are only accessed by the writer thread.
+    @NotNull
+    private FileChannel channel;
+    private long fileSize;
+    private long nextRotation;
+    @NotNull
+    private final StringBuilder line = new StringBuilder(256);
+    @NotNull
+    private final ByteBuffer[] buffers = new ByteBuffer[BATCH_SIZE];
+    @NotNull
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    private volatile boolean closed = false;
+    @NotNull
+    private final Thread writer;
+
+    private AccessLog(@NotNull Path file, @NotNull List<AccessLogField> fields, int capacity, long maxFileSize, @Nullable Duration rotationInterval) throws IOException {
+        this.file = file;
+        this.fields = List.copyOf(fields);
+        this.maxFileSize = maxFileSize;
+        this.rotationInterval = rotationInterval;
+        ring = new Entry[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Entry(i);
+        }
+        mask = capacity - 1;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.allocate(256);
+        }
+        channel = openFile();
+        writer = new Thread(this::writeLoop, "vaadin-boot-access-log");
+        writer.setDaemon(true);
+    }
+
+    /**
+     * Opens the access log and starts the writer thread.
+     * @param configuration the configuration; {@link VaadinBootBase#getAccessLogFile()} must not be null.
+     * @return the access log, not null. Close it when the web server stops.
+     * @throws IOException if the log file can't be opened.
+     */
+    @NotNull
+    public static AccessLog open(@NotNull VaadinBootBase<?> configuration) throws IOException {
+        final Path file = Util.checkNotNull(configuration.getAccessLogFile(), "access log not configured").toPath().toAbsolutePath();
+        final AccessLog accessLog = new AccessLog(file, configuration.getAccessLogFields(), configuration.getAccessLogBufferSize(),
+                configuration.getAccessLogMaxFileSize(), configuration.getAccessLogRotationInterval());
+        accessLog.writer.start();
+        log.info("Writing access log to " + file);
+        return accessLog;
+    }
+
+    /**
+     * Enqueues an access log entry. Never blocks: drops the entry if the ring buffer is full.
+     * Called by the web servers, once the response has been completed.
+     * @param remoteAddress the IP address of the client.
+     * @param method the HTTP method.
+     * @param path the request path.
+     * @param query the query string, without the leading <code>?</code>; null if there is none.
+     * @param protocol the protocol, e.g. <code>HTTP/1.1</code>.
+     * @param status the response status code.
+     * @param bytes the number of response body bytes sent.
+     * @param serviceTimeNanos how long the request took to serve, in nanoseconds.
+     * @param userAgent the <code>User-Agent</code> header, may be null.
+     * @return true if the entry has been enqueued, false if it has been dropped.
+     */
+    public boolean log(@Nullable String remoteAddress, @Nullable String method, @Nullable String path, @Nullable String query,
+                       @Nullable String protocol, int status, long bytes, long serviceTimeNanos, @Nullable String userAgent) {
+        if (closed) {
+            dropped.increment();
+            return false;
+        }
+        long position = tail.get();
+        while (true) {
+            if (position >= SEALED) {
+                // closed while this thread was claiming a slot.
+                dropped.increment();
+                return false;
+            }
+            final Entry entry = ring[(int) (position & mask)];
+            final long difference = entry.sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    entry.timestamp = System.currentTimeMillis();
+                    entry.remoteAddress = remoteAddress;
+                    entry.method = method;
+                    entry.path = path;
+                    entry.query = query;
+                    entry.protocol = protocol;
+                    entry.status = status;
+                    entry.bytes = bytes;
+                    entry.serviceTimeNanos = serviceTimeNanos;
+                    entry.userAgent = userAgent;
+                    entry.sequence = position + 1;
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // the writer thread hasn't drained this slot yet: the ring buffer is full.
+                dropped.increment();
+                return false;
+            } else {
+                // another request thread claimed this position in the meantime.
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * The number of entries dropped because the ring buffer was full, or because the log file couldn't be written.
+     * @return the number of dropped entries.
+     */
+    public long getDroppedEntries() {
+        return dropped.sum();
+    }
+
+    /**
+     * The number of entries written to the log file.
+     * @return the number of written entries.
+     */
+    public long getWrittenEntries() {
+        return written.sum();
+    }
+
+    private void writeLoop() {
+        while (true) {
+            final boolean closing = closed;
+            final int count = drainBatch();
+            if (count > 0) {
+                writeBatch(count);
+            } else if (closing) {
+                break;
+            } else {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Formats up to {@link #BATCH_SIZE} entries into {@link #buffers} and frees their slots.
+     * @return the number of formatted entries.
+     */
+    private int drainBatch() {
+        int count = 0;
+        while (count < BATCH_SIZE) {
+            final Entry entry = ring[(int) (head & mask)];
+            if (entry.sequence != head + 1) {
+                break;
+            }
+            line.setLength(0);
+            format(entry, line);
+            buffers[count] = encode(line, buffers[count]);
+            entry.remoteAddress = entry.method = entry.path = entry.query = entry.protocol = entry.userAgent = null;
+            entry.sequence = head + ring.length;
+            head++;
+            count++;
+        }
+        return count;
+    }
+
+    @NotNull
+    private ByteBuffer encode(@NotNull CharSequence line, @NotNull ByteBuffer buffer) {
+        while (true) {
+            buffer.clear();
+            encoder.reset();
+            final CoderResult result = encoder.encode(CharBuffer.wrap(line), buffer, true);
+            if (!result.isOverflow()) {
+                encoder.flush(buffer);
+                buffer.flip();
+                return buffer;
+            }
+            buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+        }
+    }
+
+    private void writeBatch(int count) {
+        try {
+            rotateIfNeeded();
+            long remaining = 0;
+            for (int i = 0; i < count; i++) {
+                remaining += buffers[i].remaining();
+            }
+            final long size = remaining;
+            while (remaining > 0) {
+                remaining -= channel.write(buffers, 0, count);
+            }
+            fileSize += size;
+            written.add(count);
+        } catch (IOException e) {
+            dropped.add(count);
+            log.error("Failed to write access log " + file + ": " + e, e);
+        }
+    }
+
+    private void rotateIfNeeded() throws IOException {
+        final boolean sizeExceeded = maxFileSize > 0 && fileSize >= maxFileSize;
+        final boolean intervalElapsed = rotationInterval != null && System.currentTimeMillis() >= nextRotation;
+        if (!sizeExceeded && !intervalElapsed) {
+            return;
+        }
+        if (fileSize == 0) {
+            // nothing to rotate yet.
+            scheduleNextRotation();
+            return;
+        }
+        channel.close();
+        final String prefix = file.getFileName() + "." + ROTATED_SUFFIX.format(Instant.now());
+        Path rotated = file.resolveSibling(prefix);
+        for (int i = 1; Files.exists(rotated); i++) {
+            rotated = file.resolveSibling(prefix + "." + i);
+        }
+        Files.move(file, rotated);
+        channel = openFile();
+    }
+
+    @NotNull
+    private FileChannel openFile() throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        final FileChannel result = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileSize = result.size();
+        scheduleNextRotation();
+        return result;
+    }
+
+    private void scheduleNextRotation() {
+        nextRotation = rotationInterval == null ? Long.MAX_VALUE : System.currentTimeMillis() + rotationInterval.toMillis();
+    }
+
+    private void format(@NotNull Entry entry, @NotNull StringBuilder sb) {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            switch (fields.get(i)) {
+                case TIME -> sb.append(Instant.ofEpochMilli(entry.timestamp));
+                case REMOTE_ADDRESS -> appendOrDash(sb, entry.remoteAddress);
+                case METHOD -> appendOrDash(sb, entry.method);
+                case URI -> {
+                    appendOrDash(sb, entry.path);
+                    if (entry.query != null) {
+                        sb.append('?').append(entry.query);
+                    }
+                }
+                case PROTOCOL -> appendOrDash(sb, entry.protocol);
+                case STATUS -> sb.append(entry.status);
+                case BYTES -> sb.append(entry.bytes);
+                case SERVICE_TIME -> {
+                    final long micros = entry.serviceTimeNanos / 1000;
+                    sb.append(micros / 1000).append('.');
+                    final long fraction = micros % 1000;
+                    if (fraction < 100) {
+                        sb.append(fraction < 10 ? "00" : "0");
+                    }
+                    sb.append(fraction);
+                }
+                case VAADIN_REQUEST_TYPE -> appendOrDash(sb, getVaadinRequestType(entry.query));
+                case USER_AGENT -> {
+                    if (entry.userAgent == null) {
+                        sb.append('-');
+                    } else {
+                        sb.append('"').append(entry.userAgent.replace('"', '\'')).append('"');
+                    }
+                }
+            }
+        }
+        sb.append('\n');
+    }
+
+    private static void appendOrDash(@NotNull StringBuilder sb, @Nullable String value) {
+        sb.append(value == null || value.isEmpty() ? "-" : value);
+    }
+
+    /**
+     * Returns the value of the <code>v-r</code> query parameter.
+     * @param query the query string, may be null.
+     * @return the Vaadin request type, e.g. <code>uidl</code>; null if the query doesn't contain the <code>v-r</code> parameter.
+     */
+    @Nullable
+    static String getVaadinRequestType(@Nullable String query) {
+        if (query == null) {
+            return null;
+        }
+        int start = 0;
+        while (start < query.length()) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = query.length();
+            }
+            if (query.startsWith("v-r=", start)) {
+                return query.substring(start + 4, end);
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+
+    /**
+     * Stops accepting new entries, writes the enqueued entries and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        final long end = tail.getAndAdd(SEALED);
+        LockSupport.unpark(writer);
+        // the writer thread only has the enqueued entries left to write; wait for it, so that the two never drain concurrently.
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        // the entries claimed right before sealing may have been filled in after the writer thread's final drain.
+        while (head < end) {
+            final int count = drainBatch();
+            if (count > 0) {
+                writeBatch(count);
+            } else {
+                // a claimed slot is filled in by a handful of assignments.
+                Thread.onSpinWait();
+            }
+        }
+        channel.close();
+        if (getDroppedEntries() > 0) {
+            log.warn("Access log dropped " + getDroppedEntries() + " entries; consider increasing the access log buffer size");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.mvysny.vaadinboot.common;
+
+/**
+ * A field of an access log line, see {@link VaadinBootBase#accessLogFields(AccessLogField...)}. The fields are
+ * separated by a space; missing values are logged as <code>-</code>.
+ */
+public enum AccessLogField {
+    /**
+     * The time the response was completed, as an ISO-8601 instant, e.g. <code>2024-01-31T10:15:30.123Z</code>.
+     */
+    TIME,
+    /**
+     * The IP address of the client.
+     */
+    REMOTE_ADDRESS,
+    /**
+     * The HTTP method, e.g. <code>GET</code>.
+     */
+    METHOD,
+    /**
+     * The request path including the query string, e.g. <code>/?v-r=uidl&amp;v-uiId=0</code>.
+     */
+    URI,
+    /**
+     * The protocol, e.g. <code>HTTP/1.1</code>.
+     */
+    PROTOCOL,
+    /**
+     * The HTTP status code of the response.
+     */
+    STATUS,
+    /**
+     * The number of response body bytes sent.
+     */
+    BYTES,
+    /**
+     * How long the server took to serve the request, in milliseconds with microsecond precision, e.g. <code>12.345</code>.
+     */
+    SERVICE_TIME,
+    /**
+     * The type of the Vaadin request, taken from the <code>v-r</code> query parameter: <code>uidl</code>,
+     * <code>heartbeat</code>, <code>push</code>, <code>init</code> etc; <code>-</code> for other requests such as static files.
+     */
+    VAADIN_REQUEST_TYPE,
+    /**
+     * The <code>User-Agent</code> request header, quoted.
+     */
+    USER_AGENT
+}
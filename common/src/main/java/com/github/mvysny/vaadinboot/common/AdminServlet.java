@@ -0,0 +1,179 @@
+package com.github.mvysny.vaadinboot.common;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadInfo;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Serves the admin endpoints on the admin port, see {@link VaadinBootBase#adminPort(Integer)}.
+ * Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * The web servers run the servlet in a context of its own, with no sessions, on a connector with its own small thread
+ * pool: the endpoints respond even when the app's thread pool is saturated, and the app can't be reached via the admin port.
+ * The servlet serves:
+ * <ul>
+ *     <li><code>/live</code>: 200 while the web server runs, for the liveness probe;</li>
+ *     <li><code>/ready</code>: 200 once the app is {@link VaadinBootBase#isReady() ready}, 503 otherwise, for the readiness probe;</li>
+ *     <li><code>/metrics</code>: the JVM and Vaadin Boot metrics, in the Prometheus text format;</li>
+ *     <li><code>/threads</code>: the thread dump;</li>
+ *     <li><code>/pinning</code> and <code>/session-lock</code>: the virtual thread pinning and session lock reports, if enabled.</li>
+ * </ul>
+ */
+public final class AdminServlet extends HttpServlet {
+    @NotNull
+    private final VaadinBootBase<?> configuration;
+
+    /**
+     * Creates the servlet.
+     * @param configuration the configuration, to obtain the readiness and the running services from.
+     */
+    public AdminServlet(@NotNull VaadinBootBase<?> configuration) {
+        this.configuration = configuration;
+    }
+
+    @Override
+    protected void doGet(@NotNull HttpServletRequest req, @NotNull HttpServletResponse resp) throws IOException {
+        final String body;
+        int status = HttpServletResponse.SC_OK;
+        switch (req.getRequestURI()) {
+            case "/live" -> body = "live";
+            case "/ready" -> {
+                final boolean ready = configuration.isReady();
+                status = ready ? HttpServletResponse.SC_OK : HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+                body = ready ? "ready" : "not ready";
+            }
+            case "/metrics" -> body = getMetrics();
+            case "/threads" -> body = getThreadDump();
+            case "/pinning" -> {
+                final PinningMonitor pinningMonitor = configuration.getPinningMonitor();
+                body = pinningMonitor == null ? null : pinningMonitor.getReport().toString();
+            }
+            case "/session-lock" -> {
+                final SessionLockProfiler sessionLockProfiler = configuration.getSessionLockProfiler();
+                body = sessionLockProfiler == null ? null : sessionLockProfiler.getReport().toString();
+            }
+            default -> body = null;
+        }
+        if (body == null) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        resp.setStatus(status);
+        resp.setHeader("Cache-Control", "no-store");
+        resp.setContentType(req.getRequestURI().equals("/metrics") ? "text/plain;version=0.0.4;charset=UTF-8" : "text/plain;charset=UTF-8");
+        resp.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the metrics in the Prometheus text format.
+     * @return the metrics, not null.
+     */
+    @NotNull
+    String getMetrics() {
+        final Metrics metrics = new Metrics();
+        metrics.gauge("vaadin_boot_ready", "1 if the app is ready to serve the users", configuration.isReady() ? 1 : 0);
+        metrics.gauge("vaadin_boot_uptime_seconds", "The JVM uptime", ManagementFactory.getRuntimeMXBean().getUptime() / 1000d);
+        final MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        metrics.gauge("jvm_memory_heap_used_bytes", "The used heap memory", heap.getUsed());
+        metrics.gauge("jvm_memory_heap_max_bytes", "The maximum heap memory", heap.getMax());
+        metrics.gauge("jvm_threads_live", "The live platform threads", ManagementFactory.getThreadMXBean().getThreadCount());
+        final AccessLog accessLog = configuration.getAccessLog();
+        if (accessLog != null) {
+            metrics.counter("vaadin_boot_access_log_written_total", "The access log entries written", accessLog.getWrittenEntries());
+            metrics.counter("vaadin_boot_access_log_dropped_total", "The access log entries dropped", accessLog.getDroppedEntries());
+        }
+        final SlowRequestWatchdog slowRequestWatchdog = configuration.getSlowRequestWatchdog();
+        if (slowRequestWatchdog != null) {
+            metrics.gauge("vaadin_boot_requests_in_flight", "The requests being served", slowRequestWatchdog.getInFlightRequests());
+        }
+        final PinningMonitor pinningMonitor = configuration.getPinningMonitor();
+        if (pinningMonitor != null) {
+            final PinningMonitor.Report report = pinningMonitor.getReport();
+            metrics.counter("vaadin_boot_pinned_total", "The virtual thread pinnings longer than the threshold", report.pinnedCount());
+            metrics.counter("vaadin_boot_pinned_seconds_total", "The time the carrier threads were pinned", report.totalPinned().toNanos() / 1e9);
+        }
+        final SessionSerialDispatcher sessionSerialDispatcher = configuration.getSessionSerialDispatcher();
+        if (sessionSerialDispatcher != null) {
+            final SessionSerialDispatcher.Statistics statistics = sessionSerialDispatcher.getStatistics();
+            metrics.gauge("vaadin_boot_session_queue_requests", "The requests waiting in the session queues", statistics.queuedRequests());
+            metrics.counter("vaadin_boot_session_queue_rejected_total", "The requests rejected since their session queue was full", statistics.rejectedRequests());
+        }
+        final RateLimiter rateLimiter = configuration.getRateLimiter();
+        if (rateLimiter != null) {
+            final RateLimiter.Statistics statistics = rateLimiter.getStatistics();
+            metrics.gauge("vaadin_boot_rate_limiter_clients", "The clients tracked by the rate limiter", statistics.clients());
+            metrics.counter("vaadin_boot_rate_limiter_allowed_total", "The requests let through by the rate limiter", statistics.allowedRequests());
+            metrics.counter("vaadin_boot_rate_limiter_rejected_total", "The requests rejected by the request rate limit", statistics.rejectedRequests());
+            metrics.counter("vaadin_boot_rate_limiter_rejected_sessions_total", "The requests rejected by the session rate limit", statistics.rejectedNewSessions());
+        }
+        final ConcurrencyLimiter concurrencyLimiter = configuration.getConcurrencyLimiter();
+        if (concurrencyLimiter != null) {
+            final ConcurrencyLimiter.Statistics statistics = concurrencyLimiter.getStatistics();
+            metrics.gauge("vaadin_boot_concurrency_limit", "The current concurrency limit", statistics.limit());
+            metrics.gauge("vaadin_boot_concurrency_in_flight", "The requests being served", statistics.inFlight());
+            metrics.gauge("vaadin_boot_concurrency_queue_length", "The requests waiting for the concurrency limit", statistics.queueLength());
+            metrics.counter("vaadin_boot_concurrency_shed_total", "The requests shed by the concurrency limiter", statistics.shedRequests());
+        }
+        return metrics.toString();
+    }
+
+    /**
+     * Builds the Prometheus text format.
+     */
+    private static final class Metrics {
+        @NotNull
+        private final StringBuilder sb = new StringBuilder();
+
+        void gauge(@NotNull String name, @NotNull String help, double value) {
+            add(name, help, "gauge", value);
+        }
+
+        void counter(@NotNull String name, @NotNull String help, double value) {
+            add(name, help, "counter", value);
+        }
+
+        private void add(@NotNull String name, @NotNull String help, @NotNull String type, double value) {
+            sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+            sb.append(name).append(' ');
+            if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                sb.append((long) value);
+            } else {
+                sb.append(String.format(Locale.ROOT, "%.6f", value));
+            }
+            sb.append('\n');
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Returns the stack traces of all platform threads. The virtual threads aren't listed; use
+     * <code>jcmd &lt;pid&gt; Thread.dump_to_file</code> to dump them as well.
+     * @return the thread dump, not null.
+     */
+    @NotNull
+    private static String getThreadDump() {
+        final StringBuilder sb = new StringBuilder();
+        for (ThreadInfo info : ManagementFactory.getThreadMXBean().dumpAllThreads(false, false, Integer.MAX_VALUE)) {
+            sb.append('"').append(info.getThreadName()).append("\" #").append(info.getThreadId())
+                    .append(info.isDaemon() ? " daemon" : "").append(' ').append(info.getThreadState()).append('\n');
+            for (StackTraceElement element : info.getStackTrace()) {
+                sb.append("\tat ").append(element).append('\n');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watches the compiled classes folders for changes and invokes a callback once the changes settle down.
+ * Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * The IDE or the build tool typically writes many class files in a quick succession; the callback is therefore
+ * only invoked after no change has been observed for {@link #QUIET_PERIOD}.
+ */
+public final class ClassesWatcher implements Closeable {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(ClassesWatcher.class);
+
+    /**
+     * Wait for this long after the last observed change, before invoking the callback.
+     */
+    @NotNull
+    private static final Duration QUIET_PERIOD = Duration.ofMillis(500);
+
+    @NotNull
+    private final WatchService watchService;
+    @NotNull
+    private final Runnable onChange;
+    @NotNull
+    private final Thread thread;
+
+    /**
+     * Starts watching given folders, including all subfolders. Jar files are ignored.
+     * @param classesJarOrFolders the folders to watch, usually produced by {@link Env#findClassesJarOrFolder(java.net.URL)}.
+     * @param onChange invoked from a background thread when the folder contents change.
+     * @throws IOException on i/o error.
+     */
+    public ClassesWatcher(@NotNull Set<File> classesJarOrFolders, @NotNull Runnable onChange) throws IOException {
+        this.onChange = Objects.requireNonNull(onChange);
+        watchService = FileSystems.getDefault().newWatchService();
+        for (File folder : classesJarOrFolders) {
+            if (folder.isDirectory()) {
+                registerRecursively(folder.toPath());
+            }
+        }
+        log.info("Watching " + classesJarOrFolders + " for class changes");
+        thread = new Thread(this::watch, "vaadin-boot-classes-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void registerRecursively(@NotNull Path folder) throws IOException {
+        try (Stream<Path> folders = Files.walk(folder)) {
+            for (Path dir : (Iterable<Path>) folders.filter(Files::isDirectory)::iterator) {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                // block until the first change
+                WatchKey key = watchService.take();
+                // then drain all changes until things quiet down
+                while (key != null) {
+                    processEvents(key);
+                    key = watchService.poll(QUIET_PERIOD.toMillis(), TimeUnit.MILLISECONDS);
+                }
+                try {
+                    onChange.run();
+                } catch (Throwable t) {
+                    log.error("Failed to process class change: " + t, t);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed, bail out
+        }
+    }
+
+    private void processEvents(@NotNull WatchKey key) {
+        final Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                final Path created = dir.resolve((Path) event.context());
+                if (Files.isDirectory(created)) {
+                    try {
+                        registerRecursively(created);
+                    } catch (IOException e) {
+                        log.warn("Failed to watch " + created + ": " + e, e);
+                    }
+                }
+            }
+        }
+        key.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+}
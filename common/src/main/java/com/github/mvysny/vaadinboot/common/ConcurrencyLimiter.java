@@ -0,0 +1,646 @@
+package com.github.mvysny.vaadinboot.common;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Limits the number of requests served at once, adapting the limit to the observed latency,
+ * see {@link VaadinBootBase#adaptiveConcurrency(boolean)}. Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * The limit follows a gradient algorithm: the latency of every request is compared against the long-term latency.
+ * While the latency holds, the limit grows by roughly the square root of itself, probing for more capacity; once the latency
+ * grows, the limit shrinks proportionally, at most by half per request. A request arriving while the limit is reached waits
+ * in a queue until another request completes: it's suspended via {@link ServletRequest#startAsync(ServletRequest, ServletResponse)},
+ * holding no thread, and dispatched again once granted. A request which can't be suspended only waits if it runs on a virtual
+ * thread; on a platform thread it's shed right away, since blocking it would take one of the bounded threads away from the
+ * web server. A request which can't be queued or waits for too long is shed with a bodiless 503 Service Unavailable.
+ * <br/>
+ * The web servers register the limiter behind the {@link SessionSerialDispatcher}, mapped to the <code>ASYNC</code> dispatches
+ * as well: a request waiting in its session's queue holds no slot, and its wait isn't counted in its latency.
+ * <br/>
+ * The Vaadin UIDL and heartbeat requests of the existing sessions are queued ahead of all other requests, e.g. the bootstrap
+ * requests of new sessions: when the queue is full, such a request takes the place of the latest queued low-priority request,
+ * which is shed instead. The push connections are long-lived and therefore not limited.
+ * <br/>
+ * The limit is only enforced once the app is {@link VaadinBootBase#isReady() ready}: the warm-up requests are slow
+ * by design and would skew the latency the limit adapts to.
+ */
+public final class ConcurrencyLimiter implements Filter {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimiter.class);
+
+    /**
+     * The request attribute of a request dispatched once its slot has been granted; holds the {@link AsyncWaiter}.
+     */
+    @NotNull
+    private static final String GRANTED_ATTRIBUTE = ConcurrencyLimiter.class.getName() + ".granted";
+
+    /**
+     * The request attribute marking a request holding a slot, so that its further async dispatches pass through.
+     */
+    @NotNull
+    private static final String SLOT_ATTRIBUTE = ConcurrencyLimiter.class.getName() + ".slot";
+
+    /**
+     * Returned by {@link #tryAcquire(Waiter)} when the request has been queued.
+     */
+    private static final int QUEUED = -2;
+
+    /**
+     * The latency may grow up to this multiple of the long-term latency before the limit starts shrinking.
+     */
+    private static final double TOLERANCE = 1.5;
+
+    /**
+     * How fast the limit follows the computed limit, 0..1.
+     */
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * The number of samples the long-term latency is averaged over.
+     */
+    private static final int LONG_WINDOW = 600;
+
+    /**
+     * The number of samples the short-term latency is averaged over.
+     */
+    private static final int SHORT_WINDOW = 10;
+
+    /**
+     * The statistics of the limiter.
+     * @param limit the current limit.
+     * @param inFlight the number of requests being served right now.
+     * @param queueLength the number of requests waiting in the queue right now.
+     * @param servedRequests the number of requests served.
+     * @param queuedRequests the number of requests which had to wait in the queue, served or not.
+     * @param shedRequests the number of requests shed with 503.
+     * @param longTermLatency the long-term average latency.
+     * @param shortTermLatency the recent average latency.
+     */
+    public record Statistics(int limit, int inFlight, int queueLength, long servedRequests, long queuedRequests, long shedRequests,
+                             @NotNull Duration longTermLatency, @NotNull Duration shortTermLatency) {
+        @Override
+        public String toString() {
+            return "limit " + limit + ", " + inFlight + " in flight, " + queueLength + " queued, " + servedRequests + " served, "
+                    + queuedRequests + " had to wait, " + shedRequests + " shed, latency " + longTermLatency.toMillis() + "ms long-term, "
+                    + shortTermLatency.toMillis() + "ms recent";
+        }
+    }
+
+    /**
+     * A queued request.
+     */
+    private abstract static class Waiter {
+        /**
+         * True for the UIDL and heartbeat requests of the existing sessions.
+         */
+        final boolean highPriority;
+        /**
+         * True once the request may proceed; only accessed while holding {@link #lock}.
+         */
+        boolean granted;
+        /**
+         * True once the request has been shed, e.g. in favor of a high-priority request; only accessed while holding {@link #lock}.
+         */
+        boolean shed;
+        /**
+         * The number of requests in flight when the request was let through; only accessed while holding {@link #lock}.
+         */
+        int inFlightAtStart;
+
+        Waiter(boolean highPriority) {
+            this.highPriority = highPriority;
+        }
+
+        /**
+         * Called while holding {@link #lock}, right before the request is queued.
+         */
+        void suspend() {
+        }
+
+        /**
+         * Called once the request has been {@link #granted} or {@link #shed}, without holding {@link #lock}.
+         */
+        abstract void wakeUp();
+    }
+
+    /**
+     * A request blocking its thread while queued.
+     */
+    private static final class BlockingWaiter extends Waiter {
+        @NotNull
+        final CountDownLatch signal = new CountDownLatch(1);
+
+        BlockingWaiter(boolean highPriority) {
+            super(highPriority);
+        }
+
+        @Override
+        void wakeUp() {
+            signal.countDown();
+        }
+    }
+
+    /**
+     * A request suspended via {@link ServletRequest#startAsync(ServletRequest, ServletResponse)} while queued, holding no thread.
+     * Once granted, the request is dispatched again, and served by {@link #doFilter(ServletRequest, ServletResponse, FilterChain)}.
+     */
+    private final class AsyncWaiter extends Waiter implements AsyncListener {
+        @NotNull
+        private final ServletRequest request;
+        @NotNull
+        private final ServletResponse response;
+        private AsyncContext asyncContext;
+        /**
+         * Set once the granted slot is either used by the dispatched request, or released since the request went away.
+         */
+        @NotNull
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        AsyncWaiter(boolean highPriority, @NotNull ServletRequest request, @NotNull ServletResponse response) {
+            super(highPriority);
+            this.request = request;
+            this.response = response;
+        }
+
+        @Override
+        void suspend() {
+            // pass in the request and the response, so that the resumed request goes through the request wrappers as well.
+            asyncContext = request.startAsync(request, response);
+            asyncContext.setTimeout(Math.max(1, TimeUnit.NANOSECONDS.toMillis(queueTimeoutNanos)));
+            asyncContext.addListener(this);
+        }
+
+        @Override
+        void wakeUp() {
+            if (!granted) {
+                shed(asyncContext.getResponse());
+                asyncContext.complete();
+                return;
+            }
+            request.setAttribute(GRANTED_ATTRIBUTE, this);
+            try {
+                asyncContext.dispatch();
+            } catch (RuntimeException e) {
+                // e.g. the request has already been completed because the client went away: don't leak the slot.
+                log.debug("Failed to resume a queued request: " + e, e);
+                request.removeAttribute(GRANTED_ATTRIBUTE);
+                releaseUnused(this);
+            }
+        }
+
+        /**
+         * Claims the granted slot.
+         * @return true if the slot is now owned by the caller, false if it has been claimed already.
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            // the client went away while the request was queued, or before the granted request was served.
+            if (!cancel(this)) {
+                releaseUnused(this);
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            if (cancel(this)) {
+                log.debug("Shedding a request which waited for longer than " + Duration.ofNanos(queueTimeoutNanos));
+                shed(asyncContext.getResponse());
+                asyncContext.complete();
+            }
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            asyncContext.complete();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    /**
+     * Holds the slot of a request which the app continues serving asynchronously, until the request completes.
+     */
+    private final class SlotListener implements AsyncListener {
+        @NotNull
+        private final ServletRequest request;
+        private final long startNanos;
+        private final int inFlightAtStart;
+
+        SlotListener(@NotNull ServletRequest request, long startNanos, int inFlightAtStart) {
+            this.request = request;
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            request.removeAttribute(SLOT_ATTRIBUTE);
+            release(startNanos, inFlightAtStart);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // starting the async processing again removes the listeners: stay registered until the request completes.
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueDepth;
+    private final long queueTimeoutNanos;
+
+    /**
+     * Guards all fields below.
+     */
+    @NotNull
+    private final ReentrantLock lock = new ReentrantLock();
+    private double limit;
+    private int inFlight;
+    @NotNull
+    private final ArrayDeque<Waiter> highPriority = new ArrayDeque<>();
+    @NotNull
+    private final ArrayDeque<Waiter> lowPriority = new ArrayDeque<>();
+    private double longRttNanos;
+    private double shortRttNanos;
+    private long servedRequests;
+    private long queuedRequests;
+    private long shedRequests;
+
+    /**
+     * If false, the requests pass through: they're neither limited nor measured.
+     */
+    @NotNull
+    private final BooleanSupplier enforcing;
+
+    /**
+     * Creates the limiter.
+     * @param configuration the configuration.
+     * @param enforcing returns true if the limit is enforced; if false, all requests are let through.
+     */
+    public ConcurrencyLimiter(@NotNull VaadinBootBase<?> configuration, @NotNull BooleanSupplier enforcing) {
+        this.enforcing = enforcing;
+        minLimit = configuration.getAdaptiveConcurrencyMinLimit();
+        maxLimit = configuration.getAdaptiveConcurrencyMaxLimit();
+        queueDepth = configuration.getAdaptiveConcurrencyQueueDepth();
+        queueTimeoutNanos = configuration.getAdaptiveConcurrencyQueueTimeout().toNanos();
+        limit = Math.min(maxLimit, Math.max(minLimit, 20));
+    }
+
+    @Override
+    public void doFilter(@NotNull ServletRequest request, @NotNull ServletResponse response, @NotNull FilterChain chain) throws IOException, ServletException {
+        if (!(request instanceof HttpServletRequest httpRequest)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (request.getDispatcherType() == DispatcherType.ASYNC && request.getAttribute(GRANTED_ATTRIBUTE) instanceof AsyncWaiter waiter) {
+            request.removeAttribute(GRANTED_ATTRIBUTE);
+            if (waiter.claim()) {
+                serve(request, response, chain, waiter.inFlightAtStart);
+            } else {
+                chain.doFilter(request, response);
+            }
+            return;
+        }
+        if (request.getAttribute(SLOT_ATTRIBUTE) != null) {
+            // an async dispatch of a request which holds a slot already.
+            chain.doFilter(request, response);
+            return;
+        }
+        final String requestType = AccessLog.getVaadinRequestType(httpRequest.getQueryString());
+        if ("push".equals(requestType) || !enforcing.getAsBoolean()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        final boolean highPriority = ("uidl".equals(requestType) || "heartbeat".equals(requestType)) && httpRequest.getRequestedSessionId() != null;
+        final int inFlightAtStart;
+        if (request.isAsyncSupported()) {
+            inFlightAtStart = tryAcquire(new AsyncWaiter(highPriority, request, response));
+            if (inFlightAtStart == QUEUED) {
+                // the request is suspended, and dispatched again once granted.
+                return;
+            }
+        } else if (Thread.currentThread().isVirtual()) {
+            // the request can't be suspended, but blocking a virtual thread is cheap.
+            inFlightAtStart = acquire(highPriority);
+        } else {
+            // the request can't be suspended, and blocking would take one of the bounded platform threads away from the
+            // connector: don't queue the request at all.
+            inFlightAtStart = tryAcquire(highPriority);
+        }
+        if (inFlightAtStart < 0) {
+            shed(response);
+            return;
+        }
+        serve(request, response, chain, inFlightAtStart);
+    }
+
+    /**
+     * Serves the request holding a slot, then releases the slot.
+     */
+    private void serve(@NotNull ServletRequest request, @NotNull ServletResponse response, @NotNull FilterChain chain, int inFlightAtStart) throws IOException, ServletException {
+        request.setAttribute(SLOT_ATTRIBUTE, Boolean.TRUE);
+        final long start = System.nanoTime();
+        boolean completed = true;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // the app continues serving the request asynchronously.
+                completed = false;
+                request.getAsyncContext().addListener(new SlotListener(request, start, inFlightAtStart));
+            }
+        } finally {
+            if (completed) {
+                request.removeAttribute(SLOT_ATTRIBUTE);
+                release(start, inFlightAtStart);
+            }
+        }
+    }
+
+    /**
+     * Sheds the request with a bodiless 503.
+     */
+    private static void shed(@NotNull ServletResponse response) {
+        final HttpServletResponse httpResponse = (HttpServletResponse) response;
+        httpResponse.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        httpResponse.setHeader("Retry-After", "1");
+        httpResponse.setContentLength(0);
+    }
+
+    /**
+     * Acquires a slot for a request without queueing it.
+     * @param highPriority true for the UIDL and heartbeat requests of the existing sessions.
+     * @return the number of requests in flight when the slot was acquired; -1 if the limit has been reached and the request has been shed.
+     */
+    int tryAcquire(boolean highPriority) {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit && this.highPriority.isEmpty() && lowPriority.isEmpty()) {
+                return inFlight++;
+            }
+            shedRequests++;
+            return -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acquires a slot for a request, blocking the calling thread in the queue if the limit has been reached.
+     * @param highPriority true for the UIDL and heartbeat requests of the existing sessions.
+     * @return the number of requests in flight when the slot was acquired; -1 if the request has been shed.
+     */
+    int acquire(boolean highPriority) {
+        final BlockingWaiter waiter = new BlockingWaiter(highPriority);
+        final int inFlightAtStart = tryAcquire(waiter);
+        if (inFlightAtStart != QUEUED) {
+            return inFlightAtStart;
+        }
+        boolean interrupted = false;
+        try {
+            waiter.signal.await(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        try {
+            if (cancel(waiter)) {
+                log.debug("Shedding a request which waited for longer than " + Duration.ofNanos(queueTimeoutNanos));
+                return -1;
+            }
+            lock.lock();
+            try {
+                return waiter.granted ? waiter.inFlightAtStart : -1;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Acquires a slot for a request, or queues the request if the limit has been reached.
+     * @param waiter the request.
+     * @return the number of requests in flight when the slot was acquired; {@link #QUEUED} if the request has been queued
+     * and will be woken up via {@link Waiter#wakeUp()}; -1 if the request has been shed.
+     */
+    private int tryAcquire(@NotNull Waiter waiter) {
+        Waiter victim = null;
+        lock.lock();
+        try {
+            if (inFlight < (int) limit && highPriority.isEmpty() && lowPriority.isEmpty()) {
+                return inFlight++;
+            }
+            if (highPriority.size() + lowPriority.size() >= queueDepth) {
+                if (!waiter.highPriority || lowPriority.isEmpty()) {
+                    shedRequests++;
+                    return -1;
+                }
+                // the high-priority request takes the place of the latest low-priority request.
+                victim = lowPriority.pollLast();
+                victim.shed = true;
+                shedRequests++;
+            }
+            waiter.suspend();
+            (waiter.highPriority ? highPriority : lowPriority).add(waiter);
+            queuedRequests++;
+            return QUEUED;
+        } finally {
+            lock.unlock();
+            if (victim != null) {
+                victim.wakeUp();
+            }
+        }
+    }
+
+    /**
+     * Removes a request which gives up waiting from the queue, and sheds it.
+     * @param waiter the request.
+     * @return true if the request has been removed from the queue; false if it had been granted or shed already.
+     */
+    private boolean cancel(@NotNull Waiter waiter) {
+        lock.lock();
+        try {
+            if (waiter.granted || waiter.shed) {
+                return false;
+            }
+            (waiter.highPriority ? highPriority : lowPriority).remove(waiter);
+            waiter.shed = true;
+            shedRequests++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the slot of a completed request, records its latency and lets queued requests proceed.
+     * @param startNanos {@link System#nanoTime()} when the request started.
+     * @param inFlightAtStart the number of requests in flight when the request started.
+     */
+    void release(long startNanos, int inFlightAtStart) {
+        final long rttNanos = System.nanoTime() - startNanos;
+        final List<Waiter> granted;
+        lock.lock();
+        try {
+            inFlight--;
+            servedRequests++;
+            updateLimit(rttNanos, inFlightAtStart);
+            granted = grantQueued();
+        } finally {
+            lock.unlock();
+        }
+        granted.forEach(Waiter::wakeUp);
+    }
+
+    /**
+     * Releases the slot granted to a request which went away before being served, without recording any latency.
+     * @param waiter the request.
+     */
+    private void releaseUnused(@NotNull AsyncWaiter waiter) {
+        if (!waiter.claim()) {
+            return;
+        }
+        final List<Waiter> granted;
+        lock.lock();
+        try {
+            if (!waiter.granted) {
+                return;
+            }
+            inFlight--;
+            granted = grantQueued();
+        } finally {
+            lock.unlock();
+        }
+        granted.forEach(Waiter::wakeUp);
+    }
+
+    /**
+     * Adapts the limit to the latency of a completed request. Must be called while holding {@link #lock}.
+     * @param rttNanos the latency of the request.
+     * @param inFlightAtStart the number of requests in flight when the request started.
+     */
+    private void updateLimit(long rttNanos, int inFlightAtStart) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+            shortRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) / SHORT_WINDOW;
+        longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+        if (longRttNanos > 2 * shortRttNanos) {
+            // the latency has dropped considerably, e.g. after a burst of slow requests: recover the long-term latency quickly.
+            longRttNanos *= 0.95;
+        }
+        if (inFlightAtStart < limit / 2) {
+            // the app isn't using the limit: the latency says nothing about it.
+            return;
+        }
+        final double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / Math.max(1, shortRttNanos)));
+        final double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+    }
+
+    /**
+     * Lets the queued requests proceed while there's room, the high-priority ones first. Must be called while holding {@link #lock}.
+     * @return the requests to wake up once the lock has been released.
+     */
+    @NotNull
+    private List<Waiter> grantQueued() {
+        final List<Waiter> granted = new ArrayList<>();
+        while (inFlight < (int) limit) {
+            Waiter next = highPriority.poll();
+            if (next == null) {
+                next = lowPriority.poll();
+            }
+            if (next == null) {
+                break;
+            }
+            next.granted = true;
+            next.inFlightAtStart = inFlight++;
+            granted.add(next);
+        }
+        return granted;
+    }
+
+    /**
+     * Returns the current limit.
+     * @return the maximum number of requests served at once right now.
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of requests waiting in the queue.
+     * @return the queue length.
+     */
+    public int getQueueLength() {
+        lock.lock();
+        try {
+            return highPriority.size() + lowPriority.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the statistics.
+     * @return the statistics, not null.
+     */
+    @NotNull
+    public Statistics getStatistics() {
+        lock.lock();
+        try {
+            return new Statistics((int) limit, inFlight, highPriority.size() + lowPriority.size(), servedRequests, queuedRequests, shedRequests,
+                    Duration.ofNanos((long) longRttNanos), Duration.ofNanos((long) shortRttNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The CPU quota and the memory limit of the container the app runs in, read from the Linux cgroup v2 or v1 filesystem,
+ * see {@link Env#containerLimits}. Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * With cgroup v2, the limits of the process's own cgroup (listed in <code>/proc/self/cgroup</code>) and of all its
+ * ancestors are read, and the tightest ones win: that covers both a container (whose cgroup namespace makes its own
+ * cgroup the root) and e.g. a systemd service with <code>CPUQuota=</code>. With cgroup v1, the limits are read from the
+ * root of the <code>cpu</code> and <code>memory</code> hierarchies, which is where the container runtimes mount the
+ * container's own cgroup.
+ * @param cpus the CPU quota, e.g. 0.5 or 2; null if the CPU time isn't limited.
+ * @param memory the memory limit in bytes; null if the memory isn't limited.
+ */
+public record ContainerLimits(@Nullable Double cpus, @Nullable Long memory) {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(ContainerLimits.class);
+
+    /**
+     * No limits: the app doesn't run in a container, or the container isn't limited.
+     */
+    @NotNull
+    public static final ContainerLimits NONE = new ContainerLimits(null, null);
+
+    /**
+     * cgroup v1 reports no memory limit as <code>Long.MAX_VALUE</code> rounded down to the page size; anything above 2^60
+     * is no limit.
+     */
+    private static final long V1_UNLIMITED_MEMORY = 1L << 60;
+
+    /**
+     * Reads the limits of this process, from <code>/sys/fs/cgroup</code>.
+     * @return the limits, {@link #NONE} if there are none or they can't be read, e.g. on Windows or macOS.
+     */
+    @NotNull
+    public static ContainerLimits detect() {
+        try {
+            final Path procSelfCgroup = Path.of("/proc/self/cgroup");
+            final String cgroup = Files.isRegularFile(procSelfCgroup) ? Files.readString(procSelfCgroup) : "";
+            return read(Path.of("/sys/fs/cgroup"), cgroup);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to read the cgroup limits, assuming no limits", e);
+            return NONE;
+        }
+    }
+
+    /**
+     * Reads the limits from given cgroup filesystem.
+     * @param cgroupRoot the cgroup filesystem mount point, usually <code>/sys/fs/cgroup</code>.
+     * @param procSelfCgroup the contents of <code>/proc/self/cgroup</code>, locating the process's own cgroup; may be empty.
+     * @return the limits, {@link #NONE} if there are none.
+     * @throws IOException if a limit file exists but can't be read.
+     */
+    @NotNull
+    public static ContainerLimits read(@NotNull Path cgroupRoot, @NotNull String procSelfCgroup) throws IOException {
+        if (Files.isRegularFile(cgroupRoot.resolve("cgroup.controllers"))) {
+            return readV2(cgroupRoot, procSelfCgroup);
+        }
+        final Path cpu = Files.isDirectory(cgroupRoot.resolve("cpu")) ? cgroupRoot.resolve("cpu") : cgroupRoot.resolve("cpu,cpuacct");
+        final String quota = readFile(cpu.resolve("cpu.cfs_quota_us"));
+        final String period = readFile(cpu.resolve("cpu.cfs_period_us"));
+        final String memory = readFile(cgroupRoot.resolve("memory/memory.limit_in_bytes"));
+        return new ContainerLimits(quota == null || period == null ? null : parseCfsQuota(quota, period),
+                memory == null ? null : parseMemoryLimit(memory));
+    }
+
+    @NotNull
+    private static ContainerLimits readV2(@NotNull Path cgroupRoot, @NotNull String procSelfCgroup) throws IOException {
+        // the v2 entry looks like "0::/system.slice/app.service"; it's just "0::/" in a container.
+        String path = procSelfCgroup.lines().filter(it -> it.startsWith("0::")).findFirst().orElse("0::/").substring(3);
+        Path cgroup = cgroupRoot.resolve(path.replaceFirst("^/+", "")).normalize();
+        if (!cgroup.startsWith(cgroupRoot) || !Files.isDirectory(cgroup)) {
+            // the cgroup of another namespace; fall back to the root.
+            cgroup = cgroupRoot;
+        }
+        Double cpus = null;
+        Long memory = null;
+        for (; cgroup != null && cgroup.startsWith(cgroupRoot); cgroup = cgroup.getParent()) {
+            final String cpuMax = readFile(cgroup.resolve("cpu.max"));
+            final Double c = cpuMax == null ? null : parseCpuMax(cpuMax);
+            if (c != null && (cpus == null || c < cpus)) {
+                cpus = c;
+            }
+            final String memoryMax = readFile(cgroup.resolve("memory.max"));
+            final Long m = memoryMax == null ? null : parseMemoryLimit(memoryMax);
+            if (m != null && (memory == null || m < memory)) {
+                memory = m;
+            }
+        }
+        return new ContainerLimits(cpus, memory);
+    }
+
+    @Nullable
+    private static String readFile(@NotNull Path file) throws IOException {
+        return Files.isRegularFile(file) ? Files.readString(file).trim() : null;
+    }
+
+    /**
+     * Parses the cgroup v2 <code>cpu.max</code> file.
+     * @param cpuMax the file contents, e.g. <code>50000 100000</code> or <code>max 100000</code>.
+     * @return the CPU quota, e.g. 0.5; null if unlimited.
+     */
+    @VisibleForTesting
+    @Nullable
+    static Double parseCpuMax(@NotNull String cpuMax) {
+        final List<String> values = List.of(cpuMax.trim().split("\\s+"));
+        if (values.get(0).equals("max")) {
+            return null;
+        }
+        return parseCfsQuota(values.get(0), values.size() > 1 ? values.get(1) : "100000");
+    }
+
+    /**
+     * Parses the cgroup v1 <code>cpu.cfs_quota_us</code> and <code>cpu.cfs_period_us</code> files.
+     * @param quota the quota in microseconds; <code>-1</code> if unlimited.
+     * @param period the period in microseconds.
+     * @return the CPU quota, e.g. 0.5; null if unlimited.
+     */
+    @VisibleForTesting
+    @Nullable
+    static Double parseCfsQuota(@NotNull String quota, @NotNull String period) {
+        final long q = Long.parseLong(quota.trim());
+        final long p = Long.parseLong(period.trim());
+        if (q <= 0 || p <= 0) {
+            return null;
+        }
+        return (double) q / p;
+    }
+
+    /**
+     * Parses the cgroup v2 <code>memory.max</code> or v1 <code>memory.limit_in_bytes</code> file.
+     * @param limit the file contents: the limit in bytes, or <code>max</code>.
+     * @return the limit in bytes; null if unlimited.
+     */
+    @VisibleForTesting
+    @Nullable
+    static Long parseMemoryLimit(@NotNull String limit) {
+        if (limit.trim().equals("max")) {
+            return null;
+        }
+        final long l = Long.parseLong(limit.trim());
+        return l <= 0 || l >= V1_UNLIMITED_MEMORY ? null : l;
+    }
+
+    @Override
+    public String toString() {
+        if (cpus == null && memory == null) {
+            return "none";
+        }
+        return (cpus == null ? "no CPU limit" : (cpus == Math.rint(cpus) ? "" + cpus.longValue() : "" + cpus) + " CPUs") + ", "
+                + (memory == null ? "no memory limit" : (memory / 1024 / 1024) + " MB memory");
+    }
+}
@@ -8,14 +8,32 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Environment-related utility functions. Internal to Vaadin-Boot, don't use - the API can change at any time.
@@ -24,10 +42,14 @@ public final class Env {
     private static final Logger log = LoggerFactory.getLogger(Env.class);
     private Env() {}
 
-    private static boolean detectProductionMode() {
+    /**
+     * Detects whether the app loaded by given classloader is configured to run in Vaadin production mode or not.
+     * @param classLoader the app's classloader.
+     * @return true if the app runs in production mode.
+     */
+    public static boolean detectProductionMode(@NotNull ClassLoader classLoader) {
         // try checking for flow-server-production-mode.jar on classpath
         final String probe = "META-INF/maven/com.vaadin/flow-server-production-mode/pom.xml";
-        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
         final URL probeURL = classLoader.getResource(probe);
         if (probeURL != null) {
             log.info("Vaadin production mode is on: " + probeURL + " is present");
@@ -66,7 +88,7 @@ public final class Env {
     /**
      * Detects whether Vaadin is configured to run in production mode or not.
      */
-    public static final boolean isVaadinProductionMode = detectProductionMode();
+    public static final boolean isVaadinProductionMode = detectProductionMode(Thread.currentThread().getContextClassLoader());
 
     /**
      * Returns the JVM major version.
@@ -77,15 +99,22 @@ public final class Env {
     }
 
     /**
-     * Returns a short string containing Java version and OS info, for example
-     * <code>Java: Amazon.com Inc. 17.0.5, major version 17, OS: amd64 Linux 5.19.0-35-generic</code>
+     * The CPU quota and the memory limit of the container the app runs in, read from the cgroup filesystem at startup.
+     * {@link ContainerLimits#NONE} when not running in a limited container, or not on Linux.
+     */
+    @NotNull
+    public static final ContainerLimits containerLimits = ContainerLimits.detect();
+
+    /**
+     * Returns a short string containing Java version, OS info and the container limits, for example
+     * <code>Java: Amazon.com Inc. 17.0.5, major version 17, OS: amd64 Linux 5.19.0-35-generic, cgroup limits: 0.5 CPUs, 512 MB memory</code>
      * @return short host info
      */
     @NotNull
     public static String dumpHost() {
         final String os = System.getProperty("os.arch") + " " + System.getProperty("os.name") + " " + System.getProperty("os.version");
         final String java = System.getProperty("java.vendor") + " " + System.getProperty("java.version") + ", major version " + getJavaVersion();
-        return "Java: " + java + ", OS: " + os;
+        return "Java: " + java + ", OS: " + os + ", cgroup limits: " + containerLimits;
     }
 
     /**
@@ -132,6 +161,12 @@ public final class Env {
     @VisibleForTesting
     static Function<String, String> ENV_RESOLVER = System::getenv;
 
+    /**
+     * True if the app runs as a GraalVM native image: there's no class path nor class files then, the classes and the
+     * resources are baked into the executable.
+     */
+    public static final boolean isNativeImage = System.getProperty("org.graalvm.nativeimage.imagecode") != null;
+
     /**
      * True if it looks like we're running in a development environment, false if we're most probably running from a production zip file.
      * Note that this may differ from {@link #isVaadinProductionMode}: it's possible to run vaadin dev mode from a zip file for example,
@@ -142,10 +177,11 @@ public final class Env {
     static {
         // check whether there's a pom.xml or build.gradle(.kts) - if yes, we're running in development environment (most probably
         // from an IDE launch configuration).
-        isDevelopmentEnvironment =
+        // a native image is always built for production, even when launched from the project folder.
+        isDevelopmentEnvironment = !isNativeImage && (
                 new File("pom.xml").exists() ||
                         new File("build.gradle").exists() ||
-                        new File("build.gradle.kts").exists();
+                        new File("build.gradle.kts").exists());
     }
 
     /**
@@ -155,9 +191,20 @@ public final class Env {
      */
     @NotNull
     public static URL findWebRoot() throws MalformedURLException {
+        return findWebRoot(Env.class.getClassLoader());
+    }
+
+    /**
+     * Detects the <code>/webapp</code> web root folder of the app loaded by given classloader.
+     * @param classLoader the app's classloader.
+     * @return resource serving web root.
+     * @throws MalformedURLException when the webroot URL auto-detection fails and produces an invalid URL.
+     */
+    @NotNull
+    public static URL findWebRoot(@NotNull ClassLoader classLoader) throws MalformedURLException {
         // don't look up directory as a resource, it's unreliable: https://github.com/eclipse/jetty.project/issues/4173#issuecomment-539769734
         // instead we'll look up the /webapp/ROOT and retrieve the parent folder from that.
-        final URL f = Env.class.getResource("/webapp/ROOT");
+        final URL f = classLoader.getResource("webapp/ROOT");
         if (f == null) {
             throw new IllegalStateException("Invalid state: the resource /webapp/ROOT doesn't exist, has the 'webapp' folder been packaged in as a resource?");
         }
@@ -284,4 +331,202 @@ public final class Env {
         }
         return Set.of(additionWebInfClasses);
     }
+
+    /**
+     * The <code>/webapp</code> folder is extracted from the jar file under this folder, see {@link #extractWebRoot(File)}.
+     * Defaults to <code>vaadin-boot-webapp</code> in the system temp folder.
+     * <br/>
+     * Can be configured via the <code>SERVER_WEBAPP_CACHE_DIR</code> environment variable, or <code>-Dserver.webapp-cache-dir=</code> Java system property.
+     */
+    @NotNull
+    public static File getWebRootCacheDir() {
+        return new File(getProperty("SERVER_WEBAPP_CACHE_DIR", "server.webapp-cache-dir", System.getProperty("java.io.tmpdir") + "/vaadin-boot-webapp"));
+    }
+
+    /**
+     * Extracts the <code>/webapp</code> folder from given jar file into a content-addressed folder under {@link #getWebRootCacheDir()}.
+     * The folder name is derived from the names, sizes and CRCs of the <code>/webapp</code> entries; if the folder already exists,
+     * the contents haven't changed since the last boot and the folder is simply reused.
+     * <br/>
+     * Static files served from a folder qualify for zero-copy transfer (sendfile, memory-mapped buffers), unlike files served from a jar.
+     * <br/>
+     * Every extracted folder has a <code>.lock</code> file next to it; this JVM holds a shared lock on it until it exits.
+     * Extracted folders which nobody holds a lock on belong to older versions of the app, and are deleted.
+     * @param jarFile the jar file containing the <code>/webapp</code> folder, as detected by {@link #findResourcesJarOrFolder(URL)}.
+     * @return the folder with the contents of the <code>/webapp</code> folder.
+     * @throws IOException on i/o error.
+     */
+    @NotNull
+    public static File extractWebRoot(@NotNull File jarFile) throws IOException {
+        final Path target = getWebRootCacheDir().toPath().toAbsolutePath().resolve(hashJar(jarFile, "webapp/"));
+        lockWebRoot(target);
+        final File result = extractWebRoot(jarFile, target);
+        deleteStaleWebRoots(target);
+        return result;
+    }
+
+    /**
+     * The shared locks this JVM holds on the extracted <code>/webapp</code> folders, see {@link #extractWebRoot(File)}.
+     * Never released: the folders are served until the JVM exits.
+     */
+    @NotNull
+    private static final Map<Path, FileChannel> webRootLocks = new ConcurrentHashMap<>();
+
+    @NotNull
+    private static Path getLockFile(@NotNull Path extractedWebRoot) {
+        return extractedWebRoot.resolveSibling(extractedWebRoot.getFileName() + ".lock");
+    }
+
+    /**
+     * Takes a shared lock on the lock file of given extracted folder, so that other JVMs don't delete it as stale.
+     */
+    private static synchronized void lockWebRoot(@NotNull Path target) throws IOException {
+        if (webRootLocks.containsKey(target)) {
+            return;
+        }
+        final Path lockFile = getLockFile(target);
+        while (true) {
+            Files.createDirectories(target.getParent());
+            final FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                // blocks while another JVM is deleting this folder as stale.
+                lockChannel.lock(0, Long.MAX_VALUE, true);
+            } catch (IOException | RuntimeException e) {
+                lockChannel.close();
+                throw e;
+            }
+            if (Files.isRegularFile(lockFile)) {
+                webRootLocks.put(target, lockChannel);
+                return;
+            }
+            // the lock file has been deleted by another JVM while we were waiting for the lock: create it again.
+            lockChannel.close();
+        }
+    }
+
+    /**
+     * Deletes the extracted folders next to given folder which nobody holds a lock on, along with their leftover
+     * temp folders.
+     */
+    private static void deleteStaleWebRoots(@NotNull Path target) {
+        final Path ownLockFile = getLockFile(target);
+        final List<Path> lockFiles;
+        try (Stream<Path> list = Files.list(target.getParent())) {
+            lockFiles = list.filter(it -> !it.equals(ownLockFile) && it.getFileName().toString().endsWith(".lock") && Files.isRegularFile(it)).toList();
+        } catch (IOException e) {
+            log.warn("Failed to list " + target.getParent() + ": " + e, e);
+            return;
+        }
+        for (Path lockFile : lockFiles) {
+            final String name = lockFile.getFileName().toString().substring(0, lockFile.getFileName().toString().length() - ".lock".length());
+            final Path stale = target.resolveSibling(name);
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                final FileLock lock = tryLock(channel);
+                if (lock == null) {
+                    log.debug(stale + " is in use by another JVM, not deleting");
+                    continue;
+                }
+                final List<Path> temps;
+                try (Stream<Path> list = Files.list(target.getParent())) {
+                    temps = list.filter(it -> it.getFileName().toString().startsWith(name + ".tmp")).toList();
+                }
+                for (Path temp : temps) {
+                    Util.deleteRecursively(temp);
+                }
+                Util.deleteRecursively(stale);
+                Files.delete(lockFile);
+                log.info("Deleted stale WebRoot " + stale);
+            } catch (IOException e) {
+                log.warn("Failed to delete stale WebRoot " + stale + ": " + e, e);
+            }
+        }
+    }
+
+    @Nullable
+    private static FileLock tryLock(@NotNull FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // locked by this JVM, e.g. by a hosted app.
+            return null;
+        }
+    }
+
+    /**
+     * Extracts the <code>/webapp</code> folder from given jar file into given target folder. Does nothing if the target folder
+     * already exists: it's expected that the target folder name is derived from the jar contents, e.g. via {@link #hashJar(File, String)}.
+     * @param jarFile the jar file containing the <code>/webapp</code> folder, as detected by {@link #findResourcesJarOrFolder(URL)}.
+     * @param target the target folder, not necessarily existing.
+     * @return the target folder with the contents of the <code>/webapp</code> folder.
+     * @throws IOException on i/o error.
+     */
+    @NotNull
+    public static File extractWebRoot(@NotNull File jarFile, @NotNull Path target) throws IOException {
+        if (Files.isDirectory(target)) {
+            log.info("WebRoot already extracted to " + target);
+            return target.toFile();
+        }
+        Files.createDirectories(target.getParent());
+        // extract to a temp folder first and then move it atomically, so that a half-extracted folder is never reused
+        // and multiple JVMs booting concurrently don't step on each other's toes.
+        final Path temp = Files.createTempDirectory(target.getParent(), target.getFileName() + ".tmp");
+        try (JarFile jar = new JarFile(jarFile)) {
+            for (JarEntry entry : (Iterable<JarEntry>) jar.stream()::iterator) {
+                if (!entry.getName().startsWith("webapp/") || entry.isDirectory()) {
+                    continue;
+                }
+                final Path file = temp.resolve(entry.getName().substring("webapp/".length())).normalize();
+                if (!file.startsWith(temp)) {
+                    throw new IOException("Invalid jar entry " + entry.getName() + ": points outside of the target folder");
+                }
+                Files.createDirectories(file.getParent());
+                try (InputStream in = jar.getInputStream(entry)) {
+                    Files.copy(in, file);
+                }
+            }
+        } catch (IOException e) {
+            Util.deleteRecursively(temp);
+            throw e;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            log.info("WebRoot extracted from " + jarFile + " to " + target);
+        } catch (IOException e) {
+            Util.deleteRecursively(temp);
+            if (!Files.isDirectory(target)) {
+                throw e;
+            }
+            // extracted by another JVM in the meantime; the contents are identical.
+        }
+        return target.toFile();
+    }
+
+    /**
+     * Computes a hash of the jar file contents, from the names, sizes and CRCs of the jar entries. Cheap to compute since
+     * the jar entries don't need to be inflated.
+     * @param jarFile the jar file.
+     * @param prefix only consider entries starting with this prefix, e.g. <code>webapp/</code>. Pass in an empty string to
+     *               consider all entries.
+     * @return the hash, 32 hexadecimal characters.
+     * @throws IOException on i/o error.
+     */
+    @NotNull
+    public static String hashJar(@NotNull File jarFile, @NotNull String prefix) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        try (JarFile jar = new JarFile(jarFile)) {
+            final List<JarEntry> entries = jar.stream()
+                    .filter(it -> it.getName().startsWith(prefix) && !it.isDirectory())
+                    .sorted(Comparator.comparing(JarEntry::getName))
+                    .toList();
+            for (JarEntry entry : entries) {
+                digest.update((entry.getName() + ":" + entry.getSize() + ":" + entry.getCrc() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
 }
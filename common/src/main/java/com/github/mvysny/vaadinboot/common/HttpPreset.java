@@ -0,0 +1,105 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+
+/**
+ * A named set of HTTP tuning settings, see {@link VaadinBootBase#httpPreset(HttpPreset)}. Every web server translates
+ * the preset into its native settings; a setting the web server has no equivalent for is ignored.
+ */
+public enum HttpPreset {
+    /**
+     * Responsive interactive apps: the responses are flushed to the client early, in small chunks, and enough threads
+     * are kept around to serve a burst of requests without starting new ones.
+     */
+    LOW_LATENCY(16384, 2048, 8192, 8192, 1024, Duration.ofSeconds(30), 16),
+    /**
+     * Busy public nodes: large buffers aggregate the responses into fewer, larger writes, larger headers (e.g. cookies
+     * set by a proxy or an SSO) are accepted, the connections are kept open for longer, and many threads are kept around.
+     */
+    HIGH_THROUGHPUT(65536, 16384, 16384, 16384, 4096, Duration.ofSeconds(60), 32),
+    /**
+     * Small, mostly idle apps, e.g. internal tools: small buffers, few threads, and the idle connections (and their
+     * buffers) are closed soon.
+     */
+    LOW_FOOTPRINT(4096, 1024, 4096, 4096, 256, Duration.ofSeconds(15), 1);
+
+    private final int outputBufferSize;
+    private final int outputAggregationSize;
+    private final int requestHeaderSize;
+    private final int responseHeaderSize;
+    private final int headerCacheSize;
+    @NotNull
+    private final Duration idleTimeout;
+    private final int minSpareThreads;
+
+    HttpPreset(int outputBufferSize, int outputAggregationSize, int requestHeaderSize, int responseHeaderSize,
+               int headerCacheSize, @NotNull Duration idleTimeout, int minSpareThreads) {
+        this.outputBufferSize = outputBufferSize;
+        this.outputAggregationSize = outputAggregationSize;
+        this.requestHeaderSize = requestHeaderSize;
+        this.responseHeaderSize = responseHeaderSize;
+        this.headerCacheSize = headerCacheSize;
+        this.idleTimeout = idleTimeout;
+        this.minSpareThreads = minSpareThreads;
+    }
+
+    /**
+     * The size of the per-response output buffer, in bytes. Once full, the buffer is written to the client.
+     * @return the buffer size.
+     */
+    public int getOutputBufferSize() {
+        return outputBufferSize;
+    }
+
+    /**
+     * Writes smaller than this many bytes are aggregated into the output buffer rather than written to the client right away.
+     * Jetty only.
+     * @return the aggregation size.
+     */
+    public int getOutputAggregationSize() {
+        return outputAggregationSize;
+    }
+
+    /**
+     * The maximum size of the request line and headers, in bytes. Larger requests are rejected.
+     * @return the maximum request header size.
+     */
+    public int getRequestHeaderSize() {
+        return requestHeaderSize;
+    }
+
+    /**
+     * The maximum size of the response headers, in bytes.
+     * @return the maximum response header size.
+     */
+    public int getResponseHeaderSize() {
+        return responseHeaderSize;
+    }
+
+    /**
+     * The number of the most common header fields cached to speed up the parsing. Jetty only.
+     * @return the header cache size.
+     */
+    public int getHeaderCacheSize() {
+        return headerCacheSize;
+    }
+
+    /**
+     * How long an idle keep-alive connection stays open.
+     * @return the idle timeout.
+     */
+    @NotNull
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * The number of the platform threads kept around even when idle.
+     * @return the minimum number of spare threads.
+     */
+    public int getMinSpareThreads() {
+        return minSpareThreads;
+    }
+}
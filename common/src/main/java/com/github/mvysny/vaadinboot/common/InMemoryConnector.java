@@ -0,0 +1,32 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Sends raw HTTP requests to a web server started in the in-memory mode (see {@link VaadinBootBase#inMemory()}),
+ * without going through a network listener. Intended for fast in-process integration tests.
+ * <br/>
+ * All implementations must be thread-safe: multiple requests may be sent concurrently.
+ */
+public interface InMemoryConnector {
+    /**
+     * Sends the raw HTTP request to the web server and blocks until the response is fully received.
+     * @param rawRequest the raw HTTP/1.1 request, including the request line, the headers and the
+     *                   empty line terminating the headers, e.g. <code>GET / HTTP/1.1\r\nHost: localhost\r\n\r\n</code>.
+     * @return the raw HTTP response: the status line, the headers and the body.
+     * @throws Exception if the request fails or times out.
+     */
+    @NotNull
+    String getResponse(@NotNull String rawRequest) throws Exception;
+
+    /**
+     * Sends a <code>GET</code> request for given path and returns the raw response.
+     * @param path the path including the context root, e.g. <code>/</code> or <code>/ROOT</code>.
+     * @return the raw HTTP response: the status line, the headers and the body.
+     * @throws Exception if the request fails or times out.
+     */
+    @NotNull
+    default String get(@NotNull String path) throws Exception {
+        return getResponse("GET " + path + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n");
+    }
+}
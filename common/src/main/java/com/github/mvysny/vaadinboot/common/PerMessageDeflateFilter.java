@@ -0,0 +1,98 @@
+package com.github.mvysny.vaadinboot.common;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Removes the permessage-deflate offers from the WebSocket upgrade requests, so that the connections are established
+ * uncompressed; see {@link VaadinBootBase#pushCompression(boolean)}. Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * Used by web servers which can't disable the WebSocket compression natively. Must run before the web server's
+ * WebSocket upgrade filter.
+ */
+public final class PerMessageDeflateFilter implements Filter {
+    /**
+     * The request header listing the WebSocket extensions offered by the client.
+     */
+    @NotNull
+    private static final String EXTENSIONS_HEADER = "Sec-WebSocket-Extensions";
+
+    @Override
+    public void doFilter(@NotNull ServletRequest request, @NotNull ServletResponse response, @NotNull FilterChain chain) throws IOException, ServletException {
+        if (request instanceof HttpServletRequest httpRequest && httpRequest.getHeader(EXTENSIONS_HEADER) != null) {
+            chain.doFilter(new Request(httpRequest), response);
+        } else {
+            chain.doFilter(request, response);
+        }
+    }
+
+    /**
+     * Removes the permessage-deflate offers from the value of the <code>Sec-WebSocket-Extensions</code> header.
+     * @param extensions the header value, e.g. <code>permessage-deflate; client_max_window_bits, foo</code>.
+     * @return the header value without the permessage-deflate offers, e.g. <code>foo</code>; null if no extensions remain.
+     */
+    @Nullable
+    static String removePerMessageDeflate(@NotNull String extensions) {
+        // the offers are separated by commas; the parameters of an offer are separated by semicolons.
+        final String result = Arrays.stream(extensions.split(","))
+                .map(String::trim)
+                .filter(it -> !it.isEmpty() && !it.split(";")[0].trim().equalsIgnoreCase(PushConfiguration.PERMESSAGE_DEFLATE))
+                .collect(Collectors.joining(", "));
+        return result.isEmpty() ? null : result;
+    }
+
+    private static final class Request extends HttpServletRequestWrapper {
+        Request(@NotNull HttpServletRequest request) {
+            super(request);
+        }
+
+        private static boolean isExtensionsHeader(@Nullable String name) {
+            return EXTENSIONS_HEADER.equalsIgnoreCase(name);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (!isExtensionsHeader(name)) {
+                return super.getHeader(name);
+            }
+            final List<String> values = Collections.list(getHeaders(name));
+            return values.isEmpty() ? null : values.get(0);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (!isExtensionsHeader(name)) {
+                return super.getHeaders(name);
+            }
+            return Collections.enumeration(Collections.list(super.getHeaders(name)).stream()
+                    .map(PerMessageDeflateFilter::removePerMessageDeflate)
+                    .filter(Objects::nonNull)
+                    .toList());
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            if (getHeader(EXTENSIONS_HEADER) != null) {
+                return super.getHeaderNames();
+            }
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                    .filter(it -> !isExtensionsHeader(it))
+                    .toList());
+        }
+    }
+}
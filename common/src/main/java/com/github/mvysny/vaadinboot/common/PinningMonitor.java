@@ -0,0 +1,202 @@
+package com.github.mvysny.vaadinboot.common;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Detects virtual threads pinning their carrier threads, see {@link VaadinBootBase#pinningMonitor(boolean)}.
+ * Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * Streams the <code>jdk.VirtualThreadPinned</code> and <code>jdk.VirtualThreadSubmitFailed</code> JFR events in-process
+ * and aggregates them by stack trace. A virtual thread which blocks while pinned (e.g. inside a <code>synchronized</code> block
+ * on JDK 21-23, or while holding the <code>VaadinSession</code> lock there) blocks its carrier thread as well; once all carrier
+ * threads are pinned, no other virtual thread can run, which silently caps the throughput at the number of carrier threads.
+ * <br/>
+ * The report is logged when the app stops; the web servers also serve it at {@link VaadinBootBase#getPinningReportPath()}
+ * if configured. The monitor itself is registered as a filter mapped to the report path.
+ */
+public final class PinningMonitor implements Filter, Closeable {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(PinningMonitor.class);
+
+    @NotNull
+    private static final String VIRTUAL_THREAD_PINNED = "jdk.VirtualThreadPinned";
+    @NotNull
+    private static final String VIRTUAL_THREAD_SUBMIT_FAILED = "jdk.VirtualThreadSubmitFailed";
+
+    /**
+     * A stack trace which pinned a carrier thread, with statistics.
+     * @param stackTrace the stack trace of the pinned virtual thread, top frame first, one frame per line.
+     * @param count how many times the carrier thread was pinned with this stack trace.
+     * @param total the total time the carrier thread was pinned.
+     * @param max the longest time the carrier thread was pinned.
+     */
+    public record PinnedStack(@NotNull String stackTrace, long count, @NotNull Duration total, @NotNull Duration max) {
+    }
+
+    /**
+     * The pinning report.
+     * @param threshold only pinning longer than this is recorded.
+     * @param pinnedCount how many times a carrier thread was pinned.
+     * @param totalPinned the total time the carrier threads were pinned.
+     * @param submitFailedCount how many times a virtual thread failed to be scheduled to a carrier thread.
+     * @param stacks the stack traces which pinned a carrier thread, the one with the longest total time first.
+     */
+    public record Report(@NotNull Duration threshold, long pinnedCount, @NotNull Duration totalPinned, long submitFailedCount,
+                         @NotNull List<PinnedStack> stacks) {
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder();
+            sb.append("Virtual thread pinning longer than ").append(threshold.toMillis()).append("ms: ")
+                    .append(pinnedCount).append(" times, ").append(totalPinned.toMillis()).append("ms in total; ")
+                    .append(submitFailedCount).append(" failed submits\n");
+            for (PinnedStack stack : stacks) {
+                sb.append('\n').append(stack.count()).append(" times, ").append(stack.total().toMillis()).append("ms in total, ")
+                        .append(stack.max().toMillis()).append("ms max:\n").append(stack.stackTrace());
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * The statistics of a single stack trace. Only accessed while holding the lock on {@link #stacks}.
+     */
+    private static final class Stats {
+        long count;
+        long totalNanos;
+        long maxNanos;
+    }
+
+    @NotNull
+    private final Duration threshold;
+    @NotNull
+    private final Map<String, Stats> stacks = new HashMap<>();
+    private long submitFailedCount;
+    @NotNull
+    private final RecordingStream stream;
+
+    /**
+     * Starts streaming the JFR events.
+     * @param configuration the configuration.
+     */
+    public PinningMonitor(@NotNull VaadinBootBase<?> configuration) {
+        threshold = configuration.getPinningThreshold();
+        stream = new RecordingStream();
+        stream.enable(VIRTUAL_THREAD_PINNED).withThreshold(threshold).withStackTrace();
+        stream.enable(VIRTUAL_THREAD_SUBMIT_FAILED).withStackTrace();
+        // the stream only needs the events not yet consumed: don't keep the recording on disk for long.
+        stream.setMaxAge(Duration.ofMinutes(1));
+        stream.onEvent(VIRTUAL_THREAD_PINNED, this::onPinned);
+        stream.onEvent(VIRTUAL_THREAD_SUBMIT_FAILED, event -> {
+            synchronized (stacks) {
+                submitFailedCount++;
+            }
+        });
+        stream.onError(e -> log.error("Failed to process JFR events: " + e, e));
+        stream.startAsync();
+    }
+
+    private void onPinned(@NotNull RecordedEvent event) {
+        final String stackTrace = toString(event.getStackTrace());
+        final long nanos = event.getDuration().toNanos();
+        synchronized (stacks) {
+            final Stats stats = stacks.computeIfAbsent(stackTrace, it -> new Stats());
+            stats.count++;
+            stats.totalNanos += nanos;
+            stats.maxNanos = Math.max(stats.maxNanos, nanos);
+        }
+    }
+
+    @NotNull
+    private static String toString(@Nullable RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\tat <unknown>\n";
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            sb.append("\tat ");
+            if (frame.isJavaFrame()) {
+                sb.append(frame.getMethod().getType().getName()).append('.').append(frame.getMethod().getName());
+                if (frame.getLineNumber() >= 0) {
+                    sb.append(':').append(frame.getLineNumber());
+                }
+            } else {
+                sb.append(frame.getType());
+            }
+            sb.append('\n');
+        }
+        if (stackTrace.isTruncated()) {
+            sb.append("\t...\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the pinning recorded so far. The JFR events are streamed with a delay of about a second.
+     * @return the report, not null.
+     */
+    @NotNull
+    public Report getReport() {
+        final List<PinnedStack> result = new ArrayList<>();
+        long pinnedCount = 0;
+        long totalNanos = 0;
+        final long submitFailedCount;
+        synchronized (stacks) {
+            for (Map.Entry<String, Stats> entry : stacks.entrySet()) {
+                final Stats stats = entry.getValue();
+                result.add(new PinnedStack(entry.getKey(), stats.count, Duration.ofNanos(stats.totalNanos), Duration.ofNanos(stats.maxNanos)));
+                pinnedCount += stats.count;
+                totalNanos += stats.totalNanos;
+            }
+            submitFailedCount = this.submitFailedCount;
+        }
+        result.sort(Comparator.comparing(PinnedStack::total).reversed());
+        return new Report(threshold, pinnedCount, Duration.ofNanos(totalNanos), submitFailedCount, result);
+    }
+
+    /**
+     * Serves the report as plain text. The filter is only mapped to {@link VaadinBootBase#getPinningReportPath()}.
+     */
+    @Override
+    public void doFilter(@NotNull ServletRequest request, @NotNull ServletResponse response, @NotNull FilterChain chain) throws IOException, ServletException {
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getOutputStream().write(getReport().toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Stops streaming the JFR events and logs the report.
+     */
+    @Override
+    public void close() {
+        // processes the events recorded so far, so that the report is complete.
+        stream.stop();
+        stream.close();
+        final Report report = getReport();
+        if (report.pinnedCount() > 0 || report.submitFailedCount() > 0) {
+            log.warn(report.toString());
+        } else {
+            log.info("No virtual thread pinned its carrier thread for longer than " + threshold.toMillis() + "ms");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Translates the push settings of {@link VaadinBootBase} to the Atmosphere configuration. Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * Vaadin configures Atmosphere, which in turn configures the WebSocket container. Vaadin overrides the
+ * container defaults with its own, unless the Vaadin servlet has the Atmosphere init parameters set; the web servers
+ * therefore pass {@link #getServletInitParameters(VaadinBootBase)} to every servlet, unless the servlet already
+ * defines the parameter.
+ */
+public final class PushConfiguration {
+    /**
+     * The name of the WebSocket compression extension.
+     */
+    @NotNull
+    public static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+    private PushConfiguration() {
+    }
+
+    /**
+     * Returns the Atmosphere servlet init parameters.
+     * @param configuration the configuration.
+     * @return the servlet init parameters, not null.
+     */
+    @NotNull
+    public static Map<String, String> getServletInitParameters(@NotNull VaadinBootBase<?> configuration) {
+        return getServletInitParameters(configuration, true);
+    }
+
+    /**
+     * Returns the Atmosphere servlet init parameters.
+     * @param configuration the configuration.
+     * @param webSocket false if the web server skipped the initialization of its WebSocket support, see
+     *                  {@link VaadinBootBase#webSocket(Boolean)}: Atmosphere then doesn't look for the WebSocket container,
+     *                  rather than logging an error about it missing.
+     * @return the servlet init parameters, not null.
+     */
+    @NotNull
+    public static Map<String, String> getServletInitParameters(@NotNull VaadinBootBase<?> configuration, boolean webSocket) {
+        final String maxMessageSize = String.valueOf(configuration.getPushMaxMessageSize());
+        final Map<String, String> parameters = new HashMap<>(Map.of(
+                "org.atmosphere.websocket.maxTextMessageSize", maxMessageSize,
+                "org.atmosphere.websocket.maxBinaryMessageSize", maxMessageSize,
+                "org.atmosphere.websocket.bufferSize", maxMessageSize,
+                "org.atmosphere.websocket.maxIdleTime", String.valueOf(configuration.getPushIdleTimeout().toMillis())
+        ));
+        if (!webSocket) {
+            parameters.put("org.atmosphere.websocket.suppressJSR356", "true");
+        }
+        return Map.copyOf(parameters);
+    }
+}
@@ -0,0 +1,341 @@
+package com.github.mvysny.vaadinboot.common;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Limits the rate of the requests of every client, see {@link VaadinBootBase#rateLimit(int, int)} and
+ * {@link VaadinBootBase#sessionRateLimit(int, int)}. Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * Every client, identified by its IP address, has a token bucket for its requests, and another one for the sessions it creates.
+ * A request takes a token from the request bucket; a request without a valid session is only let through if the session
+ * bucket has a token left, and takes the token once it has created a session. A rejected request is answered
+ * with a bodiless 429 Too Many Requests, before it reaches any other filter or servlet.
+ * <br/>
+ * The buckets are kept in a fixed number of stripes, each one a small LRU map guarded by its own lock: the requests
+ * of different clients rarely contend. A stripe holds a bounded number of clients; the least recently seen client
+ * is forgotten once the stripe is full, or once it has been idle for long enough for its buckets to fill up again.
+ * <br/>
+ * The limits are only enforced once the app is {@link VaadinBootBase#isReady() ready}, so that the warm-up requests aren't limited.
+ */
+public final class RateLimiter implements Filter {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(RateLimiter.class);
+
+    /**
+     * The number of stripes, a power of two.
+     */
+    private static final int STRIPES = 64;
+
+    /**
+     * The statistics of the limiter.
+     * @param clients the number of clients tracked right now.
+     * @param allowedRequests the number of requests let through.
+     * @param rejectedRequests the number of requests rejected since the client exceeded the request rate.
+     * @param newSessions the number of sessions created.
+     * @param rejectedNewSessions the number of requests without a valid session rejected since the client exceeded the session rate.
+     * @param evictedClients the number of clients forgotten since the limiter was full.
+     */
+    public record Statistics(int clients, long allowedRequests, long rejectedRequests, long newSessions, long rejectedNewSessions, long evictedClients) {
+        @Override
+        public String toString() {
+            return clients + " clients, " + allowedRequests + " allowed, " + rejectedRequests + " rejected requests, "
+                    + newSessions + " new sessions, " + rejectedNewSessions + " rejected new sessions, " + evictedClients + " evicted clients";
+        }
+    }
+
+    /**
+     * A token bucket rate.
+     * @param nanosPerToken the refill rate: one token is added every this many nanoseconds.
+     * @param burst the capacity of the bucket.
+     */
+    private record Rate(double nanosPerToken, int burst) {
+        /**
+         * Refills the bucket.
+         * @param tokens the tokens in the bucket.
+         * @param elapsedNanos the time since the last refill.
+         * @return the tokens in the bucket now.
+         */
+        double refill(double tokens, long elapsedNanos) {
+            return Math.min(burst, tokens + elapsedNanos / nanosPerToken);
+        }
+
+        /**
+         * How long it takes to fill an empty bucket.
+         */
+        long fillNanos() {
+            return (long) Math.ceil(burst * nanosPerToken);
+        }
+
+        /**
+         * How long it takes to refill the bucket up to one token.
+         */
+        long waitNanos(double tokens) {
+            return Math.max(1, (long) Math.ceil((1 - tokens) * nanosPerToken));
+        }
+    }
+
+    /**
+     * The buckets of a client. Only accessed while holding the lock of the stripe.
+     */
+    private static final class Client {
+        double requestTokens;
+        double sessionTokens;
+        long refilledAt;
+
+        Client(@Nullable Rate requestRate, @Nullable Rate sessionRate, long now) {
+            requestTokens = requestRate == null ? 0 : requestRate.burst();
+            sessionTokens = sessionRate == null ? 0 : sessionRate.burst();
+            refilledAt = now;
+        }
+    }
+
+    /**
+     * A part of the clients, guarded by the lock on the stripe itself. Ordered from the least recently seen client.
+     */
+    private final class Stripe extends LinkedHashMap<String, Client> {
+        /**
+         * The time of the ongoing access, used to expire the idle clients.
+         */
+        long now;
+
+        Stripe() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Client> eldest) {
+            if (size() > clientsPerStripe || now - eldest.getValue().refilledAt >= expiryNanos) {
+                evictedClients.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    @Nullable
+    private final Rate requestRate;
+    @Nullable
+    private final Rate sessionRate;
+    private final boolean forwardedHeaders;
+    private final int clientsPerStripe;
+    /**
+     * A client idle for this long has its buckets full again, and can be forgotten.
+     */
+    private final long expiryNanos;
+    @NotNull
+    private final BooleanSupplier enforcing;
+    @NotNull
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    @NotNull
+    private final LongAdder allowedRequests = new LongAdder();
+    @NotNull
+    private final LongAdder rejectedRequests = new LongAdder();
+    @NotNull
+    private final LongAdder newSessions = new LongAdder();
+    @NotNull
+    private final LongAdder rejectedNewSessions = new LongAdder();
+    @NotNull
+    private final LongAdder evictedClients = new LongAdder();
+
+    /**
+     * Creates the limiter.
+     * @param configuration the configuration.
+     * @param enforcing returns true if the limits are enforced; if false, all requests are let through.
+     */
+    public RateLimiter(@NotNull VaadinBootBase<?> configuration, @NotNull BooleanSupplier enforcing) {
+        requestRate = configuration.getRateLimitRequestsPerSecond() == 0 ? null
+                : new Rate(TimeUnit.SECONDS.toNanos(1) / (double) configuration.getRateLimitRequestsPerSecond(), configuration.getRateLimitRequestBurst());
+        sessionRate = configuration.getSessionRateLimitPerMinute() == 0 ? null
+                : new Rate(TimeUnit.MINUTES.toNanos(1) / (double) configuration.getSessionRateLimitPerMinute(), configuration.getSessionRateLimitBurst());
+        forwardedHeaders = configuration.isRateLimitForwardedHeaders();
+        clientsPerStripe = Math.max(1, configuration.getRateLimitMaxClients() / STRIPES);
+        expiryNanos = Math.max(requestRate == null ? 0 : requestRate.fillNanos(), sessionRate == null ? 0 : sessionRate.fillNanos());
+        this.enforcing = enforcing;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public void doFilter(@NotNull ServletRequest request, @NotNull ServletResponse response, @NotNull FilterChain chain) throws IOException, ServletException {
+        if (!(request instanceof HttpServletRequest httpRequest) || !enforcing.getAsBoolean()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        final String client = getClientAddress(httpRequest);
+        final boolean sessionless = sessionRate != null && !hasValidSession(httpRequest);
+        final long waitNanos = acquire(client, sessionless, System.nanoTime());
+        if (waitNanos > 0) {
+            log.debug("Rejecting " + httpRequest.getRequestURI() + " of " + client + ": too many requests");
+            final HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setStatus(429);
+            // in whole seconds, rounded up.
+            httpResponse.setHeader("Retry-After", String.valueOf((waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+            httpResponse.setContentLength(0);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (sessionless && httpRequest.getSession(false) != null) {
+                sessionCreated(client, System.nanoTime());
+            }
+        }
+    }
+
+    private static boolean hasValidSession(@NotNull HttpServletRequest request) {
+        return request.getRequestedSessionId() != null && request.isRequestedSessionIdValid();
+    }
+
+    /**
+     * Returns the address of the client. If the forwarded headers are honored, the address appended by the reverse proxy is used:
+     * the last entry of <code>X-Forwarded-For</code>, or the last <code>for=</code> of the <code>Forwarded</code> header.
+     * @param request the request.
+     * @return the client address, not null.
+     */
+    @NotNull
+    String getClientAddress(@NotNull HttpServletRequest request) {
+        if (forwardedHeaders) {
+            final String xForwardedFor = request.getHeader("X-Forwarded-For");
+            if (xForwardedFor != null && !xForwardedFor.isBlank()) {
+                return xForwardedFor.substring(xForwardedFor.lastIndexOf(',') + 1).trim();
+            }
+            final String forwarded = request.getHeader("Forwarded");
+            if (forwarded != null) {
+                final int forIndex = forwarded.toLowerCase().lastIndexOf("for=");
+                if (forIndex >= 0) {
+                    String address = forwarded.substring(forIndex + 4);
+                    // the element ends with ; and the list of elements is separated by ,
+                    for (char separator : new char[]{';', ','}) {
+                        final int end = address.indexOf(separator);
+                        if (end >= 0) {
+                            address = address.substring(0, end);
+                        }
+                    }
+                    address = address.trim().replace("\"", "");
+                    if (!address.isEmpty()) {
+                        return address;
+                    }
+                }
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * Takes a request token of given client.
+     * @param client the client address.
+     * @param newSession true if the request has no valid session, and may create one.
+     * @return true if the request may proceed, false if it should be rejected.
+     */
+    public boolean tryAcquire(@NotNull String client, boolean newSession) {
+        return acquire(client, newSession, System.nanoTime()) == 0;
+    }
+
+    /**
+     * Takes a request token of given client.
+     * @param client the client address.
+     * @param newSession true if the request has no valid session: also requires a session token to be available.
+     * @param now {@link System#nanoTime()}.
+     * @return 0 if the request may proceed; otherwise how long the client should wait before retrying, in nanoseconds.
+     */
+    long acquire(@NotNull String client, boolean newSession, long now) {
+        final Stripe stripe = getStripe(client);
+        synchronized (stripe) {
+            final Client state = getClient(stripe, client, now);
+            if (newSession && sessionRate != null && state.sessionTokens < 1) {
+                rejectedNewSessions.increment();
+                return sessionRate.waitNanos(state.sessionTokens);
+            }
+            if (requestRate != null) {
+                if (state.requestTokens < 1) {
+                    rejectedRequests.increment();
+                    return requestRate.waitNanos(state.requestTokens);
+                }
+                state.requestTokens--;
+            }
+        }
+        allowedRequests.increment();
+        return 0;
+    }
+
+    /**
+     * Takes a session token of given client, once the client has created a session. The tokens may go negative when
+     * the client creates sessions concurrently; the client then has to wait longer.
+     * @param client the client address.
+     * @param now {@link System#nanoTime()}.
+     */
+    void sessionCreated(@NotNull String client, long now) {
+        newSessions.increment();
+        if (sessionRate == null) {
+            return;
+        }
+        final Stripe stripe = getStripe(client);
+        synchronized (stripe) {
+            getClient(stripe, client, now).sessionTokens--;
+        }
+    }
+
+    @NotNull
+    private Stripe getStripe(@NotNull String client) {
+        final int hash = client.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * Returns the client, with its buckets refilled. Must be called while holding the lock of the stripe.
+     */
+    @NotNull
+    private Client getClient(@NotNull Stripe stripe, @NotNull String client, long now) {
+        Client state = stripe.get(client);
+        if (state == null) {
+            stripe.now = now;
+            state = new Client(requestRate, sessionRate, now);
+            stripe.put(client, state);
+            return state;
+        }
+        final long elapsed = now - state.refilledAt;
+        if (elapsed > 0) {
+            if (requestRate != null) {
+                state.requestTokens = requestRate.refill(state.requestTokens, elapsed);
+            }
+            if (sessionRate != null) {
+                state.sessionTokens = sessionRate.refill(state.sessionTokens, elapsed);
+            }
+            state.refilledAt = now;
+        }
+        return state;
+    }
+
+    /**
+     * Returns the statistics.
+     * @return the statistics, not null.
+     */
+    @NotNull
+    public Statistics getStatistics() {
+        int clients = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                clients += stripe.size();
+            }
+        }
+        return new Statistics(clients, allowedRequests.sum(), rejectedRequests.sum(), newSessions.sum(), rejectedNewSessions.sum(), evictedClients.sum());
+    }
+}
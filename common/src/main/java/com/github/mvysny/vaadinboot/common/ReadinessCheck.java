@@ -0,0 +1,44 @@
+package com.github.mvysny.vaadinboot.common;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Serves the readiness of the app, see {@link VaadinBootBase#readinessPath(String)}.
+ * Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * Responds with 200 once the app has been started and warmed up, and with 503 before that and while the app is stopping,
+ * so that a load balancer or Kubernetes only routes the users to a warmed-up app. The check itself is registered
+ * as a filter mapped to the readiness path.
+ */
+public final class ReadinessCheck implements Filter {
+    @NotNull
+    private final BooleanSupplier ready;
+
+    /**
+     * Creates the check.
+     * @param ready returns true if the app is ready.
+     */
+    public ReadinessCheck(@NotNull BooleanSupplier ready) {
+        this.ready = ready;
+    }
+
+    @Override
+    public void doFilter(@NotNull ServletRequest request, @NotNull ServletResponse response, @NotNull FilterChain chain) throws IOException, ServletException {
+        final boolean isReady = ready.getAsBoolean();
+        final HttpServletResponse httpResponse = (HttpServletResponse) response;
+        httpResponse.setStatus(isReady ? HttpServletResponse.SC_OK : HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        httpResponse.setHeader("Cache-Control", "no-store");
+        httpResponse.setContentType("text/plain;charset=UTF-8");
+        httpResponse.getOutputStream().write((isReady ? "ready" : "not ready").getBytes(StandardCharsets.UTF_8));
+    }
+}
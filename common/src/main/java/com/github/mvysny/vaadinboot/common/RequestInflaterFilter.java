@@ -0,0 +1,479 @@
+package com.github.mvysny.vaadinboot.common;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Inflates request bodies compressed by the client with gzip or deflate, as indicated by the <code>Content-Encoding</code>
+ * request header; see {@link VaadinBootBase#inflateRequestBodies(boolean)}. Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * Used by web servers which can't inflate request bodies natively. Requests with other content encodings are passed through unchanged.
+ * <br/>
+ * A request whose body inflates over the max size is rejected with 413 Content Too Large; see {@link VaadinBootBase#inflatedRequestMaxSize(long)}.
+ * Both the blocking and the async IO is supported; form-encoded bodies are inflated before they're parsed into the request parameters.
+ */
+public final class RequestInflaterFilter implements Filter {
+    /**
+     * The maximum size of the inflated request body, in bytes.
+     */
+    private final long maxSize;
+
+    /**
+     * Creates the filter.
+     * @param maxSize the maximum size of the inflated request body, in bytes, 1 or greater.
+     */
+    public RequestInflaterFilter(long maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Parameter maxSize: invalid value " + maxSize + ": must be 1 or greater");
+        }
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public void doFilter(@NotNull ServletRequest request, @NotNull ServletResponse response, @NotNull FilterChain chain) throws IOException, ServletException {
+        if (request instanceof HttpServletRequest httpRequest) {
+            final String encoding = getEncoding(httpRequest);
+            if (encoding != null) {
+                final InflatedRequest inflatedRequest = new InflatedRequest(httpRequest, response, encoding, maxSize);
+                try {
+                    chain.doFilter(inflatedRequest, response);
+                } catch (IOException | ServletException | RuntimeException e) {
+                    if (!inflatedRequest.tooLarge || !inflatedRequest.reject()) {
+                        throw e;
+                    }
+                    return;
+                }
+                if (inflatedRequest.tooLarge && !inflatedRequest.isAsyncStarted()) {
+                    // the app may have swallowed the exception
+                    inflatedRequest.reject();
+                }
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Returns the content encoding of the request body.
+     * @param request the request.
+     * @return <code>gzip</code> or <code>deflate</code>, or null if the body isn't compressed or is compressed by an unsupported encoding.
+     */
+    @Nullable
+    static String getEncoding(@NotNull HttpServletRequest request) {
+        final String contentEncoding = request.getHeader("Content-Encoding");
+        if (contentEncoding == null) {
+            return null;
+        }
+        final String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> "gzip";
+            case "deflate" -> "deflate";
+            default -> null;
+        };
+    }
+
+    /**
+     * Parses given <code>application/x-www-form-urlencoded</code> string into given map. Pairs which can't be decoded are skipped.
+     * @param encoded the encoded string, may be null.
+     * @param charset the charset of the decoded bytes.
+     * @param into the parameter values are added here.
+     */
+    static void parseForm(@Nullable String encoded, @NotNull Charset charset, @NotNull Map<String, List<String>> into) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            final int eq = pair.indexOf('=');
+            try {
+                final String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), charset);
+                final String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), charset);
+                into.computeIfAbsent(name, it -> new ArrayList<>()).add(value);
+            } catch (IllegalArgumentException e) {
+                // malformed %-escape; skip the pair, like the web servers do
+            }
+        }
+    }
+
+    /**
+     * A request with the inflated body. Hides the <code>Content-Encoding</code> and <code>Content-Length</code> headers
+     * since they describe the compressed body.
+     */
+    private static final class InflatedRequest extends HttpServletRequestWrapper {
+        @NotNull
+        private static final List<String> HIDDEN_HEADERS = List.of("content-encoding", "content-length");
+        @NotNull
+        private final ServletResponse response;
+        @NotNull
+        private final String encoding;
+        private final long maxSize;
+        @Nullable
+        private InflatedInputStream inputStream;
+        @Nullable
+        private BufferedReader reader;
+        /**
+         * The parameters of a form-encoded request, parsed from the query string and the inflated body. Null if not yet parsed.
+         */
+        @Nullable
+        private Map<String, String[]> formParameters;
+        /**
+         * Set to true once the body turns out to be larger than {@link #maxSize}.
+         */
+        private volatile boolean tooLarge = false;
+
+        InflatedRequest(@NotNull HttpServletRequest request, @NotNull ServletResponse response, @NotNull String encoding, long maxSize) {
+            super(request);
+            this.response = response;
+            this.encoding = encoding;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (reader != null) {
+                throw new IllegalStateException("Invalid state: getReader() has already been called");
+            }
+            return getInflatedStream();
+        }
+
+        @NotNull
+        private InflatedInputStream getInflatedStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new InflatedInputStream(this, super.getInputStream());
+            }
+            return inputStream;
+        }
+
+        /**
+         * Inflates given compressed body.
+         * @param compressed the compressed body.
+         * @return the inflated body.
+         * @throws IOException if the gzip header can't be read.
+         */
+        @NotNull
+        InputStream inflate(@NotNull InputStream compressed) throws IOException {
+            return encoding.equals("gzip") ? new GZIPInputStream(compressed) : new InflaterInputStream(compressed);
+        }
+
+        /**
+         * Marks the body as too large.
+         * @param what the name of the body which is too large.
+         * @return the exception to throw.
+         */
+        @NotNull
+        IOException tooLarge(@NotNull String what) {
+            tooLarge = true;
+            return new IOException(what + " exceeds " + maxSize + " bytes");
+        }
+
+        /**
+         * Rejects the request with 413, unless the response has already been committed.
+         * @return true if the request was rejected.
+         * @throws IOException if the error can't be sent.
+         */
+        boolean reject() throws IOException {
+            if (response.isCommitted()) {
+                return false;
+            }
+            response.reset();
+            ((HttpServletResponse) response).sendError(413, "Inflated request body exceeds " + maxSize + " bytes");
+            return true;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                if (inputStream != null) {
+                    throw new IllegalStateException("Invalid state: getInputStream() has already been called");
+                }
+                reader = new BufferedReader(new InputStreamReader(getInflatedStream(), getCharset()));
+            }
+            return reader;
+        }
+
+        @NotNull
+        private Charset getCharset() {
+            final String characterEncoding = getCharacterEncoding();
+            return characterEncoding == null ? StandardCharsets.ISO_8859_1 : Charset.forName(characterEncoding);
+        }
+
+        /**
+         * Checks whether the web server would parse the request body into the request parameters.
+         * @return true for the POST requests with the <code>application/x-www-form-urlencoded</code> body.
+         */
+        private boolean isForm() {
+            final String contentType = getContentType();
+            return "POST".equalsIgnoreCase(getMethod()) && contentType != null
+                    && contentType.toLowerCase(Locale.ROOT).startsWith("application/x-www-form-urlencoded");
+        }
+
+        /**
+         * Parses the form parameters; the web server would parse them from the compressed body.
+         * @return the parameters of the query string, followed by the parameters of the inflated body.
+         */
+        @NotNull
+        private Map<String, String[]> getFormParameters() {
+            if (formParameters == null) {
+                final Map<String, List<String>> parameters = new LinkedHashMap<>();
+                // the web servers decode the query string as UTF-8 by default
+                parseForm(getQueryString(), StandardCharsets.UTF_8, parameters);
+                final Charset charset = getCharset();
+                try {
+                    parseForm(new String(getInflatedStream().readAllBytes(), charset), charset, parameters);
+                } catch (IOException e) {
+                    if (tooLarge) {
+                        // fails the request; the filter responds with 413
+                        throw new UncheckedIOException(e);
+                    }
+                    // the body can't be read: parse no parameters from the body, like the web servers do
+                }
+                final Map<String, String[]> result = new LinkedHashMap<>();
+                parameters.forEach((name, values) -> result.put(name, values.toArray(new String[0])));
+                formParameters = Collections.unmodifiableMap(result);
+            }
+            return formParameters;
+        }
+
+        @Override
+        public String getParameter(String name) {
+            if (!isForm()) {
+                return super.getParameter(name);
+            }
+            final String[] values = getFormParameters().get(name);
+            return values == null ? null : values[0];
+        }
+
+        @Override
+        public Map<String, String[]> getParameterMap() {
+            return isForm() ? getFormParameters() : super.getParameterMap();
+        }
+
+        @Override
+        public Enumeration<String> getParameterNames() {
+            return isForm() ? Collections.enumeration(getFormParameters().keySet()) : super.getParameterNames();
+        }
+
+        @Override
+        public String[] getParameterValues(String name) {
+            return isForm() ? getFormParameters().get(name) : super.getParameterValues(name);
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isHidden(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isHidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                    .filter(it -> !isHidden(it))
+                    .toList());
+        }
+
+        @Override
+        public int getIntHeader(String name) {
+            return isHidden(name) ? -1 : super.getIntHeader(name);
+        }
+
+        private static boolean isHidden(@Nullable String name) {
+            return name != null && HIDDEN_HEADERS.contains(name.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * A {@link ServletInputStream} reading the inflated body, failing once the inflated body grows over the max size.
+     * <br/>
+     * The blocking IO inflates the body while it's being received. The async IO first receives the whole compressed body
+     * (up to the max size), then notifies the {@link ReadListener} which reads the inflated body without blocking.
+     */
+    private static final class InflatedInputStream extends ServletInputStream {
+        @NotNull
+        private final InflatedRequest request;
+        @NotNull
+        private final ServletInputStream compressed;
+        /**
+         * The inflated body. Created lazily since {@link GZIPInputStream} reads the gzip header right away, which would block.
+         */
+        @Nullable
+        private volatile InputStream inflated;
+        @Nullable
+        private ReadListener readListener;
+        private long size = 0;
+        private boolean finished = false;
+
+        InflatedInputStream(@NotNull InflatedRequest request, @NotNull ServletInputStream compressed) {
+            this.request = request;
+            this.compressed = compressed;
+        }
+
+        @NotNull
+        private InputStream getInflated() throws IOException {
+            InputStream result = inflated;
+            if (result == null) {
+                if (readListener != null) {
+                    throw new IllegalStateException("Invalid state: the body is not ready yet, check isReady() first");
+                }
+                result = request.inflate(compressed);
+                inflated = result;
+            }
+            return result;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            final int result = read(b, 0, 1);
+            return result < 0 ? result : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte @NotNull [] b, int off, int len) throws IOException {
+            if (request.tooLarge) {
+                throw request.tooLarge("Inflated request body");
+            }
+            final int result = getInflated().read(b, off, len);
+            if (result < 0) {
+                finished = true;
+                return result;
+            }
+            size += result;
+            if (size > request.maxSize) {
+                throw request.tooLarge("Inflated request body");
+            }
+            return result;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return readListener == null || inflated != null;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            Objects.requireNonNull(readListener, "readListener");
+            if (this.readListener != null) {
+                throw new IllegalStateException("Invalid state: the ReadListener has already been set");
+            }
+            this.readListener = readListener;
+            compressed.setReadListener(new CompressedBodyListener(readListener));
+        }
+
+        @Override
+        public void close() throws IOException {
+            final InputStream inflated = this.inflated;
+            if (inflated != null) {
+                inflated.close();
+            } else {
+                compressed.close();
+            }
+        }
+
+        /**
+         * Receives the compressed body, then passes the inflated body to the app's listener.
+         */
+        private final class CompressedBodyListener implements ReadListener {
+            @NotNull
+            private final ReadListener delegate;
+            @NotNull
+            private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+            CompressedBodyListener(@NotNull ReadListener delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void onDataAvailable() throws IOException {
+                final byte[] chunk = new byte[8192];
+                while (compressed.isReady()) {
+                    final int read = compressed.read(chunk);
+                    if (read < 0) {
+                        return;
+                    }
+                    buffer.write(chunk, 0, read);
+                    if (buffer.size() > request.maxSize) {
+                        throw request.tooLarge("Compressed request body");
+                    }
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                try {
+                    inflated = request.inflate(new ByteArrayInputStream(buffer.toByteArray()));
+                    delegate.onDataAvailable();
+                    delegate.onAllDataRead();
+                } catch (Throwable t) {
+                    onError(t);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                delegate.onError(t);
+                if (request.tooLarge) {
+                    try {
+                        request.reject();
+                    } catch (IOException e) {
+                        t.addSuppressed(e);
+                    }
+                    if (request.isAsyncStarted()) {
+                        request.getAsyncContext().complete();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The server resources derived from the CPUs and the memory available to the app, see {@link VaadinBootBase#getResourceDefaults()}.
+ * The settings configured explicitly take precedence. Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * Jetty and Tomcat derive their defaults from the host cores, or use constants: a container limited to half a CPU gets
+ * the same 200 threads as a 16-CPU one. Here, the CPUs are the container's CPU quota (see {@link Env#containerLimits})
+ * capped by {@link Runtime#availableProcessors()}, rounded up to whole cores.
+ * @param cpus the CPUs available to the app, e.g. 0.5.
+ * @param memory the container memory limit in bytes; null if the memory isn't limited.
+ * @param acceptors the number of threads accepting the connections: one per 8 cores, 1 to 4, the same as Jetty.
+ * @param selectors the number of threads selecting the connections ready for i/o: one per 2 cores, at least 1, at most
+ *                  one per 16 threads, the same as Jetty.
+ * @param minThreads the number of threads kept around: 2 per core, 4 to 16.
+ * @param maxThreads the maximum number of request threads: 50 per core, 50 to 400; at most one per 4 MB of the container
+ *                   memory (but at least 16), since every platform thread has its own stack.
+ * @param bufferPoolMaxHeapMemory the maximum heap memory retained by Jetty's buffer pool: 1/8 of the max heap, the same as Jetty.
+ * @param bufferPoolMaxDirectMemory the maximum direct memory retained by Jetty's buffer pool: 1/8 of the max heap, the same
+ *                                  as Jetty, but at most 1/32 of the container memory since the direct memory isn't
+ *                                  covered by the max heap.
+ * @param adaptiveConcurrencyMaxLimit the maximum concurrency limit: 100 per core, 100 to 1000.
+ * @param adaptiveConcurrencyQueueDepth the maximum number of requests waiting for the concurrency limit: 1/5 of the maximum
+ *                                      concurrency limit.
+ */
+public record ResourceDefaults(double cpus, @Nullable Long memory, int acceptors, int selectors, int minThreads, int maxThreads,
+                               long bufferPoolMaxHeapMemory, long bufferPoolMaxDirectMemory,
+                               int adaptiveConcurrencyMaxLimit, int adaptiveConcurrencyQueueDepth) {
+
+    /**
+     * Derives the resources of this JVM, from {@link Env#containerLimits}.
+     * @return the resources, not null.
+     */
+    @NotNull
+    public static ResourceDefaults detect() {
+        return derive(Env.containerLimits, Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory());
+    }
+
+    /**
+     * Derives the resources.
+     * @param limits the container limits.
+     * @param availableProcessors {@link Runtime#availableProcessors()}.
+     * @param maxHeap {@link Runtime#maxMemory()}, in bytes.
+     * @return the resources, not null.
+     */
+    @NotNull
+    public static ResourceDefaults derive(@NotNull ContainerLimits limits, int availableProcessors, long maxHeap) {
+        final double cpus = limits.cpus() == null ? availableProcessors : Math.min(limits.cpus(), availableProcessors);
+        final int cores = Math.max(1, (int) Math.ceil(cpus));
+        final Long memory = limits.memory();
+        int maxThreads = clamp(cores * 50, 50, 400);
+        if (memory != null) {
+            maxThreads = Math.min(maxThreads, (int) Math.max(16, memory / (4 * 1024 * 1024)));
+        }
+        final int acceptors = clamp(cores / 8, 1, 4);
+        final int selectors = Math.max(1, Math.min(cores / 2, maxThreads / 16));
+        final int minThreads = Math.min(maxThreads, clamp(cores * 2, 4, 16));
+        final long bufferPoolMaxHeapMemory = maxHeap / 8;
+        final long bufferPoolMaxDirectMemory = memory == null ? maxHeap / 8 : Math.min(maxHeap / 8, memory / 32);
+        final int adaptiveConcurrencyMaxLimit = clamp(cores * 100, 100, 1000);
+        return new ResourceDefaults(cpus, memory, acceptors, selectors, minThreads, maxThreads, bufferPoolMaxHeapMemory,
+                bufferPoolMaxDirectMemory, adaptiveConcurrencyMaxLimit, adaptiveConcurrencyMaxLimit / 5);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Describes the resources the defaults were derived from, for the log.
+     * @return e.g. <code>0.5 CPUs, 512 MB memory</code>.
+     */
+    @NotNull
+    public String describeHost() {
+        return new ContainerLimits(cpus, memory).toString();
+    }
+}
@@ -0,0 +1,439 @@
+package com.github.mvysny.vaadinboot.common;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.HasElement;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.SessionLockEvent;
+import com.vaadin.flow.server.SessionLockListener;
+import com.vaadin.flow.server.VaadinServiceInitListener;
+import com.vaadin.flow.server.VaadinServletService;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.server.WrappedSession;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how long the requests wait for the <code>VaadinSession</code> lock versus how long they hold it, see
+ * {@link VaadinBootBase#sessionLockProfiling(boolean)}.
+ * Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * The web servers register the profiler as a filter, which tracks the request being served by the current thread. Vaadin
+ * notifies the profiler whenever a thread requests, acquires and releases a session lock; the profiler accumulates the wait
+ * and hold times of all session locks taken while serving the request, and records them into histograms per route
+ * and into per-session totals when the request completes. The lock taken outside of an HTTP request, by the push WebSocket
+ * messages and by <code>UI.access()</code> from background threads, is recorded as {@link #OUTSIDE_REQUEST}.
+ * <br/>
+ * Vaadin discovers {@link Installer} via the <code>ServiceLoader</code> mechanism; the installer registers a session lock listener
+ * to the <code>VaadinService</code> if the filter is registered. Only the installer implements Vaadin interfaces, so that
+ * the profiler class loads even without Vaadin on the classpath.
+ */
+public final class SessionLockProfiler implements Filter {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(SessionLockProfiler.class);
+
+    /**
+     * The route of the locks taken outside of an HTTP request.
+     */
+    @NotNull
+    public static final String OUTSIDE_REQUEST = "(outside HTTP request)";
+
+    /**
+     * The maximum number of routes and sessions tracked, to bound the memory used.
+     */
+    private static final int MAX_TRACKED = 10_000;
+
+    /**
+     * The servlet context attribute the filter publishes itself under, for {@link Installer}.
+     */
+    @NotNull
+    private static final String ATTRIBUTE = SessionLockProfiler.class.getName();
+
+    /**
+     * A histogram of durations, with buckets growing exponentially: bucket <code>i</code> holds durations shorter
+     * than <code>2^i</code> microseconds. Thread-safe, lock-free.
+     */
+    public static final class Histogram {
+        @NotNull
+        private final AtomicLongArray buckets = new AtomicLongArray(40);
+        @NotNull
+        private final LongAdder count = new LongAdder();
+        @NotNull
+        private final LongAdder totalNanos = new LongAdder();
+        @NotNull
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            final long micros = nanos / 1000;
+            final int bucket = Math.min(64 - Long.numberOfLeadingZeros(micros), buckets.length() - 1);
+            buckets.incrementAndGet(bucket);
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        /**
+         * @return the number of recorded durations.
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * @return the sum of the recorded durations.
+         */
+        @NotNull
+        public Duration getTotal() {
+            return Duration.ofNanos(totalNanos.sum());
+        }
+
+        /**
+         * @return the longest recorded duration.
+         */
+        @NotNull
+        public Duration getMax() {
+            return Duration.ofNanos(maxNanos.get());
+        }
+
+        /**
+         * Returns the approximate percentile: the upper bound of the bucket containing it, at most {@link #getMax()}.
+         * @param percentile the percentile, 0..100.
+         * @return the percentile.
+         */
+        @NotNull
+        public Duration getPercentile(double percentile) {
+            final long count = getCount();
+            final long rank = (long) Math.ceil(count * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank && seen > 0) {
+                    return Duration.ofNanos(Math.min((1L << i) * 1000, maxNanos.get()));
+                }
+            }
+            return getMax();
+        }
+
+        @Override
+        public String toString() {
+            return "p50=" + toMillis(getPercentile(50)) + " p99=" + toMillis(getPercentile(99)) + " max=" + toMillis(getMax())
+                    + " total=" + toMillis(getTotal());
+        }
+    }
+
+    /**
+     * The session lock statistics of a route.
+     * @param lockWait how long the requests waited for the lock.
+     * @param lockHold how long the requests held the lock.
+     */
+    public record RouteStats(@NotNull Histogram lockWait, @NotNull Histogram lockHold) {
+    }
+
+    /**
+     * The session lock statistics of a session.
+     * @param sessionId the session id.
+     * @param requests the number of requests (and lock acquisitions outside of a request).
+     * @param lockWait how long the requests waited for the lock, in total.
+     * @param lockHold how long the requests held the lock, in total.
+     */
+    public record SessionStats(@NotNull String sessionId, long requests, @NotNull Duration lockWait, @NotNull Duration lockHold) {
+    }
+
+    /**
+     * The profiling report. {@link #toString()} only shows the first few characters of the session ids, since the report may be served over HTTP.
+     * @param routes the statistics per route, the one with the longest total wait first.
+     * @param hottestSessions the sessions with the longest total wait, the longest first.
+     */
+    public record Report(@NotNull Map<String, RouteStats> routes, @NotNull List<SessionStats> hottestSessions) {
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("VaadinSession lock wait and hold times per route:\n");
+            routes.forEach((route, stats) -> sb.append(route).append(": ").append(stats.lockWait().getCount()).append(" requests; wait ")
+                    .append(stats.lockWait()).append("; hold ").append(stats.lockHold()).append('\n'));
+            sb.append("\nHottest sessions:\n");
+            for (SessionStats session : hottestSessions) {
+                sb.append(session.sessionId(), 0, Math.min(6, session.sessionId().length())).append("...: ").append(session.requests()).append(" requests; wait ")
+                        .append(toMillis(session.lockWait())).append(" hold ").append(toMillis(session.lockHold())).append('\n');
+            }
+            return sb.toString();
+        }
+    }
+
+    @NotNull
+    private static String toMillis(@NotNull Duration duration) {
+        return String.format("%.3fms", duration.toNanos() / 1_000_000d);
+    }
+
+    /**
+     * The session lock wait and hold times accumulated by a thread. Only accessed by that thread.
+     */
+    private static final class Timing {
+        /**
+         * The path of the request, used as the route unless Vaadin tells better; null if the thread isn't serving an HTTP request.
+         */
+        @Nullable
+        final String path;
+        @Nullable
+        String route;
+        @Nullable
+        String sessionId;
+        long requestedNanos;
+        long acquiredNanos;
+        long waitNanos;
+        long holdNanos;
+        int locks;
+
+        Timing(@Nullable String path) {
+            this.path = path;
+        }
+    }
+
+    @NotNull
+    private final ThreadLocal<Timing> currentTiming = new ThreadLocal<>();
+    @NotNull
+    private final Map<String, RouteStats> routes = new ConcurrentHashMap<>();
+    @NotNull
+    private final Map<String, SessionStats> sessions = new ConcurrentHashMap<>();
+    @Nullable
+    private final String reportPath;
+
+    /**
+     * Creates the profiler.
+     * @param configuration the configuration.
+     */
+    public SessionLockProfiler(@NotNull VaadinBootBase<?> configuration) {
+        this.reportPath = configuration.getSessionLockReportPath();
+    }
+
+    @Override
+    public void init(@NotNull FilterConfig filterConfig) {
+        // the filters are initialized before the servlets: the attribute is there by the time Vaadin runs the Installer.
+        filterConfig.getServletContext().setAttribute(ATTRIBUTE, this);
+    }
+
+    @Override
+    public void doFilter(@NotNull ServletRequest request, @NotNull ServletResponse response, @NotNull FilterChain chain) throws IOException, ServletException {
+        if (!(request instanceof HttpServletRequest httpRequest)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        final String path = httpRequest.getRequestURI().substring(httpRequest.getContextPath().length());
+        if (path.equals(reportPath)) {
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getOutputStream().write(getReport().toString().getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        final Timing timing = new Timing(path);
+        final Timing outer = currentTiming.get();
+        currentTiming.set(timing);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // a forward or include dispatch goes through the filter again: the outermost request records the timing.
+            if (outer == null) {
+                currentTiming.remove();
+            } else {
+                currentTiming.set(outer);
+            }
+            if (timing.locks > 0) {
+                if (timing.sessionId == null) {
+                    final HttpSession session = httpRequest.getSession(false);
+                    timing.sessionId = session == null ? null : session.getId();
+                }
+                record(timing);
+            }
+        }
+    }
+
+    /**
+     * Invoked by Vaadin when the current thread is about to lock the session.
+     */
+    void lockRequested() {
+        Timing timing = currentTiming.get();
+        if (timing == null) {
+            timing = new Timing(null);
+            currentTiming.set(timing);
+        }
+        timing.requestedNanos = System.nanoTime();
+    }
+
+    /**
+     * Invoked by Vaadin when the current thread has locked the session.
+     */
+    void lockAcquired() {
+        final Timing timing = currentTiming.get();
+        if (timing == null) {
+            return;
+        }
+        timing.acquiredNanos = System.nanoTime();
+        // tryLock() fires lockRequested right after the lock has been acquired, without waiting.
+        timing.waitNanos += Math.max(0, timing.acquiredNanos - timing.requestedNanos);
+    }
+
+    /**
+     * Invoked by Vaadin when the current thread has unlocked the session.
+     */
+    void lockReleased() {
+        final Timing timing = currentTiming.get();
+        if (timing == null) {
+            return;
+        }
+        timing.holdNanos += System.nanoTime() - timing.acquiredNanos;
+        timing.locks++;
+        // the current UI and session are still set when the lock is released.
+        final UI ui = UI.getCurrent();
+        if (ui != null) {
+            timing.route = getRoute(ui);
+        }
+        final VaadinSession session = VaadinSession.getCurrent();
+        final WrappedSession wrappedSession = session == null ? null : session.getSession();
+        if (wrappedSession != null) {
+            timing.sessionId = wrappedSession.getId();
+        }
+        if (timing.path == null) {
+            // not serving an HTTP request: record every lock on its own.
+            currentTiming.remove();
+            record(timing);
+        }
+    }
+
+    private void record(@NotNull Timing timing) {
+        String route = timing.path == null ? OUTSIDE_REQUEST : timing.route != null ? timing.route : timing.path;
+        if (routes.size() >= MAX_TRACKED && !routes.containsKey(route)) {
+            route = "(other)";
+        }
+        final RouteStats stats = routes.computeIfAbsent(route, it -> new RouteStats(new Histogram(), new Histogram()));
+        stats.lockWait().record(timing.waitNanos);
+        stats.lockHold().record(timing.holdNanos);
+        if (timing.sessionId != null && (sessions.size() < MAX_TRACKED || sessions.containsKey(timing.sessionId))) {
+            sessions.merge(timing.sessionId, new SessionStats(timing.sessionId, 1, Duration.ofNanos(timing.waitNanos), Duration.ofNanos(timing.holdNanos)),
+                    (a, b) -> new SessionStats(a.sessionId(), a.requests() + b.requests(), a.lockWait().plus(b.lockWait()), a.lockHold().plus(b.lockHold())));
+        }
+    }
+
+    /**
+     * Returns the route template of the view shown in given UI, e.g. <code>/person/:id</code>; the route parameters would
+     * make too many distinct routes.
+     * @param ui the UI.
+     * @return the route template; null if the UI shows no view yet.
+     */
+    @Nullable
+    private static String getRoute(@NotNull UI ui) {
+        final List<HasElement> chain = ui.getInternals().getActiveRouterTargetsChain();
+        if (chain.isEmpty() || !(chain.get(0) instanceof Component view)) {
+            return null;
+        }
+        return ui.getInternals().getRouter().getRegistry().getTemplate(view.getClass())
+                .map(it -> "/" + it)
+                .orElse(view.getClass().getName());
+    }
+
+    /**
+     * Stops tracking the session, when it's destroyed.
+     * @param sessionId the session id.
+     */
+    void removeSession(@NotNull String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    /**
+     * Returns the statistics recorded so far.
+     * @param hottestSessions at most this many hottest sessions are returned.
+     * @return the report, not null.
+     */
+    @NotNull
+    public Report getReport(int hottestSessions) {
+        final Map<String, RouteStats> sortedRoutes = new LinkedHashMap<>();
+        routes.entrySet().stream()
+                .sorted(Comparator.comparing((Map.Entry<String, RouteStats> it) -> it.getValue().lockWait().getTotal()).reversed())
+                .forEach(it -> sortedRoutes.put(it.getKey(), it.getValue()));
+        final List<SessionStats> hottest = sessions.values().stream()
+                .sorted(Comparator.comparing(SessionStats::lockWait).reversed())
+                .limit(hottestSessions)
+                .toList();
+        return new Report(sortedRoutes, hottest);
+    }
+
+    /**
+     * Returns the statistics recorded so far, with the 10 hottest sessions.
+     * @return the report, not null.
+     */
+    @NotNull
+    public Report getReport() {
+        return getReport(10);
+    }
+
+    /**
+     * Logs the report, if anything has been recorded.
+     */
+    void logReport() {
+        if (!routes.isEmpty()) {
+            log.info(getReport().toString());
+        }
+    }
+
+    /**
+     * Registers the {@link SessionLockProfiler} to the <code>VaadinService</code>, if the web server registered the profiler filter.
+     * Discovered by Vaadin via <code>META-INF/services</code>; does nothing when the profiling is off.
+     */
+    public static final class Installer implements VaadinServiceInitListener {
+        @Override
+        public void serviceInit(@NotNull ServiceInitEvent event) {
+            if (!(event.getSource() instanceof VaadinServletService service)) {
+                return;
+            }
+            final Object profiler = service.getServlet().getServletContext().getAttribute(ATTRIBUTE);
+            if (profiler instanceof SessionLockProfiler sessionLockProfiler) {
+                service.addSessionLockListener(new SessionLockListener() {
+                    @Override
+                    public void lockRequested(@NotNull SessionLockEvent event) {
+                        sessionLockProfiler.lockRequested();
+                    }
+
+                    @Override
+                    public void lockAcquired(@NotNull SessionLockEvent event) {
+                        sessionLockProfiler.lockAcquired();
+                    }
+
+                    @Override
+                    public void lockReleased(@NotNull SessionLockEvent event) {
+                        sessionLockProfiler.lockReleased();
+                    }
+                });
+                service.addSessionDestroyListener(e -> {
+                    final WrappedSession session = e.getSession().getSession();
+                    if (session != null) {
+                        try {
+                            sessionLockProfiler.removeSession(session.getId());
+                        } catch (IllegalStateException ex) {
+                            // the session has already been invalidated
+                        }
+                    }
+                });
+                log.info("Registered the session lock profiler to " + service);
+            }
+        }
+    }
+}
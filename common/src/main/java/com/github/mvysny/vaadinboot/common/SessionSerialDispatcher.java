@@ -0,0 +1,305 @@
+package com.github.mvysny.vaadinboot.common;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves the Vaadin requests of a session one at a time, see {@link VaadinBootBase#sessionSerialDispatch(boolean)}.
+ * Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * The requests of a session serialize on the <code>VaadinSession</code> lock anyway. Without this filter, every request
+ * waiting for the lock holds a thread parked on the lock; with this filter, a Vaadin request arriving while another request
+ * of the same session is being served is suspended via {@link ServletRequest#startAsync(ServletRequest, ServletResponse)}
+ * and queued, holding no thread at all. When the running request completes, the next queued request is resumed via
+ * {@link AsyncContext#dispatch()}. Requests of different sessions run in parallel.
+ * <br/>
+ * The requests are resumed by the web server's threads rather than by a thread of our own: the web servers recycle
+ * the filter chain once the original thread returns, so a suspended request can only be resumed by dispatching it again.
+ * The web servers therefore map this filter to both the <code>REQUEST</code> and the <code>ASYNC</code> dispatches; the app's
+ * filters mapped to <code>REQUEST</code> dispatches only don't see the resumed requests.
+ * <br/>
+ * Only the Vaadin requests (with the <code>v-r</code> query parameter) carrying a session cookie are serialized;
+ * static resources and push connections are passed through.
+ */
+public final class SessionSerialDispatcher implements Filter {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(SessionSerialDispatcher.class);
+
+    /**
+     * The request attribute marking a resumed request; holds the {@link SessionQueue} the request belongs to.
+     */
+    @NotNull
+    private static final String RESUMED_ATTRIBUTE = SessionSerialDispatcher.class.getName() + ".queue";
+
+    /**
+     * The statistics of the dispatcher.
+     * @param busySessions the number of sessions being served right now.
+     * @param queuedRequests the number of requests waiting in the queues right now.
+     * @param maxQueueDepth the deepest queue of a single session seen so far.
+     * @param resumedRequests the number of requests which had to wait in the queue, and have been resumed.
+     * @param rejectedRequests the number of requests rejected since the queue of their session was full.
+     */
+    public record Statistics(int busySessions, int queuedRequests, int maxQueueDepth, long resumedRequests, long rejectedRequests) {
+        @Override
+        public String toString() {
+            return busySessions + " busy sessions, " + queuedRequests + " queued requests, max queue depth " + maxQueueDepth
+                    + ", " + resumedRequests + " resumed, " + rejectedRequests + " rejected";
+        }
+    }
+
+    /**
+     * The requests of a session. Only accessed while holding the lock on this object.
+     */
+    private static final class SessionQueue {
+        @NotNull
+        final String sessionId;
+        @NotNull
+        final ArrayDeque<AsyncContext> waiting = new ArrayDeque<>();
+        /**
+         * True if a request of the session is being served.
+         */
+        boolean running;
+        /**
+         * True once the queue has been removed from {@link #queues}: a request which obtained the queue before the removal must retry.
+         */
+        boolean removed;
+
+        SessionQueue(@NotNull String sessionId) {
+            this.sessionId = sessionId;
+        }
+    }
+
+    private final int maxQueueDepth;
+    @NotNull
+    private final Map<String, SessionQueue> queues = new ConcurrentHashMap<>();
+    @NotNull
+    private final AtomicInteger queuedRequests = new AtomicInteger();
+    @NotNull
+    private final AtomicInteger maxQueueDepthSeen = new AtomicInteger();
+    @NotNull
+    private final LongAdder resumedRequests = new LongAdder();
+    @NotNull
+    private final LongAdder rejectedRequests = new LongAdder();
+
+    /**
+     * Creates the dispatcher.
+     * @param configuration the configuration.
+     */
+    public SessionSerialDispatcher(@NotNull VaadinBootBase<?> configuration) {
+        maxQueueDepth = configuration.getSessionQueueDepth();
+    }
+
+    @Override
+    public void doFilter(@NotNull ServletRequest request, @NotNull ServletResponse response, @NotNull FilterChain chain) throws IOException, ServletException {
+        if (request.getDispatcherType() == DispatcherType.ASYNC && request.getAttribute(RESUMED_ATTRIBUTE) instanceof SessionQueue queue) {
+            request.removeAttribute(RESUMED_ATTRIBUTE);
+            serve(request, response, chain, queue);
+            return;
+        }
+        final String sessionId = getSerializedSessionId(request);
+        if (sessionId == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        while (true) {
+            final SessionQueue queue = queues.computeIfAbsent(sessionId, SessionQueue::new);
+            synchronized (queue) {
+                if (queue.removed) {
+                    continue;
+                }
+                if (queue.running) {
+                    if (queue.waiting.size() >= maxQueueDepth) {
+                        rejectedRequests.increment();
+                        break;
+                    }
+                    // pass in the request and the response, so that the resumed request goes through the request wrappers as well.
+                    final AsyncContext asyncContext = request.startAsync(request, response);
+                    // the request may wait for long, e.g. for a long-running UIDL request to complete.
+                    asyncContext.setTimeout(0);
+                    asyncContext.addListener(new QueuedRequestListener(queue, asyncContext));
+                    queue.waiting.add(asyncContext);
+                    queuedRequests.incrementAndGet();
+                    maxQueueDepthSeen.accumulateAndGet(queue.waiting.size(), Math::max);
+                    return;
+                }
+                queue.running = true;
+            }
+            serve(request, response, chain, queue);
+            return;
+        }
+        ((HttpServletResponse) response).sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many concurrent requests for this session");
+    }
+
+    /**
+     * Returns the id of the session whose requests are serialized.
+     * @param request the request.
+     * @return the session id; null if the request isn't serialized.
+     */
+    @Nullable
+    private static String getSerializedSessionId(@NotNull ServletRequest request) {
+        if (!(request instanceof HttpServletRequest httpRequest) || request.getDispatcherType() != DispatcherType.REQUEST || !request.isAsyncSupported()) {
+            return null;
+        }
+        final String requestType = AccessLog.getVaadinRequestType(httpRequest.getQueryString());
+        // push connections are long-lived: serializing them would block the session forever.
+        if (requestType == null || requestType.equals("push")) {
+            return null;
+        }
+        return httpRequest.getRequestedSessionId();
+    }
+
+    /**
+     * Serves the request, then resumes the next queued request of the session.
+     */
+    private void serve(@NotNull ServletRequest request, @NotNull ServletResponse response, @NotNull FilterChain chain, @NotNull SessionQueue queue) throws IOException, ServletException {
+        boolean completed = true;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // the app continues serving the request asynchronously.
+                completed = false;
+                request.getAsyncContext().addListener(new AsyncListenerAdapter() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        resumeNext(queue);
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                        // e.g. the ConcurrencyLimiter suspends the request again, which removes the listeners: stay registered.
+                        event.getAsyncContext().addListener(this);
+                    }
+                });
+            }
+        } finally {
+            if (completed) {
+                resumeNext(queue);
+            }
+        }
+    }
+
+    private void resumeNext(@NotNull SessionQueue queue) {
+        final AsyncContext next;
+        synchronized (queue) {
+            next = queue.waiting.poll();
+            if (next == null) {
+                queue.running = false;
+                queue.removed = true;
+                queues.remove(queue.sessionId, queue);
+                return;
+            }
+        }
+        queuedRequests.decrementAndGet();
+        resumedRequests.increment();
+        next.getRequest().setAttribute(RESUMED_ATTRIBUTE, queue);
+        try {
+            next.dispatch();
+        } catch (RuntimeException e) {
+            // e.g. the request has already been completed because the client went away: don't block the session.
+            log.debug("Failed to resume a queued request: " + e, e);
+            next.getRequest().removeAttribute(RESUMED_ATTRIBUTE);
+            resumeNext(queue);
+        }
+    }
+
+    /**
+     * Makes sure that a queued request which completes without being served doesn't block the session: e.g. when the
+     * client goes away while the request is waiting in the queue.
+     */
+    private final class QueuedRequestListener extends AsyncListenerAdapter {
+        @NotNull
+        private final SessionQueue queue;
+        @NotNull
+        private final AsyncContext asyncContext;
+
+        QueuedRequestListener(@NotNull SessionQueue queue, @NotNull AsyncContext asyncContext) {
+            this.queue = queue;
+            this.asyncContext = asyncContext;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            final boolean waiting;
+            synchronized (queue) {
+                waiting = queue.waiting.remove(asyncContext);
+            }
+            if (waiting) {
+                queuedRequests.decrementAndGet();
+            } else if (asyncContext.getRequest().getAttribute(RESUMED_ATTRIBUTE) == queue) {
+                // dispatched, but completed before being served.
+                asyncContext.getRequest().removeAttribute(RESUMED_ATTRIBUTE);
+                resumeNext(queue);
+            }
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            asyncContext.complete();
+        }
+    }
+
+    /**
+     * An {@link AsyncListener} doing nothing by default.
+     */
+    private static class AsyncListenerAdapter implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    /**
+     * Returns the number of requests of given session waiting in the queue.
+     * @param sessionId the session id.
+     * @return the queue depth, 0 if the session isn't being served.
+     */
+    public int getQueueDepth(@NotNull String sessionId) {
+        final SessionQueue queue = queues.get(sessionId);
+        if (queue == null) {
+            return 0;
+        }
+        synchronized (queue) {
+            return queue.waiting.size();
+        }
+    }
+
+    /**
+     * Returns the statistics.
+     * @return the statistics, not null.
+     */
+    @NotNull
+    public Statistics getStatistics() {
+        return new Statistics(queues.size(), queuedRequests.get(), maxQueueDepthSeen.get(), resumedRequests.sum(), rejectedRequests.sum());
+    }
+}
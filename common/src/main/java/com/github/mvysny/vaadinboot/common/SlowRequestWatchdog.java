@@ -0,0 +1,244 @@
+package com.github.mvysny.vaadinboot.common;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Watches the in-flight requests and profiles the slow ones, see {@link VaadinBootBase#slowRequestThreshold(Duration)}.
+ * Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * The web servers register the watchdog as the first filter. The filter only records the request and its thread;
+ * a background thread periodically checks the in-flight requests, and samples the stack of every thread which has been
+ * serving its request for longer than the threshold. When a slow request completes, its samples are reported as a collapsed
+ * stack profile, which flame graph tools accept as-is.
+ * <br/>
+ * Only the synchronous part of the request is watched: the request is considered completed when the servlet returns,
+ * even if it has started asynchronous processing.
+ */
+public final class SlowRequestWatchdog implements Filter, Closeable {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(SlowRequestWatchdog.class);
+
+    /**
+     * A slow request, profiled.
+     * @param method the HTTP method.
+     * @param uri the request path including the query string, which tells the Vaadin request type and often the route.
+     * @param sessionId the session id requested by the browser; null if the request carried no session cookie.
+     * @param threadName the name of the thread which served the request.
+     * @param elapsed how long it took to serve the request.
+     * @param collapsedStacks the sampled stacks in the collapsed format: frames from the root separated by <code>;</code>,
+     *                        mapped to the number of samples. Ordered by the number of samples, descending.
+     */
+    public record SlowRequest(@NotNull String method, @NotNull String uri, @Nullable String sessionId, @NotNull String threadName,
+                              @NotNull Duration elapsed, @NotNull Map<String, Integer> collapsedStacks) {
+        /**
+         * The number of stack samples taken.
+         * @return the number of samples.
+         */
+        public int sampleCount() {
+            return collapsedStacks.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        /**
+         * The profile in the collapsed stack format, one <code>frame;frame;frame count</code> line per stack.
+         * @return the profile, not null.
+         */
+        @NotNull
+        public String toCollapsedStacks() {
+            return collapsedStacks.entrySet().stream()
+                    .map(it -> it.getKey() + " " + it.getValue())
+                    .collect(Collectors.joining("\n"));
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + uri + " took " + elapsed.toMillis() + "ms, session " + sessionId + ", thread " + threadName + ", " + sampleCount() + " samples";
+        }
+    }
+
+    /**
+     * A request being served. The samples are only accessed while holding the lock on this object.
+     * <br/>
+     * The request details are captured up-front, since the request object must not be accessed from the sampler thread.
+     */
+    private static final class InFlight {
+        @NotNull
+        final String method;
+        @NotNull
+        final String path;
+        @Nullable
+        final String query;
+        @NotNull
+        final Thread thread;
+        final long startNanos = System.nanoTime();
+        @Nullable
+        Map<String, Integer> samples;
+
+        InFlight(@NotNull HttpServletRequest request, @NotNull Thread thread) {
+            this.method = request.getMethod();
+            this.path = request.getRequestURI();
+            this.query = request.getQueryString();
+            this.thread = thread;
+        }
+
+        @NotNull
+        String getUri() {
+            return query == null ? path : path + "?" + query;
+        }
+    }
+
+    private final long thresholdNanos;
+    @NotNull
+    private final Consumer<SlowRequest> listener;
+    @NotNull
+    private final Set<InFlight> inFlight = ConcurrentHashMap.newKeySet();
+    @NotNull
+    private final ScheduledExecutorService sampler;
+
+    /**
+     * Creates the watchdog and starts the background sampling thread.
+     * @param configuration the configuration; {@link VaadinBootBase#getSlowRequestThreshold()} must not be null.
+     */
+    public SlowRequestWatchdog(@NotNull VaadinBootBase<?> configuration) {
+        thresholdNanos = Util.checkNotNull(configuration.getSlowRequestThreshold(), "slow request threshold not configured").toNanos();
+        final Consumer<SlowRequest> listener = configuration.getSlowRequestListener();
+        this.listener = listener != null ? listener : SlowRequestWatchdog::logSlowRequest;
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "vaadin-boot-slow-request-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long intervalNanos = configuration.getSlowRequestSamplingInterval().toNanos();
+        sampler.scheduleAtFixedRate(() -> {
+            try {
+                sample();
+            } catch (RuntimeException e) {
+                // an exception would cancel the periodic sampling.
+                log.error("Failed to sample slow requests: " + e, e);
+            }
+        }, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void doFilter(@NotNull ServletRequest request, @NotNull ServletResponse response, @NotNull FilterChain chain) throws IOException, ServletException {
+        if (!(request instanceof HttpServletRequest httpRequest)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        final InFlight entry = new InFlight(httpRequest, Thread.currentThread());
+        inFlight.add(entry);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            inFlight.remove(entry);
+            final Map<String, Integer> samples;
+            synchronized (entry) {
+                samples = entry.samples;
+                // the sampler may still hold the entry: make sure it doesn't sample this thread's next request.
+                entry.samples = null;
+            }
+            if (samples != null) {
+                report(entry, httpRequest.getRequestedSessionId(), samples);
+            }
+        }
+    }
+
+    /**
+     * The number of requests being served right now.
+     * @return the number of in-flight requests.
+     */
+    public int getInFlightRequests() {
+        return inFlight.size();
+    }
+
+    /**
+     * Invoked periodically by the sampler thread.
+     */
+    private void sample() {
+        if (inFlight.isEmpty()) {
+            return;
+        }
+        final long now = System.nanoTime();
+        for (InFlight entry : inFlight) {
+            if (now - entry.startNanos < thresholdNanos) {
+                continue;
+            }
+            final StackTraceElement[] stackTrace = entry.thread.getStackTrace();
+            synchronized (entry) {
+                if (!inFlight.contains(entry)) {
+                    // completed while we were sampling: the stack trace may belong to another request.
+                    continue;
+                }
+                if (entry.samples == null) {
+                    entry.samples = new HashMap<>();
+                    log.warn("Slow request in progress: " + entry.method + " " + entry.getUri() + " running for "
+                            + Duration.ofNanos(now - entry.startNanos).toMillis() + "ms on " + entry.thread);
+                }
+                entry.samples.merge(collapse(stackTrace), 1, Integer::sum);
+            }
+        }
+    }
+
+    private void report(@NotNull InFlight entry, @Nullable String sessionId, @NotNull Map<String, Integer> samples) {
+        final Map<String, Integer> sorted = samples.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+        final SlowRequest slowRequest = new SlowRequest(entry.method, entry.getUri(), sessionId,
+                entry.thread.getName().isEmpty() ? entry.thread.toString() : entry.thread.getName(),
+                Duration.ofNanos(System.nanoTime() - entry.startNanos), sorted);
+        try {
+            listener.accept(slowRequest);
+        } catch (RuntimeException e) {
+            log.error("Slow request listener failed: " + e, e);
+        }
+    }
+
+    /**
+     * Converts the stack trace to the collapsed format: frames from the root to the top, separated by <code>;</code>.
+     * @param stackTrace the stack trace, top frame first.
+     * @return the collapsed stack, not null.
+     */
+    @NotNull
+    static String collapse(@NotNull StackTraceElement[] stackTrace) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = stackTrace.length - 1; i >= 0; i--) {
+            if (!sb.isEmpty()) {
+                sb.append(';');
+            }
+            sb.append(stackTrace[i].getClassName()).append('.').append(stackTrace[i].getMethodName());
+        }
+        return sb.toString();
+    }
+
+    private static void logSlowRequest(@NotNull SlowRequest slowRequest) {
+        log.warn("Slow request: " + slowRequest + "\n" + slowRequest.toCollapsedStacks());
+    }
+
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+    }
+}
@@ -8,6 +8,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
 
 /**
  * Internal utility methods.
@@ -64,4 +68,20 @@ public final class Util {
             return new String(is.readAllBytes(), charset);
         }
     }
+
+    /**
+     * Deletes given file or folder including all of its contents. Does nothing if the file doesn't exist.
+     * @param path the file or folder to delete.
+     * @throws IOException on i/o error.
+     */
+    public static void deleteRecursively(@NotNull Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
 }
@@ -6,9 +6,14 @@ import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * Bootstraps your Vaadin application from your <code>main()</code> function. Simply call
@@ -66,166 +71,2043 @@ public abstract class VaadinBootBase<THIS extends VaadinBootBase<THIS>> {
      */
     private boolean openBrowserInDevMode = true;
 
+    /**
+     * If true, the web server doesn't listen on any network port; instead, requests are passed to the web server
+     * in-process, via {@link #getInMemoryConnector()}. Defaults to false.
+     */
+    private boolean inMemory = false;
+
+    /**
+     * If true and running in a development environment, the webapp is restarted in-JVM whenever the compiled classes change.
+     * Defaults to false.
+     */
+    private boolean restartOnClassChange = false;
+
+    /**
+     * Path prefixes served directly by the web server's default servlet, bypassing Vaadin. Defaults to none.
+     */
+    @NotNull
+    private List<String> zeroCopyStaticPaths = List.of();
+
+    /**
+     * If true and the <code>/webapp</code> folder is packaged in a jar file, it's extracted into a cache folder at boot.
+     * Defaults to false.
+     */
+    private boolean extractWebRoot = false;
+
+    /**
+     * The MIME types compressed by default: the Vaadin bootstrap page, UIDL responses and the text-based static files.
+     */
+    @NotNull
+    public static final List<String> DEFAULT_COMPRESSION_MIME_TYPES = List.of("text/html", "text/xml", "text/plain",
+            "text/css", "text/javascript", "application/javascript", "application/json", "application/xml", "image/svg+xml");
+
+    /**
+     * If true, responses are compressed when the browser supports it. Defaults to false.
+     * <br/>
+     * Can be configured via the <code>SERVER_COMPRESSION_ENABLED</code> environment variable, or <code>-Dserver.compression.enabled=</code> Java system property.
+     */
+    private boolean compression = Boolean.parseBoolean(Env.getProperty("SERVER_COMPRESSION_ENABLED", "server.compression.enabled", "false"));
+
+    /**
+     * Responses smaller than this many bytes are not compressed. Defaults to 2048.
+     * <br/>
+     * Can be configured via the <code>SERVER_COMPRESSION_MIN_RESPONSE_SIZE</code> environment variable, or <code>-Dserver.compression.min-response-size=</code> Java system property.
+     */
+    private int compressionMinSize = Integer.parseInt(Env.getProperty("SERVER_COMPRESSION_MIN_RESPONSE_SIZE", "server.compression.min-response-size", "2048"));
+
+    /**
+     * Only responses of these MIME types are compressed. Defaults to {@link #DEFAULT_COMPRESSION_MIME_TYPES}.
+     * <br/>
+     * Can be configured via the <code>SERVER_COMPRESSION_MIME_TYPES</code> environment variable, or <code>-Dserver.compression.mime-types=</code> Java system property,
+     * as a comma-separated list.
+     */
+    @NotNull
+    private List<String> compressionMimeTypes = parseMimeTypes(Env.getProperty("SERVER_COMPRESSION_MIME_TYPES", "server.compression.mime-types", String.join(",", DEFAULT_COMPRESSION_MIME_TYPES)));
+
+    /**
+     * The HTTP tuning preset; null to use the web server's defaults (the default).
+     * <br/>
+     * Can be configured via the <code>SERVER_HTTP_PRESET</code> environment variable, or <code>-Dserver.http.preset=</code> Java system property.
+     */
+    @Nullable
+    private HttpPreset httpPreset = parseHttpPreset(Env.getProperty("SERVER_HTTP_PRESET", "server.http.preset"));
+
+    /**
+     * The server resources derived from the CPUs and the memory available to the app.
+     */
+    @NotNull
+    private final ResourceDefaults resourceDefaults = ResourceDefaults.detect();
+
+    /**
+     * The number of acceptor threads; null to derive from the CPUs (the default).
+     */
+    @Nullable
+    private Integer acceptors = null;
+
+    /**
+     * The number of selector threads; null to derive from the CPUs (the default).
+     */
+    @Nullable
+    private Integer selectors = null;
+
+    /**
+     * The minimum number of request threads; null to use the HTTP preset, or to derive from the CPUs (the default).
+     */
+    @Nullable
+    private Integer minThreads = null;
+
+    /**
+     * The maximum number of request threads; null to derive from the CPUs and the memory (the default).
+     */
+    @Nullable
+    private Integer maxThreads = null;
+
+    /**
+     * The gzip compression level, 1..9, or -1 for the default level.
+     */
+    private int compressionLevel = -1;
+
+    /**
+     * If true, compressed request bodies are inflated before they reach the app. Defaults to false.
+     */
+    private boolean inflateRequestBodies = false;
+
+    /**
+     * The maximum size of an inflated request body, in bytes. Defaults to 10 MB.
+     */
+    private long inflatedRequestMaxSize = 10L * 1024 * 1024;
+
+    /**
+     * Whether the web server initializes its WebSocket support; null to detect (the default).
+     */
+    @Nullable
+    private Boolean webSocket = null;
+
+    /**
+     * If true, the web server only sets up what a Vaadin app needs. Defaults to false.
+     */
+    private boolean minimalContainer = false;
+
+    /**
+     * If true, the web app runs directly on the application classloader. Defaults to false.
+     */
+    private boolean flatClassLoader = false;
+
+    /**
+     * If true, push WebSocket connections may use the permessage-deflate compression. Defaults to true.
+     */
+    private boolean pushCompression = true;
+
+    /**
+     * The maximum size of a message received over a push WebSocket connection, in bytes. Defaults to 16384, same as Vaadin.
+     */
+    private int pushMaxMessageSize = 16384;
+
+    /**
+     * Idle push WebSocket connections are closed after this time. Defaults to 5 minutes, same as Vaadin.
+     */
+    @NotNull
+    private Duration pushIdleTimeout = Duration.ofMinutes(5);
+
+    /**
+     * The fields logged by default: everything except the user agent.
+     */
+    @NotNull
+    public static final List<AccessLogField> DEFAULT_ACCESS_LOG_FIELDS = List.of(AccessLogField.TIME, AccessLogField.REMOTE_ADDRESS,
+            AccessLogField.METHOD, AccessLogField.URI, AccessLogField.PROTOCOL, AccessLogField.STATUS, AccessLogField.BYTES,
+            AccessLogField.SERVICE_TIME, AccessLogField.VAADIN_REQUEST_TYPE);
+
+    /**
+     * The access log file; null (the default) disables the access log.
+     * <br/>
+     * Can be configured via the <code>SERVER_ACCESSLOG_FILE</code> environment variable, or <code>-Dserver.accesslog.file=</code> Java system property.
+     */
+    @Nullable
+    private File accessLogFile = toFile(Env.getProperty("SERVER_ACCESSLOG_FILE", "server.accesslog.file"));
+
+    @NotNull
+    private List<AccessLogField> accessLogFields = DEFAULT_ACCESS_LOG_FIELDS;
+
+    /**
+     * The capacity of the access log ring buffer. Defaults to 8192 entries.
+     */
+    private int accessLogBufferSize = 8192;
+
+    /**
+     * The access log is rotated when it grows over this size, in bytes. Defaults to 100 MB; 0 disables size-based rotation.
+     */
+    private long accessLogMaxFileSize = 100L * 1024 * 1024;
+
+    /**
+     * The access log is rotated after this time. Defaults to 1 day; null disables time-based rotation.
+     */
+    @Nullable
+    private Duration accessLogRotationInterval = Duration.ofDays(1);
+
+    /**
+     * The running access log; null if the access log is off or the server isn't running.
+     */
+    @Nullable
+    private volatile AccessLog accessLog;
+
+    /**
+     * Requests taking longer than this are profiled; null (the default) turns the slow request watchdog off.
+     */
+    @Nullable
+    private Duration slowRequestThreshold = null;
+
+    /**
+     * How often the stacks of the slow requests are sampled. Defaults to 100 milliseconds.
+     */
+    @NotNull
+    private Duration slowRequestSamplingInterval = Duration.ofMillis(100);
+
+    /**
+     * Receives the profiles of the slow requests; null (the default) logs them.
+     */
+    @Nullable
+    private Consumer<SlowRequestWatchdog.SlowRequest> slowRequestListener = null;
+
+    /**
+     * The running slow request watchdog; null if the watchdog is off or the server isn't running.
+     */
+    @Nullable
+    private volatile SlowRequestWatchdog slowRequestWatchdog;
+
+    /**
+     * If true, the virtual thread pinning is monitored. Defaults to false.
+     */
+    private boolean pinningMonitor = false;
+
+    /**
+     * Only pinning longer than this is recorded. Defaults to 20 milliseconds, same as JFR.
+     */
+    @NotNull
+    private Duration pinningThreshold = Duration.ofMillis(20);
+
+    /**
+     * The path serving the pinning report; null (the default) doesn't serve the report.
+     */
+    @Nullable
+    private String pinningReportPath = null;
+
+    /**
+     * The running pinning monitor; null if the monitor is off or the server isn't running.
+     */
+    @Nullable
+    private volatile PinningMonitor pinningMonitorInstance;
+
+    /**
+     * If true, the VaadinSession lock wait and hold times are measured. Defaults to false.
+     */
+    private boolean sessionLockProfiling = false;
+
+    /**
+     * The path serving the session lock profiling report; null (the default) doesn't serve the report.
+     */
+    @Nullable
+    private String sessionLockReportPath = null;
+
+    /**
+     * The running session lock profiler; null if the profiling is off or the server isn't running.
+     */
+    @Nullable
+    private volatile SessionLockProfiler sessionLockProfiler;
+
+    /**
+     * If true, the Vaadin requests of a session are served one at a time. Defaults to false.
+     */
+    private boolean sessionSerialDispatch = false;
+
+    /**
+     * The maximum number of requests of a single session waiting to be served. Defaults to 32.
+     */
+    private int sessionQueueDepth = 32;
+
+    /**
+     * The running session serial dispatcher; null if the serial dispatch is off or the server isn't running.
+     */
+    @Nullable
+    private volatile SessionSerialDispatcher sessionSerialDispatcher;
+
+    /**
+     * The paths requested during the warm-up, relative to the context root. Empty by default: no warm-up.
+     */
+    @NotNull
+    private List<String> warmUpPaths = List.of();
+
+    /**
+     * The maximum number of warm-up iterations. Defaults to 10.
+     */
+    private int warmUpIterations = 10;
+
+    /**
+     * The maximum duration of the warm-up. Defaults to 30 seconds.
+     */
+    @NotNull
+    private Duration warmUpTimeBudget = Duration.ofSeconds(30);
+
+    /**
+     * The readiness path; null if the readiness isn't served.
+     */
+    @Nullable
+    private String readinessPath = null;
+
+    /**
+     * The readiness check; null if the readiness isn't served or the server isn't running.
+     */
+    @Nullable
+    private volatile ReadinessCheck readinessCheck;
+
+    /**
+     * True once the app has been started and warmed up; false again once the app starts stopping.
+     */
+    private volatile boolean ready = false;
+
+    /**
+     * The requests per second a single client may send; 0 if the requests aren't limited (the default).
+     */
+    private int rateLimitRequestsPerSecond = 0;
+
+    /**
+     * The number of requests a single client may send in a burst.
+     */
+    private int rateLimitRequestBurst = 0;
+
+    /**
+     * The sessions per minute a single client may create; 0 if the session creation isn't limited (the default).
+     */
+    private int sessionRateLimitPerMinute = 0;
+
+    /**
+     * The number of sessions a single client may create in a burst.
+     */
+    private int sessionRateLimitBurst = 0;
+
+    /**
+     * If true, the rate limiter identifies the clients by the forwarded headers. Defaults to false.
+     */
+    private boolean rateLimitForwardedHeaders = false;
+
+    /**
+     * The maximum number of clients tracked by the rate limiter. Defaults to 100000.
+     */
+    private int rateLimitMaxClients = 100_000;
+
+    /**
+     * The running rate limiter; null if the rate limiting is off or the server isn't running.
+     */
+    @Nullable
+    private volatile RateLimiter rateLimiter;
+
+    /**
+     * If true, the number of requests served at once adapts to the observed latency. Defaults to false.
+     */
+    private boolean adaptiveConcurrency = false;
+
+    /**
+     * The minimum concurrency limit. Defaults to 4.
+     */
+    private int adaptiveConcurrencyMinLimit = 4;
+
+    /**
+     * The maximum concurrency limit; null to derive from the CPUs (the default).
+     */
+    @Nullable
+    private Integer adaptiveConcurrencyMaxLimit = null;
+
+    /**
+     * The maximum number of requests waiting for the concurrency limit; null to derive from the CPUs (the default).
+     */
+    @Nullable
+    private Integer adaptiveConcurrencyQueueDepth = null;
+
+    /**
+     * How long a request may wait for the concurrency limit. Defaults to 2 seconds.
+     */
+    @NotNull
+    private Duration adaptiveConcurrencyQueueTimeout = Duration.ofSeconds(2);
+
+    /**
+     * The running concurrency limiter; null if the adaptive concurrency is off or the server isn't running.
+     */
+    @Nullable
+    private volatile ConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * The port of the admin endpoints; null if the admin endpoints aren't served (the default).
+     * <br/>
+     * Can be configured via the <code>MANAGEMENT_SERVER_PORT</code> environment variable, or <code>-Dmanagement.server.port=</code> Java system property.
+     */
+    @Nullable
+    private Integer adminPort = parseAdminPort(Env.getProperty("MANAGEMENT_SERVER_PORT", "management.server.port"));
+
+    /**
+     * Listen with the admin endpoints on interface handling given host name; null listens on all interfaces.
+     * Defaults to <code>localhost</code>.
+     * <br/>
+     * Can be configured via the <code>MANAGEMENT_SERVER_ADDRESS</code> environment variable, or <code>-Dmanagement.server.address=</code> Java system property.
+     */
+    @Nullable
+    private String adminListenOn = Objects.requireNonNullElse(Env.getProperty("MANAGEMENT_SERVER_ADDRESS", "management.server.address"), "localhost");
+
+    /**
+     * The number of threads serving the admin endpoints. Defaults to 2.
+     */
+    private int adminThreads = 2;
+
     /**
      * Creates new Vaadin Boot instance.
      * @param webServer the underlying web server.
      */
-    protected VaadinBootBase(@NotNull WebServer webServer) {
-        this.server = Objects.requireNonNull(webServer);
+    protected VaadinBootBase(@NotNull WebServer webServer) {
+        this.server = Objects.requireNonNull(webServer);
+    }
+
+    /**
+     * Sets the port to listen on. Listens on {@value #DEFAULT_PORT} by default.
+     * @param port the new port, 1..65535, or 0 to listen on an ephemeral port chosen by the OS.
+     */
+    public void setPort(int port) {
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Parameter port: invalid value " + port + ": must be 0..65535");
+        }
+        this.port = port;
+    }
+
+    /**
+     * Sets the port to listen on. Listens on {@value #DEFAULT_PORT} by default.
+     * @param port the new port, 1..65535, or 0 to listen on an ephemeral port chosen by the OS.
+     * @return this
+     */
+    @NotNull
+    public THIS withPort(int port) {
+        setPort(port);
+        return getThis();
+    }
+
+    /**
+     * Returns the port to listen on. Listens on {@value #DEFAULT_PORT} by default.
+     * <br/>
+     * Can be configured via the <code>SERVER_PORT</code> environment variable, or <code>-Dserver.port=</code> Java system property,
+     * or via {@link #setPort(int)}.
+     * <br/>
+     * If the port is configured to 0 and the app is running, returns the ephemeral port the web server actually listens on.
+     * @return port the port, 1..65535; 0 if an ephemeral port is requested but the app isn't running, or runs {@link #isInMemory() in-memory}.
+     */
+    public int getPort() {
+        if (port == 0 && serverStarted && !serverStopped && !inMemory) {
+            return server.getLocalPort();
+        }
+        return port;
+    }
+
+    @SuppressWarnings("unchecked")
+    @NotNull
+    private THIS getThis() {
+        return (THIS) this;
+    }
+
+    /**
+     * Listen on network interface handling given host name. Pass in <code>null</code> to listen on all interfaces;
+     * pass in `127.0.0.1` or `localhost` to listen on localhost only (or call {@link #localhostOnly()}).
+     * @param hostName the interface to listen on.
+     * @return this
+     */
+    @NotNull
+    public THIS listenOn(@Nullable String hostName) {
+        setListenOn(hostName);
+        return getThis();
+    }
+
+    /**
+     * Listen on network interface handling given host name. Pass in <code>null</code> to listen on all interfaces;
+     * pass in `127.0.0.1` or `localhost` to listen on localhost only (or call {@link #localhostOnly()}).
+     * @param hostName the interface to listen on.
+     */
+    public void setListenOn(@Nullable String hostName) {
+        this.hostName = hostName;
+    }
+
+    /**
+     * Listen on network interface handling given host name. Pass in <code>null</code> to listen on all interfaces;
+     * pass in `127.0.0.1` or `localhost` to listen on localhost only (or call {@link #localhostOnly()}).
+     * <br/>
+     * Can be configured via the <code>SERVER_ADDRESS</code> environment variable, or <code>-Dserver.address=</code> Java system property,
+     * or via {@link #listenOn(String)} or {@link #localhostOnly()}.
+     * @return hostName interface to listen on.
+     */
+    public @Nullable String getListenOn() {
+        return hostName;
+    }
+
+    /**
+     * Listen on the <code>localhost</code> network interface only.
+     * @return this
+     */
+    @NotNull
+    public THIS localhostOnly() {
+        return listenOn("localhost");
+    }
+
+    /**
+     * Change this to e.g. /foo to host your app on a different context root
+     * @param contextRoot the new context root, e.g. `/foo`. Pass in either an empty string or "/" to serve on the base context root.
+     * @return this
+     */
+    @NotNull
+    public THIS withContextRoot(@NotNull String contextRoot) {
+        setContextRoot(contextRoot);
+        return getThis();
+    }
+
+    /**
+     * Change this to e.g. /foo to host your app on a different context root
+     * @param contextRoot the new context root, e.g. `/foo`. Pass in either an empty string or "/" to serve on the base context root.
+     */
+    public void setContextRoot(@NotNull String contextRoot) {
+        this.contextRoot = postprocessContextRoot(contextRoot);
+    }
+
+    /**
+     * Returns the current context root.
+     * <br/>
+     * Can be configured via the <code>SERVER_SERVLET_CONTEXT_PATH</code> environment variable, or <code>-Dserver.servlet.context-path=</code> Java system property,
+     * or via {@link #withContextRoot(String)}.
+     * <br/>
+     * Example values:
+     * <ul>
+     *     <li>""</li>
+     *     <li>"/" - same as ""</li>
+     *     <li>"/foo"</li>
+     *     <li>"foobar" - will be changed to "/foobar"</li>
+     *     <li>"foo/bar/baz" - will be changed to "/foo/bar/baz"</li>
+     * </ul>
+     * @return the context root, e.g. `/foo`. Defaults to "".
+     */
+    public @NotNull String getContextRoot() {
+        return contextRoot;
+    }
+
+    @NotNull
+    private static String postprocessContextRoot(@NotNull String contextRoot) {
+        Objects.requireNonNull(contextRoot);
+        if (contextRoot.equals("/")) {
+            contextRoot = "";
+        }
+        if (!contextRoot.startsWith("/")) {
+            contextRoot = "/" + contextRoot;
+        }
+        if (contextRoot.endsWith("/")) {
+            contextRoot = contextRoot.substring(0, contextRoot.length() - 1);
+        }
+        return contextRoot;
+    }
+
+    /**
+     * When the app launches, open the browser automatically when in dev mode.
+     * @param openBrowserInDevMode defaults to true.
+     * @return this
+     */
+    @NotNull
+    public THIS openBrowserInDevMode(boolean openBrowserInDevMode) {
+        this.openBrowserInDevMode = openBrowserInDevMode;
+        return getThis();
+    }
+
+    /**
+     * When the app launches, open the browser automatically when in dev mode.
+     * @return if true, open the browser automatically when in dev mode.
+     */
+    public boolean isOpenBrowserInDevMode() {
+        return openBrowserInDevMode;
+    }
+
+    /**
+     * Starts the full web app with an in-memory connector instead of a network listener: no port is bound,
+     * and raw HTTP requests are sent in-process via {@link #getInMemoryConnector()}. Intended for fast
+     * integration tests; multiple in-memory servers can run in the same JVM or in parallel test forks
+     * without port clashes.
+     * <br/>
+     * {@link #getPort()} and {@link #getListenOn()} are ignored by web servers supporting a true in-memory
+     * connector (Jetty); Tomcat has no in-memory connector and binds an ephemeral port on the loopback interface instead.
+     * @return this
+     */
+    @NotNull
+    public THIS inMemory() {
+        return inMemory(true);
+    }
+
+    /**
+     * See {@link #inMemory()}.
+     * @param inMemory if true, the web server uses an in-memory connector instead of a network listener. Defaults to false.
+     * @return this
+     */
+    @NotNull
+    public THIS inMemory(boolean inMemory) {
+        this.inMemory = inMemory;
+        return getThis();
+    }
+
+    /**
+     * See {@link #inMemory()}.
+     * @return if true, the web server uses an in-memory connector instead of a network listener.
+     */
+    public boolean isInMemory() {
+        return inMemory;
+    }
+
+    /**
+     * When running in a development environment (see {@link Env#isDevelopmentEnvironment}), watches the compiled classes
+     * folders (see {@link Env#findClassesJarOrFolder(java.net.URL)}) and restarts just the webapp whenever they change:
+     * the JVM, the thread pool and the bound connector stay alive. The webapp is recreated in a fresh child classloader
+     * which loads the app's classes; the dependency jars stay loaded in the shared parent classloader.
+     * <br/>
+     * Useful for changes that HotSwap can't handle, e.g. adding a new class or changing a class hierarchy. Note that any
+     * state held by the app (e.g. Vaadin sessions) is lost on restart.
+     * <br/>
+     * Ignored when not running in a development environment.
+     * @param restartOnClassChange defaults to false.
+     * @return this
+     */
+    @NotNull
+    public THIS restartOnClassChange(boolean restartOnClassChange) {
+        this.restartOnClassChange = restartOnClassChange;
+        return getThis();
+    }
+
+    /**
+     * See {@link #restartOnClassChange(boolean)}.
+     * @return if true, the webapp is restarted in-JVM whenever the compiled classes change. Only effective
+     * in a development environment.
+     */
+    public boolean isRestartOnClassChange() {
+        return restartOnClassChange && Env.isDevelopmentEnvironment;
+    }
+
+    /**
+     * Serves static files matching given path prefixes directly by the web server's default servlet rather than by Vaadin.
+     * Vaadin's servlet copies static files through a stream; the web server's default servlet is able to transfer
+     * large files from a folder with zero copying: Tomcat uses sendfile, Jetty uses memory-mapped file buffers.
+     * Useful for large fonts, images and JavaScript bundles placed in the <code>/webapp</code> folder.
+     * <br/>
+     * Zero-copy only applies to files served from a folder: either run from the exploded build, or call {@link #extractWebRoot(boolean)}.
+     * @param paths the path prefixes relative to the context root, for example <code>/fonts/*</code>. Each must start with
+     *              <code>/</code> and end with <code>/*</code>. Pass in nothing to serve all static files by Vaadin (the default).
+     * @return this
+     */
+    @NotNull
+    public THIS zeroCopyStaticPaths(@NotNull String... paths) {
+        for (String path : paths) {
+            if (!path.startsWith("/") || !path.endsWith("/*")) {
+                throw new IllegalArgumentException("Parameter paths: invalid value " + path + ": must start with / and end with /*");
+            }
+        }
+        this.zeroCopyStaticPaths = List.of(paths);
+        return getThis();
+    }
+
+    /**
+     * See {@link #zeroCopyStaticPaths(String...)}.
+     * @return the path prefixes served directly by the web server's default servlet, for example <code>/fonts/*</code>. Empty by default.
+     */
+    @NotNull
+    public List<String> getZeroCopyStaticPaths() {
+        return zeroCopyStaticPaths;
+    }
+
+    /**
+     * When the <code>/webapp</code> folder is packaged in a jar file (usually when running from the production zip file),
+     * extract it at boot into a content-addressed cache folder (see {@link Env#extractWebRoot(java.io.File)}) and serve the
+     * static files from there, so that they qualify for zero-copy transfer. The folder is reused by subsequent boots
+     * of the same app version. Does nothing when the <code>/webapp</code> folder is already served from a folder.
+     * @param extractWebRoot defaults to false.
+     * @return this
+     */
+    @NotNull
+    public THIS extractWebRoot(boolean extractWebRoot) {
+        this.extractWebRoot = extractWebRoot;
+        return getThis();
+    }
+
+    /**
+     * See {@link #extractWebRoot(boolean)}.
+     * @return if true, the <code>/webapp</code> folder is extracted from the jar file into a cache folder at boot.
+     */
+    public boolean isExtractWebRoot() {
+        return extractWebRoot;
+    }
+
+    /**
+     * Compresses responses when the browser supports it. The Vaadin bootstrap page and the UIDL responses are usually
+     * highly compressible JSON and HTML; compressing them saves bandwidth at the cost of server CPU.
+     * <br/>
+     * Jetty compresses with zstd, brotli or gzip, in the order of preference, depending on what the browser supports
+     * and which Jetty compression modules are on the classpath: gzip is always available, add
+     * <code>org.eclipse.jetty.compression:jetty-compression-brotli</code> and/or <code>jetty-compression-zstandard</code>
+     * to your app to enable the others. Tomcat only supports gzip.
+     * <br/>
+     * Can also be configured via the <code>SERVER_COMPRESSION_ENABLED</code> environment variable, or <code>-Dserver.compression.enabled=</code> Java system property.
+     * @param compression defaults to false.
+     * @return this
+     */
+    @NotNull
+    public THIS compression(boolean compression) {
+        this.compression = compression;
+        return getThis();
+    }
+
+    /**
+     * See {@link #compression(boolean)}.
+     * @return if true, responses are compressed when the browser supports it.
+     */
+    public boolean isCompression() {
+        return compression;
+    }
+
+    /**
+     * Responses smaller than this are sent uncompressed: compressing them costs CPU and saves next to nothing.
+     * Only applies when {@link #compression(boolean)} is enabled.
+     * <br/>
+     * Can also be configured via the <code>SERVER_COMPRESSION_MIN_RESPONSE_SIZE</code> environment variable, or <code>-Dserver.compression.min-response-size=</code> Java system property.
+     * @param compressionMinSize the minimum response size in bytes, 0 or greater. Defaults to 2048.
+     * @return this
+     */
+    @NotNull
+    public THIS compressionMinSize(int compressionMinSize) {
+        if (compressionMinSize < 0) {
+            throw new IllegalArgumentException("Parameter compressionMinSize: invalid value " + compressionMinSize + ": must be 0 or greater");
+        }
+        this.compressionMinSize = compressionMinSize;
+        return getThis();
+    }
+
+    /**
+     * See {@link #compressionMinSize(int)}.
+     * @return the minimum size of a compressed response, in bytes.
+     */
+    public int getCompressionMinSize() {
+        return compressionMinSize;
+    }
+
+    /**
+     * Only responses of given MIME types are compressed. Only applies when {@link #compression(boolean)} is enabled.
+     * <br/>
+     * Can also be configured via the <code>SERVER_COMPRESSION_MIME_TYPES</code> environment variable, or <code>-Dserver.compression.mime-types=</code> Java system property,
+     * as a comma-separated list.
+     * @param mimeTypes the MIME types, for example <code>application/json</code>. Must not be empty.
+     *                  Defaults to {@link #DEFAULT_COMPRESSION_MIME_TYPES}.
+     * @return this
+     */
+    @NotNull
+    public THIS compressionMimeTypes(@NotNull String... mimeTypes) {
+        this.compressionMimeTypes = parseMimeTypes(String.join(",", mimeTypes));
+        return getThis();
+    }
+
+    /**
+     * See {@link #compressionMimeTypes(String...)}.
+     * @return the MIME types to compress, not empty.
+     */
+    @NotNull
+    public List<String> getCompressionMimeTypes() {
+        return compressionMimeTypes;
+    }
+
+    @NotNull
+    private static List<String> parseMimeTypes(@NotNull String mimeTypes) {
+        final List<String> result = Arrays.stream(mimeTypes.split(","))
+                .map(String::trim)
+                .filter(it -> !it.isEmpty())
+                .toList();
+        for (String mimeType : result) {
+            if (!mimeType.contains("/")) {
+                throw new IllegalArgumentException("Parameter mimeTypes: invalid value " + mimeType + ": not a MIME type");
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("Parameter mimeTypes: invalid value " + mimeTypes + ": must not be empty");
+        }
+        return result;
+    }
+
+    /**
+     * Parses the preset name, e.g. <code>low-footprint</code> or <code>LOW_FOOTPRINT</code>.
+     */
+    @Nullable
+    private static HttpPreset parseHttpPreset(@Nullable String httpPreset) {
+        if (httpPreset == null || httpPreset.isBlank()) {
+            return null;
+        }
+        try {
+            return HttpPreset.valueOf(httpPreset.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Parameter httpPreset: invalid value " + httpPreset + ": must be one of " + Arrays.toString(HttpPreset.values()), e);
+        }
+    }
+
+    /**
+     * Tunes the HTTP settings of the web server for given workload: the output buffer size, the header limits, the idle
+     * timeout of the keep-alive connections and the number of spare threads. See {@link HttpPreset} for the presets;
+     * every web server translates the preset into its native settings, and logs the applied settings on startup.
+     * The settings configured explicitly, e.g. the Tomcat socket buffer size or {@link #minThreads(Integer)}, take precedence over the preset.
+     * @param httpPreset the preset; null to use the web server's defaults (the default). Can also be configured via the
+     *                   <code>SERVER_HTTP_PRESET</code> environment variable, or <code>-Dserver.http.preset=</code> Java
+     *                   system property, e.g. <code>low-footprint</code>.
+     * @return this
+     */
+    @NotNull
+    public THIS httpPreset(@Nullable HttpPreset httpPreset) {
+        this.httpPreset = httpPreset;
+        return getThis();
+    }
+
+    /**
+     * See {@link #httpPreset(HttpPreset)}.
+     * @return the HTTP tuning preset; null if the web server's defaults are used.
+     */
+    @Nullable
+    public HttpPreset getHttpPreset() {
+        return httpPreset;
+    }
+
+    /**
+     * Returns the server resources derived from the CPUs and the memory available to the app: in a container, from its
+     * CPU quota and memory limit (see {@link Env#containerLimits}) rather than from the host cores. They're the defaults
+     * of the acceptor and selector threads, the thread pool bounds, the Jetty buffer pool caps and the adaptive concurrency
+     * limits; the settings configured explicitly take precedence. The resources are logged on startup.
+     * @return the derived resources, not null.
+     */
+    @NotNull
+    public ResourceDefaults getResourceDefaults() {
+        return resourceDefaults;
+    }
+
+    /**
+     * Sets the number of threads accepting new connections. Jetty only: Tomcat always uses a single acceptor thread.
+     * @param acceptors the number of threads, 1 or greater; null to derive from the CPUs (the default), see {@link #getResourceDefaults()}.
+     * @return this
+     */
+    @NotNull
+    public THIS acceptors(@Nullable Integer acceptors) {
+        if (acceptors != null && acceptors < 1) {
+            throw new IllegalArgumentException("Parameter acceptors: invalid value " + acceptors + ": must be 1 or greater");
+        }
+        this.acceptors = acceptors;
+        return getThis();
+    }
+
+    /**
+     * See {@link #acceptors(Integer)}.
+     * @return the number of acceptor threads, configured explicitly or derived from the CPUs.
+     */
+    public int getAcceptors() {
+        return acceptors != null ? acceptors : resourceDefaults.acceptors();
+    }
+
+    /**
+     * Sets the number of threads selecting the connections ready for i/o. Jetty only: Tomcat always uses a single poller thread.
+     * @param selectors the number of threads, 1 or greater; null to derive from the CPUs (the default), see {@link #getResourceDefaults()}.
+     * @return this
+     */
+    @NotNull
+    public THIS selectors(@Nullable Integer selectors) {
+        if (selectors != null && selectors < 1) {
+            throw new IllegalArgumentException("Parameter selectors: invalid value " + selectors + ": must be 1 or greater");
+        }
+        this.selectors = selectors;
+        return getThis();
+    }
+
+    /**
+     * See {@link #selectors(Integer)}.
+     * @return the number of selector threads, configured explicitly or derived from the CPUs.
+     */
+    public int getSelectors() {
+        return selectors != null ? selectors : resourceDefaults.selectors();
+    }
+
+    /**
+     * Sets the number of request threads kept around even when idle: Jetty's <code>minThreads</code>, Tomcat's
+     * <code>minSpareThreads</code>. Takes precedence over the {@link #httpPreset(HttpPreset)}.
+     * @param minThreads the number of threads, 1 or greater; null to use the HTTP preset if any, or to derive from the
+     *                   CPUs (the default), see {@link #getResourceDefaults()}.
+     * @return this
+     */
+    @NotNull
+    public THIS minThreads(@Nullable Integer minThreads) {
+        if (minThreads != null && minThreads < 1) {
+            throw new IllegalArgumentException("Parameter minThreads: invalid value " + minThreads + ": must be 1 or greater");
+        }
+        this.minThreads = minThreads;
+        return getThis();
+    }
+
+    /**
+     * See {@link #minThreads(Integer)}.
+     * @return the number of threads kept around; never more than {@link #getMaxThreads()}.
+     */
+    public int getMinThreads() {
+        final int result = minThreads != null ? minThreads : httpPreset != null ? httpPreset.getMinSpareThreads() : resourceDefaults.minThreads();
+        return Math.min(result, getMaxThreads());
+    }
+
+    /**
+     * Sets the maximum number of request threads: Jetty's and Tomcat's <code>maxThreads</code>. With Jetty virtual threads
+     * (see <code>useVirtualThreadsIfAvailable</code>), only bounds the platform threads.
+     * @param maxThreads the number of threads, 1 or greater; null to derive from the CPUs and the memory (the default),
+     *                   see {@link #getResourceDefaults()}.
+     * @return this
+     */
+    @NotNull
+    public THIS maxThreads(@Nullable Integer maxThreads) {
+        if (maxThreads != null && maxThreads < 1) {
+            throw new IllegalArgumentException("Parameter maxThreads: invalid value " + maxThreads + ": must be 1 or greater");
+        }
+        this.maxThreads = maxThreads;
+        return getThis();
+    }
+
+    /**
+     * See {@link #maxThreads(Integer)}.
+     * @return the maximum number of request threads, configured explicitly or derived from the CPUs and the memory.
+     */
+    public int getMaxThreads() {
+        return maxThreads != null ? maxThreads : resourceDefaults.maxThreads();
+    }
+
+    /**
+     * Sets the gzip compression level: 1 is the fastest, 9 compresses the best. Lower levels cost considerably less CPU
+     * while the UIDL responses are typically only a couple of percent larger. Brotli and zstd always use their default levels.
+     * Only applies to Jetty: Tomcat always uses the default gzip level.
+     * @param compressionLevel 1..9, or -1 for the default level (6).
+     * @return this
+     */
+    @NotNull
+    public THIS compressionLevel(int compressionLevel) {
+        if (compressionLevel != -1 && (compressionLevel < 1 || compressionLevel > 9)) {
+            throw new IllegalArgumentException("Parameter compressionLevel: invalid value " + compressionLevel + ": must be 1..9 or -1");
+        }
+        this.compressionLevel = compressionLevel;
+        return getThis();
+    }
+
+    /**
+     * See {@link #compressionLevel(int)}.
+     * @return the gzip compression level 1..9, or -1 for the default level.
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Inflates request bodies compressed by the client, as indicated by the <code>Content-Encoding</code> request header,
+     * before they reach the app. A small compressed request may inflate into a huge one: a request whose body inflates
+     * over {@link #inflatedRequestMaxSize(long)} is rejected with 413 Content Too Large.
+     * @param inflateRequestBodies defaults to false.
+     * @return this
+     */
+    @NotNull
+    public THIS inflateRequestBodies(boolean inflateRequestBodies) {
+        this.inflateRequestBodies = inflateRequestBodies;
+        return getThis();
+    }
+
+    /**
+     * See {@link #inflateRequestBodies(boolean)}.
+     * @return if true, compressed request bodies are inflated before they reach the app.
+     */
+    public boolean isInflateRequestBodies() {
+        return inflateRequestBodies;
+    }
+
+    /**
+     * Sets the maximum size of a request body inflated by {@link #inflateRequestBodies(boolean)}; a request whose body
+     * inflates over this size is rejected with 413 Content Too Large. Request bodies which aren't compressed aren't limited.
+     * @param inflatedRequestMaxSize the max size in bytes, 1 or greater. Defaults to 10 MB.
+     * @return this
+     */
+    @NotNull
+    public THIS inflatedRequestMaxSize(long inflatedRequestMaxSize) {
+        if (inflatedRequestMaxSize < 1) {
+            throw new IllegalArgumentException("Parameter inflatedRequestMaxSize: invalid value " + inflatedRequestMaxSize + ": must be 1 or greater");
+        }
+        this.inflatedRequestMaxSize = inflatedRequestMaxSize;
+        return getThis();
+    }
+
+    /**
+     * See {@link #inflatedRequestMaxSize(long)}.
+     * @return the maximum size of an inflated request body, in bytes.
+     */
+    public long getInflatedRequestMaxSize() {
+        return inflatedRequestMaxSize;
+    }
+
+    /**
+     * Controls whether the web server initializes its WebSocket support. Initializing the WebSocket container costs startup
+     * time and memory, and is only needed by the apps using <code>@Push</code> or WebSocket endpoints of their own.
+     * <br/>
+     * By default, the app's own classes (not the dependency jars) are searched for <code>@Push</code> and any reference
+     * to the Jakarta or Jetty WebSocket API when the app starts in production mode; if none is found, the WebSocket
+     * initialization is skipped and reported in the log. In development mode the WebSocket support is always initialized,
+     * for the live reload of the Vaadin dev tools. Pass true if the WebSocket API is only used by a dependency jar.
+     * @param webSocket true to always initialize the WebSocket support, false to never initialize it, null to detect (the default).
+     * @return this
+     */
+    @NotNull
+    public THIS webSocket(@Nullable Boolean webSocket) {
+        this.webSocket = webSocket;
+        return getThis();
+    }
+
+    /**
+     * See {@link #webSocket(Boolean)}.
+     * @return true if the WebSocket support is always initialized, false if never, null if detected.
+     */
+    @Nullable
+    public Boolean getWebSocket() {
+        return webSocket;
+    }
+
+    /**
+     * Runs the web app in a minimal servlet container, with only what a Vaadin app needs: fewer classes are loaded and the
+     * app starts faster.
+     * <ul>
+     *     <li>Jetty only runs the configurations needed to scan the classpath and to deploy the app: JNDI, JAAS, the
+     *     <code>web-fragment.xml</code> and the <code>jetty-web.xml</code> processing are skipped, and <code>webdefault.xml</code> isn't applied, so there's no
+     *     default servlet and no JSP servlet.</li>
+     *     <li>Tomcat doesn't apply the default <code>web.xml</code>, so there's no default servlet and no JSP servlet, and
+     *     doesn't run the Jasper initializer which scans all jars for tag libraries. The app may then exclude
+     *     <code>tomcat-embed-jasper</code> from its distribution.</li>
+     * </ul>
+     * The session timeout (30 minutes) and the MIME types the defaults would configure are kept. Static files are served
+     * by Vaadin, or by {@link #zeroCopyStaticPaths(String...)}; the app can't use JSPs nor the <code>web.xml</code> defaults.
+     * @param minimalContainer defaults to false.
+     * @return this
+     */
+    @NotNull
+    public THIS minimalContainer(boolean minimalContainer) {
+        this.minimalContainer = minimalContainer;
+        return getThis();
+    }
+
+    /**
+     * See {@link #minimalContainer(boolean)}.
+     * @return true if the web app runs in a minimal servlet container.
+     */
+    public boolean isMinimalContainer() {
+        return minimalContainer;
+    }
+
+    /**
+     * Runs the web app directly on the application classloader, rather than on a webapp classloader created by the
+     * web server (Jetty's <code>WebAppClassLoader</code>, Tomcat's <code>ParallelWebappClassLoader</code>). There's just one
+     * app in the embedded mode, and all of its classes are loaded by the application classloader anyway: the webapp
+     * classloader only adds a lookup and a resource cache to every class and resource loaded through it.
+     * <br/>
+     * The app's classes, Vaadin's <code>Lookup</code> and the <code>@WebListener</code> discovery work as before, and the
+     * classes can still be hotswapped since they're loaded by the application classloader in both modes. The web server's
+     * own classes are no longer hidden from the app. Can't be combined with {@link #restartOnClassChange(boolean)}, which
+     * needs a webapp classloader to throw away, nor with the Jetty hosted apps, which need a classloader each.
+     * @param flatClassLoader defaults to false.
+     * @return this
+     */
+    @NotNull
+    public THIS flatClassLoader(boolean flatClassLoader) {
+        this.flatClassLoader = flatClassLoader;
+        return getThis();
+    }
+
+    /**
+     * See {@link #flatClassLoader(boolean)}.
+     * @return true if the web app runs directly on the application classloader.
+     */
+    public boolean isFlatClassLoader() {
+        return flatClassLoader;
+    }
+
+    /**
+     * Allows push WebSocket connections to negotiate the permessage-deflate compression. Compression saves bandwidth,
+     * but every compressed connection holds its own zlib deflater and inflater, which cost roughly 300kb of native
+     * memory on Tomcat. Turn compression off when the server keeps many mostly idle push connections.
+     * <br/>
+     * Note that the deflate window size can't be configured: both Jetty and Tomcat compress via the JDK's
+     * {@link java.util.zip.Deflater} which always uses a 32kb window.
+     * @param pushCompression defaults to true.
+     * @return this
+     */
+    @NotNull
+    public THIS pushCompression(boolean pushCompression) {
+        this.pushCompression = pushCompression;
+        return getThis();
+    }
+
+    /**
+     * See {@link #pushCompression(boolean)}.
+     * @return if true, push WebSocket connections may use the permessage-deflate compression.
+     */
+    public boolean isPushCompression() {
+        return pushCompression;
+    }
+
+    /**
+     * Sets the maximum size of a message received over a push WebSocket connection; larger messages close the connection.
+     * Tomcat allocates message buffers of this size for every connection, so that smaller values reduce the memory footprint of
+     * idle connections. Vaadin sends the messages from the browser via XHR by default (see the <code>alwaysXhrToServer</code>
+     * push setting), therefore small values are safe. Messages sent to the browser aren't limited.
+     * @param pushMaxMessageSize the maximum message size in bytes, 1024 or greater. Defaults to 16384, same as Vaadin.
+     * @return this
+     */
+    @NotNull
+    public THIS pushMaxMessageSize(int pushMaxMessageSize) {
+        if (pushMaxMessageSize < 1024) {
+            throw new IllegalArgumentException("Parameter pushMaxMessageSize: invalid value " + pushMaxMessageSize + ": must be 1024 or greater");
+        }
+        this.pushMaxMessageSize = pushMaxMessageSize;
+        return getThis();
+    }
+
+    /**
+     * See {@link #pushMaxMessageSize(int)}.
+     * @return the maximum size of a message received over a push WebSocket connection, in bytes.
+     */
+    public int getPushMaxMessageSize() {
+        return pushMaxMessageSize;
+    }
+
+    /**
+     * Closes push WebSocket connections which have been idle for given time; the browser reconnects automatically.
+     * Keep this longer than the Vaadin heartbeat interval (5 minutes by default), otherwise the connections of
+     * idle but open browser tabs are closed and reopened over and over.
+     * @param pushIdleTimeout the idle timeout, must be positive. Defaults to 5 minutes, same as Vaadin.
+     * @return this
+     */
+    @NotNull
+    public THIS pushIdleTimeout(@NotNull Duration pushIdleTimeout) {
+        if (pushIdleTimeout.isNegative() || pushIdleTimeout.isZero()) {
+            throw new IllegalArgumentException("Parameter pushIdleTimeout: invalid value " + pushIdleTimeout + ": must be positive");
+        }
+        this.pushIdleTimeout = pushIdleTimeout;
+        return getThis();
+    }
+
+    /**
+     * See {@link #pushIdleTimeout(Duration)}.
+     * @return the idle timeout of push WebSocket connections.
+     */
+    @NotNull
+    public Duration getPushIdleTimeout() {
+        return pushIdleTimeout;
+    }
+
+    @Nullable
+    private static File toFile(@Nullable String path) {
+        return path == null || path.isBlank() ? null : new File(path);
+    }
+
+    /**
+     * Writes an access log: one line per request, with the fields listed by {@link #accessLogFields(AccessLogField...)}.
+     * The request threads only enqueue the entries into a ring buffer, never blocking; a background thread writes them to the file.
+     * <br/>
+     * Can also be configured via the <code>SERVER_ACCESSLOG_FILE</code> environment variable, or <code>-Dserver.accesslog.file=</code> Java system property.
+     * @param accessLogFile the log file, created if it doesn't exist and appended to otherwise. Pass in <code>null</code> to turn the access log off (the default).
+     * @return this
+     */
+    @NotNull
+    public THIS accessLog(@Nullable File accessLogFile) {
+        this.accessLogFile = accessLogFile;
+        return getThis();
+    }
+
+    /**
+     * See {@link #accessLog(File)}.
+     * @return the access log file; null if the access log is off.
+     */
+    @Nullable
+    public File getAccessLogFile() {
+        return accessLogFile;
+    }
+
+    /**
+     * Sets the fields logged for every request, in this order.
+     * @param accessLogFields the fields, not empty. Defaults to {@link #DEFAULT_ACCESS_LOG_FIELDS}.
+     * @return this
+     */
+    @NotNull
+    public THIS accessLogFields(@NotNull AccessLogField... accessLogFields) {
+        if (accessLogFields.length == 0) {
+            throw new IllegalArgumentException("Parameter accessLogFields: invalid value []: must not be empty");
+        }
+        this.accessLogFields = List.of(accessLogFields);
+        return getThis();
+    }
+
+    /**
+     * See {@link #accessLogFields(AccessLogField...)}.
+     * @return the fields logged for every request.
+     */
+    @NotNull
+    public List<AccessLogField> getAccessLogFields() {
+        return accessLogFields;
+    }
+
+    /**
+     * Sets the capacity of the ring buffer which holds the entries not yet written by the background thread. When the buffer is
+     * full, new entries are dropped rather than blocking the requests; see {@link #getAccessLog()}.
+     * @param accessLogBufferSize the capacity, a power of two; 16 or greater. Defaults to 8192.
+     * @return this
+     */
+    @NotNull
+    public THIS accessLogBufferSize(int accessLogBufferSize) {
+        if (accessLogBufferSize < 16 || Integer.bitCount(accessLogBufferSize) != 1) {
+            throw new IllegalArgumentException("Parameter accessLogBufferSize: invalid value " + accessLogBufferSize + ": must be a power of two, 16 or greater");
+        }
+        this.accessLogBufferSize = accessLogBufferSize;
+        return getThis();
+    }
+
+    /**
+     * See {@link #accessLogBufferSize(int)}.
+     * @return the capacity of the access log ring buffer.
+     */
+    public int getAccessLogBufferSize() {
+        return accessLogBufferSize;
+    }
+
+    /**
+     * Rotates the access log when it grows over given size: the file is renamed, with the current time appended, and a new file is started.
+     * @param accessLogMaxFileSize the max size in bytes; 0 disables size-based rotation. Defaults to 100 MB.
+     * @return this
+     */
+    @NotNull
+    public THIS accessLogMaxFileSize(long accessLogMaxFileSize) {
+        if (accessLogMaxFileSize < 0) {
+            throw new IllegalArgumentException("Parameter accessLogMaxFileSize: invalid value " + accessLogMaxFileSize + ": must be 0 or greater");
+        }
+        this.accessLogMaxFileSize = accessLogMaxFileSize;
+        return getThis();
+    }
+
+    /**
+     * See {@link #accessLogMaxFileSize(long)}.
+     * @return the access log is rotated when it grows over this size, in bytes; 0 if size-based rotation is off.
+     */
+    public long getAccessLogMaxFileSize() {
+        return accessLogMaxFileSize;
+    }
+
+    /**
+     * Rotates the access log periodically, see {@link #accessLogMaxFileSize(long)}.
+     * @param accessLogRotationInterval the rotation interval, must be positive; null disables time-based rotation. Defaults to 1 day.
+     * @return this
+     */
+    @NotNull
+    public THIS accessLogRotationInterval(@Nullable Duration accessLogRotationInterval) {
+        if (accessLogRotationInterval != null && (accessLogRotationInterval.isNegative() || accessLogRotationInterval.isZero())) {
+            throw new IllegalArgumentException("Parameter accessLogRotationInterval: invalid value " + accessLogRotationInterval + ": must be positive");
+        }
+        this.accessLogRotationInterval = accessLogRotationInterval;
+        return getThis();
+    }
+
+    /**
+     * See {@link #accessLogRotationInterval(Duration)}.
+     * @return the access log rotation interval; null if time-based rotation is off.
+     */
+    @Nullable
+    public Duration getAccessLogRotationInterval() {
+        return accessLogRotationInterval;
+    }
+
+    /**
+     * Returns the running access log, which counts the written and dropped entries. The web servers pass the requests to it.
+     * @return the access log; null if the access log is off or the app isn't running.
+     */
+    @Nullable
+    public AccessLog getAccessLog() {
+        return accessLog;
+    }
+
+    /**
+     * Turns on the slow request watchdog: the stack of every request running for longer than the threshold is sampled
+     * periodically, and the profile is reported when the request completes. A warning is also logged as soon as
+     * the request crosses the threshold, so that hung requests don't go unnoticed.
+     * <br/>
+     * The overhead is negligible while no request is slow: the requests are merely registered when they start and
+     * unregistered when they complete. Sampling a stack briefly pauses the thread being sampled.
+     * @param slowRequestThreshold the threshold, must be positive; null turns the watchdog off (the default).
+     * @return this
+     */
+    @NotNull
+    public THIS slowRequestThreshold(@Nullable Duration slowRequestThreshold) {
+        if (slowRequestThreshold != null && (slowRequestThreshold.isNegative() || slowRequestThreshold.isZero())) {
+            throw new IllegalArgumentException("Parameter slowRequestThreshold: invalid value " + slowRequestThreshold + ": must be positive");
+        }
+        this.slowRequestThreshold = slowRequestThreshold;
+        return getThis();
+    }
+
+    /**
+     * See {@link #slowRequestThreshold(Duration)}.
+     * @return the slow request threshold; null if the slow request watchdog is off.
+     */
+    @Nullable
+    public Duration getSlowRequestThreshold() {
+        return slowRequestThreshold;
+    }
+
+    /**
+     * Sets how often the stacks of the slow requests are sampled, see {@link #slowRequestThreshold(Duration)}.
+     * @param slowRequestSamplingInterval the sampling interval, 1 millisecond or longer. Defaults to 100 milliseconds.
+     * @return this
+     */
+    @NotNull
+    public THIS slowRequestSamplingInterval(@NotNull Duration slowRequestSamplingInterval) {
+        if (slowRequestSamplingInterval.toMillis() < 1) {
+            throw new IllegalArgumentException("Parameter slowRequestSamplingInterval: invalid value " + slowRequestSamplingInterval + ": must be 1ms or longer");
+        }
+        this.slowRequestSamplingInterval = slowRequestSamplingInterval;
+        return getThis();
+    }
+
+    /**
+     * See {@link #slowRequestSamplingInterval(Duration)}.
+     * @return how often the stacks of the slow requests are sampled.
+     */
+    @NotNull
+    public Duration getSlowRequestSamplingInterval() {
+        return slowRequestSamplingInterval;
+    }
+
+    /**
+     * Receives the profiles of the slow requests, see {@link #slowRequestThreshold(Duration)}, instead of logging them.
+     * Called from the thread which served the slow request, right after the request completes.
+     * @param slowRequestListener the listener; null logs the profiles as warnings (the default).
+     * @return this
+     */
+    @NotNull
+    public THIS slowRequestListener(@Nullable Consumer<SlowRequestWatchdog.SlowRequest> slowRequestListener) {
+        this.slowRequestListener = slowRequestListener;
+        return getThis();
+    }
+
+    /**
+     * See {@link #slowRequestListener(Consumer)}.
+     * @return the listener receiving the profiles of the slow requests; null if the profiles are logged.
+     */
+    @Nullable
+    public Consumer<SlowRequestWatchdog.SlowRequest> getSlowRequestListener() {
+        return slowRequestListener;
+    }
+
+    /**
+     * Returns the running slow request watchdog. The web servers register it as a filter.
+     * @return the watchdog; null if the watchdog is off or the app isn't running.
+     */
+    @Nullable
+    public SlowRequestWatchdog getSlowRequestWatchdog() {
+        return slowRequestWatchdog;
+    }
+
+    /**
+     * Monitors virtual threads pinning their carrier threads. The Jetty {@link WebServer} serves the requests from virtual threads by default;
+     * Tomcat serves them from platform threads, so there the monitor only sees the virtual threads started by the app itself,
+     * and a warning is logged. A virtual thread which blocks while pinned (e.g. inside a <code>synchronized</code> block on JDK 21-23) blocks its
+     * carrier thread as well, and once all carrier threads are pinned the throughput is capped at the number of carrier threads.
+     * <br/>
+     * The monitor streams the <code>jdk.VirtualThreadPinned</code> JFR events in-process and aggregates them by stack trace;
+     * the report, ranked by the total pinned time, is logged when the app stops, and served at {@link #pinningReportPath(String)}
+     * if configured.
+     * @param pinningMonitor true to monitor the pinning. Defaults to false.
+     * @return this
+     */
+    @NotNull
+    public THIS pinningMonitor(boolean pinningMonitor) {
+        this.pinningMonitor = pinningMonitor;
+        return getThis();
+    }
+
+    /**
+     * See {@link #pinningMonitor(boolean)}.
+     * @return true if the virtual thread pinning is monitored.
+     */
+    public boolean isPinningMonitor() {
+        return pinningMonitor;
+    }
+
+    /**
+     * Only pinning longer than this is recorded, see {@link #pinningMonitor(boolean)}.
+     * @param pinningThreshold the threshold, zero or positive. Defaults to 20 milliseconds, same as JFR.
+     * @return this
+     */
+    @NotNull
+    public THIS pinningThreshold(@NotNull Duration pinningThreshold) {
+        if (pinningThreshold.isNegative()) {
+            throw new IllegalArgumentException("Parameter pinningThreshold: invalid value " + pinningThreshold + ": must not be negative");
+        }
+        this.pinningThreshold = pinningThreshold;
+        return getThis();
+    }
+
+    /**
+     * See {@link #pinningThreshold(Duration)}.
+     * @return only pinning longer than this is recorded.
+     */
+    @NotNull
+    public Duration getPinningThreshold() {
+        return pinningThreshold;
+    }
+
+    /**
+     * Serves the pinning report, see {@link #pinningMonitor(boolean)}, as plain text at given path, e.g. <code>/vaadin-boot/pinning</code>.
+     * The report reveals the app's stack traces: don't expose the path to the public.
+     * @param pinningReportPath the path relative to the context root, starting with <code>/</code>; null doesn't serve the report (the default).
+     * @return this
+     */
+    @NotNull
+    public THIS pinningReportPath(@Nullable String pinningReportPath) {
+        if (pinningReportPath != null && !pinningReportPath.startsWith("/")) {
+            throw new IllegalArgumentException("Parameter pinningReportPath: invalid value " + pinningReportPath + ": must start with /");
+        }
+        this.pinningReportPath = pinningReportPath;
+        return getThis();
+    }
+
+    /**
+     * See {@link #pinningReportPath(String)}.
+     * @return the path serving the pinning report; null if the report isn't served.
+     */
+    @Nullable
+    public String getPinningReportPath() {
+        return pinningReportPath;
+    }
+
+    /**
+     * Returns the running pinning monitor. The web servers register it as a filter serving the report.
+     * @return the monitor; null if the monitor is off or the app isn't running.
+     */
+    @Nullable
+    public PinningMonitor getPinningMonitor() {
+        return pinningMonitorInstance;
+    }
+
+    /**
+     * Measures how long the requests wait for the <code>VaadinSession</code> lock versus how long they hold it. All requests
+     * of a session, as well as the push messages and <code>UI.access()</code> calls, serialize on the session lock; under
+     * heavy push traffic, waiting for the lock may dominate the latency.
+     * <br/>
+     * The wait and hold times are recorded into histograms per route, and into totals per session. The report is logged when
+     * the app stops, and served at {@link #sessionLockReportPath(String)} if configured. Requires Vaadin 25.2 or newer.
+     * @param sessionLockProfiling true to profile the session lock. Defaults to false.
+     * @return this
+     */
+    @NotNull
+    public THIS sessionLockProfiling(boolean sessionLockProfiling) {
+        this.sessionLockProfiling = sessionLockProfiling;
+        return getThis();
+    }
+
+    /**
+     * See {@link #sessionLockProfiling(boolean)}.
+     * @return true if the VaadinSession lock is profiled.
+     */
+    public boolean isSessionLockProfiling() {
+        return sessionLockProfiling;
+    }
+
+    /**
+     * Serves the session lock profiling report, see {@link #sessionLockProfiling(boolean)}, as plain text at given path,
+     * e.g. <code>/vaadin-boot/session-lock</code>. Don't expose the path to the public.
+     * @param sessionLockReportPath the path relative to the context root, starting with <code>/</code>; null doesn't serve the report (the default).
+     * @return this
+     */
+    @NotNull
+    public THIS sessionLockReportPath(@Nullable String sessionLockReportPath) {
+        if (sessionLockReportPath != null && !sessionLockReportPath.startsWith("/")) {
+            throw new IllegalArgumentException("Parameter sessionLockReportPath: invalid value " + sessionLockReportPath + ": must start with /");
+        }
+        this.sessionLockReportPath = sessionLockReportPath;
+        return getThis();
+    }
+
+    /**
+     * See {@link #sessionLockReportPath(String)}.
+     * @return the path serving the session lock profiling report; null if the report isn't served.
+     */
+    @Nullable
+    public String getSessionLockReportPath() {
+        return sessionLockReportPath;
+    }
+
+    /**
+     * Returns the running session lock profiler. The web servers register it as a filter.
+     * @return the profiler; null if the profiling is off or the app isn't running.
+     */
+    @Nullable
+    public SessionLockProfiler getSessionLockProfiler() {
+        return sessionLockProfiler;
+    }
+
+    /**
+     * Serves the Vaadin requests of a session one at a time. The requests of a session serialize on the <code>VaadinSession</code>
+     * lock anyway, yet every request waiting for the lock holds a thread. With the serial dispatch on, a request arriving while
+     * another request of the same session is being served is suspended and queued, holding no thread; once the running
+     * request completes, the next one is resumed and acquires the session lock without contention. Requests of different
+     * sessions run in parallel.
+     * <br/>
+     * The resumed requests are dispatched anew with the <code>ASYNC</code> dispatcher type: the app's filters mapped
+     * to <code>REQUEST</code> dispatches only won't see them. Static resources and push connections aren't serialized.
+     * @param sessionSerialDispatch true to serve the Vaadin requests of a session one at a time. Defaults to false.
+     * @return this
+     */
+    @NotNull
+    public THIS sessionSerialDispatch(boolean sessionSerialDispatch) {
+        this.sessionSerialDispatch = sessionSerialDispatch;
+        return getThis();
+    }
+
+    /**
+     * See {@link #sessionSerialDispatch(boolean)}.
+     * @return true if the Vaadin requests of a session are served one at a time.
+     */
+    public boolean isSessionSerialDispatch() {
+        return sessionSerialDispatch;
+    }
+
+    /**
+     * Sets the maximum number of requests of a single session waiting to be served, see {@link #sessionSerialDispatch(boolean)}.
+     * Further requests of the session are rejected with 503 Service Unavailable, until the queue drains.
+     * @param sessionQueueDepth the maximum queue depth, 1 or greater. Defaults to 32.
+     * @return this
+     */
+    @NotNull
+    public THIS sessionQueueDepth(int sessionQueueDepth) {
+        if (sessionQueueDepth < 1) {
+            throw new IllegalArgumentException("Parameter sessionQueueDepth: invalid value " + sessionQueueDepth + ": must be 1 or greater");
+        }
+        this.sessionQueueDepth = sessionQueueDepth;
+        return getThis();
+    }
+
+    /**
+     * See {@link #sessionQueueDepth(int)}.
+     * @return the maximum number of requests of a single session waiting to be served.
+     */
+    public int getSessionQueueDepth() {
+        return sessionQueueDepth;
+    }
+
+    /**
+     * Returns the running session serial dispatcher, with the queue statistics. The web servers register it as a filter.
+     * @return the dispatcher; null if the serial dispatch is off or the app isn't running.
+     */
+    @Nullable
+    public SessionSerialDispatcher getSessionSerialDispatcher() {
+        return sessionSerialDispatcher;
+    }
+
+    /**
+     * Warms the app up before reporting it ready. Once the web server starts, all servlets are initialized eagerly,
+     * then the given paths are requested repeatedly, until {@link #warmUpIterations(int)} iterations are done or
+     * {@link #warmUpTimeBudget(Duration)} runs out. The duration of every iteration is logged. {@link #start()} only
+     * returns and the app is only reported {@link #isReady() ready} once the warm-up is done.
+     * <br/>
+     * Request e.g. the bootstrap page <code>/</code>, the frequently used routes, and the static bundle files. A failing
+     * request is logged, but doesn't fail the startup.
+     * <br/>
+     * All warm-up requests share one session, invalidated once the warm-up is done. The requests are sent with the
+     * {@link WarmUp#USER_AGENT} user agent; they're written to the access log and counted in the statistics like any other
+     * request, except for the rate limiter and the adaptive concurrency limiter, which are only enforced once the app is ready.
+     * @param paths the paths relative to the context root, for example <code>/</code>, each must start with <code>/</code>.
+     *              May include the query string. Pass in nothing to skip the warm-up (the default).
+     * @return this
+     */
+    @NotNull
+    public THIS warmUpPaths(@NotNull String... paths) {
+        for (String path : paths) {
+            if (!path.startsWith("/")) {
+                throw new IllegalArgumentException("Parameter paths: invalid value " + path + ": must start with /");
+            }
+        }
+        this.warmUpPaths = List.of(paths);
+        return getThis();
+    }
+
+    /**
+     * See {@link #warmUpPaths(String...)}.
+     * @return the paths requested during the warm-up, relative to the context root. Empty by default.
+     */
+    @NotNull
+    public List<String> getWarmUpPaths() {
+        return warmUpPaths;
+    }
+
+    /**
+     * Sets the maximum number of warm-up iterations, see {@link #warmUpPaths(String...)}. Every iteration requests all paths once.
+     * @param warmUpIterations the maximum number of iterations, 1 or greater. Defaults to 10.
+     * @return this
+     */
+    @NotNull
+    public THIS warmUpIterations(int warmUpIterations) {
+        if (warmUpIterations < 1) {
+            throw new IllegalArgumentException("Parameter warmUpIterations: invalid value " + warmUpIterations + ": must be 1 or greater");
+        }
+        this.warmUpIterations = warmUpIterations;
+        return getThis();
+    }
+
+    /**
+     * See {@link #warmUpIterations(int)}.
+     * @return the maximum number of warm-up iterations.
+     */
+    public int getWarmUpIterations() {
+        return warmUpIterations;
+    }
+
+    /**
+     * Sets the maximum duration of the warm-up, see {@link #warmUpPaths(String...)}. No iteration is started once the
+     * budget runs out; the iteration in progress is finished.
+     * @param warmUpTimeBudget the maximum duration, must be positive. Defaults to 30 seconds.
+     * @return this
+     */
+    @NotNull
+    public THIS warmUpTimeBudget(@NotNull Duration warmUpTimeBudget) {
+        if (warmUpTimeBudget.isNegative() || warmUpTimeBudget.isZero()) {
+            throw new IllegalArgumentException("Parameter warmUpTimeBudget: invalid value " + warmUpTimeBudget + ": must be positive");
+        }
+        this.warmUpTimeBudget = warmUpTimeBudget;
+        return getThis();
+    }
+
+    /**
+     * See {@link #warmUpTimeBudget(Duration)}.
+     * @return the maximum duration of the warm-up.
+     */
+    @NotNull
+    public Duration getWarmUpTimeBudget() {
+        return warmUpTimeBudget;
+    }
+
+    /**
+     * Serves the readiness of the app at given path, for the load balancer or for the Kubernetes readiness probe:
+     * responds with 200 once the app is {@link #isReady() ready}, with 503 before that and while the app is stopping.
+     * @param readinessPath the path relative to the context root, e.g. <code>/ready</code>; null to not serve the readiness (the default).
+     * @return this
+     */
+    @NotNull
+    public THIS readinessPath(@Nullable String readinessPath) {
+        if (readinessPath != null && !readinessPath.startsWith("/")) {
+            throw new IllegalArgumentException("Parameter readinessPath: invalid value " + readinessPath + ": must start with /");
+        }
+        this.readinessPath = readinessPath;
+        return getThis();
+    }
+
+    /**
+     * See {@link #readinessPath(String)}.
+     * @return the readiness path; null if the readiness isn't served.
+     */
+    @Nullable
+    public String getReadinessPath() {
+        return readinessPath;
+    }
+
+    /**
+     * Returns the readiness check of the running app. The web servers register it as a filter mapped to {@link #getReadinessPath()}.
+     * @return the readiness check; null if the readiness isn't served or the app isn't running.
+     */
+    @Nullable
+    public ReadinessCheck getReadinessCheck() {
+        return readinessCheck;
+    }
+
+    /**
+     * Checks whether the app is ready to serve the users: it has been started and warmed up (see {@link #warmUpPaths(String...)}),
+     * and {@link #onStarted(WebServer)} has been called. Becomes false once the app starts stopping.
+     * @return true if the app is ready.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Limits the rate of the requests of every client, identified by its IP address, so that a single misbehaving client
+     * such as a scraper or a broken script can't eat the thread pool. A client may send <code>burst</code> requests at once,
+     * then <code>requestsPerSecond</code> requests per second; further requests are rejected with 429 Too Many Requests.
+     * Mind that a browser loading a Vaadin app sends dozens of requests at once in development mode: set the burst accordingly.
+     * <br/>
+     * The limits are enforced once the app is {@link #isReady() ready}.
+     * @param requestsPerSecond the requests per second a single client may send, 1 or greater.
+     * @param burst the number of requests a single client may send at once, 1 or greater.
+     * @return this
+     */
+    @NotNull
+    public THIS rateLimit(int requestsPerSecond, int burst) {
+        if (requestsPerSecond < 1) {
+            throw new IllegalArgumentException("Parameter requestsPerSecond: invalid value " + requestsPerSecond + ": must be 1 or greater");
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("Parameter burst: invalid value " + burst + ": must be 1 or greater");
+        }
+        this.rateLimitRequestsPerSecond = requestsPerSecond;
+        this.rateLimitRequestBurst = burst;
+        return getThis();
+    }
+
+    /**
+     * See {@link #rateLimit(int, int)}.
+     * @return the requests per second a single client may send; 0 if the requests aren't limited.
+     */
+    public int getRateLimitRequestsPerSecond() {
+        return rateLimitRequestsPerSecond;
+    }
+
+    /**
+     * See {@link #rateLimit(int, int)}.
+     * @return the number of requests a single client may send at once; 0 if the requests aren't limited.
+     */
+    public int getRateLimitRequestBurst() {
+        return rateLimitRequestBurst;
+    }
+
+    /**
+     * Limits the rate of the sessions created by every client, identified by its IP address: a client which doesn't keep
+     * the session cookie, e.g. a scraper, creates a new Vaadin session with every page load. A client may create <code>burst</code>
+     * sessions at once, then <code>sessionsPerMinute</code> sessions per minute; further requests carrying no valid session
+     * are rejected with 429 Too Many Requests, while the requests of the existing sessions are still served.
+     * <br/>
+     * The limits are enforced once the app is {@link #isReady() ready}.
+     * @param sessionsPerMinute the sessions per minute a single client may create, 1 or greater.
+     * @param burst the number of sessions a single client may create at once, 1 or greater.
+     * @return this
+     */
+    @NotNull
+    public THIS sessionRateLimit(int sessionsPerMinute, int burst) {
+        if (sessionsPerMinute < 1) {
+            throw new IllegalArgumentException("Parameter sessionsPerMinute: invalid value " + sessionsPerMinute + ": must be 1 or greater");
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("Parameter burst: invalid value " + burst + ": must be 1 or greater");
+        }
+        this.sessionRateLimitPerMinute = sessionsPerMinute;
+        this.sessionRateLimitBurst = burst;
+        return getThis();
+    }
+
+    /**
+     * See {@link #sessionRateLimit(int, int)}.
+     * @return the sessions per minute a single client may create; 0 if the session creation isn't limited.
+     */
+    public int getSessionRateLimitPerMinute() {
+        return sessionRateLimitPerMinute;
     }
 
     /**
-     * Sets the port to listen on. Listens on {@value #DEFAULT_PORT} by default.
-     * @param port the new port, 1..65535
+     * See {@link #sessionRateLimit(int, int)}.
+     * @return the number of sessions a single client may create at once; 0 if the session creation isn't limited.
      */
-    public void setPort(int port) {
-        if (port < 1 || port > 65535) {
-            throw new IllegalArgumentException("Parameter port: invalid value " + port + ": must be 1..65535");
-        }
-        this.port = port;
+    public int getSessionRateLimitBurst() {
+        return sessionRateLimitBurst;
     }
 
     /**
-     * Sets the port to listen on. Listens on {@value #DEFAULT_PORT} by default.
-     * @param port the new port, 1..65535
+     * Identifies the clients by the address appended by your reverse proxy: the last entry of the <code>X-Forwarded-For</code>
+     * header, or the last <code>for=</code> of the <code>Forwarded</code> header. Only turn this on when the app runs behind
+     * a reverse proxy which sets the headers: otherwise a client can pick any address it likes.
+     * @param rateLimitForwardedHeaders true to honor the forwarded headers. Defaults to false: the clients are identified
+     *                                  by the remote address of the connection.
      * @return this
      */
     @NotNull
-    public THIS withPort(int port) {
-        setPort(port);
+    public THIS rateLimitForwardedHeaders(boolean rateLimitForwardedHeaders) {
+        this.rateLimitForwardedHeaders = rateLimitForwardedHeaders;
         return getThis();
     }
 
     /**
-     * Returns the port to listen on. Listens on {@value #DEFAULT_PORT} by default.
-     * <br/>
-     * Can be configured via the <code>SERVER_PORT</code> environment variable, or <code>-Dserver.port=</code> Java system property,
-     * or via {@link #setPort(int)}.
-     * @return port the port, 1..65535
+     * See {@link #rateLimitForwardedHeaders(boolean)}.
+     * @return true if the rate limiter honors the forwarded headers.
      */
-    public int getPort() {
-        return port;
+    public boolean isRateLimitForwardedHeaders() {
+        return rateLimitForwardedHeaders;
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Sets the maximum number of clients tracked by the rate limiter. Once full, the least recently seen clients are
+     * forgotten, starting again with full buckets.
+     * @param rateLimitMaxClients the maximum number of clients, 1 or greater. Defaults to 100000.
+     * @return this
+     */
     @NotNull
-    private THIS getThis() {
-        return (THIS) this;
+    public THIS rateLimitMaxClients(int rateLimitMaxClients) {
+        if (rateLimitMaxClients < 1) {
+            throw new IllegalArgumentException("Parameter rateLimitMaxClients: invalid value " + rateLimitMaxClients + ": must be 1 or greater");
+        }
+        this.rateLimitMaxClients = rateLimitMaxClients;
+        return getThis();
     }
 
     /**
-     * Listen on network interface handling given host name. Pass in <code>null</code> to listen on all interfaces;
-     * pass in `127.0.0.1` or `localhost` to listen on localhost only (or call {@link #localhostOnly()}).
-     * @param hostName the interface to listen on.
+     * See {@link #rateLimitMaxClients(int)}.
+     * @return the maximum number of clients tracked by the rate limiter.
+     */
+    public int getRateLimitMaxClients() {
+        return rateLimitMaxClients;
+    }
+
+    /**
+     * Returns the running rate limiter, with the request counters. The web servers register it as a filter.
+     * @return the rate limiter; null if neither {@link #rateLimit(int, int)} nor {@link #sessionRateLimit(int, int)}
+     * is set, or the app isn't running.
+     */
+    @Nullable
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Limits the number of requests served at once, adapting the limit to the observed latency: a fixed thread pool or
+     * connection cap is either too low, wasting capacity, or too high, letting the requests pile up once the app (or its database)
+     * saturates. While the latency holds, the limit grows; once the latency grows, the limit shrinks.
+     * <br/>
+     * A request arriving while the limit is reached waits in a queue, suspended and holding no thread; a request which
+     * can't be queued or waits for too long is rejected with 503 Service Unavailable. The UIDL and heartbeat requests of the existing Vaadin sessions are served
+     * ahead of the other requests, e.g. the bootstrap requests of new sessions. The push connections aren't limited.
+     * <br/>
+     * The limit is enforced once the app is {@link #isReady() ready}.
+     * @param adaptiveConcurrency true to adapt the concurrency limit to the latency. Defaults to false.
      * @return this
      */
     @NotNull
-    public THIS listenOn(@Nullable String hostName) {
-        setListenOn(hostName);
+    public THIS adaptiveConcurrency(boolean adaptiveConcurrency) {
+        this.adaptiveConcurrency = adaptiveConcurrency;
         return getThis();
     }
 
     /**
-     * Listen on network interface handling given host name. Pass in <code>null</code> to listen on all interfaces;
-     * pass in `127.0.0.1` or `localhost` to listen on localhost only (or call {@link #localhostOnly()}).
-     * @param hostName the interface to listen on.
+     * See {@link #adaptiveConcurrency(boolean)}.
+     * @return true if the concurrency limit adapts to the latency.
      */
-    public void setListenOn(@Nullable String hostName) {
-        this.hostName = hostName;
+    public boolean isAdaptiveConcurrency() {
+        return adaptiveConcurrency;
     }
 
     /**
-     * Listen on network interface handling given host name. Pass in <code>null</code> to listen on all interfaces;
-     * pass in `127.0.0.1` or `localhost` to listen on localhost only (or call {@link #localhostOnly()}).
-     * <br/>
-     * Can be configured via the <code>SERVER_ADDRESS</code> environment variable, or <code>-Dserver.address=</code> Java system property,
-     * or via {@link #listenOn(String)} or {@link #localhostOnly()}.
-     * @return hostName interface to listen on.
+     * Sets the bounds of the concurrency limit, see {@link #adaptiveConcurrency(boolean)}.
+     * @param minLimit the minimum number of requests served at once, 1 or greater. Defaults to 4.
+     * @param maxLimit the maximum number of requests served at once, <code>minLimit</code> or greater. Defaults to 100 per
+     *                 CPU, 100 to 1000, see {@link #getResourceDefaults()}.
+     * @return this
      */
-    public @Nullable String getListenOn() {
-        return hostName;
+    @NotNull
+    public THIS adaptiveConcurrencyLimits(int minLimit, int maxLimit) {
+        if (minLimit < 1) {
+            throw new IllegalArgumentException("Parameter minLimit: invalid value " + minLimit + ": must be 1 or greater");
+        }
+        if (maxLimit < minLimit) {
+            throw new IllegalArgumentException("Parameter maxLimit: invalid value " + maxLimit + ": must be " + minLimit + " or greater");
+        }
+        this.adaptiveConcurrencyMinLimit = minLimit;
+        this.adaptiveConcurrencyMaxLimit = maxLimit;
+        return getThis();
     }
 
     /**
-     * Listen on the <code>localhost</code> network interface only.
+     * See {@link #adaptiveConcurrencyLimits(int, int)}.
+     * @return the minimum concurrency limit.
+     */
+    public int getAdaptiveConcurrencyMinLimit() {
+        return adaptiveConcurrencyMinLimit;
+    }
+
+    /**
+     * See {@link #adaptiveConcurrencyLimits(int, int)}.
+     * @return the maximum concurrency limit.
+     */
+    public int getAdaptiveConcurrencyMaxLimit() {
+        return adaptiveConcurrencyMaxLimit != null ? adaptiveConcurrencyMaxLimit : resourceDefaults.adaptiveConcurrencyMaxLimit();
+    }
+
+    /**
+     * Sets the maximum number of requests waiting for the concurrency limit, see {@link #adaptiveConcurrency(boolean)}.
+     * The waiting requests are suspended via the servlet async API and hold no thread. A request which doesn't support
+     * the async processing only waits on a virtual thread; on a platform thread, e.g. on Tomcat, it's rejected right away
+     * rather than blocking one of the bounded request threads.
+     * @param adaptiveConcurrencyQueueDepth the maximum queue length, 0 or greater; 0 rejects the requests right away.
+     *                                      Defaults to 1/5 of the maximum concurrency limit derived from the CPUs, see {@link #getResourceDefaults()}.
      * @return this
      */
     @NotNull
-    public THIS localhostOnly() {
-        return listenOn("localhost");
+    public THIS adaptiveConcurrencyQueueDepth(int adaptiveConcurrencyQueueDepth) {
+        if (adaptiveConcurrencyQueueDepth < 0) {
+            throw new IllegalArgumentException("Parameter adaptiveConcurrencyQueueDepth: invalid value " + adaptiveConcurrencyQueueDepth + ": must be 0 or greater");
+        }
+        this.adaptiveConcurrencyQueueDepth = adaptiveConcurrencyQueueDepth;
+        return getThis();
     }
 
     /**
-     * Change this to e.g. /foo to host your app on a different context root
-     * @param contextRoot the new context root, e.g. `/foo`. Pass in either an empty string or "/" to serve on the base context root.
+     * See {@link #adaptiveConcurrencyQueueDepth(int)}.
+     * @return the maximum number of requests waiting for the concurrency limit.
+     */
+    public int getAdaptiveConcurrencyQueueDepth() {
+        return adaptiveConcurrencyQueueDepth != null ? adaptiveConcurrencyQueueDepth : resourceDefaults.adaptiveConcurrencyQueueDepth();
+    }
+
+    /**
+     * Sets how long a request may wait for the concurrency limit, see {@link #adaptiveConcurrency(boolean)}; the request
+     * is rejected with 503 afterwards.
+     * @param adaptiveConcurrencyQueueTimeout the maximum wait, must be positive. Defaults to 2 seconds.
      * @return this
      */
     @NotNull
-    public THIS withContextRoot(@NotNull String contextRoot) {
-        setContextRoot(contextRoot);
+    public THIS adaptiveConcurrencyQueueTimeout(@NotNull Duration adaptiveConcurrencyQueueTimeout) {
+        if (adaptiveConcurrencyQueueTimeout.isNegative() || adaptiveConcurrencyQueueTimeout.isZero()) {
+            throw new IllegalArgumentException("Parameter adaptiveConcurrencyQueueTimeout: invalid value " + adaptiveConcurrencyQueueTimeout + ": must be positive");
+        }
+        this.adaptiveConcurrencyQueueTimeout = adaptiveConcurrencyQueueTimeout;
         return getThis();
     }
 
     /**
-     * Change this to e.g. /foo to host your app on a different context root
-     * @param contextRoot the new context root, e.g. `/foo`. Pass in either an empty string or "/" to serve on the base context root.
+     * See {@link #adaptiveConcurrencyQueueTimeout(Duration)}.
+     * @return how long a request may wait for the concurrency limit.
      */
-    public void setContextRoot(@NotNull String contextRoot) {
-        this.contextRoot = postprocessContextRoot(contextRoot);
+    @NotNull
+    public Duration getAdaptiveConcurrencyQueueTimeout() {
+        return adaptiveConcurrencyQueueTimeout;
     }
 
     /**
-     * Returns the current context root.
-     * <br/>
-     * Can be configured via the <code>SERVER_SERVLET_CONTEXT_PATH</code> environment variable, or <code>-Dserver.servlet.context-path=</code> Java system property,
-     * or via {@link #withContextRoot(String)}.
-     * <br/>
-     * Example values:
-     * <ul>
-     *     <li>""</li>
-     *     <li>"/" - same as ""</li>
-     *     <li>"/foo"</li>
-     *     <li>"foobar" - will be changed to "/foobar"</li>
-     *     <li>"foo/bar/baz" - will be changed to "/foo/bar/baz"</li>
-     * </ul>
-     * @return the context root, e.g. `/foo`. Defaults to "".
+     * Returns the running concurrency limiter, with the current limit, the queue length and the number of shed requests.
+     * The web servers register it as a filter.
+     * @return the limiter; null if the adaptive concurrency is off or the app isn't running.
      */
-    public @NotNull String getContextRoot() {
-        return contextRoot;
+    @Nullable
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    @Nullable
+    private static Integer parseAdminPort(@Nullable String adminPort) {
+        return adminPort == null || adminPort.isBlank() ? null : Integer.valueOf(adminPort.trim());
     }
 
+    /**
+     * Serves the admin endpoints on a separate port: the liveness at <code>/live</code>, the readiness at <code>/ready</code>,
+     * the metrics in the Prometheus format at <code>/metrics</code>, and the diagnostics (<code>/threads</code>, <code>/pinning</code>,
+     * <code>/session-lock</code>). The admin port has its own small thread pool, and only serves the admin endpoints: the probes
+     * and the metric scrapes keep being answered even when the app's thread pool is saturated, and the app can't be reached
+     * via the admin port.
+     * <br/>
+     * The admin endpoints include diagnostics such as the thread dump, and aren't authenticated: they only listen
+     * on <code>localhost</code> by default. Exposing them, e.g. to the Kubernetes probes connecting to the pod IP, takes
+     * an explicit {@link #adminListenOn(String)}; don't expose the admin port to the internet.
+     * @param adminPort the port, 1..65535, or 0 to listen on an ephemeral port chosen by the OS; null to not serve the admin
+     *                  endpoints (the default). Can also be configured via the <code>MANAGEMENT_SERVER_PORT</code> environment
+     *                  variable, or <code>-Dmanagement.server.port=</code> Java system property.
+     * @return this
+     */
     @NotNull
-    private static String postprocessContextRoot(@NotNull String contextRoot) {
-        Objects.requireNonNull(contextRoot);
-        if (contextRoot.equals("/")) {
-            contextRoot = "";
-        }
-        if (!contextRoot.startsWith("/")) {
-            contextRoot = "/" + contextRoot;
+    public THIS adminPort(@Nullable Integer adminPort) {
+        if (adminPort != null && (adminPort < 0 || adminPort > 65535)) {
+            throw new IllegalArgumentException("Parameter adminPort: invalid value " + adminPort + ": must be 0..65535");
         }
-        if (contextRoot.endsWith("/")) {
-            contextRoot = contextRoot.substring(0, contextRoot.length() - 1);
+        this.adminPort = adminPort;
+        return getThis();
+    }
+
+    /**
+     * See {@link #adminPort(Integer)}.
+     * <br/>
+     * If the admin port is configured to 0 and the app is running, returns the ephemeral port the admin endpoints actually listen on.
+     * @return the admin port; null if the admin endpoints aren't served.
+     */
+    @Nullable
+    public Integer getAdminPort() {
+        if (adminPort != null && adminPort == 0 && serverStarted && !serverStopped) {
+            return server.getAdminLocalPort();
         }
-        return contextRoot;
+        return adminPort;
     }
 
     /**
-     * When the app launches, open the browser automatically when in dev mode.
-     * @param openBrowserInDevMode defaults to true.
+     * Listen with the admin endpoints on network interface handling given host name, see {@link #adminPort(Integer)}.
+     * By default, the admin endpoints are only served to the processes running on this machine. The admin endpoints aren't
+     * authenticated: only listen on a cluster-internal interface, or on all interfaces if the admin port is firewalled.
+     * @param adminListenOn the host name; null to listen on all interfaces. Defaults to <code>localhost</code>. Can also be configured via the
+     *                      <code>MANAGEMENT_SERVER_ADDRESS</code> environment variable, or <code>-Dmanagement.server.address=</code> Java system property,
+     *                      e.g. <code>0.0.0.0</code> to listen on all IPv4 interfaces.
      * @return this
      */
     @NotNull
-    public THIS openBrowserInDevMode(boolean openBrowserInDevMode) {
-        this.openBrowserInDevMode = openBrowserInDevMode;
+    public THIS adminListenOn(@Nullable String adminListenOn) {
+        this.adminListenOn = adminListenOn;
         return getThis();
     }
 
     /**
-     * When the app launches, open the browser automatically when in dev mode.
-     * @return if true, open the browser automatically when in dev mode.
+     * See {@link #adminListenOn(String)}.
+     * @return the host name the admin endpoints listen on, <code>localhost</code> by default; null if listening on all interfaces.
      */
-    public boolean isOpenBrowserInDevMode() {
-        return openBrowserInDevMode;
+    @Nullable
+    public String getAdminListenOn() {
+        return adminListenOn;
+    }
+
+    /**
+     * Sets the number of threads serving the admin endpoints, see {@link #adminPort(Integer)}.
+     * @param adminThreads the number of threads, 1 or greater. Defaults to 2.
+     * @return this
+     */
+    @NotNull
+    public THIS adminThreads(int adminThreads) {
+        if (adminThreads < 1) {
+            throw new IllegalArgumentException("Parameter adminThreads: invalid value " + adminThreads + ": must be 1 or greater");
+        }
+        this.adminThreads = adminThreads;
+        return getThis();
+    }
+
+    /**
+     * See {@link #adminThreads(int)}.
+     * @return the number of threads serving the admin endpoints.
+     */
+    public int getAdminThreads() {
+        return adminThreads;
+    }
+
+    /**
+     * Returns the URL of the admin endpoints, for example <code>http://localhost:9090</code>.
+     * @return the URL, not null.
+     * @throws IllegalStateException if the admin endpoints aren't served.
+     */
+    @NotNull
+    public String getAdminURL() {
+        final Integer adminPort = getAdminPort();
+        if (adminPort == null) {
+            throw new IllegalStateException("Invalid state: the admin endpoints aren't served; call adminPort() before start()");
+        }
+        return "http://" + toURLHost(adminListenOn) + ":" + adminPort;
+    }
+
+    /**
+     * Returns the connector sending raw HTTP requests to the running app in-process. Only available
+     * after {@link #start()} when {@link #inMemory()} was called.
+     * @return the in-memory connector, not null.
+     * @throws IllegalStateException if the app isn't running, or isn't running in the in-memory mode.
+     */
+    @NotNull
+    public InMemoryConnector getInMemoryConnector() {
+        if (!inMemory) {
+            throw new IllegalStateException("Invalid state: not running in the in-memory mode; call inMemory() before start()");
+        }
+        if (!serverStarted || serverStopped) {
+            throw new IllegalStateException("Invalid state: not running");
+        }
+        return server.getInMemoryConnector();
     }
 
     /**
@@ -234,7 +2116,34 @@ public abstract class VaadinBootBase<THIS extends VaadinBootBase<THIS>> {
      */
     @NotNull
     public String getServerURL() {
-        return "http://" + (hostName != null ? hostName : "localhost") + ":" + port + contextRoot;
+        return getServerBaseURL() + contextRoot;
+    }
+
+    /**
+     * Returns the URL of the server, without the context root; for example <code>http://localhost:8080</code>
+     * or <code>http://[::1]:8080</code>.
+     * @return the server URL, not null.
+     */
+    @NotNull
+    String getServerBaseURL() {
+        return "http://" + toURLHost(hostName) + ":" + getPort();
+    }
+
+    /**
+     * Returns the host part of the URL of given interface.
+     * @param host the host name the web server listens on; null if listening on all interfaces.
+     * @return the host name, <code>localhost</code> if null; IPv6 literals are enclosed in brackets, e.g. <code>[::1]</code>.
+     */
+    @NotNull
+    private static String toURLHost(@Nullable String host) {
+        if (host == null) {
+            return "localhost";
+        }
+        if (host.contains(":") && !host.startsWith("[")) {
+            // an IPv6 literal.
+            return "[" + host + "]";
+        }
+        return host;
     }
 
     @NotNull
@@ -283,7 +2192,8 @@ public abstract class VaadinBootBase<THIS extends VaadinBootBase<THIS>> {
         }
     }
 
-    private boolean serverStarted = false;
+    // mark volatile: getInMemoryConnector() may be called from test threads.
+    private volatile boolean serverStarted = false;
 
     /**
      * Starts the web server and your app. Blocks until the app is fully started, then returns.
@@ -296,26 +2206,58 @@ public abstract class VaadinBootBase<THIS extends VaadinBootBase<THIS>> {
         }
         final long startupMeasurementSince = System.currentTimeMillis();
         log.info("Starting App");
+        logResources();
 
-        // detect&enable production mode, but only if it hasn't been specified by the user already
-        if (System.getProperty("vaadin.productionMode") == null && Env.isVaadinProductionMode) {
-            // fixes https://github.com/mvysny/vaadin14-embedded-jetty/issues/1
-            System.setProperty("vaadin.productionMode", "true");
-        }
-
-        server.configure(this);
+        enableProductionMode();
 
-        server.start();
+        try {
+            if (accessLogFile != null) {
+                accessLog = AccessLog.open(this);
+            }
+            if (slowRequestThreshold != null) {
+                slowRequestWatchdog = new SlowRequestWatchdog(this);
+            }
+            if (pinningMonitor) {
+                pinningMonitorInstance = new PinningMonitor(this);
+            }
+            if (sessionLockProfiling) {
+                sessionLockProfiler = new SessionLockProfiler(this);
+            }
+            if (sessionSerialDispatch) {
+                sessionSerialDispatcher = new SessionSerialDispatcher(this);
+            }
+            if (readinessPath != null) {
+                readinessCheck = new ReadinessCheck(this::isReady);
+            }
+            if (rateLimitRequestsPerSecond > 0 || sessionRateLimitPerMinute > 0) {
+                rateLimiter = new RateLimiter(this, this::isReady);
+            }
+            if (adaptiveConcurrency) {
+                concurrencyLimiter = new ConcurrencyLimiter(this, this::isReady);
+            }
+            server.configure(this);
+            server.start();
+        } catch (Exception e) {
+            closeServices();
+            throw e;
+        }
         serverStarted = true;
         try {
             log.debug(server.getName() + " Server started");
 
+            if (!warmUpPaths.isEmpty()) {
+                warmUp();
+            }
             onStarted(server);
+            if (isRestartOnClassChange()) {
+                classesWatcher = new ClassesWatcher(Env.findClassesJarOrFolder(Env.findWebRoot()), this::restartWebApp);
+            }
+            ready = true;
 
             final Duration startupDuration = Duration.ofMillis(System.currentTimeMillis() - startupMeasurementSince);
             System.out.println("\n\n=================================================\n" +
                     "Started in " + startupDuration + ". Running on " + Env.dumpHost() + ". PID: " + ProcessHandle.current().pid() + "\n" +
-                    "Please open " + getServerURL() + " in your browser.");
+                    (inMemory ? "Running in-memory, no network port is listened on." : "Please open " + getServerURL() + " in your browser."));
             if (!Env.isVaadinProductionMode) {
                 System.out.println("If you see the 'Unable to determine mode of operation' exception, just kill me and run `./gradlew vaadinPrepareFrontend` or `./mvnw vaadin:prepare-frontend`");
             }
@@ -326,6 +2268,76 @@ public abstract class VaadinBootBase<THIS extends VaadinBootBase<THIS>> {
         }
     }
 
+    /**
+     * Logs the server resources and whether they were derived from the CPUs and the memory, or configured explicitly.
+     */
+    private void logResources() {
+        log.info("Server resources derived from " + resourceDefaults.describeHost() + ": acceptors=" + getAcceptors() + explicit(acceptors)
+                + ", selectors=" + getSelectors() + explicit(selectors)
+                + ", minThreads=" + getMinThreads() + (minThreads != null ? " (explicit)" : httpPreset != null ? " (" + httpPreset + ")" : "")
+                + ", maxThreads=" + getMaxThreads() + explicit(maxThreads)
+                + (adaptiveConcurrency ? ", adaptiveConcurrencyMaxLimit=" + getAdaptiveConcurrencyMaxLimit() + explicit(adaptiveConcurrencyMaxLimit)
+                        + ", adaptiveConcurrencyQueueDepth=" + getAdaptiveConcurrencyQueueDepth() + explicit(adaptiveConcurrencyQueueDepth) : ""));
+    }
+
+    @NotNull
+    private static String explicit(@Nullable Object setting) {
+        return setting == null ? "" : " (explicit)";
+    }
+
+    /**
+     * Initializes all servlets eagerly, then replays the warm-up requests, see {@link #warmUpPaths(String...)}.
+     * @throws Exception if the servlets fail to initialize.
+     */
+    private void warmUp() throws Exception {
+        final long since = System.nanoTime();
+        server.initServlets();
+        log.info("Servlets initialized in " + Duration.ofNanos(System.nanoTime() - since).toMillis() + "ms");
+        try (WarmUp.Client client = inMemory ? WarmUp.newInMemoryClient(server.getInMemoryConnector()) : WarmUp.newHttpClient(this)) {
+            new WarmUp(this, client).run();
+            // all warm-up requests share one session: don't keep it in memory until it times out.
+            try {
+                server.invalidateSession(client.getCookies());
+            } catch (Exception e) {
+                log.warn("Failed to invalidate the warm-up session: " + e, e);
+            }
+        }
+    }
+
+    /**
+     * Enables the Vaadin production mode JVM-wide, via the <code>vaadin.productionMode</code> system property, if
+     * {@link Env#isVaadinProductionMode detected} and not specified by the user already. Called from {@link #start()}.
+     * Overridden by web servers which configure the production mode per webapp.
+     */
+    protected void enableProductionMode() {
+        if (System.getProperty("vaadin.productionMode") == null && Env.isVaadinProductionMode) {
+            // fixes https://github.com/mvysny/vaadin14-embedded-jetty/issues/1
+            System.setProperty("vaadin.productionMode", "true");
+        }
+    }
+
+    /**
+     * Watches the classes folders; only set when {@link #isRestartOnClassChange()} is true.
+     */
+    private volatile ClassesWatcher classesWatcher;
+
+    /**
+     * Restarts just the webapp, keeping the web server running. Invoked by {@link ClassesWatcher} when the classes change.
+     */
+    private synchronized void restartWebApp() {
+        if (serverStopped) {
+            return;
+        }
+        final long since = System.currentTimeMillis();
+        log.info("Classes changed, restarting the webapp");
+        try {
+            server.restartWebApp();
+            log.info("Webapp restarted in " + Duration.ofMillis(System.currentTimeMillis() - since));
+        } catch (Exception e) {
+            log.error("Failed to restart the webapp: " + e, e);
+        }
+    }
+
     /**
      * Invoked when the Web server has been started. By default, does nothing.
      * @param server the web server; obtain the context from the concrete web server object.
@@ -347,7 +2359,13 @@ public abstract class VaadinBootBase<THIS extends VaadinBootBase<THIS>> {
         if (!serverStopped) {
             try {
                 log.info(reason);
+                ready = false;
+                if (classesWatcher != null) {
+                    classesWatcher.close();
+                    classesWatcher = null;
+                }
                 server.stop(); // blocks until the webapp stops fully
+                closeServices();
                 log.info("Stopped");
             } catch (Throwable t) {
                 log.error("stop() failed: " + t, t);
@@ -356,6 +2374,80 @@ public abstract class VaadinBootBase<THIS extends VaadinBootBase<THIS>> {
         serverStopped = true;
     }
 
+    /**
+     * Closes the services created by {@link #start()}, once the web server is stopped or failed to start.
+     */
+    private void closeServices() {
+        closeAccessLog();
+        closeSlowRequestWatchdog();
+        closePinningMonitor();
+        closeSessionLockProfiler();
+        closeSessionSerialDispatcher();
+        closeRateLimiter();
+        closeConcurrencyLimiter();
+        readinessCheck = null;
+    }
+
+    private void closeAccessLog() {
+        final AccessLog accessLog = this.accessLog;
+        if (accessLog != null) {
+            this.accessLog = null;
+            try {
+                accessLog.close();
+            } catch (IOException e) {
+                log.warn("Failed to close the access log: " + e, e);
+            }
+        }
+    }
+
+    private void closeSlowRequestWatchdog() {
+        final SlowRequestWatchdog slowRequestWatchdog = this.slowRequestWatchdog;
+        if (slowRequestWatchdog != null) {
+            this.slowRequestWatchdog = null;
+            slowRequestWatchdog.close();
+        }
+    }
+
+    private void closePinningMonitor() {
+        final PinningMonitor pinningMonitor = this.pinningMonitorInstance;
+        if (pinningMonitor != null) {
+            this.pinningMonitorInstance = null;
+            pinningMonitor.close();
+        }
+    }
+
+    private void closeSessionLockProfiler() {
+        final SessionLockProfiler sessionLockProfiler = this.sessionLockProfiler;
+        if (sessionLockProfiler != null) {
+            this.sessionLockProfiler = null;
+            sessionLockProfiler.logReport();
+        }
+    }
+
+    private void closeSessionSerialDispatcher() {
+        final SessionSerialDispatcher sessionSerialDispatcher = this.sessionSerialDispatcher;
+        if (sessionSerialDispatcher != null) {
+            this.sessionSerialDispatcher = null;
+            log.info("Session serial dispatch: " + sessionSerialDispatcher.getStatistics());
+        }
+    }
+
+    private void closeRateLimiter() {
+        final RateLimiter rateLimiter = this.rateLimiter;
+        if (rateLimiter != null) {
+            this.rateLimiter = null;
+            log.info("Rate limiting: " + rateLimiter.getStatistics());
+        }
+    }
+
+    private void closeConcurrencyLimiter() {
+        final ConcurrencyLimiter concurrencyLimiter = this.concurrencyLimiter;
+        if (concurrencyLimiter != null) {
+            this.concurrencyLimiter = null;
+            log.info("Adaptive concurrency: " + concurrencyLimiter.getStatistics());
+        }
+    }
+
     @NotNull
     private static final Logger log = LoggerFactory.getLogger(VaadinBootBase.class);
 }
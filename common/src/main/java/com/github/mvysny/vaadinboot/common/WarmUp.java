@@ -0,0 +1,215 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.CookieManager;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Warms the app up before it's reported ready, see {@link VaadinBootBase#warmUpPaths(String...)}.
+ * Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * The first requests after a deploy are slow: the JIT compiler is cold, and Vaadin initializes its route registry
+ * and other caches lazily. The warm-up replays the configured requests against the running app repeatedly, until
+ * {@link VaadinBootBase#getWarmUpIterations()} iterations are done or {@link VaadinBootBase#getWarmUpTimeBudget()} runs out.
+ * A failing request is logged but doesn't fail the startup.
+ * <br/>
+ * The clients keep the cookies, so that all warm-up requests share one session, invalidated once the warm-up is done;
+ * the requests are sent with the {@link #USER_AGENT} user agent.
+ */
+public final class WarmUp {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(WarmUp.class);
+
+    /**
+     * The <code>User-Agent</code> of the warm-up requests, e.g. to tell them apart in the access log.
+     */
+    @NotNull
+    public static final String USER_AGENT = "Vaadin-Boot-WarmUp";
+
+    /**
+     * Sends a warm-up request. Closed once the warm-up is done.
+     */
+    @FunctionalInterface
+    public interface Client extends AutoCloseable {
+        /**
+         * Sends a <code>GET</code> request for given path and waits for the full response.
+         * @param path the path, including the context root.
+         * @return the HTTP status code.
+         * @throws Exception if the request fails.
+         */
+        int get(@NotNull String path) throws Exception;
+
+        /**
+         * Returns the cookies the web server has set so far, e.g. the session cookie. Empty by default.
+         * @return the cookies, not null.
+         */
+        @NotNull
+        default List<HttpCookie> getCookies() {
+            return List.of();
+        }
+
+        /**
+         * Releases the resources held by the client. Does nothing by default.
+         */
+        @Override
+        default void close() {
+        }
+    }
+
+    /**
+     * The outcome of the warm-up.
+     * @param iterations the number of iterations done.
+     * @param elapsed how long the warm-up took.
+     */
+    public record Result(int iterations, @NotNull Duration elapsed) {
+        @Override
+        public String toString() {
+            return iterations + " iterations in " + elapsed.toMillis() + "ms";
+        }
+    }
+
+    @NotNull
+    private final List<String> paths;
+    private final int iterations;
+    private final long timeBudgetNanos;
+    @NotNull
+    private final Client client;
+
+    /**
+     * Creates the warm-up.
+     * @param configuration the configuration. The paths are resolved against {@link VaadinBootBase#getContextRoot()}.
+     * @param client sends the requests.
+     */
+    public WarmUp(@NotNull VaadinBootBase<?> configuration, @NotNull Client client) {
+        paths = configuration.getWarmUpPaths().stream().map(it -> configuration.getContextRoot() + it).toList();
+        iterations = configuration.getWarmUpIterations();
+        timeBudgetNanos = configuration.getWarmUpTimeBudget().toNanos();
+        this.client = client;
+    }
+
+    /**
+     * Creates the client which sends the requests over the network, to the port the web server listens on.
+     * @param configuration the configuration of a started web server.
+     * @return the client, not null. Close it once the warm-up is done, to stop the threads of the underlying {@link HttpClient}.
+     */
+    @NotNull
+    public static Client newHttpClient(@NotNull VaadinBootBase<?> configuration) {
+        final CookieManager cookieManager = new CookieManager();
+        final HttpClient httpClient = HttpClient.newBuilder().cookieHandler(cookieManager).build();
+        final String baseURL = configuration.getServerBaseURL();
+        return new Client() {
+            @Override
+            public int get(@NotNull String path) throws Exception {
+                final HttpRequest request = HttpRequest.newBuilder(URI.create(baseURL + path))
+                        .timeout(Duration.ofSeconds(30))
+                        .header("User-Agent", USER_AGENT)
+                        .build();
+                return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            }
+
+            @Override
+            @NotNull
+            public List<HttpCookie> getCookies() {
+                return cookieManager.getCookieStore().getCookies();
+            }
+
+            @Override
+            public void close() {
+                httpClient.close();
+            }
+        };
+    }
+
+    /**
+     * Creates the client which sends the requests via the in-memory connector, see {@link VaadinBootBase#inMemory()}.
+     * @param connector the in-memory connector.
+     * @return the client, not null.
+     */
+    @NotNull
+    public static Client newInMemoryClient(@NotNull InMemoryConnector connector) {
+        return new Client() {
+            /**
+             * The cookies by their name. The warm-up sends the requests one at a time.
+             */
+            @NotNull
+            private final Map<String, HttpCookie> cookies = new LinkedHashMap<>();
+
+            @Override
+            public int get(@NotNull String path) throws Exception {
+                final StringBuilder request = new StringBuilder("GET " + path + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n");
+                request.append("User-Agent: ").append(USER_AGENT).append("\r\n");
+                if (!cookies.isEmpty()) {
+                    request.append("Cookie: ").append(cookies.values().stream().map(it -> it.getName() + "=" + it.getValue()).collect(Collectors.joining("; "))).append("\r\n");
+                }
+                final String response = connector.getResponse(request.append("\r\n").toString());
+                final String[] lines = response.split("\r\n");
+                for (int i = 1; i < lines.length && !lines[i].isEmpty(); i++) {
+                    if (lines[i].regionMatches(true, 0, "Set-Cookie:", 0, 11)) {
+                        for (HttpCookie cookie : HttpCookie.parse(lines[i])) {
+                            if (cookie.getMaxAge() == 0) {
+                                cookies.remove(cookie.getName());
+                            } else {
+                                cookies.put(cookie.getName(), cookie);
+                            }
+                        }
+                    }
+                }
+                // HTTP/1.1 200 OK
+                final String[] statusLine = lines[0].split(" ", 3);
+                return statusLine.length >= 2 ? Integer.parseInt(statusLine[1]) : 0;
+            }
+
+            @Override
+            @NotNull
+            public List<HttpCookie> getCookies() {
+                return List.copyOf(cookies.values());
+            }
+        };
+    }
+
+    /**
+     * Runs the warm-up. Blocks until it's done.
+     * @return the outcome, not null.
+     */
+    @NotNull
+    public Result run() {
+        final long start = System.nanoTime();
+        // log every failing path just once, not once per iteration.
+        final Set<String> failedPaths = new LinkedHashSet<>();
+        int iteration = 0;
+        while (iteration < iterations && System.nanoTime() - start < timeBudgetNanos) {
+            final long iterationStart = System.nanoTime();
+            for (String path : paths) {
+                try {
+                    final int status = client.get(path);
+                    if (status >= 400 && failedPaths.add(path)) {
+                        log.warn("Warm-up request " + path + " failed with status " + status);
+                    }
+                } catch (Exception e) {
+                    if (failedPaths.add(path)) {
+                        log.warn("Warm-up request " + path + " failed: " + e, e);
+                    }
+                }
+            }
+            iteration++;
+            log.info("Warm-up iteration " + iteration + "/" + iterations + " took " + Duration.ofNanos(System.nanoTime() - iterationStart).toMillis() + "ms");
+        }
+        final Result result = new Result(iteration, Duration.ofNanos(System.nanoTime() - start));
+        log.info("Warmed up: " + result);
+        return result;
+    }
+}
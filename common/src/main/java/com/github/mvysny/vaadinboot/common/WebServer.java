@@ -2,6 +2,9 @@ package com.github.mvysny.vaadinboot.common;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.net.HttpCookie;
+import java.util.List;
+
 /**
  * An abstraction over a web server, such as Jetty or Tomcat.
  * <br/>
@@ -15,12 +18,16 @@ import org.jetbrains.annotations.NotNull;
  * <br/>
  * Every web server must provide the following:
  * <ul>
- *     <li>It must listen for http traffic on port {@link VaadinBootBase#port}, host {@link VaadinBootBase#hostName}, on {@link VaadinBootBase#contextRoot}</li>
+ *     <li>It must listen for http traffic on port {@link VaadinBootBase#port}, host {@link VaadinBootBase#hostName}, on {@link VaadinBootBase#contextRoot}.
+ *     Port 0 means an ephemeral port, reported back via {@link #getLocalPort()}.</li>
  *     <li>It must serve static contents from <code>classpath://webapp</code>. There are utility functions in {@link Env} to locate the static contents and optionally unpack it to a temp folder</li>
  *     <li>WebSocket support</li>
  *     <li><code>@WebServlet</code> and <code>@WebListener</code> class auto-discovery, at least from the main app jar.</li>
  *     <li>Additional servlets besides Vaadin servlet, e.g. additional Javalin servlet</li>
+ *     <li>The admin endpoints ({@link AdminServlet}) on {@link VaadinBootBase#getAdminPort()} if configured, with a thread pool of their own.</li>
  *     <li>Class hot-redeployment when JVM is running in debug mode. At least a basic hot-redeployment, as offered by the JVM, should be supported.</li>
+ *     <li>Restarting just the webapp on class change, see {@link #restartWebApp()}.</li>
+ *     <li>The in-memory mode, with no network port listened on, see {@link #getInMemoryConnector()}.</li>
  * </ul>
  * The following is not required:
  * <ul>
@@ -88,4 +95,57 @@ public interface WebServer {
      * @return the name of this web server, e.g. "Tomcat" or "Jetty".
      */
     @NotNull String getName();
+
+    /**
+     * Restarts just the webapp, in a fresh child classloader which loads the app's classes anew. Keeps the web server,
+     * its thread pool and the bound connector running. Only called on a started web server, when
+     * {@link VaadinBootBase#isRestartOnClassChange()} is true.
+     * @throws Exception if the restart fails.
+     */
+    void restartWebApp() throws Exception;
+
+    /**
+     * Initializes all servlets which haven't been initialized yet, rather than on their first request. Only called
+     * on a started web server, during the warm-up, see {@link VaadinBootBase#warmUpPaths(String...)}. By default, does nothing.
+     * @throws Exception if a servlet fails to initialize.
+     */
+    default void initServlets() throws Exception {
+    }
+
+    /**
+     * Invalidates the session identified by the session cookie among given cookies, if there's such a cookie and
+     * the session still exists. Only called on a started web server, once the warm-up is done, see
+     * {@link VaadinBootBase#warmUpPaths(String...)}. By default, does nothing.
+     * @param cookies the cookies the warm-up requests have received.
+     * @throws Exception if the session fails to be invalidated.
+     */
+    default void invalidateSession(@NotNull List<HttpCookie> cookies) throws Exception {
+    }
+
+    /**
+     * Returns the port the web server actually listens on. Mostly useful when {@link VaadinBootBase#getPort()} is configured to 0,
+     * in which case the OS picks an ephemeral port.
+     * <br/>
+     * Can only be called on a started web server.
+     * @return the port the web server listens on, 1..65535.
+     */
+    int getLocalPort();
+
+    /**
+     * Returns the port the admin endpoints actually listen on, see {@link VaadinBootBase#adminPort(Integer)}. Mostly useful
+     * when the admin port is configured to 0, in which case the OS picks an ephemeral port.
+     * <br/>
+     * Can only be called on a started web server which serves the admin endpoints.
+     * @return the port the admin endpoints listen on, 1..65535.
+     */
+    int getAdminLocalPort();
+
+    /**
+     * Returns the connector which passes raw HTTP requests to the web server in-process. Only available when the
+     * web server has been configured with {@link VaadinBootBase#isInMemory()} set to true, and has been started.
+     * @return the in-memory connector, not null.
+     * @throws IllegalStateException if the web server isn't running in the in-memory mode.
+     */
+    @NotNull
+    InMemoryConnector getInMemoryConnector();
 }
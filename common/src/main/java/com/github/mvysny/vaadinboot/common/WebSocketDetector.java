@@ -0,0 +1,146 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Decides whether the web server needs to initialize its WebSocket support, see {@link VaadinBootBase#webSocket(Boolean)}.
+ * Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * The app's own classes (never the dependency jars, see {@link Env#findClassesJarOrFolder(java.net.URL)}) are searched for
+ * the <code>@Push</code> annotation, for push enabled programmatically via <code>PushConfiguration.setPushMode()</code>,
+ * and for any reference to the Jakarta or Jetty WebSocket API, e.g. a <code>@ServerEndpoint</code>. The class files aren't parsed: the constant pool of a class using the annotation or the API
+ * contains its binary name, which is looked up in the raw bytes.
+ */
+public final class WebSocketDetector {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(WebSocketDetector.class);
+
+    /**
+     * The binary names whose presence in a class file means that the app uses WebSockets.
+     */
+    @NotNull
+    private static final List<String> MARKERS = List.of("Lcom/vaadin/flow/component/page/Push;",
+            "com/vaadin/flow/component/PushConfiguration", "com/vaadin/flow/shared/communication/PushMode", "jakarta/websocket/",
+            "org/eclipse/jetty/websocket/", "org/eclipse/jetty/ee10/websocket/");
+
+    private WebSocketDetector() {
+    }
+
+    /**
+     * The outcome of the detection.
+     * @param needed true if the web server needs to initialize its WebSocket support.
+     * @param reason why, for the log, e.g. <code>Lcom/vaadin/flow/component/page/Push; referenced by com/example/AppShell.class</code>.
+     */
+    public record Result(boolean needed, @NotNull String reason) {
+    }
+
+    /**
+     * Decides whether the web server needs to initialize its WebSocket support.
+     * <br/>
+     * In the development mode, the WebSocket support is always initialized unless disabled explicitly: the Vaadin dev tools
+     * connect to the live reload via a WebSocket. In a native image, there are no class files to scan: the WebSocket
+     * support is initialized unless disabled explicitly.
+     * @param configuration the configuration.
+     * @return the outcome, not null.
+     * @throws IOException if the app's classes can't be read.
+     */
+    @NotNull
+    public static Result detect(@NotNull VaadinBootBase<?> configuration) throws IOException {
+        final Boolean webSocket = configuration.getWebSocket();
+        if (webSocket != null) {
+            return new Result(webSocket, "configured via webSocket(" + webSocket + ")");
+        }
+        if (!Env.isVaadinProductionMode) {
+            return new Result(true, "needed by the Vaadin dev tools in development mode");
+        }
+        if (Env.isNativeImage) {
+            return new Result(true, "the app's class files can't be scanned in a native image");
+        }
+        final long start = System.nanoTime();
+        final Set<File> classes = Env.findClassesJarOrFolder(Env.findWebRoot());
+        final int[] scanned = new int[1];
+        String found = null;
+        for (File jarOrFolder : classes) {
+            found = jarOrFolder.isDirectory() ? scanFolder(jarOrFolder.toPath(), scanned) : scanJar(jarOrFolder, scanned);
+            if (found != null) {
+                break;
+            }
+        }
+        final long tookMs = (System.nanoTime() - start) / 1_000_000;
+        final Result result = found != null
+                ? new Result(true, found + " (" + scanned[0] + " classes scanned in " + tookMs + "ms)")
+                : new Result(false, "no @Push, PushMode or WebSocket endpoint found in " + classes + " (" + scanned[0] + " classes scanned in " + tookMs + "ms)");
+        log.debug("WebSocket detection: " + result);
+        return result;
+    }
+
+    @Nullable
+    private static String scanFolder(@NotNull Path folder, @NotNull int[] scanned) throws IOException {
+        try (Stream<Path> files = Files.walk(folder)) {
+            for (Path file : (Iterable<Path>) files.filter(it -> it.toString().endsWith(".class"))::iterator) {
+                scanned[0]++;
+                final String marker = findMarker(Files.readAllBytes(file));
+                if (marker != null) {
+                    return marker + " referenced by " + folder.relativize(file);
+                }
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static String scanJar(@NotNull File jar, @NotNull int[] scanned) throws IOException {
+        try (JarFile jarFile = new JarFile(jar)) {
+            final Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                final JarEntry entry = entries.nextElement();
+                if (!entry.getName().endsWith(".class")) {
+                    continue;
+                }
+                scanned[0]++;
+                final byte[] bytes;
+                try (InputStream in = jarFile.getInputStream(entry)) {
+                    bytes = in.readAllBytes();
+                }
+                final String marker = findMarker(bytes);
+                if (marker != null) {
+                    return marker + " referenced by " + entry.getName();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Looks up {@link #MARKERS} in the raw bytes of a class file.
+     * @param classFile the class file contents.
+     * @return the marker found, null if none.
+     */
+    @Nullable
+    static String findMarker(@NotNull byte[] classFile) {
+        // ISO-8859-1 maps every byte to a char: the ASCII markers are found regardless of the surrounding bytes.
+        final String contents = new String(classFile, StandardCharsets.ISO_8859_1);
+        for (String marker : MARKERS) {
+            if (contents.contains(marker)) {
+                return marker;
+            }
+        }
+        return null;
+    }
+}
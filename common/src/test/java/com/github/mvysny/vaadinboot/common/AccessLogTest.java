@@ -0,0 +1,107 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccessLogTest {
+    @TempDir
+    public Path tempDir;
+
+    @Test
+    public void testFormat() throws Exception {
+        final File file = tempDir.resolve("logs/access.log").toFile();
+        final AccessLog accessLog = AccessLog.open(new VaadinBoot().accessLog(file).accessLogFields(AccessLogField.REMOTE_ADDRESS,
+                AccessLogField.METHOD, AccessLogField.URI, AccessLogField.PROTOCOL, AccessLogField.STATUS, AccessLogField.BYTES,
+                AccessLogField.SERVICE_TIME, AccessLogField.VAADIN_REQUEST_TYPE, AccessLogField.USER_AGENT));
+        assertTrue(accessLog.log("127.0.0.1", "POST", "/", "v-r=uidl&v-uiId=0", "HTTP/1.1", 200, 1234, 12_345_678, "Firefox \"quoted\""));
+        assertTrue(accessLog.log(null, "GET", "/VAADIN/build/app.js", null, "HTTP/2.0", 304, 0, 5_000, null));
+        accessLog.close();
+        assertEquals(List.of("127.0.0.1 POST /?v-r=uidl&v-uiId=0 HTTP/1.1 200 1234 12.345 uidl \"Firefox 'quoted'\"",
+                "- GET /VAADIN/build/app.js HTTP/2.0 304 0 0.005 - -"), Files.readAllLines(file.toPath()));
+        assertEquals(2, accessLog.getWrittenEntries());
+        assertEquals(0, accessLog.getDroppedEntries());
+
+        // no entries are accepted after close.
+        assertFalse(accessLog.log("127.0.0.1", "GET", "/", null, "HTTP/1.1", 200, 0, 0, null));
+        assertEquals(1, accessLog.getDroppedEntries());
+    }
+
+    @Test
+    public void testConcurrentLoggingNeverBlocks() throws Exception {
+        final File file = tempDir.resolve("access.log").toFile();
+        final AccessLog accessLog = AccessLog.open(new VaadinBoot().accessLog(file).accessLogBufferSize(16));
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int i = 0; i < 4; i++) {
+                executor.submit(() -> {
+                    for (int j = 0; j < 10_000; j++) {
+                        accessLog.log("127.0.0.1", "GET", "/", null, "HTTP/1.1", 200, 0, 0, null);
+                    }
+                });
+            }
+        }
+        accessLog.close();
+        assertEquals(40_000, accessLog.getWrittenEntries() + accessLog.getDroppedEntries());
+        assertEquals(accessLog.getWrittenEntries(), Files.readAllLines(file.toPath()).size());
+    }
+
+    @Test
+    public void testCloseWhileLogging() throws Exception {
+        final File file = tempDir.resolve("access.log").toFile();
+        final AccessLog accessLog = AccessLog.open(new VaadinBoot().accessLog(file).accessLogBufferSize(1024));
+        final LongAdder attempts = new LongAdder();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int i = 0; i < 4; i++) {
+                executor.submit(() -> {
+                    for (int j = 0; j < 20_000; j++) {
+                        accessLog.log("127.0.0.1", "GET", "/", null, "HTTP/1.1", 200, 0, 0, null);
+                        attempts.increment();
+                    }
+                });
+            }
+            Thread.sleep(5);
+            accessLog.close();
+        }
+        // every entry is either written or counted as dropped, even the ones enqueued while closing.
+        assertEquals(attempts.sum(), accessLog.getWrittenEntries() + accessLog.getDroppedEntries());
+        assertEquals(accessLog.getWrittenEntries(), Files.readAllLines(file.toPath()).size());
+    }
+
+    @Test
+    public void testRotation() throws Exception {
+        final File file = tempDir.resolve("access.log").toFile();
+        final AccessLog accessLog = AccessLog.open(new VaadinBoot().accessLog(file).accessLogMaxFileSize(1).accessLogRotationInterval(Duration.ofDays(1)));
+        for (int i = 0; i < 3; i++) {
+            accessLog.log("127.0.0.1", "GET", "/" + i, null, "HTTP/1.1", 200, 0, 0, null);
+            // wait until the entry is written, so that every entry goes into a new batch.
+            while (accessLog.getWrittenEntries() <= i) {
+                Thread.sleep(10);
+            }
+        }
+        accessLog.close();
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(3, files.count());
+        }
+        assertEquals(1, Files.readAllLines(file.toPath()).size());
+    }
+
+    @Test
+    public void testGetVaadinRequestType() {
+        assertNull(AccessLog.getVaadinRequestType(null));
+        assertNull(AccessLog.getVaadinRequestType(""));
+        assertNull(AccessLog.getVaadinRequestType("foo=bar&xv-r=uidl"));
+        assertEquals("uidl", AccessLog.getVaadinRequestType("v-r=uidl"));
+        assertEquals("heartbeat", AccessLog.getVaadinRequestType("v-uiId=0&v-r=heartbeat&foo"));
+    }
+}
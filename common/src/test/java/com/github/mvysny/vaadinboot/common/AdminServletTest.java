@@ -0,0 +1,29 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdminServletTest {
+    @Test
+    public void testMetrics() {
+        final String metrics = new AdminServlet(new VaadinBoot()).getMetrics();
+        assertTrue(metrics.contains("# TYPE vaadin_boot_ready gauge\nvaadin_boot_ready 0\n"), metrics);
+        assertTrue(metrics.contains("\njvm_memory_heap_used_bytes "), metrics);
+        // the metrics of the services which aren't running are omitted.
+        assertFalse(metrics.contains("vaadin_boot_rate_limiter"), metrics);
+    }
+
+    @Test
+    public void testMetricsOfRunningServices() throws Exception {
+        final VaadinBoot boot = new VaadinBoot().rateLimit(10, 10).adaptiveConcurrency(true);
+        boot.start();
+        try {
+            final String metrics = new AdminServlet(boot).getMetrics();
+            assertTrue(metrics.contains("# TYPE vaadin_boot_rate_limiter_allowed_total counter\nvaadin_boot_rate_limiter_allowed_total 0\n"), metrics);
+            assertTrue(metrics.contains("\nvaadin_boot_concurrency_limit 20\n"), metrics);
+        } finally {
+            boot.stop("foo");
+        }
+    }
+}
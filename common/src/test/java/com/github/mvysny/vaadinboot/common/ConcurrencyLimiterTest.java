@@ -0,0 +1,133 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimiterTest {
+    /**
+     * Saturates the limiter, then completes all requests with given latency.
+     */
+    private static void saturate(@NotNull ConcurrencyLimiter limiter, @NotNull Duration latency) {
+        final int limit = limiter.getLimit();
+        for (int i = 0; i < limit; i++) {
+            assertEquals(i, limiter.acquire(false));
+        }
+        for (int i = 0; i < limit; i++) {
+            limiter.release(System.nanoTime() - latency.toNanos(), limit - 1);
+        }
+    }
+
+    @Test
+    public void testLimitAdaptsToLatency() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(new VaadinBoot().adaptiveConcurrency(true).adaptiveConcurrencyLimits(2, 200), () -> true);
+        assertEquals(20, limiter.getLimit());
+        for (int i = 0; i < 5; i++) {
+            saturate(limiter, Duration.ofMillis(10));
+        }
+        // the latency holds: the limit grows.
+        final int grownLimit = limiter.getLimit();
+        assertTrue(grownLimit > 20, limiter.getStatistics().toString());
+        for (int i = 0; i < 5; i++) {
+            saturate(limiter, Duration.ofMillis(100));
+        }
+        // the latency grew tenfold: the limit shrinks.
+        assertTrue(limiter.getLimit() < grownLimit / 2, limiter.getStatistics().toString());
+        assertTrue(limiter.getLimit() >= 2);
+        assertEquals(0, limiter.getStatistics().inFlight());
+    }
+
+    @Test
+    public void testLimitDoesntGrowWhenNotUsed() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(new VaadinBoot().adaptiveConcurrency(true), () -> true);
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire(false);
+            limiter.release(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(10), 0);
+        }
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    public void testQueueTimeout() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(new VaadinBoot().adaptiveConcurrency(true)
+                .adaptiveConcurrencyLimits(1, 1).adaptiveConcurrencyQueueTimeout(Duration.ofMillis(50)), () -> true);
+        assertEquals(0, limiter.acquire(false));
+        assertEquals(-1, limiter.acquire(true));
+        assertEquals(0, limiter.getQueueLength());
+        final ConcurrencyLimiter.Statistics statistics = limiter.getStatistics();
+        assertEquals(1, statistics.inFlight());
+        assertEquals(1, statistics.queuedRequests());
+        assertEquals(1, statistics.shedRequests());
+    }
+
+    @Test
+    public void testNoQueue() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(new VaadinBoot().adaptiveConcurrency(true)
+                .adaptiveConcurrencyLimits(1, 1).adaptiveConcurrencyQueueDepth(0), () -> true);
+        assertEquals(0, limiter.acquire(false));
+        assertEquals(-1, limiter.acquire(true));
+        limiter.release(System.nanoTime(), 0);
+        assertEquals(0, limiter.acquire(false));
+    }
+
+    @Test
+    public void testTryAcquireDoesntQueue() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(new VaadinBoot().adaptiveConcurrency(true)
+                .adaptiveConcurrencyLimits(1, 1).adaptiveConcurrencyQueueTimeout(Duration.ofSeconds(30)), () -> true);
+        assertEquals(0, limiter.tryAcquire(false));
+        // a request which can't be suspended on a platform thread is shed right away, rather than blocking the thread.
+        assertEquals(-1, limiter.tryAcquire(true));
+        final ConcurrencyLimiter.Statistics statistics = limiter.getStatistics();
+        assertEquals(0, statistics.queuedRequests());
+        assertEquals(1, statistics.shedRequests());
+        limiter.release(System.nanoTime(), 0);
+        assertEquals(0, limiter.tryAcquire(false));
+    }
+
+    @Test
+    public void testHighPriorityServedFirst() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(new VaadinBoot().adaptiveConcurrency(true)
+                .adaptiveConcurrencyLimits(1, 1).adaptiveConcurrencyQueueDepth(2).adaptiveConcurrencyQueueTimeout(Duration.ofSeconds(30)), () -> true);
+        assertEquals(0, limiter.acquire(false));
+        try (ExecutorService executor = Executors.newCachedThreadPool()) {
+            final Future<Integer> low1 = executor.submit(() -> limiter.acquire(false));
+            awaitUntil(() -> limiter.getQueueLength() == 1);
+            final Future<Integer> high1 = executor.submit(() -> limiter.acquire(true));
+            awaitUntil(() -> limiter.getQueueLength() == 2);
+            // the queue is full: the high-priority request takes the place of the low-priority one...
+            final Future<Integer> high2 = executor.submit(() -> limiter.acquire(true));
+            assertEquals(-1, low1.get());
+            awaitUntil(() -> limiter.getQueueLength() == 2);
+            // ...while a low-priority request is shed right away.
+            assertEquals(-1, limiter.acquire(false));
+
+            limiter.release(System.nanoTime(), 0);
+            assertEquals(0, high1.get());
+            assertFalse(high2.isDone());
+            limiter.release(System.nanoTime(), 0);
+            assertEquals(0, high2.get());
+            limiter.release(System.nanoTime(), 0);
+        }
+        final ConcurrencyLimiter.Statistics statistics = limiter.getStatistics();
+        assertEquals(0, statistics.inFlight());
+        assertEquals(0, statistics.queueLength());
+        assertEquals(3, statistics.servedRequests());
+        assertEquals(3, statistics.queuedRequests());
+        assertEquals(2, statistics.shedRequests());
+    }
+
+    private static void awaitUntil(@NotNull BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContainerLimitsTest {
+    @Test
+    public void parsing() {
+        assertEquals(0.5, ContainerLimits.parseCpuMax("50000 100000\n"));
+        assertEquals(2.0, ContainerLimits.parseCpuMax("200000 100000"));
+        assertNull(ContainerLimits.parseCpuMax("max 100000"));
+        assertEquals(1.5, ContainerLimits.parseCfsQuota("150000", "100000"));
+        assertNull(ContainerLimits.parseCfsQuota("-1", "100000"));
+        assertEquals(536870912L, ContainerLimits.parseMemoryLimit("536870912\n"));
+        assertNull(ContainerLimits.parseMemoryLimit("max"));
+        assertNull(ContainerLimits.parseMemoryLimit("9223372036854771712"));
+    }
+
+    @Test
+    public void noCgroups(@TempDir Path root) throws Exception {
+        assertEquals(ContainerLimits.NONE, ContainerLimits.read(root, ""));
+        assertEquals("none", ContainerLimits.NONE.toString());
+        // smoke: must never fail.
+        assertNotNull(ContainerLimits.detect());
+    }
+
+    @Test
+    public void cgroupV2Container(@TempDir Path root) throws Exception {
+        Files.writeString(root.resolve("cgroup.controllers"), "cpu memory");
+        Files.writeString(root.resolve("cpu.max"), "50000 100000\n");
+        Files.writeString(root.resolve("memory.max"), "536870912\n");
+        final ContainerLimits limits = ContainerLimits.read(root, "0::/\n");
+        assertEquals(new ContainerLimits(0.5, 536870912L), limits);
+        assertEquals("0.5 CPUs, 512 MB memory", limits.toString());
+    }
+
+    @Test
+    public void cgroupV2NestedTightestWins(@TempDir Path root) throws Exception {
+        Files.writeString(root.resolve("cgroup.controllers"), "cpu memory");
+        final Path slice = Files.createDirectories(root.resolve("system.slice"));
+        final Path service = Files.createDirectories(slice.resolve("app.service"));
+        Files.writeString(slice.resolve("cpu.max"), "100000 100000");
+        Files.writeString(slice.resolve("memory.max"), "max");
+        Files.writeString(service.resolve("cpu.max"), "max 100000");
+        Files.writeString(service.resolve("memory.max"), "1073741824");
+        assertEquals(new ContainerLimits(1.0, 1073741824L), ContainerLimits.read(root, "0::/system.slice/app.service\n"));
+        // the cgroup of another namespace: only the root is read.
+        assertEquals(ContainerLimits.NONE, ContainerLimits.read(root, "0::/../../foo\n"));
+    }
+
+    @Test
+    public void cgroupV1(@TempDir Path root) throws Exception {
+        final Path cpu = Files.createDirectories(root.resolve("cpu,cpuacct"));
+        Files.writeString(cpu.resolve("cpu.cfs_quota_us"), "400000\n");
+        Files.writeString(cpu.resolve("cpu.cfs_period_us"), "100000\n");
+        final Path memory = Files.createDirectories(root.resolve("memory"));
+        Files.writeString(memory.resolve("memory.limit_in_bytes"), "9223372036854771712\n");
+        assertEquals(new ContainerLimits(4.0, null), ContainerLimits.read(root, "4:cpu,cpuacct:/docker/abc\n"));
+    }
+
+    @Test
+    public void resourceDefaults() {
+        // half a CPU, 256 MB
+        ResourceDefaults defaults = ResourceDefaults.derive(new ContainerLimits(0.5, 256L * 1024 * 1024), 16, 64L * 1024 * 1024);
+        assertEquals(0.5, defaults.cpus());
+        assertEquals(1, defaults.acceptors());
+        assertEquals(1, defaults.selectors());
+        assertEquals(4, defaults.minThreads());
+        assertEquals(50, defaults.maxThreads());
+        assertEquals(8L * 1024 * 1024, defaults.bufferPoolMaxHeapMemory());
+        assertEquals(8L * 1024 * 1024, defaults.bufferPoolMaxDirectMemory());
+        assertEquals(100, defaults.adaptiveConcurrencyMaxLimit());
+        assertEquals(20, defaults.adaptiveConcurrencyQueueDepth());
+        assertEquals("0.5 CPUs, 256 MB memory", defaults.describeHost());
+
+        // 16 CPUs but little memory: the memory caps the threads.
+        defaults = ResourceDefaults.derive(new ContainerLimits(16.0, 512L * 1024 * 1024), 32, 128L * 1024 * 1024);
+        assertEquals(2, defaults.acceptors());
+        assertEquals(128, defaults.maxThreads());
+        assertEquals(8, defaults.selectors());
+        assertEquals(16, defaults.minThreads());
+        assertEquals(16L * 1024 * 1024, defaults.bufferPoolMaxDirectMemory());
+        assertEquals(1000, defaults.adaptiveConcurrencyMaxLimit());
+
+        // no container: the available processors are used.
+        defaults = ResourceDefaults.derive(ContainerLimits.NONE, 4, 1024L * 1024 * 1024);
+        assertEquals(4.0, defaults.cpus());
+        assertNull(defaults.memory());
+        assertEquals(200, defaults.maxThreads());
+        assertEquals(8, defaults.minThreads());
+        assertEquals(128L * 1024 * 1024, defaults.bufferPoolMaxDirectMemory());
+        assertEquals(400, defaults.adaptiveConcurrencyMaxLimit());
+    }
+}
@@ -42,6 +42,33 @@ public class DummyWebServer implements WebServer {
         return "Dummy";
     }
 
+    @Override
+    public synchronized void restartWebApp() throws Exception {
+        assertTrue(running, "start() not called");
+    }
+
+    @Override
+    public synchronized int getLocalPort() {
+        assertTrue(running, "start() not called");
+        return 23456;
+    }
+
+    @Override
+    public synchronized int getAdminLocalPort() {
+        assertTrue(running, "start() not called");
+        assertNotNull(configured.getAdminPort(), "admin endpoints not configured");
+        return 23457;
+    }
+
+    @Override
+    public synchronized @NotNull InMemoryConnector getInMemoryConnector() {
+        assertTrue(running, "start() not called");
+        if (!configured.isInMemory()) {
+            throw new IllegalStateException("Invalid state: not running in the in-memory mode");
+        }
+        return rawRequest -> "HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n";
+    }
+
     public static class FailsToStart extends DummyWebServer {
         @Override
         public synchronized void start() throws Exception {
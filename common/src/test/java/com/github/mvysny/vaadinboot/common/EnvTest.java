@@ -1,6 +1,18 @@
 package com.github.mvysny.vaadinboot.common;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,4 +42,73 @@ class EnvTest {
   public void smokeFindWebRoot() throws Exception {
     assertNotNull(Env.findWebRoot());
   }
+
+  @AfterEach
+  public void clearWebRootCacheDir() {
+    System.clearProperty("server.webapp-cache-dir");
+  }
+
+  @Test
+  public void extractWebRoot(@TempDir Path temp) throws Exception {
+    System.setProperty("server.webapp-cache-dir", temp.resolve("cache").toString());
+    final File jar = createJar(temp.resolve("app.jar"), Map.of("webapp/ROOT", "root", "webapp/fonts/font.woff2", "font", "com/example/Main.class", "class"));
+    final File webRoot = Env.extractWebRoot(jar);
+    assertEquals(temp.resolve("cache").toFile(), webRoot.getParentFile());
+    assertEquals("root", Files.readString(webRoot.toPath().resolve("ROOT")));
+    assertEquals("font", Files.readString(webRoot.toPath().resolve("fonts/font.woff2")));
+    assertFalse(new File(webRoot, "com").exists());
+
+    // same contents: the extracted folder is reused
+    assertEquals(webRoot, Env.extractWebRoot(jar));
+    final File sameContents = createJar(temp.resolve("app2.jar"), Map.of("webapp/ROOT", "root", "webapp/fonts/font.woff2", "font", "com/example/Main.class", "changed"));
+    assertEquals(webRoot, Env.extractWebRoot(sameContents));
+
+    // changed contents: extracted into a new folder
+    final File changed = createJar(temp.resolve("app3.jar"), Map.of("webapp/ROOT", "root", "webapp/fonts/font.woff2", "font2"));
+    final File webRoot2 = Env.extractWebRoot(changed);
+    assertNotEquals(webRoot, webRoot2);
+    assertEquals("font2", Files.readString(webRoot2.toPath().resolve("fonts/font.woff2")));
+  }
+
+  @Test
+  public void extractWebRootDeletesStaleFolders(@TempDir Path temp) throws Exception {
+    final Path cache = temp.resolve("cache");
+    System.setProperty("server.webapp-cache-dir", cache.toString());
+    // extracted by an older version of the app, and a half-extracted folder of the same version
+    Files.createDirectories(cache.resolve("stale"));
+    Files.writeString(cache.resolve("stale.lock"), "");
+    Files.createDirectories(cache.resolve("stale.tmp123"));
+    // not created by Vaadin Boot, must be left alone
+    Files.createDirectories(cache.resolve("unrelated"));
+
+    final File webRoot = Env.extractWebRoot(createJar(temp.resolve("app.jar"), Map.of("webapp/ROOT", "root")));
+    assertTrue(Files.isRegularFile(cache.resolve(webRoot.getName() + ".lock")));
+    assertFalse(Files.exists(cache.resolve("stale")));
+    assertFalse(Files.exists(cache.resolve("stale.lock")));
+    assertFalse(Files.exists(cache.resolve("stale.tmp123")));
+    assertTrue(Files.exists(cache.resolve("unrelated")));
+
+    // in use by this JVM: not deleted when another version is extracted.
+    final File webRoot2 = Env.extractWebRoot(createJar(temp.resolve("app2.jar"), Map.of("webapp/ROOT", "root2")));
+    assertNotEquals(webRoot, webRoot2);
+    assertTrue(webRoot.isDirectory());
+  }
+
+  @Test
+  public void extractWebRootRejectsZipSlip(@TempDir Path temp) throws Exception {
+    System.setProperty("server.webapp-cache-dir", temp.resolve("cache").toString());
+    final File jar = createJar(temp.resolve("app.jar"), Map.of("webapp/ROOT", "root", "webapp/../../evil", "evil"));
+    assertThrows(IOException.class, () -> Env.extractWebRoot(jar));
+  }
+
+  private static File createJar(Path file, Map<String, String> entries) throws IOException {
+    try (JarOutputStream out = new JarOutputStream(new FileOutputStream(file.toFile()))) {
+      for (Map.Entry<String, String> entry : entries.entrySet()) {
+        out.putNextEntry(new JarEntry(entry.getKey()));
+        out.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+        out.closeEntry();
+      }
+    }
+    return file.toFile();
+  }
 }
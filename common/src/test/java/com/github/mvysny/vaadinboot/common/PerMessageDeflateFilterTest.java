@@ -0,0 +1,75 @@
+package com.github.mvysny.vaadinboot.common;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerMessageDeflateFilterTest {
+    @Test
+    public void testRemovePerMessageDeflate() {
+        assertNull(PerMessageDeflateFilter.removePerMessageDeflate("permessage-deflate"));
+        assertNull(PerMessageDeflateFilter.removePerMessageDeflate("permessage-deflate; client_max_window_bits"));
+        assertNull(PerMessageDeflateFilter.removePerMessageDeflate(" Permessage-Deflate ; server_no_context_takeover, permessage-deflate"));
+        assertEquals("foo; bar=1", PerMessageDeflateFilter.removePerMessageDeflate("permessage-deflate; client_max_window_bits, foo; bar=1"));
+        assertEquals("foo, x-webkit-deflate-frame", PerMessageDeflateFilter.removePerMessageDeflate("foo,x-webkit-deflate-frame"));
+    }
+
+    @Test
+    public void testExtensionsHeaderFiltered() throws Exception {
+        final HttpServletRequest request = (HttpServletRequest) filter(request(Map.of("Upgrade", "websocket", "Sec-WebSocket-Extensions", "permessage-deflate; client_max_window_bits")));
+        assertNull(request.getHeader("sec-websocket-extensions"));
+        assertEquals(List.of(), Collections.list(request.getHeaders("Sec-WebSocket-Extensions")));
+        assertEquals(List.of("Upgrade"), Collections.list(request.getHeaderNames()));
+        assertEquals("websocket", request.getHeader("Upgrade"));
+    }
+
+    @Test
+    public void testOtherExtensionsKept() throws Exception {
+        final HttpServletRequest request = (HttpServletRequest) filter(request(Map.of("Sec-WebSocket-Extensions", "permessage-deflate, foo")));
+        assertEquals("foo", request.getHeader("Sec-WebSocket-Extensions"));
+        assertEquals(List.of("Sec-WebSocket-Extensions"), Collections.list(request.getHeaderNames()));
+    }
+
+    @Test
+    public void testRequestWithoutExtensionsPassedThrough() throws Exception {
+        final HttpServletRequest request = request(Map.of("Upgrade", "websocket"));
+        assertSame(request, filter(request));
+    }
+
+    @NotNull
+    private static ServletRequest filter(@NotNull HttpServletRequest request) throws Exception {
+        final AtomicReference<ServletRequest> result = new AtomicReference<>();
+        final FilterChain chain = (req, resp) -> result.set(req);
+        new PerMessageDeflateFilter().doFilter(request, null, chain);
+        return result.get();
+    }
+
+    /**
+     * A minimal fake request: only supports the headers.
+     */
+    @NotNull
+    private static HttpServletRequest request(@NotNull Map<String, String> headers) {
+        return (HttpServletRequest) Proxy.newProxyInstance(PerMessageDeflateFilterTest.class.getClassLoader(), new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getHeader" -> headers.entrySet().stream()
+                    .filter(it -> it.getKey().equalsIgnoreCase((String) args[0]))
+                    .map(Map.Entry::getValue)
+                    .findFirst().orElse(null);
+            case "getHeaders" -> Collections.enumeration(headers.entrySet().stream()
+                    .filter(it -> it.getKey().equalsIgnoreCase((String) args[0]))
+                    .map(Map.Entry::getValue)
+                    .toList());
+            case "getHeaderNames" -> Collections.enumeration(headers.keySet());
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class PinningMonitorTest {
+    @Test
+    public void testNoPinning() {
+        final PinningMonitor monitor = new PinningMonitor(new VaadinBoot().pinningMonitor(true));
+        monitor.close();
+        final PinningMonitor.Report report = monitor.getReport();
+        assertEquals(Duration.ofMillis(20), report.threshold());
+        assertEquals(0, report.pinnedCount());
+        assertEquals(Duration.ZERO, report.totalPinned());
+        assertTrue(report.stacks().isEmpty());
+    }
+
+    @Test
+    public void testPinningReported() throws Exception {
+        // since JDK 24, blocking inside a synchronized block no longer pins the carrier thread.
+        assumeTrue(Runtime.version().feature() < 24);
+        final PinningMonitor monitor = new PinningMonitor(new VaadinBoot().pinningMonitor(true).pinningThreshold(Duration.ofMillis(10)));
+        try {
+            for (int i = 0; i < 3; i++) {
+                Thread.ofVirtual().start(PinningMonitorTest::sleepSynchronized).join();
+            }
+        } finally {
+            monitor.close();
+        }
+        final PinningMonitor.Report report = monitor.getReport();
+        assertEquals(3, report.pinnedCount(), report.toString());
+        assertTrue(report.totalPinned().toMillis() >= 120, report.toString());
+        assertEquals(1, report.stacks().size(), report.toString());
+        final PinningMonitor.PinnedStack stack = report.stacks().get(0);
+        assertEquals(3, stack.count());
+        assertTrue(stack.max().toMillis() >= 40, report.toString());
+        assertTrue(stack.stackTrace().contains("PinningMonitorTest.sleepSynchronized"), report.toString());
+    }
+
+    private static synchronized void sleepSynchronized() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
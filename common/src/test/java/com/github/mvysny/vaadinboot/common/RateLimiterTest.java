@@ -0,0 +1,123 @@
+package com.github.mvysny.vaadinboot.common;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @NotNull
+    private static RateLimiter newLimiter(@NotNull VaadinBoot configuration) {
+        return new RateLimiter(configuration, () -> true);
+    }
+
+    @Test
+    public void testBurstThenRate() {
+        final RateLimiter limiter = newLimiter(new VaadinBoot().rateLimit(2, 3));
+        final long start = 1000 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.acquire("1.2.3.4", false, start));
+        }
+        // the bucket is empty: the next token arrives in half a second.
+        assertEquals(SECOND / 2, limiter.acquire("1.2.3.4", false, start));
+        assertEquals(SECOND / 4, limiter.acquire("1.2.3.4", false, start + SECOND / 4));
+        assertEquals(0, limiter.acquire("1.2.3.4", false, start + SECOND / 2));
+        // other clients have their own buckets.
+        assertEquals(0, limiter.acquire("5.6.7.8", false, start));
+        assertEquals(new RateLimiter.Statistics(2, 5, 2, 0, 0, 0), limiter.getStatistics());
+    }
+
+    @Test
+    public void testBucketDoesntOverfill() {
+        final RateLimiter limiter = newLimiter(new VaadinBoot().rateLimit(1, 2));
+        final long start = 1000 * SECOND;
+        assertEquals(0, limiter.acquire("client", false, start));
+        assertEquals(0, limiter.acquire("client", false, start + SECOND / 2));
+        assertEquals(0, limiter.acquire("client", false, start + SECOND));
+        // idle for long: the bucket holds 2 tokens at most.
+        final long later = start + 100 * SECOND;
+        assertEquals(0, limiter.acquire("client", false, later));
+        assertEquals(0, limiter.acquire("client", false, later));
+        assertTrue(limiter.acquire("client", false, later) > 0);
+    }
+
+    @Test
+    public void testSessionRate() {
+        final RateLimiter limiter = newLimiter(new VaadinBoot().sessionRateLimit(6, 2));
+        final long start = 1000 * SECOND;
+        for (int i = 0; i < 2; i++) {
+            assertEquals(0, limiter.acquire("client", true, start));
+            limiter.sessionCreated("client", start);
+        }
+        // no more sessions for this client for 10 seconds...
+        assertEquals(10 * SECOND, limiter.acquire("client", true, start));
+        // ...but the requests of the existing sessions are still served.
+        assertEquals(0, limiter.acquire("client", false, start));
+        // a request without a session which doesn't create one doesn't use up the session token.
+        assertEquals(0, limiter.acquire("client", true, start + 10 * SECOND));
+        assertEquals(0, limiter.acquire("client", true, start + 10 * SECOND));
+        limiter.sessionCreated("client", start + 10 * SECOND);
+        assertTrue(limiter.acquire("client", true, start + 10 * SECOND) > 0);
+        assertEquals(new RateLimiter.Statistics(1, 5, 0, 3, 2, 0), limiter.getStatistics());
+    }
+
+    @Test
+    public void testIdleClientsForgotten() {
+        final RateLimiter limiter = newLimiter(new VaadinBoot().rateLimit(10, 10));
+        final long start = 1000 * SECOND;
+        limiter.acquire("a", false, start);
+        assertEquals(1, limiter.getStatistics().clients());
+        // once the bucket of "a" is full again, "a" can be forgotten. Touch all stripes, so that "a" shares one with some client.
+        for (int i = 0; i < 1000; i++) {
+            limiter.acquire("client" + i, false, start + 2 * SECOND);
+        }
+        assertEquals(1000, limiter.getStatistics().clients());
+        assertEquals(1, limiter.getStatistics().evictedClients());
+    }
+
+    @Test
+    public void testMaxClients() {
+        final RateLimiter limiter = newLimiter(new VaadinBoot().rateLimit(10, 10).rateLimitMaxClients(640));
+        for (int i = 0; i < 10000; i++) {
+            limiter.acquire("client" + i, false, 1000 * SECOND);
+        }
+        // 64 stripes with 10 clients each.
+        assertTrue(limiter.getStatistics().clients() <= 640, limiter.getStatistics().toString());
+        assertEquals(10000, limiter.getStatistics().clients() + limiter.getStatistics().evictedClients());
+    }
+
+    @Test
+    public void testClientAddress() {
+        final RateLimiter direct = newLimiter(new VaadinBoot().rateLimit(10, 10));
+        assertEquals("10.0.0.1", direct.getClientAddress(request("10.0.0.1", Map.of("X-Forwarded-For", "1.2.3.4"))));
+
+        final RateLimiter forwarded = newLimiter(new VaadinBoot().rateLimit(10, 10).rateLimitForwardedHeaders(true));
+        assertEquals("10.0.0.1", forwarded.getClientAddress(request("10.0.0.1", Map.of())));
+        // the client may send any X-Forwarded-For it likes; the proxy appends the real address.
+        assertEquals("1.2.3.4", forwarded.getClientAddress(request("10.0.0.1", Map.of("X-Forwarded-For", "6.6.6.6, 1.2.3.4"))));
+        assertEquals("1.2.3.4", forwarded.getClientAddress(request("10.0.0.1", Map.of("Forwarded", "for=6.6.6.6, for=1.2.3.4;proto=https"))));
+        assertEquals("[2001:db8::1]:4711", forwarded.getClientAddress(request("10.0.0.1", Map.of("Forwarded", "For=\"[2001:db8::1]:4711\""))));
+    }
+
+    @NotNull
+    private static HttpServletRequest request(@NotNull String remoteAddr, @NotNull Map<String, String> headers) {
+        return (HttpServletRequest) Proxy.newProxyInstance(RateLimiterTest.class.getClassLoader(), new Class<?>[]{HttpServletRequest.class}, (p, method, args) -> switch (method.getName()) {
+            case "getRemoteAddr" -> remoteAddr;
+            case "getHeader" -> getHeader(headers, (String) args[0]);
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    @Nullable
+    private static String getHeader(@NotNull Map<String, String> headers, @NotNull String name) {
+        return headers.entrySet().stream().filter(it -> it.getKey().equalsIgnoreCase(name)).map(Map.Entry::getValue).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,258 @@
+package com.github.mvysny.vaadinboot.common;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestInflaterFilterTest {
+    @Test
+    public void testGzip() throws Exception {
+        final ServletRequest filtered = filter(request(gzip("Hello, world!"), Map.of("Content-Encoding", "gzip", "Content-Length", "33", "Content-Type", "application/json")));
+        assertNotNull(filtered);
+        assertEquals("Hello, world!", new String(filtered.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        final HttpServletRequest request = (HttpServletRequest) filtered;
+        assertNull(request.getHeader("Content-Encoding"));
+        assertNull(request.getHeader("content-length"));
+        assertEquals("application/json", request.getHeader("Content-Type"));
+        assertEquals(List.of("Content-Type"), Collections.list(request.getHeaderNames()));
+        assertEquals(-1, request.getContentLength());
+    }
+
+    @Test
+    public void testDeflate() throws Exception {
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bout)) {
+            out.write("Hello, world!".getBytes(StandardCharsets.UTF_8));
+        }
+        final ServletRequest filtered = filter(request(bout.toByteArray(), Map.of("Content-Encoding", "deflate")));
+        assertEquals("Hello, world!", filtered.getReader().readLine());
+    }
+
+    @Test
+    public void testUncompressedRequestPassedThrough() throws Exception {
+        final HttpServletRequest request = request("Hello".getBytes(StandardCharsets.UTF_8), Map.of());
+        assertSame(request, filter(request));
+        final HttpServletRequest brotli = request(new byte[0], Map.of("Content-Encoding", "br"));
+        assertSame(brotli, filter(brotli));
+    }
+
+    @Test
+    public void testTooLargeBodyRejected() throws Exception {
+        final AtomicInteger status = new AtomicInteger();
+        final FilterChain chain = (req, resp) -> req.getInputStream().readAllBytes();
+        new RequestInflaterFilter(100).doFilter(request(gzip("a".repeat(10000)), Map.of("Content-Encoding", "gzip")), response(status), chain);
+        assertEquals(413, status.get());
+    }
+
+    @Test
+    public void testTooLargeBodyRejectedWhenAppSwallowsException() throws Exception {
+        final AtomicInteger status = new AtomicInteger();
+        final FilterChain chain = (req, resp) -> {
+            try {
+                req.getInputStream().readAllBytes();
+                fail("Expected to fail");
+            } catch (IOException e) {
+                assertEquals("Inflated request body exceeds 100 bytes", e.getMessage());
+            }
+        };
+        new RequestInflaterFilter(100).doFilter(request(gzip("a".repeat(10000)), Map.of("Content-Encoding", "gzip")), response(status), chain);
+        assertEquals(413, status.get());
+    }
+
+    @Test
+    public void testFormParametersParsedFromInflatedBody() throws Exception {
+        final HttpServletRequest request = (HttpServletRequest) filter(request(gzip("a=1&b=x%20y&a=2&c"),
+                Map.of("Content-Encoding", "gzip", "Content-Type", "application/x-www-form-urlencoded; charset=UTF-8"), "q=%C3%A1"));
+        assertEquals("1", request.getParameter("a"));
+        assertArrayEquals(new String[]{"1", "2"}, request.getParameterValues("a"));
+        assertEquals("x y", request.getParameter("b"));
+        assertEquals("", request.getParameter("c"));
+        assertEquals("á", request.getParameter("q"));
+        assertNull(request.getParameter("d"));
+        assertEquals(List.of("q", "a", "b", "c"), Collections.list(request.getParameterNames()));
+        assertEquals(List.of("q", "a", "b", "c"), List.copyOf(request.getParameterMap().keySet()));
+    }
+
+    @Test
+    public void testAsyncRead() throws Exception {
+        final ServletInputStream in = filter(request(gzip("Hello, world!"), Map.of("Content-Encoding", "gzip"))).getInputStream();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final AtomicBoolean allDataRead = new AtomicBoolean();
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                final byte[] buffer = new byte[4];
+                int read;
+                while (in.isReady() && (read = in.read(buffer)) >= 0) {
+                    body.write(buffer, 0, read);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allDataRead.set(true);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail(t);
+            }
+        });
+        assertTrue(allDataRead.get());
+        assertTrue(in.isFinished());
+        assertEquals("Hello, world!", body.toString(StandardCharsets.UTF_8));
+        assertThrows(IllegalStateException.class, () -> in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() {
+            }
+
+            @Override
+            public void onAllDataRead() {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        }));
+    }
+
+    @Test
+    public void testAsyncReadOfTooLargeBodyRejected() throws Exception {
+        final AtomicInteger status = new AtomicInteger();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final FilterChain chain = (req, resp) -> {
+            final ServletInputStream in = req.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (in.isReady() && in.read() >= 0) {
+                        // just consume the body
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    fail("Expected to fail");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    error.set(t);
+                }
+            });
+        };
+        new RequestInflaterFilter(100).doFilter(request(gzip("a".repeat(10000)), Map.of("Content-Encoding", "gzip")), response(status), chain);
+        assertEquals("Inflated request body exceeds 100 bytes", error.get().getMessage());
+        assertEquals(413, status.get());
+    }
+
+    @NotNull
+    private static ServletRequest filter(@NotNull HttpServletRequest request) throws Exception {
+        final AtomicReference<ServletRequest> result = new AtomicReference<>();
+        final FilterChain chain = (req, resp) -> result.set(req);
+        new RequestInflaterFilter(1024).doFilter(request, response(new AtomicInteger()), chain);
+        return result.get();
+    }
+
+    /**
+     * A minimal fake response: only supports sending an error.
+     */
+    @NotNull
+    private static HttpServletResponse response(@NotNull AtomicInteger status) {
+        return (HttpServletResponse) Proxy.newProxyInstance(RequestInflaterFilterTest.class.getClassLoader(), new Class<?>[]{HttpServletResponse.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "isCommitted" -> status.get() != 0;
+            case "reset" -> null;
+            case "sendError" -> {
+                status.set((Integer) args[0]);
+                yield null;
+            }
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static byte @NotNull [] gzip(@NotNull String text) throws IOException {
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bout)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bout.toByteArray();
+    }
+
+    @NotNull
+    private static HttpServletRequest request(byte @NotNull [] body, @NotNull Map<String, String> headers) {
+        return request(body, headers, null);
+    }
+
+    /**
+     * A minimal fake POST request: only supports the body, the headers and the query string. The body is received
+     * right away when read asynchronously.
+     */
+    @NotNull
+    private static HttpServletRequest request(byte @NotNull [] body, @NotNull Map<String, String> headers, @Nullable String queryString) {
+        final ByteArrayInputStream in = new ByteArrayInputStream(body);
+        final ServletInputStream inputStream = new ServletInputStream() {
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                try {
+                    readListener.onDataAvailable();
+                    readListener.onAllDataRead();
+                } catch (IOException e) {
+                    readListener.onError(e);
+                }
+            }
+        };
+        final Map<String, String> lowercaseHeaders = new HashMap<>();
+        headers.forEach((name, value) -> lowercaseHeaders.put(name.toLowerCase(Locale.ROOT), value));
+        return (HttpServletRequest) Proxy.newProxyInstance(RequestInflaterFilterTest.class.getClassLoader(), new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getInputStream" -> inputStream;
+            case "getCharacterEncoding" -> "UTF-8";
+            case "getHeader" -> lowercaseHeaders.get(((String) args[0]).toLowerCase(Locale.ROOT));
+            case "getContentType" -> lowercaseHeaders.get("content-type");
+            case "getMethod" -> "POST";
+            case "getQueryString" -> queryString;
+            case "isAsyncStarted" -> false;
+            case "getHeaderNames" -> Collections.enumeration(headers.keySet());
+            case "getContentLength" -> body.length;
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.mvysny.vaadinboot.common;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionLockProfilerTest {
+    @Test
+    public void testRequestProfiled() throws Exception {
+        final SessionLockProfiler profiler = new SessionLockProfiler(new VaadinBoot().sessionLockProfiling(true));
+        profiler.doFilter(request("/"), null, (req, resp) -> {
+            lock(profiler, 30, 50);
+            // Vaadin locks the session several times while serving the request.
+            lock(profiler, 0, 10);
+        });
+        final SessionLockProfiler.Report report = profiler.getReport();
+        assertEquals(List.of("/"), List.copyOf(report.routes().keySet()));
+        final SessionLockProfiler.RouteStats stats = report.routes().get("/");
+        assertEquals(1, stats.lockWait().getCount());
+        assertTrue(stats.lockWait().getTotal().toMillis() >= 30, report.toString());
+        assertTrue(stats.lockHold().getTotal().toMillis() >= 60, report.toString());
+        assertEquals(1, report.hottestSessions().size());
+        assertEquals("session1", report.hottestSessions().get(0).sessionId());
+        assertEquals(1, report.hottestSessions().get(0).requests());
+        assertTrue(report.toString().contains("sessio...: 1 requests"), report.toString());
+        assertFalse(report.toString().contains("session1"), report.toString());
+    }
+
+    @Test
+    public void testRequestWithoutLockNotRecorded() throws Exception {
+        final SessionLockProfiler profiler = new SessionLockProfiler(new VaadinBoot().sessionLockProfiling(true));
+        profiler.doFilter(request("/VAADIN/build/app.js"), null, (req, resp) -> {});
+        assertTrue(profiler.getReport().routes().isEmpty());
+    }
+
+    @Test
+    public void testLockOutsideRequest() throws Exception {
+        final SessionLockProfiler profiler = new SessionLockProfiler(new VaadinBoot().sessionLockProfiling(true));
+        lock(profiler, 0, 0);
+        lock(profiler, 0, 0);
+        final SessionLockProfiler.Report report = profiler.getReport();
+        assertEquals(2, report.routes().get(SessionLockProfiler.OUTSIDE_REQUEST).lockHold().getCount());
+        // no VaadinSession is current: the session is unknown.
+        assertTrue(report.hottestSessions().isEmpty());
+    }
+
+    @Test
+    public void testHistogram() {
+        final SessionLockProfiler.Histogram histogram = new SessionLockProfiler.Histogram();
+        assertEquals(Duration.ZERO, histogram.getPercentile(50));
+        for (int i = 0; i < 99; i++) {
+            histogram.record(Duration.ofNanos(500).toNanos());
+        }
+        histogram.record(Duration.ofMillis(10).toNanos());
+        assertEquals(100, histogram.getCount());
+        // 500ns falls into the bucket of durations shorter than 1µs.
+        assertEquals(Duration.ofNanos(1000), histogram.getPercentile(50));
+        assertEquals(Duration.ofNanos(1000), histogram.getPercentile(99));
+        // 10ms falls into the bucket of 8.192-16.384ms; the max caps the upper bound.
+        assertEquals(Duration.ofMillis(10), histogram.getPercentile(100));
+        assertEquals(Duration.ofMillis(10), histogram.getMax());
+        assertEquals(Duration.ofNanos(99 * 500 + 10_000_000), histogram.getTotal());
+    }
+
+    private static void lock(@NotNull SessionLockProfiler profiler, long waitMillis, long holdMillis) {
+        profiler.lockRequested();
+        sleep(waitMillis);
+        profiler.lockAcquired();
+        sleep(holdMillis);
+        profiler.lockReleased();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @NotNull
+    private static HttpServletRequest request(@NotNull String uri) {
+        final HttpSession session = (HttpSession) Proxy.newProxyInstance(SessionLockProfilerTest.class.getClassLoader(), new Class<?>[]{HttpSession.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getId" -> "session1";
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+        return (HttpServletRequest) Proxy.newProxyInstance(SessionLockProfilerTest.class.getClassLoader(), new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getRequestURI" -> uri;
+            case "getContextPath" -> "";
+            case "getSession" -> session;
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
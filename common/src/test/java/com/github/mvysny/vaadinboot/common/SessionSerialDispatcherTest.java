@@ -0,0 +1,191 @@
+package com.github.mvysny.vaadinboot.common;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionSerialDispatcherTest {
+    /**
+     * The requests resumed via {@link AsyncContext#dispatch()}, not yet served.
+     */
+    private final List<FakeRequest> dispatched = new ArrayList<>();
+    /**
+     * The requests served by the filter chain, in the order they were served.
+     */
+    private final List<String> served = new ArrayList<>();
+
+    @Test
+    public void testRequestsOfSessionSerialized() throws Exception {
+        final SessionSerialDispatcher dispatcher = new SessionSerialDispatcher(new VaadinBoot().sessionSerialDispatch(true));
+        final FakeRequest a = new FakeRequest("a", "session1", "v-r=uidl&v-uiId=0");
+        final FakeRequest b = new FakeRequest("b", "session1", "v-r=uidl&v-uiId=0");
+        final FakeRequest c = new FakeRequest("c", "session1", "v-r=heartbeat&v-uiId=0");
+        final FakeRequest d = new FakeRequest("d", "session2", "v-r=uidl&v-uiId=0");
+        dispatcher.doFilter(a.proxy, null, (req, resp) -> {
+            served.add("a");
+            dispatcher.doFilter(b.proxy, null, (req2, resp2) -> served.add("b"));
+            dispatcher.doFilter(c.proxy, null, (req2, resp2) -> served.add("c"));
+            // another session runs in parallel
+            dispatcher.doFilter(d.proxy, null, (req2, resp2) -> served.add("d"));
+            assertEquals(2, dispatcher.getQueueDepth("session1"));
+            assertEquals(new SessionSerialDispatcher.Statistics(1, 2, 2, 0, 0), dispatcher.getStatistics());
+        });
+        assertEquals(List.of("a", "d"), served);
+        assertEquals(List.of(b), dispatched);
+        resumeNext(dispatcher, (req, resp) -> served.add("b"));
+        assertEquals(List.of(c), dispatched);
+        resumeNext(dispatcher, (req, resp) -> served.add("c"));
+        assertEquals(List.of(), dispatched);
+        assertEquals(List.of("a", "d", "b", "c"), served);
+        assertEquals(0, dispatcher.getQueueDepth("session1"));
+        assertEquals(new SessionSerialDispatcher.Statistics(0, 0, 2, 2, 0), dispatcher.getStatistics());
+    }
+
+    @Test
+    public void testQueueFull() throws Exception {
+        final SessionSerialDispatcher dispatcher = new SessionSerialDispatcher(new VaadinBoot().sessionSerialDispatch(true).sessionQueueDepth(1));
+        final FakeRequest c = new FakeRequest("c", "session1", "v-r=uidl");
+        dispatcher.doFilter(new FakeRequest("a", "session1", "v-r=uidl").proxy, null, (req, resp) -> {
+            dispatcher.doFilter(new FakeRequest("b", "session1", "v-r=uidl").proxy, null, (req2, resp2) -> fail());
+            dispatcher.doFilter(c.proxy, response(c), (req2, resp2) -> fail());
+        });
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, c.status);
+        assertEquals(1, dispatcher.getStatistics().rejectedRequests());
+    }
+
+    @Test
+    public void testQueuedRequestCompletedWhileWaiting() throws Exception {
+        final SessionSerialDispatcher dispatcher = new SessionSerialDispatcher(new VaadinBoot().sessionSerialDispatch(true));
+        final FakeRequest b = new FakeRequest("b", "session1", "v-r=uidl");
+        dispatcher.doFilter(new FakeRequest("a", "session1", "v-r=uidl").proxy, null, (req, resp) -> {
+            dispatcher.doFilter(b.proxy, null, (req2, resp2) -> fail());
+            // the client went away
+            b.complete();
+            assertEquals(new SessionSerialDispatcher.Statistics(1, 0, 1, 0, 0), dispatcher.getStatistics());
+        });
+        assertEquals(List.of(), dispatched);
+        assertEquals(0, dispatcher.getStatistics().busySessions());
+    }
+
+    @Test
+    public void testOtherRequestsPassedThrough() throws Exception {
+        final SessionSerialDispatcher dispatcher = new SessionSerialDispatcher(new VaadinBoot().sessionSerialDispatch(true));
+        dispatcher.doFilter(new FakeRequest("a", "session1", null).proxy, null, (req, resp) -> {
+            // static resources, push and requests without session aren't serialized
+            dispatcher.doFilter(new FakeRequest("b", "session1", null).proxy, null, (req2, resp2) -> served.add("b"));
+            dispatcher.doFilter(new FakeRequest("c", "session1", "v-r=push&v-uiId=0").proxy, null, (req2, resp2) -> served.add("c"));
+            dispatcher.doFilter(new FakeRequest("d", null, "v-r=uidl").proxy, null, (req2, resp2) -> served.add("d"));
+        });
+        assertEquals(List.of("b", "c", "d"), served);
+        assertEquals(new SessionSerialDispatcher.Statistics(0, 0, 0, 0, 0), dispatcher.getStatistics());
+    }
+
+    /**
+     * Simulates the web server serving the next dispatched request.
+     */
+    private void resumeNext(@NotNull SessionSerialDispatcher dispatcher, @NotNull jakarta.servlet.FilterChain chain) throws Exception {
+        final FakeRequest request = dispatched.remove(0);
+        request.dispatcherType = DispatcherType.ASYNC;
+        request.asyncStarted = false;
+        dispatcher.doFilter(request.proxy, null, chain);
+        request.complete();
+    }
+
+    @NotNull
+    private static HttpServletResponse response(@NotNull FakeRequest request) {
+        return (HttpServletResponse) Proxy.newProxyInstance(SessionSerialDispatcherTest.class.getClassLoader(), new Class<?>[]{HttpServletResponse.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "sendError" -> {
+                request.status = (Integer) args[0];
+                yield null;
+            }
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    /**
+     * A minimal fake request, supporting the async mode.
+     */
+    private final class FakeRequest {
+        @NotNull
+        final HttpServletRequest proxy;
+        @NotNull
+        final AsyncContext asyncContext;
+        @NotNull
+        final Map<String, Object> attributes = new HashMap<>();
+        @NotNull
+        final List<AsyncListener> listeners = new ArrayList<>();
+        @NotNull
+        DispatcherType dispatcherType = DispatcherType.REQUEST;
+        boolean asyncStarted;
+        int status;
+
+        FakeRequest(@NotNull String name, @Nullable String sessionId, @Nullable String query) {
+            asyncContext = (AsyncContext) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{AsyncContext.class}, (p, method, args) -> switch (method.getName()) {
+                case "setTimeout" -> null;
+                case "addListener" -> listeners.add((AsyncListener) args[0]);
+                case "getRequest" -> getProxy();
+                case "getResponse" -> null;
+                case "equals" -> p == args[0];
+                case "dispatch" -> dispatched.add(this);
+                case "complete" -> {
+                    complete();
+                    yield null;
+                }
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+            proxy = (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{HttpServletRequest.class}, (p, method, args) -> switch (method.getName()) {
+                case "getDispatcherType" -> dispatcherType;
+                case "isAsyncSupported" -> true;
+                case "isAsyncStarted" -> asyncStarted;
+                case "startAsync" -> {
+                    asyncStarted = true;
+                    yield asyncContext;
+                }
+                case "getAsyncContext" -> asyncContext;
+                case "getQueryString" -> query;
+                case "getRequestedSessionId" -> sessionId;
+                case "getAttribute" -> attributes.get((String) args[0]);
+                case "setAttribute" -> attributes.put((String) args[0], args[1]);
+                case "removeAttribute" -> attributes.remove((String) args[0]);
+                case "toString" -> name;
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+        }
+
+        @NotNull
+        HttpServletRequest getProxy() {
+            return proxy;
+        }
+
+        void complete() {
+            final List<AsyncListener> listeners = List.copyOf(this.listeners);
+            this.listeners.clear();
+            for (AsyncListener listener : listeners) {
+                try {
+                    listener.onComplete(new AsyncEvent(asyncContext));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return proxy.toString();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.mvysny.vaadinboot.common;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlowRequestWatchdogTest {
+    @Test
+    public void testSlowRequestProfiled() throws Exception {
+        final List<SlowRequestWatchdog.SlowRequest> slowRequests = new CopyOnWriteArrayList<>();
+        try (SlowRequestWatchdog watchdog = new SlowRequestWatchdog(new VaadinBoot().slowRequestThreshold(Duration.ofMillis(50))
+                .slowRequestSamplingInterval(Duration.ofMillis(5)).slowRequestListener(slowRequests::add))) {
+            final FilterChain chain = (req, resp) -> {
+                assertEquals(1, watchdog.getInFlightRequests());
+                sleep(300);
+            };
+            watchdog.doFilter(request(), null, chain);
+            assertEquals(0, watchdog.getInFlightRequests());
+        }
+        assertEquals(1, slowRequests.size());
+        final SlowRequestWatchdog.SlowRequest slowRequest = slowRequests.get(0);
+        assertEquals("POST", slowRequest.method());
+        assertEquals("/?v-r=uidl&v-uiId=0", slowRequest.uri());
+        assertEquals("session1", slowRequest.sessionId());
+        assertTrue(slowRequest.elapsed().toMillis() >= 300, slowRequest.toString());
+        assertTrue(slowRequest.sampleCount() > 0, slowRequest.toString());
+        assertTrue(slowRequest.toCollapsedStacks().contains("SlowRequestWatchdogTest.sleep"), slowRequest.toCollapsedStacks());
+    }
+
+    @Test
+    public void testVirtualThreadSampled() throws Exception {
+        final List<SlowRequestWatchdog.SlowRequest> slowRequests = new CopyOnWriteArrayList<>();
+        try (SlowRequestWatchdog watchdog = new SlowRequestWatchdog(new VaadinBoot().slowRequestThreshold(Duration.ofMillis(50))
+                .slowRequestSamplingInterval(Duration.ofMillis(5)).slowRequestListener(slowRequests::add))) {
+            Thread.ofVirtual().start(() -> {
+                try {
+                    watchdog.doFilter(request(), null, (req, resp) -> sleep(300));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }).join();
+        }
+        assertEquals(1, slowRequests.size());
+        assertTrue(slowRequests.get(0).toCollapsedStacks().contains("SlowRequestWatchdogTest.sleep"), slowRequests.get(0).toCollapsedStacks());
+    }
+
+    @Test
+    public void testFastRequestNotReported() throws Exception {
+        final List<SlowRequestWatchdog.SlowRequest> slowRequests = new CopyOnWriteArrayList<>();
+        try (SlowRequestWatchdog watchdog = new SlowRequestWatchdog(new VaadinBoot().slowRequestThreshold(Duration.ofSeconds(10))
+                .slowRequestListener(slowRequests::add))) {
+            watchdog.doFilter(request(), null, (req, resp) -> {});
+        }
+        assertEquals(List.of(), slowRequests);
+    }
+
+    @Test
+    public void testCollapse() {
+        assertEquals("", SlowRequestWatchdog.collapse(new StackTraceElement[0]));
+        assertEquals("java.lang.Thread.run;com.example.Foo.bar", SlowRequestWatchdog.collapse(new StackTraceElement[]{
+                new StackTraceElement("com.example.Foo", "bar", "Foo.java", 10),
+                new StackTraceElement("java.lang.Thread", "run", "Thread.java", 20)
+        }));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * A minimal fake request of a Vaadin UIDL request.
+     */
+    @NotNull
+    private static HttpServletRequest request() {
+        return (HttpServletRequest) Proxy.newProxyInstance(SlowRequestWatchdogTest.class.getClassLoader(), new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getMethod" -> "POST";
+            case "getRequestURI" -> "/";
+            case "getQueryString" -> "v-r=uidl&v-uiId=0";
+            case "getRequestedSessionId" -> "session1";
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
@@ -4,8 +4,11 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -59,6 +62,319 @@ public class VaadinBootBaseTest {
         assertEquals(9090, new VaadinBoot().withPort(9090).getPort());
     }
 
+    @Test
+    public void testInvalidPortRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().withPort(-1));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().withPort(65536));
+    }
+
+    @Test
+    public void testEphemeralPortReportsBoundPort() throws Exception {
+        final VaadinBoot boot = new VaadinBoot().withPort(0);
+        assertEquals(0, boot.getPort());
+        boot.start();
+        assertEquals(23456, boot.getPort());
+        assertEquals("http://localhost:23456", boot.getServerURL());
+        boot.stop("foo");
+        assertEquals(0, boot.getPort());
+
+        // in-memory: no port is listened on, the web server isn't asked.
+        final VaadinBoot inMemory = new VaadinBoot().withPort(0).inMemory();
+        inMemory.start();
+        assertEquals(0, inMemory.getPort());
+        inMemory.stop("foo");
+    }
+
+    @Test
+    public void testServerURL() {
+        assertEquals("http://localhost:8080", new VaadinBoot().withPort(8080).getServerURL());
+        assertEquals("http://localhost:8080/app", new VaadinBoot().withPort(8080).withContextRoot("/app").getServerURL());
+        assertEquals("http://127.0.0.1:8080", new VaadinBoot().withPort(8080).listenOn("127.0.0.1").getServerURL());
+        // IPv6 literals are bracketed.
+        assertEquals("http://[::1]:8080", new VaadinBoot().withPort(8080).listenOn("::1").getServerURL());
+    }
+
+    @Test
+    public void testZeroCopyStaticPaths() {
+        assertEquals(List.of(), new VaadinBoot().getZeroCopyStaticPaths());
+        assertEquals(List.of("/fonts/*", "/images/*"), new VaadinBoot().zeroCopyStaticPaths("/fonts/*", "/images/*").getZeroCopyStaticPaths());
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().zeroCopyStaticPaths("fonts/*"));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().zeroCopyStaticPaths("/fonts"));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().zeroCopyStaticPaths("*.woff2"));
+    }
+
+    @Test
+    public void testCompression() {
+        final VaadinBoot boot = new VaadinBoot();
+        assertFalse(boot.isCompression());
+        assertEquals(2048, boot.getCompressionMinSize());
+        assertEquals(VaadinBootBase.DEFAULT_COMPRESSION_MIME_TYPES, boot.getCompressionMimeTypes());
+        assertEquals(-1, boot.getCompressionLevel());
+        assertFalse(boot.isInflateRequestBodies());
+        assertEquals(10L * 1024 * 1024, boot.getInflatedRequestMaxSize());
+
+        boot.compression(true).compressionMinSize(0).compressionMimeTypes("application/json", " text/html ").compressionLevel(1);
+        assertTrue(boot.isCompression());
+        assertEquals(0, boot.getCompressionMinSize());
+        assertEquals(List.of("application/json", "text/html"), boot.getCompressionMimeTypes());
+        assertEquals(1, boot.getCompressionLevel());
+
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().compressionMinSize(-1));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().compressionMimeTypes());
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().compressionMimeTypes("json"));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().compressionLevel(0));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().compressionLevel(10));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().inflatedRequestMaxSize(0));
+    }
+
+    @Test
+    public void testPush() {
+        final VaadinBoot boot = new VaadinBoot();
+        assertTrue(boot.isPushCompression());
+        assertEquals(16384, boot.getPushMaxMessageSize());
+        assertEquals(Duration.ofMinutes(5), boot.getPushIdleTimeout());
+        assertEquals("300000", PushConfiguration.getServletInitParameters(boot).get("org.atmosphere.websocket.maxIdleTime"));
+
+        boot.pushCompression(false).pushMaxMessageSize(4096).pushIdleTimeout(Duration.ofMinutes(10));
+        assertFalse(boot.isPushCompression());
+        assertEquals(4096, boot.getPushMaxMessageSize());
+        assertEquals(Duration.ofMinutes(10), boot.getPushIdleTimeout());
+        final Map<String, String> params = PushConfiguration.getServletInitParameters(boot);
+        assertEquals("4096", params.get("org.atmosphere.websocket.maxTextMessageSize"));
+        assertEquals("4096", params.get("org.atmosphere.websocket.bufferSize"));
+        assertEquals("600000", params.get("org.atmosphere.websocket.maxIdleTime"));
+        assertNull(params.get("org.atmosphere.websocket.suppressJSR356"));
+        assertEquals("true", PushConfiguration.getServletInitParameters(boot, false).get("org.atmosphere.websocket.suppressJSR356"));
+
+        assertNull(boot.getWebSocket());
+        assertFalse(boot.webSocket(false).getWebSocket());
+
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().pushMaxMessageSize(1023));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().pushIdleTimeout(Duration.ZERO));
+    }
+
+    @Test
+    public void testAccessLog() {
+        final VaadinBoot boot = new VaadinBoot();
+        assertNull(boot.getAccessLogFile());
+        assertEquals(VaadinBootBase.DEFAULT_ACCESS_LOG_FIELDS, boot.getAccessLogFields());
+        assertEquals(8192, boot.getAccessLogBufferSize());
+        assertEquals(100L * 1024 * 1024, boot.getAccessLogMaxFileSize());
+        assertEquals(Duration.ofDays(1), boot.getAccessLogRotationInterval());
+        assertNull(boot.getAccessLog());
+
+        boot.accessLog(new File("access.log")).accessLogFields(AccessLogField.URI, AccessLogField.STATUS)
+                .accessLogBufferSize(1024).accessLogMaxFileSize(0).accessLogRotationInterval(null);
+        assertEquals(new File("access.log"), boot.getAccessLogFile());
+        assertEquals(List.of(AccessLogField.URI, AccessLogField.STATUS), boot.getAccessLogFields());
+        assertEquals(1024, boot.getAccessLogBufferSize());
+        assertEquals(0, boot.getAccessLogMaxFileSize());
+        assertNull(boot.getAccessLogRotationInterval());
+
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().accessLogFields());
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().accessLogBufferSize(8));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().accessLogBufferSize(1000));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().accessLogMaxFileSize(-1));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().accessLogRotationInterval(Duration.ZERO));
+    }
+
+    @Test
+    public void testSlowRequestWatchdog() {
+        final VaadinBoot boot = new VaadinBoot();
+        assertNull(boot.getSlowRequestThreshold());
+        assertEquals(Duration.ofMillis(100), boot.getSlowRequestSamplingInterval());
+        assertNull(boot.getSlowRequestListener());
+        assertNull(boot.getSlowRequestWatchdog());
+
+        boot.slowRequestThreshold(Duration.ofSeconds(5)).slowRequestSamplingInterval(Duration.ofMillis(20));
+        assertEquals(Duration.ofSeconds(5), boot.getSlowRequestThreshold());
+        assertEquals(Duration.ofMillis(20), boot.getSlowRequestSamplingInterval());
+
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().slowRequestThreshold(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().slowRequestSamplingInterval(Duration.ofNanos(10)));
+    }
+
+    @Test
+    public void testPinningMonitor() {
+        final VaadinBoot boot = new VaadinBoot();
+        assertFalse(boot.isPinningMonitor());
+        assertEquals(Duration.ofMillis(20), boot.getPinningThreshold());
+        assertNull(boot.getPinningReportPath());
+        assertNull(boot.getPinningMonitor());
+
+        boot.pinningMonitor(true).pinningThreshold(Duration.ZERO).pinningReportPath("/vaadin-boot/pinning");
+        assertTrue(boot.isPinningMonitor());
+        assertEquals(Duration.ZERO, boot.getPinningThreshold());
+        assertEquals("/vaadin-boot/pinning", boot.getPinningReportPath());
+
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().pinningThreshold(Duration.ofMillis(-1)));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().pinningReportPath("pinning"));
+    }
+
+    @Test
+    public void testSessionLockProfiling() {
+        final VaadinBoot boot = new VaadinBoot();
+        assertFalse(boot.isSessionLockProfiling());
+        assertNull(boot.getSessionLockReportPath());
+        assertNull(boot.getSessionLockProfiler());
+
+        boot.sessionLockProfiling(true).sessionLockReportPath("/vaadin-boot/session-lock");
+        assertTrue(boot.isSessionLockProfiling());
+        assertEquals("/vaadin-boot/session-lock", boot.getSessionLockReportPath());
+
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().sessionLockReportPath("session-lock"));
+    }
+
+    @Test
+    public void testWarmUp() throws Exception {
+        final VaadinBoot boot = new VaadinBoot();
+        assertEquals(List.of(), boot.getWarmUpPaths());
+        assertEquals(10, boot.getWarmUpIterations());
+        assertEquals(Duration.ofSeconds(30), boot.getWarmUpTimeBudget());
+        assertNull(boot.getReadinessPath());
+
+        boot.warmUpPaths("/", "/ROOT").warmUpIterations(3).warmUpTimeBudget(Duration.ofSeconds(5)).readinessPath("/ready");
+        assertEquals(List.of("/", "/ROOT"), boot.getWarmUpPaths());
+        assertEquals(3, boot.getWarmUpIterations());
+        assertEquals(Duration.ofSeconds(5), boot.getWarmUpTimeBudget());
+        assertEquals("/ready", boot.getReadinessPath());
+
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().warmUpPaths("ROOT"));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().warmUpIterations(0));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().warmUpTimeBudget(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().readinessPath("ready"));
+    }
+
+    @Test
+    public void testReadiness() throws Exception {
+        final VaadinBoot boot = new VaadinBoot().readinessPath("/ready");
+        assertFalse(boot.isReady());
+        assertNull(boot.getReadinessCheck());
+        boot.start();
+        assertTrue(boot.isReady());
+        assertNotNull(boot.getReadinessCheck());
+        boot.stop("foo");
+        assertFalse(boot.isReady());
+        assertNull(boot.getReadinessCheck());
+    }
+
+    @Test
+    public void testRateLimit() throws Exception {
+        final VaadinBoot boot = new VaadinBoot();
+        assertEquals(0, boot.getRateLimitRequestsPerSecond());
+        assertEquals(0, boot.getSessionRateLimitPerMinute());
+        assertFalse(boot.isRateLimitForwardedHeaders());
+        assertEquals(100_000, boot.getRateLimitMaxClients());
+        boot.start();
+        assertNull(boot.getRateLimiter());
+        boot.stop("foo");
+
+        boot.rateLimit(50, 200).sessionRateLimit(10, 20).rateLimitForwardedHeaders(true).rateLimitMaxClients(1000);
+        assertEquals(50, boot.getRateLimitRequestsPerSecond());
+        assertEquals(200, boot.getRateLimitRequestBurst());
+        assertEquals(10, boot.getSessionRateLimitPerMinute());
+        assertEquals(20, boot.getSessionRateLimitBurst());
+        assertTrue(boot.isRateLimitForwardedHeaders());
+        assertEquals(1000, boot.getRateLimitMaxClients());
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().rateLimit(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().rateLimit(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().sessionRateLimit(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().rateLimitMaxClients(0));
+
+        final VaadinBoot limited = new VaadinBoot().sessionRateLimit(10, 20);
+        limited.start();
+        assertNotNull(limited.getRateLimiter());
+        limited.stop("foo");
+        assertNull(limited.getRateLimiter());
+    }
+
+    @Test
+    public void testAdaptiveConcurrency() throws Exception {
+        final VaadinBoot boot = new VaadinBoot();
+        assertFalse(boot.isAdaptiveConcurrency());
+        assertEquals(4, boot.getAdaptiveConcurrencyMinLimit());
+        assertEquals(boot.getResourceDefaults().adaptiveConcurrencyMaxLimit(), boot.getAdaptiveConcurrencyMaxLimit());
+        assertEquals(boot.getResourceDefaults().adaptiveConcurrencyQueueDepth(), boot.getAdaptiveConcurrencyQueueDepth());
+        assertEquals(Duration.ofSeconds(2), boot.getAdaptiveConcurrencyQueueTimeout());
+        boot.adaptiveConcurrency(true).adaptiveConcurrencyLimits(8, 64).adaptiveConcurrencyQueueDepth(0).adaptiveConcurrencyQueueTimeout(Duration.ofMillis(500));
+        assertTrue(boot.isAdaptiveConcurrency());
+        assertEquals(8, boot.getAdaptiveConcurrencyMinLimit());
+        assertEquals(64, boot.getAdaptiveConcurrencyMaxLimit());
+        assertEquals(0, boot.getAdaptiveConcurrencyQueueDepth());
+        assertEquals(Duration.ofMillis(500), boot.getAdaptiveConcurrencyQueueTimeout());
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().adaptiveConcurrencyLimits(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().adaptiveConcurrencyLimits(10, 9));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().adaptiveConcurrencyQueueDepth(-1));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().adaptiveConcurrencyQueueTimeout(Duration.ZERO));
+
+        assertNull(boot.getConcurrencyLimiter());
+        boot.start();
+        assertEquals(20, boot.getConcurrencyLimiter().getLimit());
+        boot.stop("foo");
+        assertNull(boot.getConcurrencyLimiter());
+    }
+
+    @Test
+    public void testAdminPort() {
+        final VaadinBoot boot = new VaadinBoot();
+        assertNull(boot.getAdminPort());
+        assertEquals("localhost", boot.getAdminListenOn());
+        assertEquals(2, boot.getAdminThreads());
+        assertThrows(IllegalStateException.class, boot::getAdminURL);
+        boot.adminPort(9090).adminListenOn("127.0.0.1").adminThreads(1);
+        assertEquals(9090, boot.getAdminPort());
+        assertEquals("127.0.0.1", boot.getAdminListenOn());
+        assertEquals(1, boot.getAdminThreads());
+        assertEquals("http://127.0.0.1:9090", boot.getAdminURL());
+        assertEquals("http://[::1]:9090", boot.adminListenOn("::1").getAdminURL());
+        assertNull(boot.adminListenOn(null).getAdminListenOn());
+        assertEquals("http://localhost:9090", boot.getAdminURL());
+        boot.adminPort(null);
+        assertNull(boot.getAdminPort());
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().adminPort(-1));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().adminPort(65536));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().adminThreads(0));
+    }
+
+    @Test
+    public void testHttpPreset() {
+        assertNull(new VaadinBoot().getHttpPreset());
+        assertEquals(HttpPreset.HIGH_THROUGHPUT, new VaadinBoot().httpPreset(HttpPreset.HIGH_THROUGHPUT).getHttpPreset());
+        env.put("SERVER_HTTP_PRESET", "low-footprint");
+        assertEquals(HttpPreset.LOW_FOOTPRINT, new VaadinBoot().getHttpPreset());
+        // manual config takes precedence
+        assertNull(new VaadinBoot().httpPreset(null).getHttpPreset());
+        env.put("SERVER_HTTP_PRESET", "LOW_LATENCY");
+        assertEquals(HttpPreset.LOW_LATENCY, new VaadinBoot().getHttpPreset());
+        env.put("SERVER_HTTP_PRESET", "fastest");
+        assertThrows(IllegalArgumentException.class, VaadinBoot::new);
+    }
+
+    @Test
+    public void testResources() {
+        final VaadinBoot boot = new VaadinBoot();
+        final ResourceDefaults defaults = boot.getResourceDefaults();
+        assertEquals(defaults.acceptors(), boot.getAcceptors());
+        assertEquals(defaults.selectors(), boot.getSelectors());
+        assertEquals(defaults.minThreads(), boot.getMinThreads());
+        assertEquals(defaults.maxThreads(), boot.getMaxThreads());
+        // the preset takes precedence over the derived value, the explicit setting over both.
+        boot.httpPreset(HttpPreset.LOW_FOOTPRINT);
+        assertEquals(1, boot.getMinThreads());
+        boot.acceptors(2).selectors(3).minThreads(300).maxThreads(250);
+        assertEquals(2, boot.getAcceptors());
+        assertEquals(3, boot.getSelectors());
+        assertEquals(250, boot.getMinThreads());
+        assertEquals(250, boot.getMaxThreads());
+        boot.acceptors(null).maxThreads(null);
+        assertEquals(defaults.acceptors(), boot.getAcceptors());
+        assertEquals(defaults.maxThreads(), boot.getMaxThreads());
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().acceptors(0));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().selectors(0));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().minThreads(0));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().maxThreads(0));
+    }
+
     @Test
     public void testDefaultHost() {
         assertNull(new VaadinBoot().getListenOn());
@@ -140,6 +456,26 @@ public class VaadinBootBaseTest {
         assertFalse(webServer.running);
     }
 
+    @Test
+    public void failureToStartClosesServices() {
+        final VaadinBoot boot = new VaadinBoot(new DummyWebServer.FailsToStart())
+                .slowRequestThreshold(Duration.ofSeconds(1))
+                .pinningMonitor(true)
+                .sessionLockProfiling(true)
+                .sessionSerialDispatch(true)
+                .readinessPath("/ready")
+                .rateLimit(10, 10)
+                .adaptiveConcurrency(true);
+        assertThrows(IOException.class, boot::start);
+        assertNull(boot.getSlowRequestWatchdog());
+        assertNull(boot.getPinningMonitor());
+        assertNull(boot.getSessionLockProfiler());
+        assertNull(boot.getSessionSerialDispatcher());
+        assertNull(boot.getReadinessCheck());
+        assertNull(boot.getRateLimiter());
+        assertNull(boot.getConcurrencyLimiter());
+    }
+
     @Test
     public void failureToStopNotPropagated() throws Exception {
         final DummyWebServer.FailsToStop webServer = new DummyWebServer.FailsToStop();
@@ -148,4 +484,24 @@ public class VaadinBootBaseTest {
         boot.stop("foo");
         assertFalse(webServer.running);
     }
+
+    @Test
+    public void inMemoryConnectorRequiresInMemoryMode() throws Exception {
+        final VaadinBoot boot = new VaadinBoot();
+        assertFalse(boot.isInMemory());
+        boot.start();
+        assertThrows(IllegalStateException.class, boot::getInMemoryConnector);
+        boot.stop("foo");
+    }
+
+    @Test
+    public void inMemoryConnector() throws Exception {
+        final VaadinBoot boot = new VaadinBoot().inMemory();
+        assertTrue(boot.isInMemory());
+        assertThrows(IllegalStateException.class, boot::getInMemoryConnector);
+        boot.start();
+        assertTrue(boot.getInMemoryConnector().get("/").startsWith("HTTP/1.1 200 OK"));
+        boot.stop("foo");
+        assertThrows(IllegalStateException.class, boot::getInMemoryConnector);
+    }
 }
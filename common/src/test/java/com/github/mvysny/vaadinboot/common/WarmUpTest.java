@@ -0,0 +1,118 @@
+package com.github.mvysny.vaadinboot.common;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WarmUpTest {
+    @Test
+    public void replaysPathsForAllIterations() {
+        final List<String> requested = new CopyOnWriteArrayList<>();
+        final VaadinBoot cfg = new VaadinBoot().withContextRoot("/app").warmUpPaths("/", "/ROOT").warmUpIterations(3);
+        final WarmUp.Result result = new WarmUp(cfg, path -> {
+            requested.add(path);
+            return 200;
+        }).run();
+        assertEquals(3, result.iterations());
+        assertEquals(List.of("/app/", "/app/ROOT", "/app/", "/app/ROOT", "/app/", "/app/ROOT"), requested);
+    }
+
+    @Test
+    public void stopsWhenTimeBudgetRunsOut() {
+        final VaadinBoot cfg = new VaadinBoot().warmUpPaths("/").warmUpIterations(1000).warmUpTimeBudget(Duration.ofMillis(100));
+        final WarmUp.Result result = new WarmUp(cfg, path -> {
+            Thread.sleep(30);
+            return 200;
+        }).run();
+        assertTrue(result.iterations() >= 1 && result.iterations() < 1000, result.toString());
+        assertTrue(result.elapsed().toMillis() >= 100, result.toString());
+    }
+
+    @Test
+    public void failingRequestsDontFailWarmUp() {
+        final VaadinBoot cfg = new VaadinBoot().warmUpPaths("/fails", "/404").warmUpIterations(2);
+        final WarmUp.Result result = new WarmUp(cfg, path -> {
+            if (path.equals("/fails")) {
+                throw new IOException("simulated");
+            }
+            return 404;
+        }).run();
+        assertEquals(2, result.iterations());
+    }
+
+    @Test
+    public void httpClientConnectsToIPv6Literal() throws Exception {
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getByName("::1"), 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            final VaadinBoot cfg = new VaadinBoot().listenOn("::1").withPort(server.getAddress().getPort());
+            try (WarmUp.Client client = WarmUp.newHttpClient(cfg)) {
+                assertEquals(204, client.get("/"));
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void httpClientKeepsCookies() throws Exception {
+        final List<String> cookieHeaders = new CopyOnWriteArrayList<>();
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            assertEquals(WarmUp.USER_AGENT, exchange.getRequestHeaders().getFirst("User-Agent"));
+            final String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+            cookieHeaders.add(String.valueOf(cookie));
+            if (cookie == null) {
+                exchange.getResponseHeaders().add("Set-Cookie", "JSESSIONID=abc; Path=/");
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            final VaadinBoot cfg = new VaadinBoot().listenOn("127.0.0.1").withPort(server.getAddress().getPort());
+            try (WarmUp.Client client = WarmUp.newHttpClient(cfg)) {
+                assertEquals(204, client.get("/"));
+                assertEquals(204, client.get("/ROOT"));
+                assertEquals(List.of("null", "JSESSIONID=abc"), cookieHeaders);
+                assertEquals(List.of("JSESSIONID=abc"), client.getCookies().stream().map(it -> it.getName() + "=" + it.getValue()).toList());
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void inMemoryClientKeepsCookies() throws Exception {
+        final List<String> requests = new CopyOnWriteArrayList<>();
+        final WarmUp.Client client = WarmUp.newInMemoryClient(rawRequest -> {
+            requests.add(rawRequest);
+            return "HTTP/1.1 200 OK\r\nset-cookie: JSESSIONID=abc; Path=/; HttpOnly\r\n\r\nSet-Cookie: not=a-header";
+        });
+        assertEquals(200, client.get("/"));
+        assertEquals(200, client.get("/ROOT"));
+        assertFalse(requests.get(0).contains("Cookie:"), requests.get(0));
+        assertTrue(requests.get(0).contains("User-Agent: " + WarmUp.USER_AGENT + "\r\n"), requests.get(0));
+        assertTrue(requests.get(1).startsWith("GET /ROOT HTTP/1.1\r\n"), requests.get(1));
+        assertTrue(requests.get(1).contains("Cookie: JSESSIONID=abc\r\n"), requests.get(1));
+        assertEquals(List.of("JSESSIONID=abc"), client.getCookies().stream().map(it -> it.getName() + "=" + it.getValue()).toList());
+    }
+
+    @Test
+    public void inMemoryClientParsesStatus() throws Exception {
+        final WarmUp.Client client = WarmUp.newInMemoryClient(rawRequest -> "HTTP/1.1 503 Service Unavailable\r\n\r\n");
+        assertEquals(503, client.get("/"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.mvysny.vaadinboot.common;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.page.AppShellConfigurator;
+import com.vaadin.flow.component.page.Push;
+import com.vaadin.flow.shared.communication.PushMode;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebSocketDetectorTest {
+    @Push
+    static class PushShell implements AppShellConfigurator {
+    }
+
+    static class NoPushShell implements AppShellConfigurator {
+    }
+
+    static class ProgrammaticPush {
+        void enablePush(@NotNull UI ui) {
+            ui.getPushConfiguration().setPushMode(PushMode.AUTOMATIC);
+        }
+    }
+
+    static class PushModeConstant {
+        static final PushMode MODE = PushMode.MANUAL;
+    }
+
+    @NotNull
+    private static byte[] classFile(@NotNull Class<?> clazz) throws IOException {
+        try (InputStream in = clazz.getResourceAsStream(clazz.getName().substring(clazz.getPackageName().length() + 1) + ".class")) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    public void testFindMarker() throws Exception {
+        assertEquals("Lcom/vaadin/flow/component/page/Push;", WebSocketDetector.findMarker(classFile(PushShell.class)));
+        assertNull(WebSocketDetector.findMarker(classFile(NoPushShell.class)));
+        // push enabled programmatically, without the @Push annotation.
+        assertEquals("com/vaadin/flow/component/PushConfiguration", WebSocketDetector.findMarker(classFile(ProgrammaticPush.class)));
+        assertEquals("com/vaadin/flow/shared/communication/PushMode", WebSocketDetector.findMarker(classFile(PushModeConstant.class)));
+        // e.g. the constant pool of a class annotated with @ServerEndpoint.
+        assertEquals("jakarta/websocket/", WebSocketDetector.findMarker("\u0001\u0000)Ljakarta/websocket/server/ServerEndpoint;\u0001".getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    @Test
+    public void testConfigured() throws Exception {
+        assertTrue(WebSocketDetector.detect(new VaadinBoot().webSocket(true)).needed());
+        assertFalse(WebSocketDetector.detect(new VaadinBoot().webSocket(false)).needed());
+    }
+}
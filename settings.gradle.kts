@@ -2,9 +2,11 @@ include(
 	"common",
 	"vaadin-boot",
 	"vaadin-boot-tomcat",
+	"vaadin-boot-junit",
 	"testapp",
 	"testapp-tomcat",
 	"testapp-kotlin",
 	"testapp-kotlin-tomcat",
+	"benchmark",
 )
 
@@ -1,6 +1,7 @@
 plugins {
     alias(libs.plugins.vaadin)
     application
+    id("vaadin-boot.jlink")
 }
 
 dependencies {
@@ -0,0 +1,91 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import com.github.mvysny.vaadinboot.common.ConcurrencyLimiter;
+import org.junit.jupiter.api.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Tomcat with the adaptive concurrency, and checks that concurrent requests are queued rather than shed, and that
+ * the requests waiting in their session's queue hold no slot.
+ */
+public class TomcatAdaptiveConcurrencyTest {
+    @Test
+    public void testConcurrentRequestsServed() throws Exception {
+        final VaadinBoot vaadinBoot = new VaadinBoot().withPort(0).localhostOnly()
+                .adaptiveConcurrency(true).adaptiveConcurrencyLimits(2, 4);
+        vaadinBoot.start();
+        try {
+            final HttpClient client = HttpClient.newBuilder().build();
+            final HttpRequest request = HttpRequest.newBuilder(URI.create(vaadinBoot.getServerURL() + "/ROOT")).build();
+            final List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(200, response.get().statusCode());
+            }
+            final ConcurrencyLimiter.Statistics statistics = vaadinBoot.getConcurrencyLimiter().getStatistics();
+            assertEquals(0, statistics.inFlight(), statistics.toString());
+            assertEquals(0, statistics.queueLength(), statistics.toString());
+            assertEquals(0, statistics.shedRequests(), statistics.toString());
+            assertEquals(50, statistics.servedRequests(), statistics.toString());
+            assertTrue(statistics.limit() >= 2 && statistics.limit() <= 4, statistics.toString());
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+        assertNull(vaadinBoot.getConcurrencyLimiter());
+    }
+
+    @Test
+    public void testConcurrentRequestsOfOneSession() throws Exception {
+        final VaadinBoot vaadinBoot = new VaadinBoot().withPort(0).localhostOnly()
+                .adaptiveConcurrency(true).adaptiveConcurrencyLimits(2, 4).sessionSerialDispatch(true).sessionQueueDepth(1000);
+        vaadinBoot.start();
+        try {
+            final HttpClient client = HttpClient.newBuilder().build();
+            final HttpRequest initRequest = HttpRequest.newBuilder(URI.create(vaadinBoot.getServerURL() + "/?v-r=init&location=")).build();
+            HttpResponse<String> init = client.send(initRequest, HttpResponse.BodyHandlers.ofString());
+            // in development mode, Vaadin serves a placeholder page until the frontend bundle has been built.
+            for (int i = 0; i < 600 && !init.body().contains("v-uiId"); i++) {
+                Thread.sleep(200);
+                init = client.send(initRequest, HttpResponse.BodyHandlers.ofString());
+            }
+            assertEquals(200, init.statusCode(), init.body());
+            final String cookie = init.headers().allValues("Set-Cookie").stream()
+                    .filter(it -> it.startsWith("JSESSIONID=")).findFirst().orElseThrow().split(";")[0];
+            final Matcher uiId = Pattern.compile("\"v-uiId\":(\\d+)").matcher(init.body());
+            assertTrue(uiId.find(), init.body());
+            final ConcurrencyLimiter.Statistics before = vaadinBoot.getConcurrencyLimiter().getStatistics();
+            final HttpRequest heartbeat = HttpRequest.newBuilder(URI.create(vaadinBoot.getServerURL() + "/?v-r=heartbeat&v-uiId=" + uiId.group(1)))
+                    .header("Cookie", cookie).POST(HttpRequest.BodyPublishers.noBody()).build();
+            final List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                responses.add(client.sendAsync(heartbeat, HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(200, response.get().statusCode(), response.get().body());
+            }
+            // the heartbeats waiting in the session's queue hold no slot: the limiter serves them one at a time, never queueing them.
+            assertTrue(vaadinBoot.getSessionSerialDispatcher().getStatistics().resumedRequests() > 0);
+            final ConcurrencyLimiter.Statistics statistics = vaadinBoot.getConcurrencyLimiter().getStatistics();
+            assertEquals(0, statistics.inFlight(), statistics.toString());
+            assertEquals(100, statistics.servedRequests() - before.servedRequests(), statistics.toString());
+            assertEquals(before.queuedRequests(), statistics.queuedRequests(), statistics.toString());
+            assertEquals(0, statistics.shedRequests(), statistics.toString());
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.junit.jupiter.api.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Tomcat with the admin port, and checks that the admin endpoints are served while the app isn't reachable via the admin port.
+ */
+public class TomcatAdminPortTest {
+    @Test
+    public void testAdminEndpoints() throws Exception {
+        final VaadinBoot vaadinBoot = new VaadinBoot().withPort(0).localhostOnly().adminPort(0).adminListenOn("localhost");
+        vaadinBoot.start();
+        try {
+            assertNotEquals(0, vaadinBoot.getAdminPort());
+            assertNotEquals(vaadinBoot.getPort(), vaadinBoot.getAdminPort());
+            assertEquals(200, get(vaadinBoot.getAdminURL() + "/live").statusCode());
+            final HttpResponse<String> ready = get(vaadinBoot.getAdminURL() + "/ready");
+            assertEquals(200, ready.statusCode());
+            assertEquals("ready", ready.body());
+            final HttpResponse<String> metrics = get(vaadinBoot.getAdminURL() + "/metrics");
+            assertEquals(200, metrics.statusCode());
+            assertTrue(metrics.body().contains("vaadin_boot_ready 1\n"), metrics.body());
+            assertTrue(get(vaadinBoot.getAdminURL() + "/threads").body().contains("vaadin-boot-admin"));
+            // the app isn't reachable via the admin port.
+            assertEquals(404, get(vaadinBoot.getAdminURL() + "/").statusCode());
+            assertEquals(404, get(vaadinBoot.getAdminURL() + "/ROOT").statusCode());
+            assertEquals(200, get(vaadinBoot.getServerURL() + "/ROOT").statusCode());
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+    }
+
+    private static HttpResponse<String> get(String url) throws Exception {
+        final HttpClient client = HttpClient.newBuilder().build();
+        return client.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Tomcat with response compression and request body inflating enabled.
+ */
+public class TomcatCompressionTest {
+    private static VaadinBoot vaadinBoot;
+
+    @BeforeAll
+    public static void startTomcat() throws Exception {
+        assertFalse(Bootstrap.initialized);
+        vaadinBoot = new VaadinBoot().withPort(0).localhostOnly().compression(true).compressionMinSize(100)
+                .inflateRequestBodies(true).inflatedRequestMaxSize(64 * 1024);
+        vaadinBoot.start();
+    }
+
+    @AfterAll
+    public static void stopTomcat() throws Exception {
+        vaadinBoot.stop("tests");
+        assertFalse(Bootstrap.initialized);
+    }
+
+    @Test
+    public void testBootstrapPageCompressed() throws Exception {
+        final HttpResponse<byte[]> response = get("gzip");
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        final String body = new String(new GZIPInputStream(new ByteArrayInputStream(response.body())).readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("window.Vaadin"), body);
+    }
+
+    @Test
+    public void testNotCompressedWhenUnsupportedByClient() throws Exception {
+        final HttpResponse<byte[]> response = get(null);
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty(), response.headers().toString());
+        assertTrue(new String(response.body(), StandardCharsets.UTF_8).contains("window.Vaadin"));
+    }
+
+    @Test
+    public void testInflatedFormOverMaxSizeRejected() throws Exception {
+        // a gzip bomb: ~1 MB of form data compressed into ~1 kB
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bout)) {
+            out.write(("a=" + "a".repeat(1024 * 1024)).getBytes(StandardCharsets.UTF_8));
+        }
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(vaadinBoot.getServerURL()))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Encoding", "gzip")
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(bout.toByteArray()))
+                .build();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            assertEquals(413, client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+        }
+    }
+
+    private static HttpResponse<byte[]> get(String acceptEncoding) throws IOException, InterruptedException {
+        final HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(vaadinBoot.getServerURL()))
+                .timeout(Duration.ofSeconds(10));
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        }
+    }
+}
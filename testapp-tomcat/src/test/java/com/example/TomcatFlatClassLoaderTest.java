@@ -0,0 +1,29 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Tomcat on the application classloader, and checks that the app is initialized, served and shut down.
+ */
+public class TomcatFlatClassLoaderTest {
+    @Test
+    public void testAppServed() throws Exception {
+        final VaadinBoot vaadinBoot = new VaadinBoot().withPort(0).localhostOnly().flatClassLoader(true);
+        vaadinBoot.start();
+        try {
+            // the @WebListener is discovered, and runs on the classloader which loaded the app's classes.
+            assertTrue(Bootstrap.initialized);
+            assertSame(Bootstrap.class.getClassLoader(), Bootstrap.webAppClassLoader);
+            // the Vaadin servlet is deployed, which needs the Lookup.
+            final String response = TestUtils.wget(vaadinBoot.getServerURL());
+            assertTrue(response.contains("window.Vaadin"), response);
+            assertEquals("Don't delete this file; see Main.java for details.", TestUtils.wget(vaadinBoot.getServerURL() + "/ROOT").trim());
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+        assertFalse(Bootstrap.initialized);
+    }
+}
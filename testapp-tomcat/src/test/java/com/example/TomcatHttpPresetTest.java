@@ -0,0 +1,34 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import com.github.mvysny.vaadinboot.common.HttpPreset;
+import org.junit.jupiter.api.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Tomcat with the low-footprint HTTP preset, and checks that the app is served while the preset's header limit is enforced.
+ */
+public class TomcatHttpPresetTest {
+    @Test
+    public void testLowFootprint() throws Exception {
+        final VaadinBoot vaadinBoot = new VaadinBoot().withPort(0).localhostOnly().httpPreset(HttpPreset.LOW_FOOTPRINT);
+        vaadinBoot.start();
+        try {
+            final HttpClient client = HttpClient.newBuilder().build();
+            final URI uri = URI.create(vaadinBoot.getServerURL() + "/ROOT");
+            assertEquals(200, client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+            // the request headers exceed the preset's limit of 4096 bytes.
+            final HttpRequest largeHeaders = HttpRequest.newBuilder(uri).header("X-Large", "x".repeat(6000)).build();
+            final int status = client.send(largeHeaders, HttpResponse.BodyHandlers.ofString()).statusCode();
+            assertTrue(status == 400 || status == 431, "" + status);
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+    }
+}
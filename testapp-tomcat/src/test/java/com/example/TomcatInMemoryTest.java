@@ -0,0 +1,41 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Tomcat in the in-memory mode: Tomcat listens on an ephemeral loopback port only.
+ */
+public class TomcatInMemoryTest {
+    private static VaadinBoot vaadinBoot;
+
+    @BeforeAll
+    public static void startTomcat() throws Exception {
+        assertFalse(Bootstrap.initialized);
+        vaadinBoot = new VaadinBoot().inMemory();
+        vaadinBoot.start();
+    }
+
+    @AfterAll
+    public static void stopTomcat() throws Exception {
+        vaadinBoot.stop("tests");
+        assertFalse(Bootstrap.initialized);
+    }
+
+    @Test
+    public void testAppIsUp() throws Exception {
+        assertTrue(Bootstrap.initialized);
+        final String response = vaadinBoot.getInMemoryConnector().get("/");
+        assertTrue(response.startsWith("HTTP/1.1 200"), response);
+        assertTrue(response.contains("window.Vaadin"), response);
+    }
+
+    @Test
+    public void testStaticFilesServedFromWebappFolder() throws Exception {
+        final String response = vaadinBoot.getInMemoryConnector().get("/ROOT");
+        assertTrue(response.startsWith("HTTP/1.1 200"), response);
+        assertTrue(response.contains("Don't delete this file; see Main.java for details."), response);
+    }
+}
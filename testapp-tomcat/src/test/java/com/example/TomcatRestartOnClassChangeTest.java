@@ -0,0 +1,60 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Tomcat with the restart on class change, rewrites a class file, and checks that the webapp is restarted and
+ * still served.
+ */
+public class TomcatRestartOnClassChangeTest {
+    @Test
+    public void testWebAppRestartedOnClassChange() throws Exception {
+        final VaadinBoot vaadinBoot = new VaadinBoot().withPort(0).localhostOnly().restartOnClassChange(true);
+        vaadinBoot.start();
+        try {
+            assertTrue(vaadinBoot.isRestartOnClassChange(), "not running in the development environment");
+            final int initializations = Integer.getInteger(Bootstrap.INITIALIZATIONS, 0);
+            assertTrue(initializations > 0);
+
+            // the IDE recompiles the class
+            final Path classFile = Path.of(Bootstrap.class.getResource("Bootstrap.class").toURI());
+            Files.write(classFile, Files.readAllBytes(classFile));
+
+            // the listener runs again, in the fresh webapp classloader
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (Integer.getInteger(Bootstrap.INITIALIZATIONS, 0) == initializations) {
+                assertTrue(System.nanoTime() < deadline, "the webapp hasn't been restarted");
+                Thread.sleep(100);
+            }
+            final String response = wget(vaadinBoot.getServerURL(), deadline);
+            assertTrue(response.contains("window.Vaadin"), response);
+            assertEquals("Don't delete this file; see Main.java for details.", wget(vaadinBoot.getServerURL() + "/ROOT", deadline).trim());
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+    }
+
+    /**
+     * The listener runs before the servlets are deployed: retries until the restarted webapp serves the request.
+     */
+    private static String wget(String url, long deadline) throws Exception {
+        while (true) {
+            try {
+                return TestUtils.wget(url);
+            } catch (IOException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Tomcat with the session lock profiler, and checks that the session lock is profiled.
+ */
+public class TomcatSessionLockProfilerTest {
+    @Test
+    public void testSessionLockProfiled() throws Exception {
+        final VaadinBoot vaadinBoot = new VaadinBoot().withPort(0).localhostOnly()
+                .sessionLockProfiling(true).sessionLockReportPath("/vaadin-boot/session-lock");
+        vaadinBoot.start();
+        try {
+            TestUtils.wget(vaadinBoot.getServerURL() + "/?v-r=init&location=");
+            final String report = TestUtils.wget(vaadinBoot.getServerURL() + "/vaadin-boot/session-lock");
+            assertTrue(report.startsWith("VaadinSession lock wait and hold times per route:\n/: 1 requests"), report);
+            assertFalse(vaadinBoot.getSessionLockProfiler().getReport().hottestSessions().isEmpty(), report);
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+        assertNull(vaadinBoot.getSessionLockProfiler());
+    }
+}
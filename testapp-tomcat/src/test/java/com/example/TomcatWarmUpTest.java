@@ -0,0 +1,58 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import com.github.mvysny.vaadinboot.common.TomcatWebServer;
+import com.github.mvysny.vaadinboot.common.WebServer;
+import org.apache.catalina.Context;
+import org.apache.catalina.Manager;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Tomcat with the warm-up, and checks that the app is reported ready once warmed up.
+ */
+public class TomcatWarmUpTest {
+    @Test
+    public void testWarmUp() throws Exception {
+        final VaadinBoot vaadinBoot = new VaadinBoot().withPort(0).localhostOnly()
+                .warmUpPaths("/", "/ROOT").warmUpIterations(3).readinessPath("/ready");
+        assertFalse(vaadinBoot.isReady());
+        vaadinBoot.start();
+        try {
+            assertTrue(vaadinBoot.isReady());
+            assertEquals("ready", TestUtils.wget(vaadinBoot.getServerURL() + "/ready"));
+            // the app is still served.
+            TestUtils.wget(vaadinBoot.getServerURL() + "/ROOT");
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+        assertFalse(vaadinBoot.isReady());
+    }
+
+    @Test
+    public void testWarmUpSharesOneSession() throws Exception {
+        final List<Context> contexts = new CopyOnWriteArrayList<>();
+        final VaadinBoot vaadinBoot = new VaadinBoot() {
+            @Override
+            protected void onStarted(@NotNull WebServer server) throws IOException {
+                super.onStarted(server);
+                contexts.add(((TomcatWebServer) server).getContext());
+            }
+        }.withPort(0).localhostOnly().warmUpPaths("/", "/ROOT").warmUpIterations(3);
+        vaadinBoot.start();
+        try {
+            final Manager manager = contexts.get(0).getManager();
+            assertEquals(1, manager.getSessionCounter());
+            // invalidated once the warm-up is done
+            assertEquals(0, manager.getActiveSessions());
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.junit.jupiter.api.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Tomcat without the WebSocket support, and checks that the app, which doesn't use push, is still served.
+ */
+public class TomcatWebSocketSkippedTest {
+    @Test
+    public void testAppServed() throws Exception {
+        final VaadinBoot vaadinBoot = new VaadinBoot().withPort(0).localhostOnly().webSocket(false);
+        vaadinBoot.start();
+        try {
+            final HttpClient client = HttpClient.newBuilder().build();
+            final HttpRequest request = HttpRequest.newBuilder(URI.create(vaadinBoot.getServerURL() + "/ROOT")).build();
+            assertEquals(200, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import com.github.mvysny.vaadinboot.common.TomcatWebServer;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Tomcat with a persistent work directory.
+ */
+public class TomcatWorkDirTest {
+    @TempDir
+    static Path workDir;
+    private static VaadinBoot vaadinBoot;
+
+    @BeforeAll
+    public static void startTomcat() throws Exception {
+        assertFalse(Bootstrap.initialized);
+        // a generation left behind by an older version of the app
+        Files.createDirectories(workDir.resolve("stale"));
+        Files.writeString(workDir.resolve("stale/.lock"), "");
+        Files.writeString(workDir.resolve("stale/foo.txt"), "foo");
+        // not created by Vaadin Boot, must be left alone
+        Files.createDirectories(workDir.resolve("unrelated"));
+        // the base directory of a JVM which crashed
+        Files.createDirectories(workDir.resolve("dev/tomcat-crashed"));
+        Files.writeString(workDir.resolve("dev/tomcat-crashed/.lock"), "");
+
+        vaadinBoot = new VaadinBoot().withPort(0).localhostOnly().workDir(workDir.toFile());
+        vaadinBoot.start();
+    }
+
+    @AfterAll
+    public static void stopTomcat() throws Exception {
+        vaadinBoot.stop("tests");
+        assertFalse(Bootstrap.initialized);
+        // the base directory is deleted when Tomcat stops.
+        assertEquals(List.of(), baseDirs());
+    }
+
+    private static List<Path> baseDirs() throws IOException {
+        try (Stream<Path> list = Files.list(workDir.resolve("dev"))) {
+            return list.filter(it -> it.getFileName().toString().startsWith("tomcat-")).toList();
+        }
+    }
+
+    @Test
+    public void testAppIsUp() throws Exception {
+        assertTrue(Bootstrap.initialized);
+        final String response = TestUtils.wget(vaadinBoot.getServerURL());
+        assertTrue(response.contains("window.Vaadin"), response);
+    }
+
+    @Test
+    public void testStaticFilesServedFromWebappFolder() throws Exception {
+        final String response = TestUtils.wget(vaadinBoot.getServerURL() + "/ROOT");
+        assertEquals("Don't delete this file; see Main.java for details.", response.trim());
+    }
+
+    @Test
+    public void testWorkDirLayout() throws Exception {
+        // running from the resources folder; the base directory of this JVM only.
+        assertEquals(1, baseDirs().size(), baseDirs().toString());
+        assertTrue(Files.isDirectory(workDir.resolve("dev/docbase")));
+        assertFalse(Files.exists(workDir.resolve("dev/tomcat-crashed")));
+        assertFalse(Files.exists(workDir.resolve("stale")));
+        assertTrue(Files.exists(workDir.resolve("unrelated")));
+    }
+
+    @Test
+    public void testResourceCacheStatistics() throws Exception {
+        TestUtils.wget(vaadinBoot.getServerURL() + "/ROOT");
+        TestUtils.wget(vaadinBoot.getServerURL() + "/ROOT");
+        final TomcatWebServer.ResourceCacheStatistics statistics = vaadinBoot.getResourceCacheStatistics();
+        assertNotNull(statistics);
+        assertTrue(statistics.lookupCount() > 0, statistics.toString());
+        assertTrue(statistics.hitCount() > 0, statistics.toString());
+    }
+}
@@ -1,6 +1,7 @@
 plugins {
     alias(libs.plugins.vaadin)
     application
+    id("vaadin-boot.jlink")
 }
 
 dependencies {
@@ -55,3 +56,57 @@ tasks.withType<Test> {
 application {
     mainClass = "com.example.Main"
 }
+
+// The build-time substitute for the classpath scanning, see VaadinBoot.useAnnotationIndex(): required by the native image,
+// and packaged into the jar and the test classpath so that it can be replayed on the JVM as well.
+val annotationIndexDir = layout.buildDirectory.dir("generated/annotation-index")
+val generateAnnotationIndex = tasks.register<JavaExec>("generateAnnotationIndex") {
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass = "com.github.mvysny.vaadinboot.common.AnnotationIndex"
+    args(annotationIndexDir.get().asFile.absolutePath)
+    outputs.dir(annotationIndexDir)
+}
+tasks.named<Jar>("jar") {
+    from(generateAnnotationIndex)
+}
+tasks.named<Test>("test") {
+    classpath += files(generateAnnotationIndex)
+}
+
+// GraalVM native image: run `./gradlew testapp:nativeTest -Pvaadin.productionMode` with GRAALVM_HOME pointing to GraalVM 21+.
+// Vaadin's own reflection metadata is recorded by the GraalVM tracing agent: run the tests with -Pnative.agent first,
+// which merges the metadata into build/native-agent.
+val nativeAgentDir = layout.buildDirectory.dir("native-agent")
+if (project.hasProperty("native.agent")) {
+    tasks.named<Test>("test") {
+        jvmArgs("-agentlib:native-image-agent=config-merge-dir=${nativeAgentDir.get().asFile.absolutePath}")
+    }
+}
+val nativeImage = layout.buildDirectory.file("native/testapp")
+val nativeCompile = tasks.register<Exec>("nativeCompile") {
+    dependsOn(tasks.named("jar"))
+    inputs.files(tasks.named("jar"), configurations.runtimeClasspath)
+    outputs.file(nativeImage)
+    val graalVmHome = providers.environmentVariable("GRAALVM_HOME")
+    executable = graalVmHome.map { "$it/bin/native-image" }.getOrElse("native-image")
+    doFirst {
+        check(vaadin.effective.productionMode.get()) { "The native image must be built in production mode: add -Pvaadin.productionMode" }
+        nativeImage.get().asFile.parentFile.mkdirs()
+    }
+    argumentProviders.add(CommandLineArgumentProvider {
+        val agentConfig = nativeAgentDir.get().asFile
+        listOf("--no-fallback",
+            "-cp", (tasks.named<Jar>("jar").get().outputs.files + configurations.runtimeClasspath.get()).asPath) +
+            (if (agentConfig.exists()) listOf("-H:ConfigurationFileDirectories=${agentConfig.absolutePath}") else listOf()) +
+            listOf("-o", nativeImage.get().asFile.absolutePath, "com.example.Main")
+    })
+}
+tasks.register<Test>("nativeTest") {
+    description = "Runs NativeImageTest against the native image"
+    group = "verification"
+    dependsOn(nativeCompile)
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    filter.includeTestsMatching("com.example.NativeImageTest")
+    systemProperty("nativeImage", nativeImage.get().asFile.absolutePath)
+}
@@ -10,10 +10,22 @@ import org.slf4j.LoggerFactory;
 public class Bootstrap implements ServletContextListener {
     private static final Logger log = LoggerFactory.getLogger(Bootstrap.class);
     public static volatile boolean initialized = false;
+    /**
+     * The classloader the web server runs the app on.
+     */
+    public static volatile ClassLoader webAppClassLoader = null;
+    /**
+     * The system property counting the initializations. A restart on class change runs the app on a fresh classloader,
+     * which loads this class anew, with fresh static fields: only a system property survives the restart.
+     */
+    public static final String INITIALIZATIONS = "testapp.initializations";
 
     @Override
     public void contextInitialized(ServletContextEvent sce) {
         initialized = true;
+        // the Karibu tests (MainViewTest) call this without a servlet context.
+        webAppClassLoader = sce == null ? null : sce.getServletContext().getClassLoader();
+        System.setProperty(INITIALIZATIONS, "" + (Integer.getInteger(INITIALIZATIONS, 0) + 1));
         log.info("Testapp Initialized");
     }
 
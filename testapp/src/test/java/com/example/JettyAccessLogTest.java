@@ -0,0 +1,36 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Jetty with the access log.
+ */
+public class JettyAccessLogTest {
+    @TempDir
+    public Path tempDir;
+
+    @Test
+    public void testRequestsLogged() throws Exception {
+        final Path file = tempDir.resolve("access.log");
+        final VaadinBoot vaadinBoot = new VaadinBoot().withPort(0).localhostOnly().accessLog(file.toFile());
+        vaadinBoot.start();
+        try {
+            TestUtils.wget(vaadinBoot.getServerURL() + "/ROOT");
+            assertNotNull(vaadinBoot.getAccessLog());
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+        assertNull(vaadinBoot.getAccessLog());
+        final List<String> lines = Files.readAllLines(file);
+        assertEquals(1, lines.size(), lines.toString());
+        assertTrue(lines.get(0).matches("\\S+ 127\\.0\\.0\\.1 GET /ROOT HTTP/1\\.1 200 \\d+ \\d+\\.\\d{3} -"), lines.get(0));
+    }
+}
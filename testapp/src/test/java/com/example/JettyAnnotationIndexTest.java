@@ -0,0 +1,36 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import com.github.mvysny.vaadinboot.common.AnnotationIndex;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Jetty with the annotation index generated by the build rather than scanning the classpath, the same way the
+ * native image does, and checks that the app is initialized and served.
+ */
+public class JettyAnnotationIndexTest {
+    @Test
+    public void testIndexGenerated() throws Exception {
+        final AnnotationIndex index = AnnotationIndex.read(Thread.currentThread().getContextClassLoader());
+        assertNotNull(index, "generateAnnotationIndex didn't run");
+        assertTrue(index.listeners().contains(Bootstrap.class.getName()), index.toString());
+        assertTrue(index.getClassNames().contains(MainView.class.getName()), index.toString());
+    }
+
+    @Test
+    public void testAppServed() throws Exception {
+        final VaadinBoot vaadinBoot = new VaadinBoot().withPort(0).localhostOnly().useAnnotationIndex(true);
+        vaadinBoot.start();
+        try {
+            // the @WebListener is read from the index.
+            assertTrue(Bootstrap.initialized);
+            final String response = TestUtils.wget(vaadinBoot.getServerURL());
+            assertTrue(response.contains("window.Vaadin"), response);
+            assertEquals("Don't delete this file; see Main.java for details.", TestUtils.wget(vaadinBoot.getServerURL() + "/ROOT").trim());
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+    }
+}
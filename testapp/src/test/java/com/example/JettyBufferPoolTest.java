@@ -0,0 +1,42 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import com.github.mvysny.vaadinboot.common.JettyWebServer;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Jetty with heap byte buffers and the buffer leak tracking.
+ */
+public class JettyBufferPoolTest {
+    private static VaadinBoot vaadinBoot;
+
+    @BeforeAll
+    public static void startJetty() throws Exception {
+        assertFalse(Bootstrap.initialized);
+        vaadinBoot = new VaadinBoot().withPort(0).localhostOnly()
+                .directBuffers(false)
+                .bufferPoolMaxHeapMemory(1024 * 1024)
+                .bufferPoolLeakTracking(true);
+        vaadinBoot.start();
+    }
+
+    @AfterAll
+    public static void stopJetty() throws Exception {
+        vaadinBoot.stop("tests");
+        assertNull(vaadinBoot.getBufferPoolStatistics());
+        assertFalse(Bootstrap.initialized);
+    }
+
+    @Test
+    public void testStatistics() throws Exception {
+        final String response = TestUtils.wget(vaadinBoot.getServerURL());
+        assertTrue(response.contains("window.Vaadin"), response);
+        final JettyWebServer.BufferPoolStatistics statistics = vaadinBoot.getBufferPoolStatistics();
+        assertNotNull(statistics);
+        assertTrue(statistics.acquired() > 0, statistics.toString());
+        assertTrue(statistics.retainedHeapBytes() > 0, statistics.toString());
+        assertEquals(0, statistics.retainedDirectBytes(), statistics.toString());
+    }
+}
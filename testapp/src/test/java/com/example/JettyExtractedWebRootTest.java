@@ -0,0 +1,141 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Jetty serving the web root from a jar, extracted at boot via {@link VaadinBoot#extractWebRoot(boolean)}, and
+ * fetches a large file both via Vaadin and via {@link VaadinBoot#zeroCopyStaticPaths(String...)}.
+ * <br/>
+ * The test app's web root is a folder; the app is therefore started in a classloader which finds a jar with the web root first.
+ */
+public class JettyExtractedWebRootTest {
+    @TempDir
+    static Path temp;
+    private static byte[] largeFile;
+    private static URLClassLoader classLoader;
+    private static String serverURL;
+
+    @BeforeAll
+    public static void startJetty() throws Exception {
+        System.setProperty("server.webapp-cache-dir", temp.resolve("cache").toString());
+        // extracted by an older version of the app
+        Files.createDirectories(temp.resolve("cache/stale"));
+        Files.writeString(temp.resolve("cache/stale.lock"), "");
+
+        largeFile = new byte[8 * 1024 * 1024];
+        new Random(42).nextBytes(largeFile);
+        final File jar = temp.resolve("webroot.jar").toFile();
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("webapp/ROOT"));
+            out.write("Don't delete this file; see Main.java for details.".getBytes(StandardCharsets.UTF_8));
+            out.putNextEntry(new JarEntry("webapp/large.bin"));
+            out.write(largeFile);
+            out.putNextEntry(new JarEntry("webapp/zerocopy/large.bin"));
+            out.write(largeFile);
+        }
+        final List<URL> classpath = new ArrayList<>();
+        classpath.add(jar.toURI().toURL());
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            classpath.add(new File(entry).toURI().toURL());
+        }
+        classLoader = new URLClassLoader(classpath.toArray(URL[]::new), ClassLoader.getPlatformClassLoader());
+        serverURL = (String) App.call(classLoader, "start");
+    }
+
+    @AfterAll
+    public static void stopJetty() throws Exception {
+        App.call(classLoader, "stop");
+        classLoader.close();
+        System.clearProperty("server.webapp-cache-dir");
+        assertFalse(Bootstrap.initialized);
+    }
+
+    @Test
+    public void testAppIsUp() throws Exception {
+        final String response = TestUtils.wget(serverURL);
+        assertTrue(response.contains("window.Vaadin"), response);
+    }
+
+    @Test
+    public void testWebRootExtracted() throws Exception {
+        assertEquals("Don't delete this file; see Main.java for details.", TestUtils.wget(serverURL + "/ROOT").trim());
+        try (var files = Files.list(temp.resolve("cache"))) {
+            assertTrue(files.anyMatch(it -> Files.isRegularFile(it.resolve("zerocopy/large.bin"))));
+        }
+        assertFalse(Files.exists(temp.resolve("cache/stale")));
+        assertFalse(Files.exists(temp.resolve("cache/stale.lock")));
+    }
+
+    @Test
+    public void testLargeFileFromExtractedWebRoot() throws Exception {
+        assertLargeFile(serverURL + "/large.bin");
+    }
+
+    @Test
+    public void testLargeFileZeroCopy() throws Exception {
+        assertLargeFile(serverURL + "/zerocopy/large.bin");
+    }
+
+    private static void assertLargeFile(String url) throws IOException, InterruptedException {
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(10)).build();
+        final HttpResponse<byte[]> response;
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        }
+        assertEquals(200, response.statusCode());
+        assertEquals("" + largeFile.length, response.headers().firstValue("Content-Length").orElse(null), response.headers().toString());
+        assertArrayEquals(largeFile, response.body());
+    }
+
+    /**
+     * Runs the app in the classloader of the jar.
+     */
+    public static class App {
+        private static VaadinBoot vaadinBoot;
+
+        public static String start() throws Exception {
+            vaadinBoot = new VaadinBoot().withPort(0).localhostOnly().extractWebRoot(true).zeroCopyStaticPaths("/zerocopy/*");
+            vaadinBoot.start();
+            return vaadinBoot.getServerURL();
+        }
+
+        public static void stop() {
+            vaadinBoot.stop("tests");
+        }
+
+        static Object call(ClassLoader classLoader, String method) throws Exception {
+            final Thread thread = Thread.currentThread();
+            final ClassLoader previous = thread.getContextClassLoader();
+            // Jetty's webapp classloader delegates to the context classloader.
+            thread.setContextClassLoader(classLoader);
+            try {
+                return classLoader.loadClass(App.class.getName()).getMethod(method).invoke(null);
+            } finally {
+                thread.setContextClassLoader(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.HostedApp;
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.eclipse.jetty.ee10.webapp.WebAppContext;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hosts the test app twice on one Jetty, and checks that both copies are served, each one in its own classloader.
+ */
+public class JettyHostedAppsTest {
+    @Test
+    public void testHostedApps() throws Exception {
+        // the app's classpath, without the test classes.
+        final File testClasses = new File(JettyHostedAppsTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        final List<File> classpath = Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .map(File::new)
+                .filter(it -> it.exists() && !it.equals(testClasses))
+                .toList();
+        final String productionMode = System.getProperty("vaadin.productionMode");
+        final List<WebAppContext> contexts = new CopyOnWriteArrayList<>();
+        final VaadinBoot vaadinBoot = new VaadinBoot() {
+            @Override
+            protected void onStarted(@NotNull WebAppContext context) {
+                contexts.add(context);
+            }
+        }.withPort(0).localhostOnly()
+                .hostApp(new HostedApp("/app1", classpath))
+                .hostApp(new HostedApp("/app2", classpath));
+        vaadinBoot.start();
+        try {
+            for (String app : List.of("/app1", "/app2")) {
+                assertEquals("Don't delete this file; see Main.java for details.", TestUtils.wget(vaadinBoot.getServerURL() + app + "/ROOT").trim());
+                TestUtils.wget(vaadinBoot.getServerURL() + app + "/");
+            }
+            assertEquals(2, contexts.size());
+            final Class<?> bootstrap1 = contexts.get(0).getClassLoader().loadClass(Bootstrap.class.getName());
+            final Class<?> bootstrap2 = contexts.get(1).getClassLoader().loadClass(Bootstrap.class.getName());
+            assertNotSame(bootstrap1, bootstrap2);
+            assertNotSame(Bootstrap.class, bootstrap1);
+            // each app has been initialized in its own classloader.
+            assertTrue(bootstrap1.getField("initialized").getBoolean(null));
+            assertTrue(bootstrap2.getField("initialized").getBoolean(null));
+            assertFalse(Bootstrap.initialized);
+            assertEquals(productionMode, System.getProperty("vaadin.productionMode"));
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+    }
+}
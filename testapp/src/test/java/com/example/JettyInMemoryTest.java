@@ -0,0 +1,41 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Jetty with an in-memory connector: no port is bound, requests are passed to Jetty in-process.
+ */
+public class JettyInMemoryTest {
+    private static VaadinBoot vaadinBoot;
+
+    @BeforeAll
+    public static void startJetty() throws Exception {
+        assertFalse(Bootstrap.initialized);
+        vaadinBoot = new VaadinBoot().inMemory();
+        vaadinBoot.start();
+    }
+
+    @AfterAll
+    public static void stopJetty() throws Exception {
+        vaadinBoot.stop("tests");
+        assertFalse(Bootstrap.initialized);
+    }
+
+    @Test
+    public void testAppIsUp() throws Exception {
+        assertTrue(Bootstrap.initialized);
+        final String response = vaadinBoot.getInMemoryConnector().get("/");
+        assertTrue(response.startsWith("HTTP/1.1 200"), response);
+        assertTrue(response.contains("window.Vaadin"), response);
+    }
+
+    @Test
+    public void testStaticFilesServedFromWebappFolder() throws Exception {
+        final String response = vaadinBoot.getInMemoryConnector().get("/ROOT");
+        assertTrue(response.startsWith("HTTP/1.1 200"), response);
+        assertTrue(response.contains("Don't delete this file; see Main.java for details."), response);
+    }
+}
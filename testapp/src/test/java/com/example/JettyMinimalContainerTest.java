@@ -0,0 +1,26 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up the minimal Jetty container, and checks that the app is initialized and served.
+ */
+public class JettyMinimalContainerTest {
+    @Test
+    public void testAppServed() throws Exception {
+        final VaadinBoot vaadinBoot = new VaadinBoot().withPort(0).localhostOnly().minimalContainer(true);
+        vaadinBoot.start();
+        try {
+            // the @WebListener is still discovered.
+            assertTrue(Bootstrap.initialized);
+            final String response = TestUtils.wget(vaadinBoot.getServerURL());
+            assertTrue(response.contains("window.Vaadin"), response);
+            assertEquals("Don't delete this file; see Main.java for details.", TestUtils.wget(vaadinBoot.getServerURL() + "/ROOT").trim());
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Jetty with the virtual thread pinning monitor, and checks that the report is served.
+ */
+public class JettyPinningReportTest {
+    @Test
+    public void testPinningReportServed() throws Exception {
+        final VaadinBoot vaadinBoot = new VaadinBoot().withPort(0).localhostOnly()
+                .pinningMonitor(true).pinningReportPath("/vaadin-boot/pinning");
+        vaadinBoot.start();
+        try {
+            assertNotNull(vaadinBoot.getPinningMonitor());
+            final String report = TestUtils.wget(vaadinBoot.getServerURL() + "/vaadin-boot/pinning");
+            assertTrue(report.startsWith("Virtual thread pinning longer than 20ms"), report);
+            // the app is still served.
+            TestUtils.wget(vaadinBoot.getServerURL());
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+        assertNull(vaadinBoot.getPinningMonitor());
+    }
+}
@@ -0,0 +1,40 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import com.github.mvysny.vaadinboot.common.RateLimiter;
+import org.junit.jupiter.api.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Jetty with the rate limiting, and checks that a client exceeding its burst is rejected.
+ */
+public class JettyRateLimitTest {
+    @Test
+    public void testClientRejected() throws Exception {
+        final VaadinBoot vaadinBoot = new VaadinBoot().withPort(0).localhostOnly().rateLimit(1, 5);
+        vaadinBoot.start();
+        try {
+            final HttpClient client = HttpClient.newBuilder().build();
+            final HttpRequest request = HttpRequest.newBuilder(URI.create(vaadinBoot.getServerURL() + "/ROOT")).build();
+            for (int i = 0; i < 5; i++) {
+                assertEquals(200, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+            }
+            final HttpResponse<String> rejected = client.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(429, rejected.statusCode());
+            assertEquals("1", rejected.headers().firstValue("Retry-After").orElseThrow());
+            assertEquals("", rejected.body());
+            final RateLimiter.Statistics statistics = vaadinBoot.getRateLimiter().getStatistics();
+            assertEquals(1, statistics.clients(), statistics.toString());
+            assertTrue(statistics.rejectedRequests() >= 1, statistics.toString());
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+        assertNull(vaadinBoot.getRateLimiter());
+    }
+}
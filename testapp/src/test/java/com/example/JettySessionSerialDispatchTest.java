@@ -0,0 +1,68 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import com.github.mvysny.vaadinboot.common.SessionLockProfiler;
+import com.github.mvysny.vaadinboot.common.SessionSerialDispatcher;
+import org.junit.jupiter.api.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Jetty with the session serial dispatch, and fires concurrent heartbeats of a single session.
+ * The resumed heartbeats are profiled by the session lock profiler as well.
+ */
+public class JettySessionSerialDispatchTest {
+    @Test
+    public void testConcurrentHeartbeatsServed() throws Exception {
+        final VaadinBoot vaadinBoot = new VaadinBoot().withPort(0).localhostOnly().sessionSerialDispatch(true).sessionQueueDepth(1000)
+                .sessionLockProfiling(true);
+        vaadinBoot.start();
+        try {
+            final HttpClient client = HttpClient.newBuilder().build();
+            final HttpRequest initRequest = HttpRequest.newBuilder(URI.create(vaadinBoot.getServerURL() + "/?v-r=init&location=")).build();
+            HttpResponse<String> init = client.send(initRequest, HttpResponse.BodyHandlers.ofString());
+            // in development mode, Vaadin serves a placeholder page until the frontend bundle has been built.
+            for (int i = 0; i < 600 && !init.body().contains("v-uiId"); i++) {
+                Thread.sleep(200);
+                init = client.send(initRequest, HttpResponse.BodyHandlers.ofString());
+            }
+            assertEquals(200, init.statusCode(), init.body());
+            final String cookie = init.headers().allValues("Set-Cookie").stream()
+                    .filter(it -> it.startsWith("JSESSIONID=")).findFirst().orElseThrow().split(";")[0];
+            final Matcher uiId = Pattern.compile("\"v-uiId\":(\\d+)").matcher(init.body());
+            assertTrue(uiId.find(), init.body());
+            final HttpRequest heartbeat = HttpRequest.newBuilder(URI.create(vaadinBoot.getServerURL() + "/?v-r=heartbeat&v-uiId=" + uiId.group(1)))
+                    .header("Cookie", cookie).POST(HttpRequest.BodyPublishers.noBody()).build();
+            final List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                responses.add(client.sendAsync(heartbeat, HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(200, response.get().statusCode(), response.get().body());
+            }
+            final SessionSerialDispatcher.Statistics statistics = vaadinBoot.getSessionSerialDispatcher().getStatistics();
+            assertEquals(0, statistics.busySessions(), statistics.toString());
+            assertEquals(0, statistics.queuedRequests(), statistics.toString());
+            assertEquals(0, statistics.rejectedRequests(), statistics.toString());
+            // most heartbeats arrive while another one is being served.
+            assertTrue(statistics.resumedRequests() > 0, statistics.toString());
+            // the resumed heartbeats are profiled as requests, rather than as locks taken outside of a request.
+            final SessionLockProfiler.Report report = vaadinBoot.getSessionLockProfiler().getReport();
+            assertFalse(report.routes().containsKey(SessionLockProfiler.OUTSIDE_REQUEST), report.toString());
+            assertTrue(report.routes().values().stream().mapToLong(it -> it.lockWait().getCount()).sum() >= 101, report.toString());
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+        assertNull(vaadinBoot.getSessionSerialDispatcher());
+    }
+}
@@ -0,0 +1,41 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import com.github.mvysny.vaadinboot.common.SlowRequestWatchdog;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Jetty with the slow request watchdog and a threshold so low that every request is slow.
+ */
+public class JettySlowRequestTest {
+    @Test
+    public void testSlowRequestProfiled() throws Exception {
+        final List<SlowRequestWatchdog.SlowRequest> slowRequests = new CopyOnWriteArrayList<>();
+        final VaadinBoot vaadinBoot = new VaadinBoot().withPort(0).localhostOnly()
+                .slowRequestThreshold(Duration.ofNanos(1)).slowRequestSamplingInterval(Duration.ofMillis(1))
+                .slowRequestListener(slowRequests::add);
+        vaadinBoot.start();
+        try {
+            // a warmed-up request may complete before the first sample: try a couple of times.
+            for (int i = 0; i < 50 && slowRequests.isEmpty(); i++) {
+                TestUtils.wget(vaadinBoot.getServerURL());
+                // the listener is called right after the response has been sent.
+                Thread.sleep(20);
+            }
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+        assertNull(vaadinBoot.getSlowRequestWatchdog());
+        assertFalse(slowRequests.isEmpty());
+        final SlowRequestWatchdog.SlowRequest slowRequest = slowRequests.get(0);
+        assertEquals("GET", slowRequest.method());
+        assertEquals("/", slowRequest.uri());
+        assertTrue(slowRequest.sampleCount() > 0, slowRequest.toString());
+    }
+}
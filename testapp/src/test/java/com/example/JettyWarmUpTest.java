@@ -0,0 +1,55 @@
+package com.example;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.eclipse.jetty.ee10.servlet.SessionHandler;
+import org.eclipse.jetty.ee10.webapp.WebAppContext;
+import org.eclipse.jetty.session.DefaultSessionCache;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts up Jetty with the warm-up, and checks that the app is reported ready once warmed up.
+ */
+public class JettyWarmUpTest {
+    @Test
+    public void testWarmUp() throws Exception {
+        final VaadinBoot vaadinBoot = new VaadinBoot().withPort(0).localhostOnly()
+                .warmUpPaths("/", "/ROOT").warmUpIterations(3).readinessPath("/ready");
+        assertFalse(vaadinBoot.isReady());
+        vaadinBoot.start();
+        try {
+            assertTrue(vaadinBoot.isReady());
+            assertEquals("ready", TestUtils.wget(vaadinBoot.getServerURL() + "/ready"));
+            // the app is still served.
+            TestUtils.wget(vaadinBoot.getServerURL() + "/ROOT");
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+        assertFalse(vaadinBoot.isReady());
+    }
+
+    @Test
+    public void testWarmUpSharesOneSession() throws Exception {
+        final List<WebAppContext> contexts = new CopyOnWriteArrayList<>();
+        final VaadinBoot vaadinBoot = new VaadinBoot() {
+            @Override
+            protected void onStarted(@NotNull WebAppContext context) {
+                contexts.add(context);
+            }
+        }.withPort(0).localhostOnly().warmUpPaths("/", "/ROOT").warmUpIterations(3);
+        vaadinBoot.start();
+        try {
+            final SessionHandler sessionHandler = contexts.get(0).getSessionHandler();
+            assertEquals(1, sessionHandler.getSessionsCreated());
+            // invalidated once the warm-up is done
+            assertEquals(0, ((DefaultSessionCache) sessionHandler.getSessionCache()).getSessionsCurrent());
+        } finally {
+            vaadinBoot.stop("tests");
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the {@link JettyTest} checks against the GraalVM native image of the testapp. Only runs via
+ * <code>./gradlew testapp:nativeTest -Pvaadin.productionMode</code>, which builds the native image and passes its path
+ * in the <code>nativeImage</code> system property.
+ */
+public class NativeImageTest {
+    private static Process process;
+    private static final CountDownLatch initialized = new CountDownLatch(1);
+    private static final StringBuffer output = new StringBuffer();
+
+    @BeforeAll
+    public static void startNativeImage() throws Exception {
+        final String nativeImage = System.getProperty("nativeImage");
+        assumeTrue(nativeImage != null, "not running via the nativeTest task");
+        final ProcessBuilder builder = new ProcessBuilder(nativeImage).redirectErrorStream(true);
+        builder.environment().put("SERVER_PORT", "44313");
+        process = builder.start();
+        final Thread reader = new Thread(() -> {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                for (String line = in.readLine(); line != null; line = in.readLine()) {
+                    output.append(line).append('\n');
+                    // logged by Bootstrap: the @WebListener was found in the annotation index.
+                    if (line.contains("Testapp Initialized")) {
+                        initialized.countDown();
+                    }
+                }
+            } catch (IOException e) {
+                output.append(e).append('\n');
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+        assertTrue(initialized.await(30, TimeUnit.SECONDS), output::toString);
+    }
+
+    @AfterAll
+    public static void stopNativeImage() throws Exception {
+        if (process != null) {
+            // Vaadin Boot quits on Enter
+            process.getOutputStream().write('\n');
+            process.getOutputStream().flush();
+            assertTrue(process.waitFor(10, TimeUnit.SECONDS), output::toString);
+        }
+    }
+
+    @Test
+    public void testAppIsUp() throws Exception {
+        final String response = wget("http://localhost:44313");
+        assertTrue(response.contains("window.Vaadin"), response);
+    }
+
+    @Test
+    public void testStaticFilesServedFromWebappFolder() throws Exception {
+        final String response = wget("http://localhost:44313/ROOT");
+        assertEquals("Don't delete this file; see Main.java for details.", response.trim());
+    }
+
+    /**
+     * The listener runs before the connector starts listening: retries until the server is up.
+     */
+    private static String wget(String url) throws Exception {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            try {
+                return TestUtils.wget(url);
+            } catch (IOException e) {
+                if (System.nanoTime() > deadline) {
+                    throw new IOException(e + "\n" + output, e);
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+plugins {
+    `java-library`
+}
+
+dependencies {
+    api(project(":common"))
+    implementation(libs.slf4j.api)
+    // the JUnit 5+ extension API
+    api(libs.junit.api)
+
+    testImplementation(libs.slf4j.simple)
+    // VaadinBootBase links the servlet filters; the web servers provide the servlet API at runtime.
+    testImplementation(libs.jakarta.servlet.api)
+    testImplementation(libs.junit)
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+@Suppress("UNCHECKED_CAST")
+val configureMavenCentral = ext["configureMavenCentral"] as (artifactId: String) -> Unit
+configureMavenCentral("vaadin-boot-junit")
@@ -0,0 +1,17 @@
+package com.github.mvysny.vaadinboot.junit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a <code>String</code> test method or constructor parameter which {@link VaadinBootExtension} fills in with the URL where
+ * the shared app is running, for example <code>http://localhost:39133</code>.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface ServerURL {
+}
@@ -0,0 +1,154 @@
+package com.github.mvysny.vaadinboot.junit;
+
+import com.github.mvysny.vaadinboot.common.VaadinBootBase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Consumer;
+
+/**
+ * Boots your app once per JVM, on an ephemeral port on localhost, and shares it with all test classes using this extension.
+ * The app is stopped when the JVM exits. Large test suites therefore pay the boot cost only once per test fork,
+ * and can run in parallel forks (Gradle <code>maxParallelForks</code>) since there are no port clashes.
+ * <br/>
+ * Works with both <code>vaadin-boot</code> and <code>vaadin-boot-tomcat</code>: the extension instantiates whichever
+ * <code>com.github.mvysny.vaadinboot.VaadinBoot</code> class is on the classpath. Use it as follows:
+ * <pre>
+ * &#64;ExtendWith(VaadinBootExtension.class)
+ * public class MyAppTest {
+ *     &#64;Test
+ *     public void appIsUp(&#64;ServerURL String url) throws Exception {
+ *         // ... e.g. wget(url)
+ *     }
+ * }
+ * </pre>
+ * Resolves test method and constructor parameters annotated with {@link ServerURL}, and parameters of type
+ * <code>VaadinBoot</code>/{@link VaadinBootBase}.
+ * <br/>
+ * To configure the app, register the extension via <code>&#64;RegisterExtension</code> and pass in a configurer. Only the
+ * first extension to boot the app gets to configure it; the configurer must therefore be the same across all test classes.
+ */
+public class VaadinBootExtension implements BeforeAllCallback, ParameterResolver {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(VaadinBootExtension.class);
+
+    /**
+     * Both <code>vaadin-boot</code> and <code>vaadin-boot-tomcat</code> offer the <code>VaadinBoot</code> class under this name.
+     */
+    @NotNull
+    private static final String VAADIN_BOOT_CLASS = "com.github.mvysny.vaadinboot.VaadinBoot";
+
+    /**
+     * The app shared by all tests in this JVM. Guarded by the {@link VaadinBootExtension} class lock.
+     */
+    @Nullable
+    private static VaadinBootBase<?> vaadinBoot = null;
+
+    /**
+     * Optionally configures the app before it is booted.
+     */
+    @Nullable
+    private final Consumer<? super VaadinBootBase<?>> configurer;
+
+    /**
+     * Creates the extension which boots the app with the default configuration.
+     */
+    public VaadinBootExtension() {
+        this(null);
+    }
+
+    /**
+     * Creates the extension.
+     * @param configurer optionally configures the app before it is booted. Called only if this extension boots the app.
+     */
+    public VaadinBootExtension(@Nullable Consumer<? super VaadinBootBase<?>> configurer) {
+        this.configurer = configurer;
+    }
+
+    @Override
+    public void beforeAll(@NotNull ExtensionContext context) throws Exception {
+        getVaadinBoot();
+    }
+
+    /**
+     * Returns the app shared by all tests in this JVM, booting it if need be.
+     * @return the running app, not null.
+     * @throws Exception if the app fails to start.
+     */
+    @NotNull
+    public VaadinBootBase<?> getVaadinBoot() throws Exception {
+        return boot(configurer);
+    }
+
+    /**
+     * Returns the URL where the shared app is running, for example <code>http://localhost:39133</code>. Boots the app if need be.
+     * @return the server URL, not null.
+     * @throws Exception if the app fails to start.
+     */
+    @NotNull
+    public String getServerURL() throws Exception {
+        return getVaadinBoot().getServerURL();
+    }
+
+    @NotNull
+    private static synchronized VaadinBootBase<?> boot(@Nullable Consumer<? super VaadinBootBase<?>> configurer) throws Exception {
+        if (vaadinBoot == null) {
+            final VaadinBootBase<?> boot = newVaadinBoot();
+            boot.setPort(0);
+            boot.setListenOn("localhost");
+            if (configurer != null) {
+                configurer.accept(boot);
+            }
+            boot.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> boot.stop("JVM is exiting, shutting down the shared app")));
+            log.info("Shared app is running at " + boot.getServerURL());
+            vaadinBoot = boot;
+        }
+        return vaadinBoot;
+    }
+
+    @NotNull
+    private static VaadinBootBase<?> newVaadinBoot() throws Exception {
+        final Class<?> clazz;
+        try {
+            clazz = Class.forName(VAADIN_BOOT_CLASS);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Invalid state: " + VAADIN_BOOT_CLASS + " is not on the classpath; please add either vaadin-boot or vaadin-boot-tomcat to your test classpath", e);
+        }
+        return (VaadinBootBase<?>) clazz.getConstructor().newInstance();
+    }
+
+    @Override
+    public boolean supportsParameter(@NotNull ParameterContext parameterContext, @NotNull ExtensionContext extensionContext) {
+        final Class<?> type = parameterContext.getParameter().getType();
+        if (parameterContext.isAnnotated(ServerURL.class)) {
+            return type == String.class;
+        }
+        return VaadinBootBase.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public Object resolveParameter(@NotNull ParameterContext parameterContext, @NotNull ExtensionContext extensionContext) {
+        final VaadinBootBase<?> boot;
+        try {
+            boot = getVaadinBoot();
+        } catch (Exception e) {
+            throw new ParameterResolutionException("Failed to boot the app", e);
+        }
+        if (parameterContext.isAnnotated(ServerURL.class)) {
+            return boot.getServerURL();
+        }
+        final Class<?> type = parameterContext.getParameter().getType();
+        if (!type.isInstance(boot)) {
+            throw new ParameterResolutionException("Parameter " + parameterContext.getParameter() + ": the app is " + boot.getClass().getName() + ", not " + type.getName());
+        }
+        return boot;
+    }
+}
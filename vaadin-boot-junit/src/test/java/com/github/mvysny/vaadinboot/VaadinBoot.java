@@ -0,0 +1,71 @@
+package com.github.mvysny.vaadinboot;
+
+import com.github.mvysny.vaadinboot.common.InMemoryConnector;
+import com.github.mvysny.vaadinboot.common.VaadinBootBase;
+import com.github.mvysny.vaadinboot.common.WebServer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+
+/**
+ * Stands in for the Jetty/Tomcat <code>VaadinBoot</code>: binds a plain server socket, which is enough to test the extension.
+ */
+public class VaadinBoot extends VaadinBootBase<VaadinBoot> {
+    public static int instancesStarted = 0;
+
+    public VaadinBoot() {
+        super(new SocketWebServer());
+    }
+
+    public static class SocketWebServer implements WebServer {
+        private VaadinBootBase<?> configuration;
+        private ServerSocket socket;
+
+        @Override
+        public void configure(@NotNull VaadinBootBase<?> configuration) {
+            this.configuration = configuration;
+        }
+
+        @Override
+        public synchronized void start() throws IOException {
+            socket = new ServerSocket(configuration.getPort(), 50, InetAddress.getLoopbackAddress());
+            instancesStarted++;
+        }
+
+        @Override
+        public synchronized void stop() throws IOException {
+            socket.close();
+        }
+
+        @Override
+        public void await() {
+        }
+
+        @Override
+        public @NotNull String getName() {
+            return "Socket";
+        }
+
+        @Override
+        public void restartWebApp() {
+            // no webapp to restart.
+        }
+
+        @Override
+        public synchronized int getLocalPort() {
+            return socket.getLocalPort();
+        }
+
+        @Override
+        public int getAdminLocalPort() {
+            throw new UnsupportedOperationException("Socket doesn't serve the admin endpoints");
+        }
+
+        @Override
+        public @NotNull InMemoryConnector getInMemoryConnector() {
+            throw new UnsupportedOperationException("Socket doesn't support the in-memory mode");
+        }
+    }
+}
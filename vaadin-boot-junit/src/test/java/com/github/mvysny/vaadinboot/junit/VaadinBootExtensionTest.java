@@ -0,0 +1,32 @@
+package com.github.mvysny.vaadinboot.junit;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import com.github.mvysny.vaadinboot.common.VaadinBootBase;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VaadinBootExtension.class)
+public class VaadinBootExtensionTest {
+    @Test
+    public void bootsOnEphemeralPort(@ServerURL String url, VaadinBoot boot) {
+        assertNotEquals(0, boot.getPort());
+        assertEquals("http://localhost:" + boot.getPort(), url);
+    }
+
+    @Test
+    public void resolvesVaadinBootBase(VaadinBootBase<?> boot, VaadinBoot boot2) {
+        assertSame(boot, boot2);
+    }
+
+    @Nested
+    @ExtendWith(VaadinBootExtension.class)
+    public class SharedAcrossTestClasses {
+        @Test
+        public void bootedOnlyOnce(VaadinBoot boot) {
+            assertEquals(1, VaadinBoot.instancesStarted);
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package com.github.mvysny.vaadinboot;
 
+import com.github.mvysny.vaadinboot.common.Env;
 import com.github.mvysny.vaadinboot.common.TomcatWebServer;
 import com.github.mvysny.vaadinboot.common.VaadinBootBase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Objects;
 
 /**
  * Bootstraps your Vaadin application from your main() function. Simply call
@@ -14,10 +21,155 @@ import com.github.mvysny.vaadinboot.common.VaadinBootBase;
  * listen on localhost.
  */
 public class VaadinBoot extends VaadinBootBase<VaadinBoot> {
+    /**
+     * The persistent Tomcat work directory. Defaults to <code>null</code> which causes Tomcat to use
+     * throw-away temp folders, deleted when the app stops.
+     * <br/>
+     * Can be configured via the <code>SERVER_TOMCAT_BASEDIR</code> environment variable, or <code>-Dserver.tomcat.basedir=</code> Java system property.
+     */
+    @Nullable
+    private File workDir = toFile(Env.getProperty("SERVER_TOMCAT_BASEDIR", "server.tomcat.basedir"));
+
+    /**
+     * The maximum size of the static resource cache, in kilobytes. Defaults to 10240 (10 MB), same as Tomcat.
+     */
+    private long resourceCacheMaxSizeKb = 10240;
+
+    /**
+     * How long the static resource cache entries are considered valid. Defaults to 5 seconds, same as Tomcat.
+     */
+    @NotNull
+    private Duration resourceCacheTtl = Duration.ofSeconds(5);
+
+    /**
+     * The size of the per-connection socket read and write buffers, in bytes. Defaults to <code>null</code>: Tomcat's default of 8192.
+     */
+    @Nullable
+    private Integer socketBufferSize = null;
+
+    @NotNull
+    private final TomcatWebServer webServer;
+
     /**
      * Creates new boot instance.
      */
     public VaadinBoot() {
-        super(new TomcatWebServer());
+        this(new TomcatWebServer());
+    }
+
+    private VaadinBoot(@NotNull TomcatWebServer webServer) {
+        super(webServer);
+        this.webServer = webServer;
+    }
+
+    @Nullable
+    private static File toFile(@Nullable String path) {
+        return path == null || path.isBlank() ? null : new File(path);
+    }
+
+    /**
+     * Uses a persistent work directory instead of throw-away temp folders. The work directory contains one
+     * subfolder per app version, keyed by a hash of the app jar contents; the <code>/webapp</code> folder is extracted
+     * there once and served from the folder, which is faster than inflating it from the jar over and over. Subfolders of older
+     * app versions are deleted at boot, unless still used by another running JVM.
+     * <br/>
+     * Use a dedicated folder for every app, since the folder may be cleaned up. Can also be configured via the
+     * <code>SERVER_TOMCAT_BASEDIR</code> environment variable, or <code>-Dserver.tomcat.basedir=</code> Java system property.
+     * @param workDir the work directory, created if it doesn't exist. Pass in <code>null</code> to use temp folders (the default).
+     * @return this
+     */
+    @NotNull
+    public VaadinBoot workDir(@Nullable File workDir) {
+        this.workDir = workDir;
+        return this;
+    }
+
+    /**
+     * See {@link #workDir(File)}.
+     * @return the persistent Tomcat work directory; <code>null</code> if Tomcat uses throw-away temp folders.
+     */
+    @Nullable
+    public File getWorkDir() {
+        return workDir;
+    }
+
+    /**
+     * Sets the maximum size of Tomcat's static resource cache.
+     * @param resourceCacheMaxSizeKb the maximum size in kilobytes. Defaults to 10240 (10 MB).
+     * @return this
+     */
+    @NotNull
+    public VaadinBoot resourceCacheMaxSizeKb(long resourceCacheMaxSizeKb) {
+        if (resourceCacheMaxSizeKb <= 0) {
+            throw new IllegalArgumentException("Parameter resourceCacheMaxSizeKb: invalid value " + resourceCacheMaxSizeKb + ": must be positive");
+        }
+        this.resourceCacheMaxSizeKb = resourceCacheMaxSizeKb;
+        return this;
+    }
+
+    /**
+     * See {@link #resourceCacheMaxSizeKb(long)}.
+     * @return the maximum size of Tomcat's static resource cache, in kilobytes.
+     */
+    public long getResourceCacheMaxSizeKb() {
+        return resourceCacheMaxSizeKb;
+    }
+
+    /**
+     * Sets how long Tomcat's static resource cache entries are considered valid, before checking whether the resource has changed.
+     * With the <code>/webapp</code> folder served from a jar or from an extracted folder (see {@link #workDir(File)}),
+     * the resources never change and the TTL can be increased safely.
+     * @param resourceCacheTtl the TTL. Defaults to 5 seconds.
+     * @return this
+     */
+    @NotNull
+    public VaadinBoot resourceCacheTtl(@NotNull Duration resourceCacheTtl) {
+        this.resourceCacheTtl = Objects.requireNonNull(resourceCacheTtl);
+        return this;
+    }
+
+    /**
+     * See {@link #resourceCacheTtl(Duration)}.
+     * @return how long Tomcat's static resource cache entries are considered valid.
+     */
+    @NotNull
+    public Duration getResourceCacheTtl() {
+        return resourceCacheTtl;
+    }
+
+    /**
+     * Sets the size of the socket read and write buffers which Tomcat allocates for every connection and keeps for
+     * the whole lifetime of the connection. Every open push WebSocket connection therefore holds both buffers, even when idle;
+     * smaller buffers reduce the memory footprint of many mostly idle push connections, at the cost of more socket
+     * reads and writes for large requests and responses.
+     * @param socketBufferSize the buffer size in bytes, 1024 or greater; <code>null</code> to use Tomcat's default of 8192.
+     * @return this
+     */
+    @NotNull
+    public VaadinBoot socketBufferSize(@Nullable Integer socketBufferSize) {
+        if (socketBufferSize != null && socketBufferSize < 1024) {
+            throw new IllegalArgumentException("Parameter socketBufferSize: invalid value " + socketBufferSize + ": must be 1024 or greater");
+        }
+        this.socketBufferSize = socketBufferSize;
+        return this;
+    }
+
+    /**
+     * See {@link #socketBufferSize(Integer)}.
+     * @return the size of the per-connection socket buffers, in bytes; <code>null</code> if Tomcat's default is used.
+     */
+    @Nullable
+    public Integer getSocketBufferSize() {
+        return socketBufferSize;
+    }
+
+    /**
+     * Returns the statistics of Tomcat's static resource cache; use them to tune {@link #resourceCacheMaxSizeKb(long)}
+     * and {@link #resourceCacheTtl(Duration)}. The statistics are also logged when the app stops.
+     * @return the statistics, or null if the app isn't running.
+     */
+    @Nullable
+    public TomcatWebServer.ResourceCacheStatistics getResourceCacheStatistics() {
+        return webServer.getResourceCacheStatistics();
     }
 }
@@ -0,0 +1,53 @@
+package com.github.mvysny.vaadinboot.common;
+
+import jakarta.servlet.ServletException;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.valves.ValveBase;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Passes the completed requests to the asynchronous {@link AccessLog}. Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * Replaces Tomcat's own access log valve, which formats the entries and writes them to the file on the request thread.
+ */
+public final class AccessLogValve extends ValveBase implements org.apache.catalina.AccessLog {
+    @NotNull
+    private final AccessLog accessLog;
+    private boolean requestAttributesEnabled = false;
+
+    /**
+     * Creates the valve.
+     * @param accessLog the access log to pass the requests to.
+     */
+    public AccessLogValve(@NotNull AccessLog accessLog) {
+        super(true);
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    public void invoke(Request request, Response response) throws IOException, ServletException {
+        getNext().invoke(request, response);
+    }
+
+    @Override
+    public void log(Request request, Response response, long time) {
+        // the attributes are set by RemoteIpValve, when the app runs behind a proxy.
+        final Object remoteAddress = requestAttributesEnabled ? request.getAttribute(REMOTE_ADDR_ATTRIBUTE) : null;
+        accessLog.log(remoteAddress != null ? remoteAddress.toString() : request.getRemoteAddr(), request.getMethod(),
+                request.getRequestURI(), request.getQueryString(), request.getProtocol(), response.getStatus(),
+                response.getBytesWritten(false), time, request.getHeader("User-Agent"));
+    }
+
+    @Override
+    public void setRequestAttributesEnabled(boolean requestAttributesEnabled) {
+        this.requestAttributesEnabled = requestAttributesEnabled;
+    }
+
+    @Override
+    public boolean getRequestAttributesEnabled() {
+        return requestAttributesEnabled;
+    }
+}
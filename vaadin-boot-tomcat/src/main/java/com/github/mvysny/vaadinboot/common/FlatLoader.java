@@ -0,0 +1,71 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.Loader;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.beans.PropertyChangeListener;
+
+/**
+ * Runs the web app on the context's parent classloader, the application classloader, rather than on a webapp classloader of
+ * its own, see {@link VaadinBootBase#flatClassLoader(boolean)}. Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * Unlike Tomcat's <code>WebappLoader</code>, the loader isn't a {@link org.apache.catalina.Lifecycle}: there's no classloader
+ * to create on start nor to close on stop, and the classes are never reloaded.
+ */
+public final class FlatLoader implements Loader {
+    @Nullable
+    private Context context;
+
+    @Override
+    public void backgroundProcess() {
+    }
+
+    @Override
+    @NotNull
+    public ClassLoader getClassLoader() {
+        return Util.checkNotNull(context, "the loader isn't attached to a context").getParentClassLoader();
+    }
+
+    @Override
+    @Nullable
+    public Context getContext() {
+        return context;
+    }
+
+    @Override
+    public void setContext(@Nullable Context context) {
+        this.context = context;
+    }
+
+    /**
+     * There's just one classloader, which always loads the classes itself.
+     * @return always true.
+     */
+    @Override
+    public boolean getDelegate() {
+        return true;
+    }
+
+    @Override
+    public void setDelegate(boolean delegate) {
+        if (!delegate) {
+            throw new IllegalArgumentException("Parameter delegate: invalid value false: the flat loader always delegates");
+        }
+    }
+
+    // none of the properties ever change.
+    @Override
+    public void addPropertyChangeListener(@NotNull PropertyChangeListener listener) {
+    }
+
+    @Override
+    public boolean modified() {
+        return false;
+    }
+
+    @Override
+    public void removePropertyChangeListener(@NotNull PropertyChangeListener listener) {
+    }
+}
@@ -1,22 +1,55 @@
 package com.github.mvysny.vaadinboot.common;
 
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.Filter;
+import org.apache.catalina.Container;
 import org.apache.catalina.Context;
+import org.apache.catalina.Lifecycle;
 import org.apache.catalina.WebResourceRoot;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.Service;
+import org.apache.catalina.Session;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.core.StandardContext;
+import org.apache.catalina.core.StandardEngine;
+import org.apache.catalina.core.StandardHost;
+import org.apache.catalina.core.StandardService;
+import org.apache.catalina.core.StandardThreadExecutor;
 import org.apache.catalina.loader.WebappLoader;
+import org.apache.catalina.startup.Constants;
+import org.apache.catalina.startup.ContextConfig;
 import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.util.SessionConfig;
 import org.apache.catalina.webresources.DirResourceSet;
 import org.apache.catalina.webresources.JarResourceSet;
 import org.apache.catalina.webresources.StandardRoot;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+import org.apache.tomcat.util.modeler.Registry;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.HttpCookie;
+import java.net.InetAddress;
+import java.net.Socket;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 /**
  * Wraps a Tomcat web server:
@@ -44,6 +77,26 @@ public class TomcatWebServer implements WebServer {
      * Cached outcome of {@link Env#findWebRoot()}.
      */
     protected volatile URL webRoot;
+    /**
+     * The <code>/webapp</code> folder extracted from {@link #resourcesJarOrFolder} by {@link Env#extractWebRoot(File)}.
+     * Null if {@link VaadinBootBase#isExtractWebRoot()} is false or the <code>/webapp</code> folder is served from a folder already.
+     */
+    @Nullable
+    protected volatile File extractedWebRoot;
+    /**
+     * The persistent work directory; null if {@link VaadinBoot#getWorkDir()} is null.
+     */
+    @Nullable
+    private volatile TomcatWorkDir workDir;
+    /**
+     * The Tomcat docBase folder. Always empty, see {@link #createWebAppContext(VaadinBootBase)}.
+     */
+    protected volatile File docBase;
+    /**
+     * Temp folders to delete when Tomcat stops. Only used if {@link VaadinBoot#getWorkDir()} is null.
+     */
+    @NotNull
+    private final List<File> tempFolders = new ArrayList<>();
 
     /**
      * Creates a new instance of the wrapper. Only {@link com.github.mvysny.vaadinboot.VaadinBoot} is expected to call this.
@@ -72,35 +125,202 @@ public class TomcatWebServer implements WebServer {
 
     @Override
     public void configure(@NotNull VaadinBootBase<?> configuration) throws Exception {
+        final VaadinBoot cfg = (VaadinBoot) configuration;
         webRoot = Env.findWebRoot();
         resourcesJarOrFolder = Env.findResourcesJarOrFolder(webRoot);
 
+        final File basedir;
+        if (cfg.getWorkDir() != null) {
+            final TomcatWorkDir workDir = TomcatWorkDir.open(cfg.getWorkDir(), resourcesJarOrFolder);
+            this.workDir = workDir;
+            basedir = workDir.getBaseDir();
+            docBase = workDir.getDocBase();
+            extractedWebRoot = resourcesJarOrFolder.isFile() ? workDir.extractWebRoot(resourcesJarOrFolder) : null;
+        } else {
+            basedir = createTempFolder("tomcat-" + configuration.getPort());
+            // Tomcat wants to serve static files from a folder, but we need to serve static files from classpath.
+            // Pass in an empty folder here - we'll configure the static file serving later on.
+            docBase = createTempFolder("tomcat-" + configuration.getPort() + "-docbase");
+            extractedWebRoot = configuration.isExtractWebRoot() && resourcesJarOrFolder.isFile() ? Env.extractWebRoot(resourcesJarOrFolder) : null;
+        }
+
         server = new Tomcat();
         // first thing we need to do is to configure the basedir: if the basedir is configured
         // after connector is created, the setting will be ignored.
-        final File basedir = Files.createTempDirectory("tomcat-" + configuration.getPort()).toFile().getAbsoluteFile();
         server.setBaseDir(basedir.getAbsolutePath());
         log.debug("Tomcat basedir configured to " + basedir);
-        server.setPort(configuration.getPort());
-        server.setHostname(configuration.getListenOn() == null ? "0.0.0.0" : configuration.getListenOn());
+        if (configuration.isInMemory()) {
+            // Tomcat has no in-memory connector; the closest equivalent is an ephemeral port on the loopback interface,
+            // which never clashes with other servers running in parallel.
+            server.setPort(0);
+            server.setHostname(InetAddress.getLoopbackAddress().getHostAddress());
+        } else {
+            server.setPort(configuration.getPort());
+            server.setHostname(configuration.getListenOn() == null ? "0.0.0.0" : configuration.getListenOn());
+        }
         server.getConnector(); // make sure the Connector is created so that Tomcat listens for http on 8080
         server.getConnector().setThrowOnFailure(true); // otherwise Tomcat would continue initializing even if 8080 was occupied.
+        // the NIO connector enables sendfile by default; be explicit since the zero-copy static file serving depends on it.
+        server.getConnector().setProperty("useSendfile", "true");
+        configureCompression(server.getConnector(), configuration);
+        if (configuration.getHttpPreset() != null) {
+            applyHttpPreset(server.getConnector(), configuration.getHttpPreset(), cfg);
+        }
+        configureThreads(server.getConnector(), configuration);
+        if (cfg.getSocketBufferSize() != null) {
+            server.getConnector().setProperty("socket.appReadBufSize", "" + cfg.getSocketBufferSize());
+            server.getConnector().setProperty("socket.appWriteBufSize", "" + cfg.getSocketBufferSize());
+        }
         log.debug("Tomcat Connector created");
 
         context = createWebAppContext(configuration);
         log.debug("Tomcat Context created");
+        if (configuration.getAdminPort() != null) {
+            configureAdminService(configuration);
+        }
+    }
+
+    /**
+     * The connector serving the admin endpoints, see {@link VaadinBootBase#adminPort(Integer)}; null if the admin endpoints aren't served.
+     */
+    private volatile Connector adminConnector;
+
+    /**
+     * Adds a separate Tomcat {@link Service} serving the admin endpoints, see {@link VaadinBootBase#adminPort(Integer)}.
+     * The service has its own connector with its own small thread pool of platform threads, and its own engine with a single
+     * context without sessions, serving just the {@link AdminServlet}: the app's context can't be reached from it.
+     * @param configuration the configuration.
+     */
+    protected void configureAdminService(@NotNull VaadinBootBase<?> configuration) {
+        final StandardService service = new StandardService();
+        service.setName("vaadin-boot-admin");
+        final StandardThreadExecutor executor = new StandardThreadExecutor();
+        executor.setName("vaadin-boot-admin-executor");
+        executor.setNamePrefix("vaadin-boot-admin-");
+        executor.setMaxThreads(configuration.getAdminThreads());
+        executor.setMinSpareThreads(1);
+        service.addExecutor(executor);
+
+        adminConnector = new Connector();
+        adminConnector.setPort(Objects.requireNonNull(configuration.getAdminPort()));
+        if (configuration.getAdminListenOn() != null) {
+            adminConnector.setProperty("address", configuration.getAdminListenOn());
+        }
+        adminConnector.setThrowOnFailure(true);
+        adminConnector.getProtocolHandler().setExecutor(executor);
+        service.addConnector(adminConnector);
+
+        // the engine name must differ from the app's engine, otherwise their JMX names would clash.
+        final StandardEngine engine = new StandardEngine();
+        engine.setName("vaadin-boot-admin");
+        engine.setDefaultHost("localhost");
+        service.setContainer(engine);
+        final StandardHost host = new StandardHost();
+        host.setName("localhost");
+        engine.addChild(host);
+        final StandardContext adminContext = new StandardContext();
+        adminContext.setName("");
+        adminContext.setPath("");
+        adminContext.setCookies(false);
+        adminContext.addLifecycleListener(new Tomcat.FixContextListener());
+        host.addChild(adminContext);
+        Tomcat.addServlet(adminContext, "admin", new AdminServlet(configuration));
+        adminContext.addServletMappingDecoded("/", "admin");
+
+        server.getServer().addService(service);
+        log.debug("Tomcat admin Service created");
     }
 
     @Override
     public void start() throws Exception {
         server.start();
+        if (adminConnector != null) {
+            log.info("Admin endpoints listening on port " + adminConnector.getLocalPort());
+        }
+    }
+
+    @Override
+    public void restartWebApp() {
+        // stops the context, discards its WebappClassLoader and starts it again with a fresh one.
+        getContext().reload();
+    }
+
+    @Override
+    public void initServlets() throws Exception {
+        for (Container child : getContext().findChildren()) {
+            if (child instanceof Wrapper wrapper) {
+                // does nothing if the servlet has been initialized already.
+                wrapper.load();
+            }
+        }
+    }
+
+    @Override
+    public void invalidateSession(@NotNull List<HttpCookie> cookies) throws IOException {
+        final Context ctx = getContext();
+        final String sessionCookieName = SessionConfig.getSessionCookieName(ctx);
+        for (HttpCookie cookie : cookies) {
+            if (cookie.getName().equals(sessionCookieName)) {
+                final Session session = ctx.getManager().findSession(cookie.getValue());
+                if (session != null) {
+                    session.expire();
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private File createTempFolder(@NotNull String prefix) throws IOException {
+        final File folder = Files.createTempDirectory(prefix).toFile().getAbsoluteFile();
+        synchronized (tempFolders) {
+            tempFolders.add(folder);
+        }
+        return folder;
     }
 
     @Override
     public void stop() throws Exception {
-        context = null;
-        server.stop();
-        server = null;
+        try {
+            final ResourceCacheStatistics statistics = getResourceCacheStatistics();
+            if (statistics != null) {
+                log.info("Static resource cache: " + statistics);
+            }
+            context = null;
+            adminConnector = null;
+            server.stop();
+            server.destroy();
+            server = null;
+        } finally {
+            cleanupFolders();
+        }
+    }
+
+    private void cleanupFolders() throws IOException {
+        final TomcatWorkDir workDir = this.workDir;
+        if (workDir != null) {
+            forgetBaseDir(workDir.getBaseDir());
+            workDir.close();
+            this.workDir = null;
+        }
+        synchronized (tempFolders) {
+            for (File tempFolder : tempFolders) {
+                Util.deleteRecursively(tempFolder.toPath());
+                forgetBaseDir(tempFolder);
+            }
+            tempFolders.clear();
+        }
+    }
+
+    /**
+     * Tomcat remembers the first basedir as catalina.home/catalina.base, and the next Tomcat in this JVM would recreate it.
+     * @param folder the basedir being deleted.
+     */
+    private static void forgetBaseDir(@NotNull File folder) throws IOException {
+        for (String property : List.of("catalina.base", "catalina.home")) {
+            if (folder.getCanonicalPath().equals(System.getProperty(property))) {
+                System.clearProperty(property);
+            }
+        }
     }
 
     @Override
@@ -113,6 +333,82 @@ public class TomcatWebServer implements WebServer {
         return "Tomcat";
     }
 
+    @Override
+    public int getLocalPort() {
+        return getServer().getConnector().getLocalPort();
+    }
+
+    @Override
+    public int getAdminLocalPort() {
+        return Util.checkNotNull(adminConnector, "not configured to serve the admin endpoints").getLocalPort();
+    }
+
+    /**
+     * Statistics of Tomcat's static resource cache. Tomcat looks up all static resources through the cache,
+     * including the ones served by Vaadin.
+     * @param lookupCount the number of resource lookups.
+     * @param hitCount the number of resource lookups served from the cache.
+     * @param sizeKb the current cache size, in kilobytes.
+     */
+    public record ResourceCacheStatistics(long lookupCount, long hitCount, long sizeKb) {
+        /**
+         * The cache hit ratio.
+         * @return 0..1; 0 if there were no lookups yet.
+         */
+        public double hitRatio() {
+            return lookupCount == 0 ? 0 : (double) hitCount / lookupCount;
+        }
+
+        @Override
+        public String toString() {
+            return hitCount + " hits out of " + lookupCount + " lookups (" + Math.round(hitRatio() * 100) + "%), size " + sizeKb + " kB";
+        }
+    }
+
+    /**
+     * Returns the statistics of Tomcat's static resource cache. Tomcat only exposes them via JMX.
+     * @return the statistics, or null if Tomcat isn't running or the statistics aren't available.
+     */
+    @Nullable
+    public ResourceCacheStatistics getResourceCacheStatistics() {
+        final Context context = this.context;
+        if (context == null || !(context.getResources() instanceof StandardRoot root) || root.getObjectName() == null) {
+            return null;
+        }
+        try {
+            final MBeanServer mbeanServer = Registry.getRegistry(null).getMBeanServer();
+            final ObjectName cache = new ObjectName(root.getObjectName() + ",name=Cache");
+            return new ResourceCacheStatistics((Long) mbeanServer.getAttribute(cache, "lookupCount"),
+                    (Long) mbeanServer.getAttribute(cache, "hitCount"),
+                    (Long) mbeanServer.getAttribute(cache, "size"));
+        } catch (JMException e) {
+            log.debug("Failed to retrieve resource cache statistics: " + e, e);
+            return null;
+        }
+    }
+
+    /**
+     * Tomcat has no in-memory connector: in the in-memory mode Tomcat listens on an ephemeral port
+     * on the loopback interface, and the requests are sent over a plain socket.
+     * @return the connector, not null.
+     */
+    @Override
+    public @NotNull InMemoryConnector getInMemoryConnector() {
+        final int port = getLocalPort();
+        return rawRequest -> sendRawRequest(port, rawRequest);
+    }
+
+    @NotNull
+    private static String sendRawRequest(int port, @NotNull String rawRequest) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setSoTimeout(10_000);
+            socket.getOutputStream().write(rawRequest.getBytes(StandardCharsets.UTF_8));
+            // half-close: Tomcat responds and then closes the connection, so that we can simply read until EOF.
+            socket.shutdownOutput();
+            return new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
     /**
      * Creates the Tomcat {@link Context}.
      * @param configuration the configuration to pass on to Tomcat.
@@ -125,34 +421,433 @@ public class TomcatWebServer implements WebServer {
         if (contextRoot.equals("/")) {
             contextRoot = "";
         }
-        // Create an empty folder. Tomcat wants to serve static files from a folder,
-        // but we need to serve static files from classpath. Pass in an empty folder here -
-        // we'll configure the static file serving later on.
-        final String docBase = Files.createTempDirectory("tomcat-" + configuration.getPort() + "-docbase").toFile().getAbsolutePath();
-
-        final Context ctx = server.addWebapp(contextRoot, docBase);
+        final Context ctx;
+        if (configuration.isMinimalContainer()) {
+            ctx = createMinimalContext(contextRoot);
+        } else {
+            ctx = server.addWebapp(contextRoot, docBase.getAbsolutePath());
+        }
+        // Tomcat would default to the system classloader, which doesn't necessarily see Tomcat and Vaadin, e.g. when
+        // Vaadin Boot itself runs in a classloader of its own.
+        ctx.setParentClassLoader(TomcatWebServer.class.getClassLoader());
 
-        // in embedded mode there's just one webapp, and in that case the standard JVM class loading
-        // makes more sense. Probably also improves JVM class hotswap.
-        ctx.setLoader(new WebappLoader());
-        ctx.getLoader().setDelegate(true);
+        if (configuration.isFlatClassLoader()) {
+            if (configuration.isRestartOnClassChange()) {
+                throw new IllegalStateException("Invalid state: flatClassLoader can't be combined with restartOnClassChange");
+            }
+            ctx.setLoader(new FlatLoader());
+            log.info("Tomcat running the app on the application classloader, without a webapp classloader");
+        } else {
+            // in embedded mode there's just one webapp, and in that case the standard JVM class loading
+            // makes more sense. Probably also improves JVM class hotswap.
+            ctx.setLoader(new WebappLoader());
+            // When restarting on class change, load the app's classes child-first from WEB-INF/classes (see enableClasspathScanning()),
+            // so that a reload loads them anew in a fresh classloader. The dependency jars stay loaded in the parent classloader.
+            ctx.getLoader().setDelegate(!configuration.isRestartOnClassChange());
+        }
 
-        final WebResourceRoot root = new StandardRoot(ctx);
+        final StandardRoot root = new StandardRoot(ctx);
+        final VaadinBoot cfg = (VaadinBoot) configuration;
+        root.setCacheMaxSize(cfg.getResourceCacheMaxSizeKb());
+        root.setCacheTtl(cfg.getResourceCacheTtl().toMillis());
         // configure static file serving here.
         addStaticWebapp(root);
         enableClasspathScanning(root);
         ctx.setResources(root);
         registerVaadinServletDeployer(ctx);
+        configureWebSocket(ctx, configuration);
+        registerZeroCopyStaticServlet(ctx, configuration);
+        registerPinningReport(ctx, configuration);
+        registerReadinessCheck(ctx, configuration);
+        // the rate limiter rejects the requests before the other filters.
+        registerRateLimiter(ctx, configuration);
+        // the watchdog goes first, so that it measures the other filters as well.
+        registerSlowRequestWatchdog(ctx, configuration);
+        registerSessionLockProfiler(ctx, configuration);
+        registerRequestInflaterFilter(ctx, configuration);
+        // after the inflater, so that the queued requests are resumed with the inflated body.
+        registerSessionSerialDispatcher(ctx, configuration);
+        // behind the dispatcher, so that the requests waiting in their session's queue hold no slot.
+        registerConcurrencyLimiter(ctx, configuration);
+        configurePush(ctx, configuration);
+        final AccessLog accessLog = configuration.getAccessLog();
+        if (accessLog != null) {
+            ctx.getPipeline().addValve(new AccessLogValve(accessLog));
+        }
         return ctx;
     }
 
+    /**
+     * Matches Jasper's ServletContainerInitializer which initializes the JSP support and scans the jars for the TLDs.
+     */
+    @NotNull
+    private static final String JSP_INITIALIZER = "org\\.apache\\.jasper\\.servlet\\.JasperInitializer";
+
+    /**
+     * Creates the context of a minimal container, see {@link VaadinBootBase#minimalContainer(boolean)}: no default <code>web.xml</code>,
+     * and therefore no DefaultServlet, no JspServlet and no welcome files, and no Jasper initializer. Only the MIME type mappings
+     * and the session timeout of the default <code>web.xml</code> are kept: Vaadin serves the static files with the MIME type
+     * of the servlet context.
+     * @param contextRoot the context root, empty for the root context.
+     * @return the context, not null.
+     */
+    @NotNull
+    private Context createMinimalContext(@NotNull String contextRoot) {
+        server.setAddDefaultWebXmlToWebapp(false);
+        final ContextConfig contextConfig = new ContextConfig();
+        contextConfig.setDefaultWebXml(Constants.NoDefaultWebXml);
+        final Context ctx = server.addWebapp(server.getHost(), contextRoot, docBase.getAbsolutePath(), contextConfig);
+        Tomcat.addDefaultMimeTypeMappings(ctx);
+        ctx.setSessionTimeout(30);
+        addContainerSciFilter(ctx, JSP_INITIALIZER);
+        log.info("Tomcat minimal container: no default web.xml, no DefaultServlet, JspServlet and Jasper initializer");
+        return ctx;
+    }
+
+    /**
+     * Excludes the ServletContainerInitializers matching given regex, in addition to those excluded already.
+     * @param ctx the Tomcat context.
+     * @param regex the class name regex.
+     */
+    private static void addContainerSciFilter(@NotNull Context ctx, @NotNull String regex) {
+        final String filter = ctx.getContainerSciFilter();
+        ctx.setContainerSciFilter(filter == null || filter.isEmpty() ? regex : filter + "|" + regex);
+    }
+
+    /**
+     * Configures the connector to compress responses, see {@link VaadinBootBase#isCompression()}. Tomcat only supports
+     * gzip, at the default compression level.
+     * <br/>
+     * Note that files sent via sendfile (see {@link VaadinBootBase#getZeroCopyStaticPaths()}) are never compressed.
+     * @param connector the connector to configure.
+     * @param configuration the configuration.
+     */
+    protected void configureCompression(@NotNull Connector connector, @NotNull VaadinBootBase<?> configuration) {
+        if (!configuration.isCompression()) {
+            return;
+        }
+        connector.setProperty("compression", "on");
+        connector.setProperty("compressionMinSize", "" + configuration.getCompressionMinSize());
+        connector.setProperty("compressibleMimeType", String.join(",", configuration.getCompressionMimeTypes()));
+        if (configuration.getCompressionLevel() != -1) {
+            log.warn("Tomcat doesn't support configuring the compression level, ignoring compressionLevel " + configuration.getCompressionLevel());
+        }
+        log.info("Tomcat compression enabled: [gzip]");
+    }
+
+    /**
+     * Translates given preset into the connector attributes, see {@link VaadinBootBase#httpPreset(HttpPreset)}. Tomcat
+     * has no equivalent of the output aggregation size and the header cache size; the output buffer size maps to the socket
+     * write buffer, unless {@link VaadinBoot#socketBufferSize(Integer)} is configured explicitly. The preset's spare threads
+     * are applied by {@link #configureThreads(Connector, VaadinBootBase)}.
+     * @param connector the connector to configure.
+     * @param preset the preset.
+     * @param cfg the configuration.
+     */
+    protected void applyHttpPreset(@NotNull Connector connector, @NotNull HttpPreset preset, @NotNull VaadinBoot cfg) {
+        final Map<String, String> attributes = new LinkedHashMap<>();
+        if (cfg.getSocketBufferSize() == null) {
+            attributes.put("socket.appWriteBufSize", "" + preset.getOutputBufferSize());
+        }
+        attributes.put("maxHttpRequestHeaderSize", "" + preset.getRequestHeaderSize());
+        attributes.put("maxHttpResponseHeaderSize", "" + preset.getResponseHeaderSize());
+        attributes.put("keepAliveTimeout", "" + preset.getIdleTimeout().toMillis());
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            if (!connector.setProperty(attribute.getKey(), attribute.getValue())) {
+                log.warn("Tomcat connector doesn't support " + attribute.getKey() + ", ignoring");
+            }
+        }
+        log.info("Tomcat HTTP preset " + preset + " applied: " + attributes);
+    }
+
+    /**
+     * Bounds the connector's thread pool by {@link VaadinBootBase#getMinThreads()} and {@link VaadinBootBase#getMaxThreads()}.
+     * Tomcat's NIO connector always uses a single acceptor and a single poller thread: {@link VaadinBootBase#getAcceptors()}
+     * and {@link VaadinBootBase#getSelectors()} don't apply.
+     * @param connector the connector to configure.
+     * @param configuration the configuration.
+     */
+    protected void configureThreads(@NotNull Connector connector, @NotNull VaadinBootBase<?> configuration) {
+        connector.setProperty("maxThreads", "" + configuration.getMaxThreads());
+        connector.setProperty("minSpareThreads", "" + configuration.getMinThreads());
+        log.info("Tomcat threads: minSpareThreads=" + configuration.getMinThreads() + ", maxThreads=" + configuration.getMaxThreads());
+    }
+
+    /**
+     * Name of the filter inflating compressed request bodies.
+     */
+    @NotNull
+    private static final String REQUEST_INFLATER_FILTER = "vaadin-boot-request-inflater";
+
+    /**
+     * Tomcat can't inflate compressed request bodies natively; registers {@link RequestInflaterFilter} if
+     * {@link VaadinBootBase#isInflateRequestBodies()} is enabled.
+     * @param ctx the Tomcat context to register the filter to.
+     * @param configuration the configuration.
+     */
+    protected void registerRequestInflaterFilter(@NotNull Context ctx, @NotNull VaadinBootBase<?> configuration) {
+        if (!configuration.isInflateRequestBodies()) {
+            return;
+        }
+        addFilter(ctx, REQUEST_INFLATER_FILTER, new RequestInflaterFilter(configuration.getInflatedRequestMaxSize()));
+        log.info("Tomcat inflates compressed request bodies up to " + configuration.getInflatedRequestMaxSize() + " bytes");
+    }
+
+    /**
+     * Name of the slow request watchdog filter.
+     */
+    @NotNull
+    private static final String SLOW_REQUEST_WATCHDOG_FILTER = "vaadin-boot-slow-request-watchdog";
+
+    /**
+     * Registers the slow request watchdog, see {@link VaadinBootBase#slowRequestThreshold(java.time.Duration)}. The filter
+     * is mapped to the <code>ASYNC</code> dispatches as well, in order to watch the requests resumed by the {@link SessionSerialDispatcher}.
+     * @param ctx the context.
+     * @param configuration the configuration.
+     */
+    protected void registerSlowRequestWatchdog(@NotNull Context ctx, @NotNull VaadinBootBase<?> configuration) {
+        final SlowRequestWatchdog watchdog = configuration.getSlowRequestWatchdog();
+        if (watchdog == null) {
+            return;
+        }
+        addFilter(ctx, SLOW_REQUEST_WATCHDOG_FILTER, watchdog, "/*", DispatcherType.REQUEST, DispatcherType.ASYNC);
+        log.info("Watching for requests slower than " + configuration.getSlowRequestThreshold());
+    }
+
+    /**
+     * Name of the session lock profiler filter.
+     */
+    @NotNull
+    private static final String SESSION_LOCK_PROFILER_FILTER = "vaadin-boot-session-lock-profiler";
+
+    /**
+     * Registers the session lock profiler, see {@link VaadinBootBase#sessionLockProfiling(boolean)}. The filter is mapped
+     * to the <code>ASYNC</code> dispatches as well, in order to profile the requests resumed by the {@link SessionSerialDispatcher}.
+     * @param ctx the context.
+     * @param configuration the configuration.
+     */
+    protected void registerSessionLockProfiler(@NotNull Context ctx, @NotNull VaadinBootBase<?> configuration) {
+        final SessionLockProfiler profiler = configuration.getSessionLockProfiler();
+        if (profiler == null) {
+            return;
+        }
+        addFilter(ctx, SESSION_LOCK_PROFILER_FILTER, profiler, "/*", DispatcherType.REQUEST, DispatcherType.ASYNC);
+        log.info("Profiling the VaadinSession lock");
+    }
+
+    /**
+     * Name of the session serial dispatcher filter.
+     */
+    @NotNull
+    private static final String SESSION_SERIAL_DISPATCHER_FILTER = "vaadin-boot-session-serial-dispatcher";
+
+    /**
+     * Registers the session serial dispatcher, see {@link VaadinBootBase#sessionSerialDispatch(boolean)}. The filter
+     * is mapped to the <code>ASYNC</code> dispatches as well, in order to serve the resumed requests.
+     * @param ctx the context.
+     * @param configuration the configuration.
+     */
+    protected void registerSessionSerialDispatcher(@NotNull Context ctx, @NotNull VaadinBootBase<?> configuration) {
+        final SessionSerialDispatcher dispatcher = configuration.getSessionSerialDispatcher();
+        if (dispatcher == null) {
+            return;
+        }
+        addFilter(ctx, SESSION_SERIAL_DISPATCHER_FILTER, dispatcher, "/*", DispatcherType.REQUEST, DispatcherType.ASYNC);
+        log.info("Serving the Vaadin requests of a session one at a time");
+    }
+
+    /**
+     * Name of the filter serving the pinning report.
+     */
+    @NotNull
+    private static final String PINNING_REPORT_FILTER = "vaadin-boot-pinning-report";
+
+    /**
+     * Serves the virtual thread pinning report, see {@link VaadinBootBase#pinningReportPath(String)}. Tomcat serves the
+     * requests from platform threads, so the monitor only sees the virtual threads started by the app itself; a warning is logged.
+     * @param ctx the context.
+     * @param configuration the configuration.
+     */
+    protected void registerPinningReport(@NotNull Context ctx, @NotNull VaadinBootBase<?> configuration) {
+        final PinningMonitor pinningMonitor = configuration.getPinningMonitor();
+        if (pinningMonitor == null) {
+            return;
+        }
+        log.warn("Tomcat serves the requests from platform threads: the pinning monitor only sees the virtual threads started by the app itself");
+        if (configuration.getPinningReportPath() == null) {
+            return;
+        }
+        addFilter(ctx, PINNING_REPORT_FILTER, pinningMonitor, configuration.getPinningReportPath());
+        log.info("Serving the virtual thread pinning report at " + configuration.getPinningReportPath());
+    }
+
+    /**
+     * Name of the filter serving the readiness.
+     */
+    @NotNull
+    private static final String READINESS_CHECK_FILTER = "vaadin-boot-readiness-check";
+
+    /**
+     * Serves the readiness of the app, see {@link VaadinBootBase#readinessPath(String)}.
+     * @param ctx the context.
+     * @param configuration the configuration.
+     */
+    protected void registerReadinessCheck(@NotNull Context ctx, @NotNull VaadinBootBase<?> configuration) {
+        final ReadinessCheck readinessCheck = configuration.getReadinessCheck();
+        if (readinessCheck == null) {
+            return;
+        }
+        addFilter(ctx, READINESS_CHECK_FILTER, readinessCheck, configuration.getReadinessPath());
+        log.info("Serving the readiness at " + configuration.getReadinessPath());
+    }
+
+    /**
+     * Name of the rate limiter filter.
+     */
+    @NotNull
+    private static final String RATE_LIMITER_FILTER = "vaadin-boot-rate-limiter";
+
+    /**
+     * Registers the rate limiter, see {@link VaadinBootBase#rateLimit(int, int)}.
+     * @param ctx the context.
+     * @param configuration the configuration.
+     */
+    protected void registerRateLimiter(@NotNull Context ctx, @NotNull VaadinBootBase<?> configuration) {
+        final RateLimiter rateLimiter = configuration.getRateLimiter();
+        if (rateLimiter == null) {
+            return;
+        }
+        addFilter(ctx, RATE_LIMITER_FILTER, rateLimiter);
+        log.info("Limiting the request rate of every client");
+    }
+
+    /**
+     * Name of the concurrency limiter filter.
+     */
+    @NotNull
+    private static final String CONCURRENCY_LIMITER_FILTER = "vaadin-boot-concurrency-limiter";
+
+    /**
+     * Registers the concurrency limiter, see {@link VaadinBootBase#adaptiveConcurrency(boolean)}. The filter is mapped
+     * to the <code>ASYNC</code> dispatches as well, in order to limit the requests resumed by the {@link SessionSerialDispatcher}
+     * and to serve the requests it has queued itself.
+     * @param ctx the context.
+     * @param configuration the configuration.
+     */
+    protected void registerConcurrencyLimiter(@NotNull Context ctx, @NotNull VaadinBootBase<?> configuration) {
+        final ConcurrencyLimiter concurrencyLimiter = configuration.getConcurrencyLimiter();
+        if (concurrencyLimiter == null) {
+            return;
+        }
+        addFilter(ctx, CONCURRENCY_LIMITER_FILTER, concurrencyLimiter, "/*", DispatcherType.REQUEST, DispatcherType.ASYNC);
+        log.info("Adapting the concurrency limit to the latency");
+    }
+
+    /**
+     * Name of the filter removing the permessage-deflate offers.
+     */
+    @NotNull
+    private static final String PER_MESSAGE_DEFLATE_FILTER = "vaadin-boot-permessage-deflate";
+
+    /**
+     * Matches Tomcat's ServletContainerInitializer which initializes the WebSocket support.
+     */
+    @NotNull
+    private static final String WEBSOCKET_INITIALIZER = "org\\.apache\\.tomcat\\.websocket\\.server\\.WsSci";
+
+    /**
+     * Skips the initialization of Tomcat's WebSocket support if the app doesn't need it, see {@link VaadinBootBase#webSocket(Boolean)}:
+     * the <code>WsSci</code> ServletContainerInitializer is filtered out, and therefore never creates the WebSocket container.
+     * @param ctx the Tomcat context.
+     * @param configuration the configuration.
+     * @throws IOException if the app's classes can't be read.
+     */
+    protected void configureWebSocket(@NotNull Context ctx, @NotNull VaadinBootBase<?> configuration) throws IOException {
+        final WebSocketDetector.Result result = WebSocketDetector.detect(configuration);
+        if (result.needed()) {
+            log.debug("Tomcat WebSocket support initialized: " + result.reason());
+        } else {
+            addContainerSciFilter(ctx, WEBSOCKET_INITIALIZER);
+            log.info("Tomcat WebSocket support skipped, " + result.reason() + ": not running the WsSci, no WebSocket container"
+                    + " and upgrade filter created");
+        }
+    }
+
+    /**
+     * Configures the push WebSocket connections, see {@link VaadinBootBase#pushCompression(boolean)}.
+     * <br/>
+     * Tomcat can't disable the WebSocket compression natively; registers {@link PerMessageDeflateFilter} which
+     * runs before Tomcat's WebSocket upgrade filter. The Atmosphere settings are passed as init parameters
+     * to every servlet, including the Vaadin servlet which is registered dynamically when the context starts.
+     * @param ctx the Tomcat context.
+     * @param configuration the configuration.
+     */
+    protected void configurePush(@NotNull Context ctx, @NotNull VaadinBootBase<?> configuration) {
+        final String sciFilter = ctx.getContainerSciFilter();
+        final boolean webSocket = sciFilter == null || !sciFilter.contains(WEBSOCKET_INITIALIZER);
+        if (!configuration.isPushCompression() && webSocket) {
+            addFilter(ctx, PER_MESSAGE_DEFLATE_FILTER, new PerMessageDeflateFilter());
+        }
+        final Map<String, String> initParameters = PushConfiguration.getServletInitParameters(configuration, webSocket);
+        ctx.addContainerListener(event -> {
+            if (Container.ADD_CHILD_EVENT.equals(event.getType()) && event.getData() instanceof Wrapper wrapper) {
+                initParameters.forEach((name, value) -> {
+                    if (wrapper.findInitParameter(name) == null) {
+                        wrapper.addInitParameter(name, value);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Registers given filter, mapped to all requests and running before any filter of the app.
+     * @param ctx the Tomcat context to register the filter to.
+     * @param name the filter name.
+     * @param filter the filter.
+     */
+    private static void addFilter(@NotNull Context ctx, @NotNull String name, @NotNull Filter filter) {
+        addFilter(ctx, name, filter, "/*");
+    }
+
+    /**
+     * Registers given filter, mapped to given URL pattern and running before any filter of the app.
+     * @param ctx the Tomcat context to register the filter to.
+     * @param name the filter name.
+     * @param filter the filter.
+     * @param urlPattern the URL pattern, e.g. <code>/*</code>.
+     * @param dispatcherTypes the dispatches the filter is mapped to; none maps the filter to <code>REQUEST</code> dispatches only.
+     */
+    private static void addFilter(@NotNull Context ctx, @NotNull String name, @NotNull Filter filter, @NotNull String urlPattern, @NotNull DispatcherType... dispatcherTypes) {
+        // stopping the context (e.g. on reload, see restartWebApp()) removes all filters: register the filter on every start.
+        ctx.addLifecycleListener(event -> {
+            if (Lifecycle.CONFIGURE_START_EVENT.equals(event.getType()) && ctx.findFilterDef(name) == null) {
+                final FilterDef filterDef = new FilterDef();
+                filterDef.setFilterName(name);
+                filterDef.setFilter(filter);
+                filterDef.setAsyncSupported("true");
+                ctx.addFilterDef(filterDef);
+                final FilterMap filterMap = new FilterMap();
+                filterMap.setFilterName(name);
+                filterMap.addURLPattern(urlPattern);
+                for (DispatcherType dispatcherType : dispatcherTypes) {
+                    filterMap.setDispatcher(dispatcherType.name());
+                }
+                ctx.addFilterMapBefore(filterMap);
+            }
+        });
+    }
+
     /**
      * Configure the virtual WAR to serve static contents from {@link #resourcesJarOrFolder}'s <code>/webapp</code> package.
      * @param root the virtual WAR
      * @throws IOException on I/O error.
      */
     protected void addStaticWebapp(@NotNull WebResourceRoot root) throws IOException {
-        if (resourcesJarOrFolder.isDirectory()) {
+        final File extractedWebRoot = this.extractedWebRoot;
+        if (extractedWebRoot != null) {
+            root.addPreResources(new DirResourceSet(root, "/", extractedWebRoot.getAbsolutePath(), "/"));
+        } else if (resourcesJarOrFolder.isDirectory()) {
             root.addPreResources(new DirResourceSet(root, "/",
                     resourcesJarOrFolder.getAbsolutePath(), "/webapp"));
         } else {
@@ -212,5 +907,42 @@ public class TomcatWebServer implements WebServer {
      */
     protected void registerVaadinServletDeployer(@NotNull Context ctx) {
         ctx.addApplicationListener(VAADIN_SERVLET_CONTEXT_LISTENERS);
+        // stopping the context (e.g. on reload, see restartWebApp()) removes all application listeners: register it again.
+        ctx.addLifecycleListener(event -> {
+            if (Lifecycle.CONFIGURE_START_EVENT.equals(event.getType()) && !Arrays.asList(ctx.findApplicationListeners()).contains(VAADIN_SERVLET_CONTEXT_LISTENERS)) {
+                ctx.addApplicationListener(VAADIN_SERVLET_CONTEXT_LISTENERS);
+            }
+        });
+    }
+
+    /**
+     * Name of the servlet serving {@link VaadinBootBase#getZeroCopyStaticPaths()}.
+     */
+    @NotNull
+    private static final String ZERO_COPY_STATIC_SERVLET = "vaadin-boot-static";
+
+    /**
+     * Serves {@link VaadinBootBase#getZeroCopyStaticPaths()} by Tomcat's {@link org.apache.catalina.servlets.DefaultServlet}
+     * rather than by Vaadin. The DefaultServlet transfers files served from a folder via sendfile, with zero copying,
+     * if they're larger than its <code>sendfileSize</code> (48kb by default).
+     * @param ctx the Tomcat context to register the servlet to.
+     * @param configuration the configuration.
+     */
+    protected void registerZeroCopyStaticServlet(@NotNull Context ctx, @NotNull VaadinBootBase<?> configuration) {
+        final List<String> paths = configuration.getZeroCopyStaticPaths();
+        if (paths.isEmpty()) {
+            return;
+        }
+        // stopping the context (e.g. on reload, see restartWebApp()) removes all servlets: register the servlet on every start.
+        ctx.addLifecycleListener(event -> {
+            if (Lifecycle.CONFIGURE_START_EVENT.equals(event.getType()) && ctx.findChild(ZERO_COPY_STATIC_SERVLET) == null) {
+                final Wrapper wrapper = Tomcat.addServlet(ctx, ZERO_COPY_STATIC_SERVLET, "org.apache.catalina.servlets.DefaultServlet");
+                wrapper.addInitParameter("listings", "false");
+                for (String path : paths) {
+                    ctx.addServletMappingDecoded(path, ZERO_COPY_STATIC_SERVLET);
+                }
+            }
+        });
+        log.info("Serving " + paths + " by Tomcat's DefaultServlet");
     }
 }
@@ -0,0 +1,277 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A persistent Tomcat work directory. Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * The work directory contains one generation subfolder per app version, named after the hash of the app jar contents.
+ * Every running JVM holds a shared lock on its generation; generations which nobody holds a lock on are stale
+ * and are deleted at boot.
+ * <br/>
+ * Several JVMs may run the same app version off the same generation; every JVM therefore gets a Tomcat base directory
+ * of its own inside the generation, holding an exclusive lock on it. Base directories which nobody holds a lock on
+ * have been left behind by a JVM which crashed, and are deleted at boot.
+ */
+public final class TomcatWorkDir implements Closeable {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(TomcatWorkDir.class);
+
+    /**
+     * Every generation folder contains this file; running JVMs hold a shared lock on it.
+     */
+    @NotNull
+    private static final String LOCK_FILE = ".lock";
+
+    /**
+     * Every generation folder contains this file; JVMs hold an exclusive lock on it while creating their own Tomcat base
+     * directory, or deleting the base directories of crashed JVMs.
+     */
+    @NotNull
+    private static final String BASEDIR_LOCK_FILE = ".tomcat.lock";
+
+    /**
+     * The Tomcat base directories are named <code>tomcat-</code> followed by a random suffix.
+     */
+    @NotNull
+    private static final String BASEDIR_PREFIX = "tomcat-";
+
+    /**
+     * The generation folder of this app version.
+     */
+    @NotNull
+    private final Path generation;
+    @NotNull
+    private final FileChannel lockChannel;
+    /**
+     * The Tomcat base directory of this JVM, inside {@link #generation}.
+     */
+    @NotNull
+    private final Path baseDir;
+    /**
+     * Holds an exclusive lock on the {@link #LOCK_FILE} in {@link #baseDir}.
+     */
+    @NotNull
+    private final FileChannel baseDirLockChannel;
+
+    private TomcatWorkDir(@NotNull Path generation, @NotNull FileChannel lockChannel, @NotNull Path baseDir, @NotNull FileChannel baseDirLockChannel) {
+        this.generation = generation;
+        this.lockChannel = lockChannel;
+        this.baseDir = baseDir;
+        this.baseDirLockChannel = baseDirLockChannel;
+    }
+
+    /**
+     * Opens the generation folder for given app, creating it if need be, creates the Tomcat base directory of this JVM,
+     * and deletes stale generations and base directories.
+     * @param workDir the work directory, see {@link com.github.mvysny.vaadinboot.VaadinBoot#workDir(File)}.
+     * @param resourcesJarOrFolder the app jar, or the resources folder when running in a development environment;
+     *                             see {@link Env#findResourcesJarOrFolder(java.net.URL)}.
+     * @return the work directory, not null. Close it when Tomcat stops.
+     * @throws IOException on i/o error.
+     */
+    @NotNull
+    public static TomcatWorkDir open(@NotNull File workDir, @NotNull File resourcesJarOrFolder) throws IOException {
+        // when running from the resources folder, the contents change all the time and aren't worth hashing.
+        final String key = resourcesJarOrFolder.isFile() ? Env.hashJar(resourcesJarOrFolder, "") : "dev";
+        final Path generation = workDir.toPath().toAbsolutePath().resolve(key);
+        final FileChannel lockChannel = lockGeneration(generation);
+        final TomcatWorkDir result;
+        try {
+            final Path baseDir;
+            final FileChannel baseDirLockChannel;
+            // the base directory lock file is created and locked in two steps: other JVMs mustn't delete the base directory in between.
+            synchronized (TomcatWorkDir.class) {
+                try (FileChannel channel = openBaseDirLock(generation)) {
+                    final FileLock lock = channel.lock();
+                    try {
+                        // Tomcat's own scratch space is never reused: otherwise Tomcat would e.g. restore sessions persisted by the previous run.
+                        baseDir = Files.createTempDirectory(generation, BASEDIR_PREFIX);
+                        baseDirLockChannel = FileChannel.open(baseDir.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                        try {
+                            baseDirLockChannel.lock();
+                        } catch (IOException | RuntimeException e) {
+                            baseDirLockChannel.close();
+                            throw e;
+                        }
+                        deleteStaleBaseDirs(generation, baseDir);
+                    } finally {
+                        lock.release();
+                    }
+                }
+            }
+            result = new TomcatWorkDir(generation, lockChannel, baseDir, baseDirLockChannel);
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+        try {
+            Files.createDirectories(result.getDocBase().toPath());
+        } catch (IOException e) {
+            result.close();
+            throw e;
+        }
+        result.deleteStaleGenerations();
+        log.info("Tomcat work directory: " + generation);
+        return result;
+    }
+
+    /**
+     * Creates the generation folder and takes a shared lock on it, so that other JVMs don't delete it as stale.
+     */
+    @NotNull
+    private static FileChannel lockGeneration(@NotNull Path generation) throws IOException {
+        while (true) {
+            Files.createDirectories(generation);
+            final FileChannel lockChannel = FileChannel.open(generation.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                // blocks while another JVM is deleting this generation as stale.
+                lockChannel.lock(0, Long.MAX_VALUE, true);
+            } catch (OverlappingFileLockException e) {
+                lockChannel.close();
+                throw new IllegalStateException("Invalid state: " + generation + " is already used by another VaadinBoot in this JVM", e);
+            } catch (IOException | RuntimeException e) {
+                lockChannel.close();
+                throw e;
+            }
+            if (Files.isRegularFile(generation.resolve(LOCK_FILE))) {
+                return lockChannel;
+            }
+            // the generation has been deleted by another JVM while we were waiting for the lock: create it again.
+            lockChannel.close();
+        }
+    }
+
+    @NotNull
+    private static FileChannel openBaseDirLock(@NotNull Path generation) throws IOException {
+        return FileChannel.open(generation.resolve(BASEDIR_LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Deletes the Tomcat base directories in given generation which nobody holds a lock on: their JVMs have crashed.
+     * Must be called while holding the lock on {@link #BASEDIR_LOCK_FILE}.
+     */
+    private static void deleteStaleBaseDirs(@NotNull Path generation, @NotNull Path ownBaseDir) {
+        final List<Path> baseDirs;
+        try (Stream<Path> list = Files.list(generation)) {
+            baseDirs = list.filter(it -> !it.equals(ownBaseDir) && it.getFileName().toString().startsWith(BASEDIR_PREFIX) && Files.isDirectory(it)).toList();
+        } catch (IOException e) {
+            log.warn("Failed to list " + generation + ": " + e, e);
+            return;
+        }
+        for (Path baseDir : baseDirs) {
+            // a base directory without the lock file has been left behind by a JVM which crashed right after creating it.
+            try (FileChannel channel = FileChannel.open(baseDir.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                final FileLock lock = tryLock(channel);
+                if (lock == null) {
+                    log.debug(baseDir + " is in use by another JVM, not deleting");
+                    continue;
+                }
+                Util.deleteRecursively(baseDir);
+                log.info("Deleted stale Tomcat base directory " + baseDir);
+            } catch (IOException e) {
+                log.warn("Failed to delete stale Tomcat base directory " + baseDir + ": " + e, e);
+            }
+        }
+    }
+
+    private void deleteStaleGenerations() {
+        final List<Path> siblings;
+        try (Stream<Path> list = Files.list(generation.getParent())) {
+            siblings = list.filter(it -> !it.equals(generation) && Files.isRegularFile(it.resolve(LOCK_FILE))).toList();
+        } catch (IOException e) {
+            log.warn("Failed to list " + generation.getParent() + ": " + e, e);
+            return;
+        }
+        for (Path sibling : siblings) {
+            try (FileChannel channel = FileChannel.open(sibling.resolve(LOCK_FILE), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                final FileLock lock = tryLock(channel);
+                if (lock == null) {
+                    log.debug(sibling + " is in use by another JVM, not deleting");
+                    continue;
+                }
+                Util.deleteRecursively(sibling);
+                log.info("Deleted stale Tomcat work directory " + sibling);
+            } catch (IOException e) {
+                log.warn("Failed to delete stale Tomcat work directory " + sibling + ": " + e, e);
+            }
+        }
+    }
+
+    @Nullable
+    private static FileLock tryLock(@NotNull FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // locked by this JVM, e.g. by another VaadinBoot instance.
+            return null;
+        }
+    }
+
+    /**
+     * The Tomcat base directory of this JVM, created empty on every boot and deleted on {@link #close()}.
+     * @return the Tomcat base directory.
+     */
+    @NotNull
+    public File getBaseDir() {
+        return baseDir.toFile();
+    }
+
+    /**
+     * The Tomcat docBase folder. Always empty: the static files are served from the <code>/webapp</code> folder.
+     * @return the docBase folder.
+     */
+    @NotNull
+    public File getDocBase() {
+        return generation.resolve("docbase").toFile();
+    }
+
+    /**
+     * Extracts the <code>/webapp</code> folder from the app jar, or reuses the folder extracted by a previous boot.
+     * @param jarFile the app jar.
+     * @return the extracted <code>/webapp</code> folder.
+     * @throws IOException on i/o error.
+     */
+    @NotNull
+    public File extractWebRoot(@NotNull File jarFile) throws IOException {
+        return Env.extractWebRoot(jarFile, generation.resolve("webapp"));
+    }
+
+    /**
+     * Deletes the Tomcat base directory of this JVM, and releases the locks. Call when Tomcat stops.
+     * @throws IOException on i/o error.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            synchronized (TomcatWorkDir.class) {
+                try (FileChannel channel = openBaseDirLock(generation)) {
+                    final FileLock lock = channel.lock();
+                    try {
+                        Util.deleteRecursively(baseDir);
+                    } finally {
+                        lock.release();
+                    }
+                }
+            }
+        } finally {
+            baseDirLockChannel.close();
+            lockChannel.close();
+        }
+    }
+}
@@ -15,6 +15,10 @@ dependencies {
     // WebSockets. Also satisfies the SCI in jetty-ee10-websocket-jetty-server that scans for
     // org.eclipse.jetty.websocket.api.WebSocketContainer at Jetty startup.
     implementation(libs.jetty.websocket.jetty)
+    // Response compression and request decompression. Add jetty-compression-brotli and/or
+    // jetty-compression-zstandard to your app to enable brotli and zstd as well.
+    implementation(libs.jetty.compression.server)
+    implementation(libs.jetty.compression.gzip)
 
     testImplementation(libs.slf4j.simple)
     testImplementation(libs.junit)
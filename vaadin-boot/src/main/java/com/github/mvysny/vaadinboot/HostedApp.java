@@ -0,0 +1,189 @@
+package com.github.mvysny.vaadinboot;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarFile;
+
+/**
+ * A Vaadin app hosted by {@link VaadinBoot#hostApp(HostedApp)}: the app runs in its own classloader, loading its own
+ * classes and jars, on its own context root.
+ * <br/>
+ * The app's classpath must contain everything the app needs - its classes, the <code>webapp</code> folder, Vaadin and
+ * all other dependencies - with the exception of Jetty and Vaadin-Boot, which are provided by the host. The classpath entries
+ * providing Jetty or Vaadin-Boot are therefore skipped.
+ */
+public final class HostedApp {
+    /**
+     * The context root, e.g. <code>/crm</code>.
+     */
+    @NotNull
+    private final String contextRoot;
+
+    /**
+     * The app's jars and classes folders.
+     */
+    @NotNull
+    private final List<File> classpath;
+
+    /**
+     * If not null, the app runs in this Vaadin mode; if null (the default), the mode is detected from the app's classpath.
+     */
+    @Nullable
+    private Boolean productionMode = null;
+
+    /**
+     * The servlet context init parameters of the app.
+     */
+    @NotNull
+    private final Map<String, String> initParameters = new LinkedHashMap<>();
+
+    /**
+     * Creates the app.
+     * @param contextRoot the context root, e.g. <code>/crm</code>. Pass in either an empty string or "/" to host the app
+     *                    at the root.
+     * @param classpath the app's jars and classes folders, not empty. The entries providing Jetty or Vaadin-Boot are skipped.
+     * @throws IOException if a jar can not be read.
+     */
+    public HostedApp(@NotNull String contextRoot, @NotNull List<File> classpath) throws IOException {
+        if (contextRoot.isEmpty() || contextRoot.equals("/")) {
+            this.contextRoot = "";
+        } else {
+            final String withSlash = contextRoot.startsWith("/") ? contextRoot : "/" + contextRoot;
+            this.contextRoot = withSlash.endsWith("/") ? withSlash.substring(0, withSlash.length() - 1) : withSlash;
+        }
+        final List<File> entries = new ArrayList<>();
+        for (File file : classpath) {
+            if (!file.exists()) {
+                throw new IllegalArgumentException("Parameter classpath: invalid value " + file + ": doesn't exist");
+            }
+            if (!isProvidedByHost(file)) {
+                entries.add(file.getAbsoluteFile());
+            }
+        }
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("Parameter classpath: invalid value " + classpath + ": must not be empty");
+        }
+        this.classpath = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Creates the app from its <code>lib/</code> folder, as produced by Gradle's <code>installDist</code>
+     * or by Maven's <code>appassembler</code>.
+     * @param contextRoot the context root, e.g. <code>/crm</code>.
+     * @param libFolder the folder containing the app's jar and all of its dependency jars.
+     * @return the app, not null.
+     * @throws IOException if the folder can not be listed or a jar can not be read.
+     */
+    @NotNull
+    public static HostedApp fromLibFolder(@NotNull String contextRoot, @NotNull File libFolder) throws IOException {
+        final File[] jars = libFolder.listFiles((dir, name) -> name.endsWith(".jar"));
+        if (jars == null) {
+            throw new IOException("Failed to list " + libFolder);
+        }
+        Arrays.sort(jars);
+        return new HostedApp(contextRoot, Arrays.asList(jars));
+    }
+
+    /**
+     * Checks whether the classpath entry provides Jetty or Vaadin-Boot: the host provides its own. Loading a second copy
+     * of Jetty in the app's classloader would break the server.
+     * @param file the jar file or the classes folder.
+     * @return true if the entry should be skipped.
+     * @throws IOException if the jar can not be read.
+     */
+    private static boolean isProvidedByHost(@NotNull File file) throws IOException {
+        if (file.isDirectory()) {
+            return PROVIDED_BY_HOST.stream().anyMatch(it -> new File(file, it).exists());
+        }
+        if (file.getName().startsWith("jetty-")) {
+            return true;
+        }
+        try (JarFile jar = new JarFile(file)) {
+            return PROVIDED_BY_HOST.stream().anyMatch(it -> jar.getEntry(it) != null);
+        }
+    }
+
+    /**
+     * Classes marking the Jetty and Vaadin-Boot jars and classes folders.
+     */
+    @NotNull
+    private static final List<String> PROVIDED_BY_HOST = List.of(
+            "com/github/mvysny/vaadinboot/common/VaadinBootBase.class",
+            "com/github/mvysny/vaadinboot/common/JettyWebServer.class",
+            "org/eclipse/jetty/server/Server.class");
+
+    /**
+     * Runs the app in given Vaadin mode. By default, the mode is detected from the app's classpath, the same way as
+     * {@link com.github.mvysny.vaadinboot.common.Env#isVaadinProductionMode} is.
+     * @param productionMode true for the production mode, false for the development mode, null to detect.
+     * @return this
+     */
+    @NotNull
+    public HostedApp productionMode(@Nullable Boolean productionMode) {
+        this.productionMode = productionMode;
+        return this;
+    }
+
+    /**
+     * See {@link #productionMode(Boolean)}.
+     * @return the Vaadin mode of the app; null if detected.
+     */
+    @Nullable
+    public Boolean getProductionMode() {
+        return productionMode;
+    }
+
+    /**
+     * Sets a servlet context init parameter of the app. Use it to configure the app instead of the JVM-wide system
+     * properties, e.g. <code>initParameter("pushURL", "/push")</code>.
+     * @param name the parameter name.
+     * @param value the parameter value.
+     * @return this
+     */
+    @NotNull
+    public HostedApp initParameter(@NotNull String name, @NotNull String value) {
+        initParameters.put(name, value);
+        return this;
+    }
+
+    /**
+     * See {@link #initParameter(String, String)}.
+     * @return the servlet context init parameters of the app, not null.
+     */
+    @NotNull
+    public Map<String, String> getInitParameters() {
+        return Collections.unmodifiableMap(initParameters);
+    }
+
+    /**
+     * See {@link #HostedApp(String, List)}.
+     * @return the context root, e.g. <code>/crm</code>; empty string if the app is hosted at the root.
+     */
+    @NotNull
+    public String getContextRoot() {
+        return contextRoot;
+    }
+
+    /**
+     * See {@link #HostedApp(String, List)}.
+     * @return the app's jars and classes folders, without the entries provided by the host. Not empty.
+     */
+    @NotNull
+    public List<File> getClasspath() {
+        return classpath;
+    }
+
+    @Override
+    public String toString() {
+        return "HostedApp{" + (contextRoot.isEmpty() ? "/" : contextRoot) + ", " + classpath.size() + " classpath entries, productionMode=" + productionMode + "}";
+    }
+}
@@ -1,12 +1,17 @@
 package com.github.mvysny.vaadinboot;
 
+import com.github.mvysny.vaadinboot.common.Env;
 import com.github.mvysny.vaadinboot.common.JettyWebServer;
 import com.github.mvysny.vaadinboot.common.VaadinBootBase;
 import com.github.mvysny.vaadinboot.common.WebServer;
 import org.eclipse.jetty.ee10.webapp.WebAppContext;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Bootstraps your Vaadin application from your main() function. Simply call
@@ -39,6 +44,13 @@ public class VaadinBoot extends VaadinBootBase<VaadinBoot> {
      */
     private boolean isScanTestClasspath = false;
 
+    /**
+     * If true, the classpath isn't scanned: the servlets, listeners, filters and ServletContainerInitializers are read from
+     * the annotation index generated at build time, see {@link com.github.mvysny.vaadinboot.common.AnnotationIndex}.
+     * Defaults to true in a GraalVM native image, false otherwise.
+     */
+    private boolean useAnnotationIndex = Env.isNativeImage;
+
     /**
      * If true and we're running on JDK 21+, we'll configure Jetty to take advantage
      * of virtual threads.
@@ -47,11 +59,64 @@ public class VaadinBoot extends VaadinBootBase<VaadinBoot> {
      */
     private boolean useVirtualThreadsIfAvailable = true;
 
+    /**
+     * If true, Jetty reads and writes the network data via direct byte buffers; if false, via heap byte buffers.
+     * Defaults to true, same as Jetty.
+     */
+    private boolean directBuffers = true;
+
+    /**
+     * The maximum heap memory retained by the byte buffer pool, in bytes. <code>0</code> (the default) derives the limit
+     * from the max heap size, see {@link #getResourceDefaults()}; <code>-1</code> means unlimited.
+     */
+    private long bufferPoolMaxHeapMemory = 0;
+
+    /**
+     * The maximum direct memory retained by the byte buffer pool, in bytes. <code>0</code> (the default) derives the limit
+     * from the max heap size and the container memory, see {@link #getResourceDefaults()}; <code>-1</code> means unlimited.
+     */
+    private long bufferPoolMaxDirectMemory = 0;
+
+    /**
+     * The byte buffer pool has one bucket per this many bytes of buffer capacity. Defaults to 4096, same as Jetty.
+     */
+    private int bufferPoolBucketFactor = 4096;
+
+    /**
+     * Buffers larger than this are never pooled, in bytes. Defaults to 65536, same as Jetty.
+     */
+    private int bufferPoolMaxCapacity = 65536;
+
+    /**
+     * The maximum number of buffers retained in a single bucket. Defaults to unlimited, same as Jetty.
+     */
+    private int bufferPoolMaxBucketSize = Integer.MAX_VALUE;
+
+    /**
+     * If true, the byte buffer pool remembers where every buffer has been acquired, and reports the buffers
+     * which were never released. Defaults to false.
+     */
+    private boolean bufferPoolLeakTracking = false;
+
+    /**
+     * The apps hosted by this server; if empty (the default), the app on the classpath is served.
+     */
+    @NotNull
+    private final List<HostedApp> hostedApps = new ArrayList<>();
+
+    @NotNull
+    private final JettyWebServer webServer;
+
     /**
      * Creates new boot instance.
      */
     public VaadinBoot() {
-        super(new JettyWebServer());
+        this(new JettyWebServer());
+    }
+
+    private VaadinBoot(@NotNull JettyWebServer webServer) {
+        super(webServer);
+        this.webServer = webServer;
     }
 
     /**
@@ -114,6 +179,33 @@ public class VaadinBoot extends VaadinBootBase<VaadinBoot> {
         return isScanTestClasspath;
     }
 
+    /**
+     * If true, the classpath isn't scanned for annotations at startup: the <code>@WebServlet</code>s, <code>@WebListener</code>s,
+     * <code>@WebFilter</code>s and ServletContainerInitializers are read from the annotation index instead. The index is
+     * generated at build time by {@link com.github.mvysny.vaadinboot.common.AnnotationIndex#main(String[])} and packaged
+     * in the app jar; the app fails to start if the index is missing.
+     * <br/>
+     * Required in a GraalVM native image, which has no class files to scan; also skips the scanning time on the JVM.
+     * The index goes stale when the app's classes or dependencies change: regenerate it on every build.
+     * <br/>
+     * Ignored if {@link #disableClasspathScanning} is true.
+     * @param useAnnotationIndex defaults to true in a native image, false otherwise.
+     * @return this
+     */
+    @NotNull
+    public VaadinBoot useAnnotationIndex(boolean useAnnotationIndex) {
+        this.useAnnotationIndex = useAnnotationIndex;
+        return this;
+    }
+
+    /**
+     * See {@link #useAnnotationIndex(boolean)}.
+     * @return if true, the annotations are read from the annotation index rather than scanned.
+     */
+    public boolean isUseAnnotationIndex() {
+        return useAnnotationIndex;
+    }
+
     /**
      * If true and we're running on JDK 21+, we'll configure Jetty to take advantage
      * of virtual threads.
@@ -139,13 +231,225 @@ public class VaadinBoot extends VaadinBootBase<VaadinBoot> {
         return useVirtualThreadsIfAvailable;
     }
 
+    /**
+     * Whether Jetty reads and writes the network data via direct byte buffers or heap byte buffers. Direct buffers
+     * save a copy on every socket read and write, but they count towards <code>-XX:MaxDirectMemorySize</code>, which
+     * is often tight in containers. Heap buffers are garbage-collected and accounted for in the heap.
+     * @param directBuffers if true (default), use direct byte buffers.
+     * @return this
+     */
+    @NotNull
+    public VaadinBoot directBuffers(boolean directBuffers) {
+        this.directBuffers = directBuffers;
+        return this;
+    }
+
+    /**
+     * See {@link #directBuffers(boolean)}.
+     * @return if true, Jetty uses direct byte buffers.
+     */
+    public boolean isDirectBuffers() {
+        return directBuffers;
+    }
+
+    /**
+     * Caps the heap memory retained by Jetty's byte buffer pool; released buffers which don't fit are discarded.
+     * @param bufferPoolMaxHeapMemory the limit in bytes; <code>0</code> (the default) to use 1/8 of the max heap size,
+     *                                see {@link #getResourceDefaults()}; <code>-1</code> for unlimited.
+     * @return this
+     */
+    @NotNull
+    public VaadinBoot bufferPoolMaxHeapMemory(long bufferPoolMaxHeapMemory) {
+        if (bufferPoolMaxHeapMemory < -1) {
+            throw new IllegalArgumentException("Parameter bufferPoolMaxHeapMemory: invalid value " + bufferPoolMaxHeapMemory + ": must be -1 or greater");
+        }
+        this.bufferPoolMaxHeapMemory = bufferPoolMaxHeapMemory;
+        return this;
+    }
+
+    /**
+     * See {@link #bufferPoolMaxHeapMemory(long)}.
+     * @return the maximum heap memory retained by the byte buffer pool in bytes, configured explicitly or derived; <code>-1</code> if unlimited.
+     */
+    public long getBufferPoolMaxHeapMemory() {
+        return bufferPoolMaxHeapMemory != 0 ? bufferPoolMaxHeapMemory : getResourceDefaults().bufferPoolMaxHeapMemory();
+    }
+
+    /**
+     * Caps the direct memory retained by Jetty's byte buffer pool; released buffers which don't fit are discarded.
+     * Keep it well below <code>-XX:MaxDirectMemorySize</code>.
+     * @param bufferPoolMaxDirectMemory the limit in bytes; <code>0</code> (the default) to use 1/8 of the max heap size,
+     *                                  but at most 1/32 of the container memory, see {@link #getResourceDefaults()};
+     *                                  <code>-1</code> for unlimited.
+     * @return this
+     */
+    @NotNull
+    public VaadinBoot bufferPoolMaxDirectMemory(long bufferPoolMaxDirectMemory) {
+        if (bufferPoolMaxDirectMemory < -1) {
+            throw new IllegalArgumentException("Parameter bufferPoolMaxDirectMemory: invalid value " + bufferPoolMaxDirectMemory + ": must be -1 or greater");
+        }
+        this.bufferPoolMaxDirectMemory = bufferPoolMaxDirectMemory;
+        return this;
+    }
+
+    /**
+     * See {@link #bufferPoolMaxDirectMemory(long)}.
+     * @return the maximum direct memory retained by the byte buffer pool in bytes, configured explicitly or derived; <code>-1</code> if unlimited.
+     */
+    public long getBufferPoolMaxDirectMemory() {
+        return bufferPoolMaxDirectMemory != 0 ? bufferPoolMaxDirectMemory : getResourceDefaults().bufferPoolMaxDirectMemory();
+    }
+
+    /**
+     * Sizes the buckets of Jetty's byte buffer pool. The pool keeps one bucket per <code>bucketFactor</code> bytes of
+     * buffer capacity, up to <code>maxCapacity</code>; a requested buffer is rounded up to the capacity of its bucket.
+     * Larger buffers are allocated on demand and never pooled.
+     * @param bucketFactor the capacity step between buckets, in bytes. Defaults to 4096.
+     * @param maxCapacity the capacity of the largest pooled buffer, in bytes; must be a multiple of <code>bucketFactor</code>. Defaults to 65536.
+     * @return this
+     */
+    @NotNull
+    public VaadinBoot bufferPoolBuckets(int bucketFactor, int maxCapacity) {
+        if (bucketFactor <= 0) {
+            throw new IllegalArgumentException("Parameter bucketFactor: invalid value " + bucketFactor + ": must be positive");
+        }
+        if (maxCapacity < bucketFactor || maxCapacity % bucketFactor != 0) {
+            throw new IllegalArgumentException("Parameter maxCapacity: invalid value " + maxCapacity + ": must be a multiple of bucketFactor " + bucketFactor);
+        }
+        this.bufferPoolBucketFactor = bucketFactor;
+        this.bufferPoolMaxCapacity = maxCapacity;
+        return this;
+    }
+
+    /**
+     * See {@link #bufferPoolBuckets(int, int)}.
+     * @return the capacity step between the byte buffer pool buckets, in bytes.
+     */
+    public int getBufferPoolBucketFactor() {
+        return bufferPoolBucketFactor;
+    }
+
+    /**
+     * See {@link #bufferPoolBuckets(int, int)}.
+     * @return the capacity of the largest pooled buffer, in bytes.
+     */
+    public int getBufferPoolMaxCapacity() {
+        return bufferPoolMaxCapacity;
+    }
+
+    /**
+     * Caps the number of buffers retained in a single bucket of Jetty's byte buffer pool.
+     * @param bufferPoolMaxBucketSize the maximum number of buffers per bucket, must be positive. Defaults to unlimited.
+     * @return this
+     */
+    @NotNull
+    public VaadinBoot bufferPoolMaxBucketSize(int bufferPoolMaxBucketSize) {
+        if (bufferPoolMaxBucketSize <= 0) {
+            throw new IllegalArgumentException("Parameter bufferPoolMaxBucketSize: invalid value " + bufferPoolMaxBucketSize + ": must be positive");
+        }
+        this.bufferPoolMaxBucketSize = bufferPoolMaxBucketSize;
+        return this;
+    }
+
+    /**
+     * See {@link #bufferPoolMaxBucketSize(int)}.
+     * @return the maximum number of buffers retained in a single bucket.
+     */
+    public int getBufferPoolMaxBucketSize() {
+        return bufferPoolMaxBucketSize;
+    }
+
+    /**
+     * Debugging aid: the byte buffer pool remembers the stack trace of every buffer acquisition, and the buffers which
+     * were never released are logged when the app stops, along with the stack traces. Slow; don't use in production.
+     * @param bufferPoolLeakTracking if true, track buffer leaks. Defaults to false.
+     * @return this
+     */
+    @NotNull
+    public VaadinBoot bufferPoolLeakTracking(boolean bufferPoolLeakTracking) {
+        this.bufferPoolLeakTracking = bufferPoolLeakTracking;
+        return this;
+    }
+
+    /**
+     * See {@link #bufferPoolLeakTracking(boolean)}.
+     * @return if true, the byte buffer pool tracks buffer leaks.
+     */
+    public boolean isBufferPoolLeakTracking() {
+        return bufferPoolLeakTracking;
+    }
+
+    /**
+     * Returns the statistics of Jetty's byte buffer pool; use them to tune {@link #bufferPoolMaxDirectMemory(long)},
+     * {@link #bufferPoolMaxHeapMemory(long)} and {@link #bufferPoolBuckets(int, int)}. The statistics are also logged when the app stops.
+     * @return the statistics, or null if the app isn't running.
+     */
+    @Nullable
+    public JettyWebServer.BufferPoolStatistics getBufferPoolStatistics() {
+        return webServer.getBufferPoolStatistics();
+    }
+
+    /**
+     * Lists the buffers which have been acquired from Jetty's byte buffer pool but not released yet, along with the
+     * stack traces of their acquisition. Only available with {@link #bufferPoolLeakTracking(boolean)}. While the app
+     * is running, the buffers held by open connections and in-flight requests are listed as well.
+     * @return the leak report, or null if the app isn't running, the leak tracking is off or there are no unreleased buffers.
+     */
+    @Nullable
+    public String getBufferPoolLeaks() {
+        return webServer.getBufferPoolLeaks();
+    }
+
+    /**
+     * Hosts given app: instead of serving the app on the classpath, the server serves the hosted apps, each one on
+     * its own context root and in its own classloader. All hosted apps share this server: the connector, the thread
+     * pool, the byte buffer pool, the compression and the access log. Call repeatedly to host multiple apps.
+     * <br/>
+     * The apps are configured per app via {@link HostedApp}, rather than via JVM-wide system properties.
+     * {@link #getContextRoot()} is ignored; {@link #restartOnClassChange(boolean)}, {@link #sessionLockProfiling(boolean)}
+     * and {@link #sessionSerialDispatch(boolean)} aren't supported.
+     * @param app the app to host.
+     * @return this
+     */
+    @NotNull
+    public VaadinBoot hostApp(@NotNull HostedApp app) {
+        for (HostedApp hostedApp : hostedApps) {
+            if (hostedApp.getContextRoot().equals(app.getContextRoot())) {
+                throw new IllegalArgumentException("Parameter app: invalid value " + app + ": context root already taken by " + hostedApp);
+            }
+        }
+        hostedApps.add(app);
+        return this;
+    }
+
+    /**
+     * See {@link #hostApp(HostedApp)}.
+     * @return the hosted apps; empty if the app on the classpath is served.
+     */
+    @NotNull
+    public List<HostedApp> getHostedApps() {
+        return Collections.unmodifiableList(hostedApps);
+    }
+
+    /**
+     * The hosted apps detect their production mode on their own: don't touch the JVM-wide system property.
+     */
+    @Override
+    protected void enableProductionMode() {
+        if (hostedApps.isEmpty()) {
+            super.enableProductionMode();
+        }
+    }
+
     @Override
     protected void onStarted(@NotNull WebServer server) throws IOException {
-        onStarted(((JettyWebServer) server).getContext());
+        for (WebAppContext context : ((JettyWebServer) server).getContexts()) {
+            onStarted(context);
+        }
     }
 
     /**
-     * Invoked when the Jetty server has been started. By default, does nothing.
+     * Invoked when the Jetty server has been started. By default, does nothing. When hosting apps, invoked once per hosted app.
      * @param context the web app context.
      * @throws IOException on i/o exception
      */
@@ -0,0 +1,246 @@
+package com.github.mvysny.vaadinboot.common;
+
+import com.github.mvysny.vaadinboot.VaadinBoot;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.annotation.WebListener;
+import jakarta.servlet.annotation.WebServlet;
+import org.eclipse.jetty.annotations.AnnotationParser;
+import org.eclipse.jetty.ee10.servlet.ServletContainerInitializerHolder;
+import org.eclipse.jetty.ee10.servlet.ServletContextHandler;
+import org.eclipse.jetty.ee10.webapp.MetaData;
+import org.eclipse.jetty.ee10.webapp.WebAppContext;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.eclipse.jetty.util.resource.Resource;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+
+/**
+ * The <code>@WebServlet</code>s, <code>@WebListener</code>s, <code>@WebFilter</code>s and ServletContainerInitializers of the
+ * app, discovered at build time, see {@link VaadinBoot#useAnnotationIndex(boolean)}. Internal to Vaadin-Boot, don't use -
+ * the API can change at any time.
+ * <br/>
+ * Jetty discovers them by scanning all class files on the classpath at startup; a GraalVM native image has no class files
+ * to scan. The index is generated by running {@link #main(String[])} on the app's runtime classpath, and replayed by
+ * {@link AnnotationIndexConfiguration} in place of Jetty's <code>AnnotationConfiguration</code>.
+ * <br/>
+ * The index is a text file, one entry per line: <code>initializer</code> followed by the ServletContainerInitializer and
+ * the classes it handles, in the format of {@link ServletContainerInitializerHolder#toString()}; <code>listener</code>,
+ * <code>servlet</code> or <code>filter</code> followed by the name of the annotated class.
+ * @param initializers the ServletContainerInitializers with the classes they handle, in the order Jetty runs them.
+ * @param listeners the <code>@WebListener</code> classes.
+ * @param servlets the <code>@WebServlet</code> classes.
+ * @param filters the <code>@WebFilter</code> classes.
+ */
+public record AnnotationIndex(@NotNull List<String> initializers, @NotNull List<String> listeners,
+                              @NotNull List<String> servlets, @NotNull List<String> filters) {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(AnnotationIndex.class);
+
+    /**
+     * The classpath resource holding the index.
+     */
+    @NotNull
+    public static final String RESOURCE = "META-INF/vaadin-boot/annotation-index";
+
+    /**
+     * The GraalVM reflection metadata of the indexed classes: Jetty loads and instantiates them by name.
+     */
+    @NotNull
+    public static final String REFLECT_CONFIG = "META-INF/native-image/vaadin-boot/annotation-index/reflect-config.json";
+
+    public AnnotationIndex {
+        initializers = List.copyOf(initializers);
+        listeners = List.copyOf(listeners);
+        servlets = List.copyOf(servlets);
+        filters = List.copyOf(filters);
+    }
+
+    /**
+     * Runs Jetty's classpath scanning the same way {@link JettyWebServer} does at startup, without starting the web server.
+     * The WebSocket initializers are always indexed: whether they run is decided at startup, see {@link VaadinBootBase#webSocket(Boolean)}.
+     * @param cfg the configuration; classpath scanning must be enabled.
+     * @return the index, not null.
+     * @throws Exception if the scanning fails.
+     */
+    @NotNull
+    public static AnnotationIndex generate(@NotNull VaadinBoot cfg) throws Exception {
+        if (cfg.isDisableClasspathScanning() || cfg.isUseAnnotationIndex()) {
+            throw new IllegalArgumentException("Parameter cfg: invalid value " + cfg + ": classpath scanning is off");
+        }
+        final JettyWebServer server = new JettyWebServer();
+        server.configure(cfg);
+        final WebAppContext context = server.getContext();
+        // the scanning runs on the server's thread pool.
+        final LifeCycle threadPool = (LifeCycle) context.getServer().getThreadPool();
+        threadPool.start();
+        try {
+            context.preConfigure();
+            context.configure();
+            final List<String> initializers = new ArrayList<>();
+            final ServletContextHandler.ServletContainerInitializerStarter starter = context.getBean(ServletContextHandler.ServletContainerInitializerStarter.class);
+            if (starter != null) {
+                starter.getServletContainerInitializerHolders().forEach(it -> initializers.add(it.toString()));
+            }
+            // Jetty turns the discovered annotations into servlets, listeners and filters only when the context starts.
+            final Handler handler = new Handler();
+            final MetaData metaData = context.getMetaData();
+            final Set<Resource> resources = new LinkedHashSet<>(metaData.getContainerResources());
+            resources.addAll(metaData.getWebInfClassesResources());
+            resources.addAll(metaData.getWebInfResources(false));
+            final AnnotationParser parser = new AnnotationParser();
+            for (Resource resource : resources) {
+                parser.parse(Set.of(handler), resource);
+            }
+            return new AnnotationIndex(initializers, List.copyOf(handler.listeners), List.copyOf(handler.servlets), List.copyOf(handler.filters));
+        } finally {
+            threadPool.stop();
+        }
+    }
+
+    private static final class Handler extends AnnotationParser.AbstractHandler {
+        @NotNull
+        private final Set<String> listeners = new TreeSet<>();
+        @NotNull
+        private final Set<String> servlets = new TreeSet<>();
+        @NotNull
+        private final Set<String> filters = new TreeSet<>();
+
+        @Override
+        public void handle(AnnotationParser.ClassInfo info, String annotationName) {
+            if (annotationName.equals(WebListener.class.getName())) {
+                listeners.add(info.getClassName());
+            } else if (annotationName.equals(WebServlet.class.getName())) {
+                servlets.add(info.getClassName());
+            } else if (annotationName.equals(WebFilter.class.getName())) {
+                filters.add(info.getClassName());
+            }
+        }
+    }
+
+    /**
+     * Parses the index.
+     * @param index the contents of {@link #RESOURCE}.
+     * @return the index, not null.
+     */
+    @NotNull
+    public static AnnotationIndex parse(@NotNull String index) {
+        final List<String> initializers = new ArrayList<>();
+        final List<String> listeners = new ArrayList<>();
+        final List<String> servlets = new ArrayList<>();
+        final List<String> filters = new ArrayList<>();
+        for (String line : index.lines().map(String::trim).filter(it -> !it.isEmpty() && !it.startsWith("#")).toList()) {
+            final int space = line.indexOf(' ');
+            final String value = space < 0 ? "" : line.substring(space + 1).trim();
+            switch (space < 0 ? line : line.substring(0, space)) {
+                case "initializer" -> initializers.add(value);
+                case "listener" -> listeners.add(value);
+                case "servlet" -> servlets.add(value);
+                case "filter" -> filters.add(value);
+                default -> throw new IllegalArgumentException("Parameter index: invalid value " + line + ": expected initializer, listener, servlet or filter");
+            }
+        }
+        return new AnnotationIndex(initializers, listeners, servlets, filters);
+    }
+
+    /**
+     * Reads the index from the classpath.
+     * @param classLoader the classloader to look up {@link #RESOURCE} in.
+     * @return the index, or null if there's no index on the classpath.
+     * @throws IOException if the index can't be read.
+     */
+    @Nullable
+    public static AnnotationIndex read(@NotNull ClassLoader classLoader) throws IOException {
+        try (InputStream in = classLoader.getResourceAsStream(RESOURCE)) {
+            return in == null ? null : parse(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Formats the index, to be parsed by {@link #parse(String)}.
+     * @return the contents of {@link #RESOURCE}.
+     */
+    @NotNull
+    public String format() {
+        final StringBuilder sb = new StringBuilder("# Generated by Vaadin Boot, don't edit: regenerate on every build.\n");
+        initializers.forEach(it -> sb.append("initializer ").append(it).append('\n'));
+        listeners.forEach(it -> sb.append("listener ").append(it).append('\n'));
+        servlets.forEach(it -> sb.append("servlet ").append(it).append('\n'));
+        filters.forEach(it -> sb.append("filter ").append(it).append('\n'));
+        return sb.toString();
+    }
+
+    /**
+     * Lists all indexed classes: the initializers, the classes they handle, the listeners, the servlets and the filters.
+     * @return the class names, sorted.
+     */
+    @NotNull
+    public Set<String> getClassNames() {
+        final Set<String> result = new TreeSet<>(listeners);
+        result.addAll(servlets);
+        result.addAll(filters);
+        for (String initializer : initializers) {
+            final Matcher matcher = ServletContainerInitializerHolder.__pattern.matcher(initializer);
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Invalid state: unexpected initializer format " + initializer);
+            }
+            result.add(matcher.group(1));
+            for (int group : new int[]{2, 4, 6}) {
+                final String classes = matcher.group(group);
+                if (classes != null && classes.length() > 2) {
+                    for (String className : classes.substring(1, classes.length() - 1).split(",")) {
+                        result.add(className.trim());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Generates the GraalVM reflection metadata for the indexed classes: Jetty loads them by name and instantiates them
+     * reflectively, and Vaadin inspects the classes handed over to its initializers, e.g. the routes.
+     * @return the contents of {@link #REFLECT_CONFIG}.
+     */
+    @NotNull
+    public String toReflectConfig() {
+        final List<String> entries = getClassNames().stream()
+                .map(it -> "  {\"name\": \"" + it + "\", \"allDeclaredConstructors\": true, \"allPublicMethods\": true}")
+                .toList();
+        return "[\n" + String.join(",\n", entries) + "\n]\n";
+    }
+
+    /**
+     * Generates the index and the reflection metadata into given folder, from the app's runtime classpath. Run from the
+     * app's build, with the project folder as the working directory, and package the folder into the app jar.
+     * @param args the output folder.
+     * @throws Exception if the scanning or the writing fails.
+     */
+    public static void main(@NotNull String[] args) throws Exception {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Parameter args: invalid value " + List.of(args) + ": expected the output folder");
+        }
+        final AnnotationIndex index = generate(new VaadinBoot().minimalContainer(true).webSocket(true).useAnnotationIndex(false).openBrowserInDevMode(false));
+        final Path output = Path.of(args[0]);
+        for (Path file : List.of(output.resolve(RESOURCE), output.resolve(REFLECT_CONFIG))) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.writeString(output.resolve(RESOURCE), index.format());
+        Files.writeString(output.resolve(REFLECT_CONFIG), index.toReflectConfig());
+        log.info("Annotation index written to " + output.toAbsolutePath() + ": " + index.initializers().size() + " initializers, "
+                + index.listeners().size() + " listeners, " + index.servlets().size() + " servlets, " + index.filters().size() + " filters");
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.eclipse.jetty.ee10.annotations.AnnotationConfiguration;
+import org.eclipse.jetty.ee10.annotations.WebFilterAnnotation;
+import org.eclipse.jetty.ee10.annotations.WebListenerAnnotation;
+import org.eclipse.jetty.ee10.annotations.WebServletAnnotation;
+import org.eclipse.jetty.ee10.servlet.ServletContainerInitializerHolder;
+import org.eclipse.jetty.ee10.webapp.AbstractConfiguration;
+import org.eclipse.jetty.ee10.webapp.JettyWebXmlConfiguration;
+import org.eclipse.jetty.ee10.webapp.MetaInfConfiguration;
+import org.eclipse.jetty.ee10.webapp.WebAppContext;
+import org.eclipse.jetty.ee10.webapp.WebXmlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registers the servlets, listeners, filters and ServletContainerInitializers listed in the {@link AnnotationIndex}, in place
+ * of Jetty's {@link AnnotationConfiguration} which scans the classpath, see {@link com.github.mvysny.vaadinboot.VaadinBoot#useAnnotationIndex(boolean)}.
+ * Internal to Vaadin-Boot, don't use - the API can change at any time.
+ * <br/>
+ * The ServletContainerInitializers excluded via {@link AnnotationConfiguration#SERVLET_CONTAINER_INITIALIZER_EXCLUSION_PATTERN}
+ * are skipped. The <code>@Resource</code>, <code>@PostConstruct</code> and <code>@ServletSecurity</code> annotations are
+ * not processed: Vaadin apps don't use them.
+ */
+public final class AnnotationIndexConfiguration extends AbstractConfiguration {
+    @NotNull
+    private static final Logger log = LoggerFactory.getLogger(AnnotationIndexConfiguration.class);
+
+    @NotNull
+    private final AnnotationIndex index;
+
+    /**
+     * Creates the configuration.
+     * @param index the index to replay.
+     */
+    public AnnotationIndexConfiguration(@NotNull AnnotationIndex index) {
+        // same place in the configuration order as AnnotationConfiguration.
+        super(new Builder()
+                .addDependencies(WebXmlConfiguration.class, MetaInfConfiguration.class)
+                .addDependents(JettyWebXmlConfiguration.class));
+        this.index = index;
+    }
+
+    @Override
+    public void configure(WebAppContext context) throws Exception {
+        final Object exclusionPattern = context.getAttribute(AnnotationConfiguration.SERVLET_CONTAINER_INITIALIZER_EXCLUSION_PATTERN);
+        final List<ServletContainerInitializerHolder> initializers = new ArrayList<>();
+        for (String initializer : index.initializers()) {
+            final ServletContainerInitializerHolder holder = ServletContainerInitializerHolder.fromString(context.getClassLoader(), initializer);
+            if (exclusionPattern == null || !holder.getClassName().matches(exclusionPattern.toString())) {
+                initializers.add(holder);
+            }
+        }
+        context.addServletContainerInitializer(initializers.toArray(ServletContainerInitializerHolder[]::new));
+        // resolved into the servlets, listeners and filters once the context starts, same as the scanned annotations.
+        index.listeners().forEach(it -> context.getMetaData().addDiscoveredAnnotation(new WebListenerAnnotation(context, it)));
+        index.servlets().forEach(it -> context.getMetaData().addDiscoveredAnnotation(new WebServletAnnotation(context, it)));
+        index.filters().forEach(it -> context.getMetaData().addDiscoveredAnnotation(new WebFilterAnnotation(context, it)));
+        log.debug("Jetty annotation index replayed: " + initializers.size() + " initializers, " + index.listeners().size()
+                + " listeners, " + index.servlets().size() + " servlets, " + index.filters().size() + " filters");
+    }
+}
@@ -1,14 +1,51 @@
 package com.github.mvysny.vaadinboot.common;
 
+import com.github.mvysny.vaadinboot.HostedApp;
 import com.github.mvysny.vaadinboot.VaadinBoot;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import org.eclipse.jetty.compression.Compression;
+import org.eclipse.jetty.compression.server.CompressionConfig;
+import org.eclipse.jetty.compression.server.CompressionHandler;
+import org.eclipse.jetty.ee10.annotations.AnnotationConfiguration;
+import org.eclipse.jetty.ee10.servlet.FilterHolder;
+import org.eclipse.jetty.ee10.servlet.FilterMapping;
+import org.eclipse.jetty.ee10.servlet.ResourceServlet;
+import org.eclipse.jetty.ee10.servlet.ServletContextHandler;
+import org.eclipse.jetty.ee10.servlet.ServletHolder;
+import org.eclipse.jetty.ee10.servlet.SessionHandler;
+import org.eclipse.jetty.ee10.webapp.Configurations;
 import org.eclipse.jetty.ee10.webapp.MetaInfConfiguration;
 import org.eclipse.jetty.ee10.webapp.WebAppContext;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.io.ArrayByteBufferPool;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.RequestLog;
+import org.eclipse.jetty.server.Response;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.ContextHandlerCollection;
+import org.eclipse.jetty.server.handler.SizeLimitHandler;
+import org.eclipse.jetty.session.ManagedSession;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.ClassMatcher;
+import org.eclipse.jetty.util.NanoTime;
+import org.eclipse.jetty.util.TypeUtil;
+import org.eclipse.jetty.util.URIUtil;
+import org.eclipse.jetty.util.component.Container;
 import org.eclipse.jetty.util.resource.Resource;
 import org.eclipse.jetty.util.resource.ResourceFactory;
+import org.eclipse.jetty.util.resource.URLResourceFactory;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.util.thread.ThreadPool;
+import org.eclipse.jetty.websocket.core.WebSocketComponents;
+import org.eclipse.jetty.websocket.core.server.WebSocketServerComponents;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -16,12 +53,28 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.lang.reflect.Method;
+import java.net.HttpCookie;
 import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.concurrent.Executor;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -49,59 +102,335 @@ public class JettyWebServer implements WebServer {
      * Creates a thread pool for Jetty to serve http requests.
      * @param useVirtualThreadsIfAvailable if true and we're running on JVM 21+,
      *                                     create a thread pool which uses virtual threads.
-     * @return the thread pool, may be null if the default one is to be used.
+     * @return the thread pool, may be null if the default one is to be used. This implementation returns null.
+     * @deprecated override {@link #newThreadPool(VaadinBoot)} instead. A pool returned by an override of this function
+     * is still used as-is, ignoring {@link VaadinBootBase#getMinThreads()} and {@link VaadinBootBase#getMaxThreads()}.
      */
+    @Deprecated
     @Nullable
     protected ThreadPool newThreadPool(boolean useVirtualThreadsIfAvailable) {
-        if (useVirtualThreadsIfAvailable && Env.getJavaVersion() >= 21) {
+        return null;
+    }
+
+    /**
+     * Creates a thread pool for Jetty to serve http requests, bounded by {@link VaadinBootBase#getMinThreads()} and
+     * {@link VaadinBootBase#getMaxThreads()}.
+     * @param cfg the configuration. If {@link VaadinBoot#isUseVirtualThreadsIfAvailable()} and we're running on JVM 21+,
+     *            the thread pool uses virtual threads.
+     * @return the thread pool, not null.
+     */
+    @NotNull
+    @SuppressWarnings("deprecation")
+    protected ThreadPool newThreadPool(@NotNull VaadinBoot cfg) {
+        // honor the subclasses which still override the deprecated function.
+        final ThreadPool custom = newThreadPool(cfg.isUseVirtualThreadsIfAvailable());
+        if (custom != null) {
+            return custom;
+        }
+        final QueuedThreadPool threadPool = new QueuedThreadPool(cfg.getMaxThreads(), cfg.getMinThreads());
+        if (cfg.isUseVirtualThreadsIfAvailable() && Env.getJavaVersion() >= 21) {
             log.info("Configuring Jetty to use JVM 21+ virtual threads");
             // see https://eclipse.dev/jetty/documentation/jetty-12/programming-guide/index.html#pg-arch-threads-thread-pool-virtual-threads
-            final QueuedThreadPool threadPool = new QueuedThreadPool();
-            try {
-                // reflection: we call Java 21+ method, however we're compiled with Java 17
-                final Method m = Executors.class.getDeclaredMethod("newVirtualThreadPerTaskExecutor");
-                threadPool.setVirtualThreadsExecutor(((Executor) m.invoke(null)));
-            } catch (Exception ex) {
-                throw new RuntimeException(ex);
-            }
-            return threadPool;
+            threadPool.setVirtualThreadsExecutor(Executors.newVirtualThreadPerTaskExecutor());
         } else {
             log.info("Configuring Jetty to use regular JVM threads");
-            return null;
         }
+        return threadPool;
+    }
+
+    /**
+     * Creates the byte buffer pool which Jetty uses for the network i/o, configured as specified by {@link VaadinBoot}.
+     * The pool always collects statistics, see {@link #getBufferPoolStatistics()}.
+     * @param cfg the configuration.
+     * @return the byte buffer pool, not null.
+     */
+    @NotNull
+    protected ArrayByteBufferPool newByteBufferPool(@NotNull VaadinBoot cfg) {
+        final ArrayByteBufferPool pool = cfg.isBufferPoolLeakTracking()
+                ? new ArrayByteBufferPool.Tracking(0, cfg.getBufferPoolBucketFactor(), cfg.getBufferPoolMaxCapacity(), cfg.getBufferPoolMaxBucketSize(), cfg.getBufferPoolMaxHeapMemory(), cfg.getBufferPoolMaxDirectMemory())
+                : new ArrayByteBufferPool(0, cfg.getBufferPoolBucketFactor(), cfg.getBufferPoolMaxCapacity(), cfg.getBufferPoolMaxBucketSize(), cfg.getBufferPoolMaxHeapMemory(), cfg.getBufferPoolMaxDirectMemory());
+        pool.setStatisticsEnabled(true);
+        log.info("Jetty byte buffer pool retains at most " + cfg.getBufferPoolMaxHeapMemory() + " bytes of heap memory and "
+                + cfg.getBufferPoolMaxDirectMemory() + " bytes of direct memory");
+        if (cfg.isBufferPoolLeakTracking()) {
+            log.warn("Jetty byte buffer leak tracking is on: this slows down the server, don't use in production");
+        }
+        return pool;
     }
 
     private volatile WebAppContext context;
 
+    /**
+     * All webapp contexts: either just {@link #context}, or the contexts of the hosted apps, see {@link VaadinBoot#hostApp(HostedApp)}.
+     */
+    private volatile List<WebAppContext> contexts;
+
+    /**
+     * The byte buffer pool; null if Jetty isn't running.
+     */
+    private volatile ArrayByteBufferPool bufferPool;
+
+    /**
+     * Only set when running in the in-memory mode, see {@link VaadinBootBase#isInMemory()}.
+     */
+    private volatile LocalConnector localConnector;
+
+    /**
+     * The network connector; null when running in the in-memory mode.
+     */
+    private volatile ServerConnector serverConnector;
+
+    /**
+     * Serves the admin endpoints, see {@link VaadinBootBase#adminPort(Integer)}; null if the admin endpoints aren't served.
+     */
+    private volatile Server adminServer;
+
+    /**
+     * The network connector of {@link #adminServer}.
+     */
+    private volatile ServerConnector adminConnector;
+
     @Override
     public void configure(@NotNull VaadinBootBase<?> configuration) throws Exception {
         final VaadinBoot cfg = (VaadinBoot) configuration;
 
-        fixClasspath();
-
-        context = createWebAppContext(cfg);
-        log.debug("Jetty WebAppContext created");
+        final Handler handler;
+        if (cfg.getHostedApps().isEmpty()) {
+            fixClasspath();
+            context = createWebAppContext(cfg);
+            contexts = List.of(context);
+            handler = context;
+            log.debug("Jetty WebAppContext created");
+        } else {
+            checkHostingSupported(cfg);
+            final ContextHandlerCollection collection = new ContextHandlerCollection();
+            final List<WebAppContext> hostedContexts = new ArrayList<>();
+            for (HostedApp app : cfg.getHostedApps()) {
+                final WebAppContext hostedContext = createHostedAppContext(app, cfg);
+                hostedContexts.add(hostedContext);
+                collection.addHandler(hostedContext);
+            }
+            contexts = List.copyOf(hostedContexts);
+            handler = collection;
+            log.debug("Jetty WebAppContexts created for " + hostedContexts.size() + " hosted apps");
+        }
 
-        server = new Server(newThreadPool(cfg.isUseVirtualThreadsIfAvailable()));
-        final ServerConnector serverConnector = new ServerConnector(server);
-        serverConnector.setPort(configuration.getPort());
-        if (configuration.getListenOn() != null) {
-            serverConnector.setHost(configuration.getListenOn());
+        bufferPool = newByteBufferPool(cfg);
+        server = new Server(newThreadPool(cfg), null, bufferPool);
+        final HttpConfiguration httpConfiguration = newHttpConfiguration(cfg);
+        if (configuration.isInMemory()) {
+            localConnector = new LocalConnector(server, new HttpConnectionFactory(httpConfiguration));
+            server.addConnector(localConnector);
+            log.debug("Jetty configured with an in-memory LocalConnector, not listening on any port");
+        } else {
+            serverConnector = new ServerConnector(server, cfg.getAcceptors(), cfg.getSelectors(), new HttpConnectionFactory(httpConfiguration));
+            serverConnector.setPort(configuration.getPort());
+            if (configuration.getListenOn() != null) {
+                serverConnector.setHost(configuration.getListenOn());
+            }
+            server.addConnector(serverConnector);
+        }
+        if (cfg.getHttpPreset() != null) {
+            applyHttpPreset(cfg.getHttpPreset(), httpConfiguration);
+        }
+        server.setHandler(cfg.isCompression() || cfg.isInflateRequestBodies() ? newCompressionHandler(handler, cfg) : handler);
+        final AccessLog accessLog = cfg.getAccessLog();
+        if (accessLog != null) {
+            server.setRequestLog(newRequestLog(accessLog));
+        }
+        if (cfg.getAdminPort() != null) {
+            configureAdminServer(cfg);
         }
-        server.addConnector(serverConnector);
-        server.setHandler(context);
         log.debug("Jetty Server configured");
     }
 
+    /**
+     * Creates the HTTP configuration of the connector, applying {@link VaadinBootBase#getHttpPreset()}.
+     * @param cfg the configuration.
+     * @return the HTTP configuration, not null.
+     */
+    @NotNull
+    protected HttpConfiguration newHttpConfiguration(@NotNull VaadinBoot cfg) {
+        final HttpConfiguration httpConfiguration = new HttpConfiguration();
+        httpConfiguration.setUseInputDirectByteBuffers(cfg.isDirectBuffers());
+        httpConfiguration.setUseOutputDirectByteBuffers(cfg.isDirectBuffers());
+        final HttpPreset preset = cfg.getHttpPreset();
+        if (preset != null) {
+            httpConfiguration.setOutputBufferSize(preset.getOutputBufferSize());
+            httpConfiguration.setOutputAggregationSize(preset.getOutputAggregationSize());
+            httpConfiguration.setRequestHeaderSize(preset.getRequestHeaderSize());
+            httpConfiguration.setResponseHeaderSize(preset.getResponseHeaderSize());
+            httpConfiguration.setHeaderCacheSize(preset.getHeaderCacheSize());
+            httpConfiguration.setIdleTimeout(preset.getIdleTimeout().toMillis());
+        }
+        return httpConfiguration;
+    }
+
+    /**
+     * Applies the connector settings of given preset, then logs all settings applied. Call once the server and its connector
+     * have been created. The preset's spare threads are applied by {@link #newThreadPool(VaadinBoot)}.
+     * @param preset the preset.
+     * @param httpConfiguration the HTTP configuration created by {@link #newHttpConfiguration(VaadinBoot)}.
+     */
+    private void applyHttpPreset(@NotNull HttpPreset preset, @NotNull HttpConfiguration httpConfiguration) {
+        if (serverConnector != null) {
+            serverConnector.setIdleTimeout(preset.getIdleTimeout().toMillis());
+        }
+        log.info("Jetty HTTP preset " + preset + " applied: outputBufferSize=" + httpConfiguration.getOutputBufferSize()
+                + ", outputAggregationSize=" + httpConfiguration.getOutputAggregationSize()
+                + ", requestHeaderSize=" + httpConfiguration.getRequestHeaderSize()
+                + ", responseHeaderSize=" + httpConfiguration.getResponseHeaderSize()
+                + ", headerCacheSize=" + httpConfiguration.getHeaderCacheSize()
+                + ", idleTimeout=" + preset.getIdleTimeout().toMillis() + "ms"
+                + ", minThreads=" + (server.getThreadPool() instanceof QueuedThreadPool threadPool ? threadPool.getMinThreads() : "n/a"));
+    }
+
+    /**
+     * Configures a separate Jetty {@link Server} serving the admin endpoints, see {@link VaadinBootBase#adminPort(Integer)}.
+     * The server has its own small thread pool of platform threads and a single context without sessions, serving just the
+     * {@link AdminServlet}: the app's contexts can't be reached from it.
+     * @param cfg the configuration.
+     */
+    protected void configureAdminServer(@NotNull VaadinBoot cfg) {
+        // one thread for the selector, the rest serves the requests.
+        final QueuedThreadPool threadPool = new QueuedThreadPool(cfg.getAdminThreads() + 1, 1);
+        threadPool.setName("vaadin-boot-admin");
+        adminServer = new Server(threadPool);
+        adminConnector = new ServerConnector(adminServer, 0, 1);
+        adminConnector.setPort(Objects.requireNonNull(cfg.getAdminPort()));
+        if (cfg.getAdminListenOn() != null) {
+            adminConnector.setHost(cfg.getAdminListenOn());
+        }
+        adminServer.addConnector(adminConnector);
+        final ServletContextHandler adminContext = new ServletContextHandler("/", ServletContextHandler.NO_SESSIONS);
+        adminContext.addServlet(new ServletHolder("admin", new AdminServlet(cfg)), "/*");
+        adminServer.setHandler(adminContext);
+    }
+
     @Override
     public void start() throws Exception {
         server.start();
+        if (adminServer != null) {
+            adminServer.start();
+            log.info("Admin endpoints listening on port " + adminConnector.getLocalPort());
+        }
+    }
+
+    @Override
+    public void initServlets() throws Exception {
+        for (WebAppContext context : getContexts()) {
+            for (ServletHolder holder : context.getServletHandler().getServlets()) {
+                // initializes the servlet if it hasn't been initialized yet.
+                holder.getServlet();
+            }
+        }
+    }
+
+    @Override
+    public void invalidateSession(@NotNull List<HttpCookie> cookies) {
+        final SessionHandler sessionHandler = getContext().getSessionHandler();
+        for (HttpCookie cookie : cookies) {
+            if (cookie.getName().equals(sessionHandler.getSessionCookie())) {
+                // the cookie value may carry the node suffix, e.g. node0abc.node0
+                final ManagedSession session = sessionHandler.getManagedSession(sessionHandler.getSessionIdManager().getId(cookie.getValue()));
+                if (session != null && session.isValid()) {
+                    session.invalidate();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void restartWebApp() throws Exception {
+        final WebAppContext context = getContext();
+        // the WebAppContext discards its own classloader on stop and creates a new one on start.
+        context.stop();
+        context.start();
     }
 
     @Override
     public void stop() throws Exception {
         context = null;
+        contexts = null;
+        final BufferPoolStatistics statistics = getBufferPoolStatistics();
+        if (statistics != null) {
+            log.info("Byte buffer pool: " + statistics);
+        }
+        if (adminServer != null) {
+            adminServer.stop();
+            adminServer = null;
+            adminConnector = null;
+        }
         server.stop();
+        // all connections are closed by now: the buffers which haven't been released are leaks.
+        final String leaks = getBufferPoolLeaks();
+        if (leaks != null) {
+            log.warn("Byte buffers acquired but never released:\n" + leaks);
+        }
+        bufferPool = null;
+    }
+
+    /**
+     * The statistics of Jetty's byte buffer pool.
+     * @param acquired the number of buffers acquired from the pool.
+     * @param released the number of buffers released back to the pool.
+     * @param misses the number of acquisitions which allocated a new buffer, including buffers too large to be pooled.
+     * @param retainedHeapBytes the heap memory held by the pooled buffers, in bytes.
+     * @param retainedDirectBytes the direct memory held by the pooled buffers, in bytes.
+     */
+    public record BufferPoolStatistics(long acquired, long released, long misses, long retainedHeapBytes, long retainedDirectBytes) {
+        /**
+         * The ratio of acquisitions served by a pooled buffer.
+         * @return 0..1; 0 if no buffers were acquired yet.
+         */
+        public double hitRatio() {
+            return acquired == 0 ? 0 : (double) (acquired - misses) / acquired;
+        }
+
+        @Override
+        public String toString() {
+            return acquired + " acquired, " + released + " released, " + misses + " misses (hit ratio " + Math.round(hitRatio() * 100)
+                    + "%), retained heap " + retainedHeapBytes / 1024 + " kB, retained direct " + retainedDirectBytes / 1024 + " kB";
+        }
+    }
+
+    /**
+     * Returns the statistics of Jetty's byte buffer pool.
+     * @return the statistics, or null if Jetty isn't running.
+     */
+    @Nullable
+    public BufferPoolStatistics getBufferPoolStatistics() {
+        final ArrayByteBufferPool pool = this.bufferPool;
+        if (pool == null) {
+            return null;
+        }
+        long acquired = 0;
+        long released = 0;
+        long pooled = 0;
+        for (List<Map<String, Object>> buckets : List.of(pool.getHeapBucketsStatistics(), pool.getDirectBucketsStatistics())) {
+            for (Map<String, Object> bucket : buckets) {
+                acquired += ((Number) bucket.get("acquires")).longValue();
+                released += ((Number) bucket.get("releases")).longValue();
+                pooled += ((Number) bucket.get("pooled")).longValue();
+            }
+        }
+        // buffers larger than the max capacity have no bucket.
+        for (Map<Integer, Long> noBucketAcquires : List.of(pool.getNoBucketHeapAcquires(), pool.getNoBucketDirectAcquires())) {
+            acquired += noBucketAcquires.values().stream().filter(Objects::nonNull).mapToLong(Long::longValue).sum();
+        }
+        return new BufferPoolStatistics(acquired, released, acquired - pooled, pool.getHeapMemory(), pool.getDirectMemory());
+    }
+
+    /**
+     * Lists the buffers acquired but not released yet, see {@link VaadinBoot#bufferPoolLeakTracking(boolean)}.
+     * @return the leak report, or null if Jetty isn't running, the leak tracking is off or there are no leaks.
+     */
+    @Nullable
+    public String getBufferPoolLeaks() {
+        if (!(bufferPool instanceof ArrayByteBufferPool.Tracking tracking) || tracking.getLeaks().isEmpty()) {
+            return null;
+        }
+        return tracking.dumpLeaks();
     }
 
     @Override
@@ -114,15 +443,277 @@ public class JettyWebServer implements WebServer {
         return "Jetty";
     }
 
+    @Override
+    public int getLocalPort() {
+        return Util.checkNotNull(serverConnector, "not configured or running in the in-memory mode").getLocalPort();
+    }
+
+    @Override
+    public int getAdminLocalPort() {
+        return Util.checkNotNull(adminConnector, "not configured to serve the admin endpoints").getLocalPort();
+    }
+
+    @Override
+    public @NotNull InMemoryConnector getInMemoryConnector() {
+        final LocalConnector connector = Util.checkNotNull(localConnector, "not configured for the in-memory mode");
+        return connector::getResponse;
+    }
+
+    /**
+     * Creates the Jetty request log which passes the completed requests to the access log, see {@link VaadinBootBase#accessLog(File)}.
+     * @param accessLog the access log.
+     * @return the request log, not null.
+     */
+    @NotNull
+    protected RequestLog newRequestLog(@NotNull AccessLog accessLog) {
+        return (request, response) -> accessLog.log(Request.getRemoteAddr(request), request.getMethod(),
+                request.getHttpURI().getPath(), request.getHttpURI().getQuery(), request.getConnectionMetaData().getProtocol(),
+                response.getStatus(), Response.getContentBytesWritten(response), NanoTime.since(request.getBeginNanoTime()),
+                request.getHeaders().get(HttpHeader.USER_AGENT));
+    }
+
+    /**
+     * Configures the push WebSocket connections, see {@link VaadinBootBase#pushCompression(boolean)}.
+     * <br/>
+     * The permessage-deflate extension is removed from the WebSocket extension registry of the context, once Jetty's
+     * WebSocket initializer has created it. The Atmosphere settings are passed as init parameters to every servlet,
+     * including the Vaadin servlet which is registered dynamically when the context starts.
+     * <br/>
+     * Jetty releases the read buffers of idle WebSocket connections back to the buffer pool on its own.
+     * @param context the web app context.
+     * @param cfg the VaadinBoot config.
+     */
+    protected void configurePush(@NotNull WebAppContext context, @NotNull VaadinBoot cfg) {
+        if (!cfg.isPushCompression() && !isWebSocketSkipped(context)) {
+            context.addEventListener(new ServletContextListener() {
+                @Override
+                public void contextInitialized(ServletContextEvent sce) {
+                    final WebSocketComponents components = WebSocketServerComponents.getWebSocketComponents(context);
+                    if (components == null) {
+                        log.warn("Jetty WebSocket support isn't initialized, can't disable " + PushConfiguration.PERMESSAGE_DEFLATE);
+                    } else {
+                        components.getExtensionRegistry().unregister(PushConfiguration.PERMESSAGE_DEFLATE);
+                    }
+                }
+            });
+        }
+        final Map<String, String> initParameters = PushConfiguration.getServletInitParameters(cfg, !isWebSocketSkipped(context));
+        context.getServletHandler().addEventListener(new Container.Listener() {
+            @Override
+            public void beanAdded(Container parent, Object child) {
+                if (child instanceof ServletHolder holder) {
+                    initParameters.forEach((name, value) -> {
+                        if (holder.getInitParameter(name) == null) {
+                            holder.setInitParameter(name, value);
+                        }
+                    });
+                }
+            }
+
+            @Override
+            public void beanRemoved(Container parent, Object child) {
+            }
+        });
+    }
+
+    /**
+     * The configurations a Vaadin app needs, see {@link VaadinBootBase#minimalContainer(boolean)}: the WebSocket
+     * configurations are only kept when the WebSocket support is initialized.
+     */
+    @NotNull
+    private static final List<String> MINIMAL_CONFIGURATIONS = List.of(
+            "org.eclipse.jetty.ee10.webapp.WebInfConfiguration",
+            "org.eclipse.jetty.ee10.webapp.WebXmlConfiguration",
+            "org.eclipse.jetty.ee10.webapp.MetaInfConfiguration",
+            "org.eclipse.jetty.ee10.websocket.jakarta.server.config.JakartaWebSocketConfiguration",
+            "org.eclipse.jetty.ee10.websocket.server.config.JettyWebSocketConfiguration",
+            "org.eclipse.jetty.ee10.annotations.AnnotationConfiguration",
+            "org.eclipse.jetty.ee10.webapp.WebAppConfiguration");
+
+    /**
+     * Only runs the configurations a Vaadin app needs, and skips <code>webdefault.xml</code>, see {@link VaadinBootBase#minimalContainer(boolean)}.
+     * Call after {@link #configureWebSocket(WebAppContext, VaadinBoot)}.
+     * @param context the web app context.
+     * @param cfg the VaadinBoot config.
+     */
+    protected void configureMinimalContainer(@NotNull WebAppContext context, @NotNull VaadinBoot cfg) {
+        final Set<String> known = Configurations.getKnown().stream().map(it -> it.getClass().getName()).collect(Collectors.toSet());
+        final List<String> configurations = MINIMAL_CONFIGURATIONS.stream()
+                .filter(known::contains)
+                .filter(it -> !isWebSocketSkipped(context) || !it.contains(".websocket."))
+                .filter(it -> !cfg.isDisableClasspathScanning() || !it.equals(AnnotationConfiguration.class.getName()))
+                .toList();
+        context.setConfigurationClasses(configurations);
+        // webdefault.xml declares the default servlet, the JSP servlet, the session timeout, the welcome files and the
+        // locale encodings; only the session timeout matters to Vaadin apps.
+        context.setDefaultsDescriptor(null);
+        // Vaadin's servlet deployer would fail to load the Default404Servlet Jetty adds in place of the default servlet.
+        context.getServletHandler().setEnsureDefaultServlet(false);
+        context.getSessionHandler().setMaxInactiveInterval((int) TimeUnit.MINUTES.toSeconds(30));
+        log.info("Jetty minimal container: running only " + configurations.stream().map(it -> it.substring(it.lastIndexOf('.') + 1)).toList()
+                + ", skipping " + known.stream().filter(it -> !configurations.contains(it)).map(it -> it.substring(it.lastIndexOf('.') + 1)).sorted().toList()
+                + " and webdefault.xml");
+    }
+
+    /**
+     * Matches the ServletContainerInitializers which initialize Jetty's WebSocket support: both the Jakarta and the Jetty flavor.
+     */
+    @NotNull
+    private static final String WEBSOCKET_INITIALIZERS = "org\\.eclipse\\.jetty\\.ee10\\.websocket\\..*";
+
+    /**
+     * Skips the initialization of Jetty's WebSocket support if the app doesn't need it, see {@link VaadinBootBase#webSocket(Boolean)}:
+     * the WebSocket ServletContainerInitializers are excluded from the classpath scanning, and therefore never create the
+     * WebSocket container. The hosted apps (see {@link VaadinBoot#hostApp(HostedApp)}) always initialize the WebSocket support.
+     * @param context the web app context.
+     * @param cfg the VaadinBoot config.
+     * @throws IOException if the app's classes can't be read.
+     */
+    protected void configureWebSocket(@NotNull WebAppContext context, @NotNull VaadinBoot cfg) throws IOException {
+        if (cfg.isDisableClasspathScanning()) {
+            // no ServletContainerInitializers run at all.
+            return;
+        }
+        final WebSocketDetector.Result result = WebSocketDetector.detect(cfg);
+        if (result.needed()) {
+            log.debug("Jetty WebSocket support initialized: " + result.reason());
+        } else {
+            context.setAttribute(AnnotationConfiguration.SERVLET_CONTAINER_INITIALIZER_EXCLUSION_PATTERN, WEBSOCKET_INITIALIZERS);
+            log.info("Jetty WebSocket support skipped, " + result.reason() + ": not running the JakartaWebSocketServletContainerInitializer"
+                    + " and JettyWebSocketServletContainerInitializer, no WebSocket container created");
+        }
+    }
+
+    private static boolean isWebSocketSkipped(@NotNull WebAppContext context) {
+        return WEBSOCKET_INITIALIZERS.equals(context.getAttribute(AnnotationConfiguration.SERVLET_CONTAINER_INITIALIZER_EXCLUSION_PATTERN));
+    }
+
+    /**
+     * Wraps given handler in a handler which compresses responses and/or inflates request bodies, as configured by
+     * {@link VaadinBootBase#isCompression()} and {@link VaadinBootBase#isInflateRequestBodies()}.
+     * <br/>
+     * All compression implementations available on the classpath are used: gzip is always available, brotli and zstd
+     * are available when the app adds <code>jetty-compression-brotli</code> and/or <code>jetty-compression-zstandard</code>.
+     * @param handler the handler to wrap, not null.
+     * @param cfg the VaadinBoot config.
+     * @return the compression handler.
+     */
+    @NotNull
+    protected CompressionHandler newCompressionHandler(@NotNull Handler handler, @NotNull VaadinBoot cfg) {
+        final CompressionHandler compressionHandler = new CompressionHandler(cfg.isInflateRequestBodies() ? new InflatedSizeLimitHandler(handler, cfg.getInflatedRequestMaxSize()) : handler);
+        final List<String> encodings = new ArrayList<>();
+        for (Compression compression : findCompressions()) {
+            compression.setMinCompressSize(cfg.getCompressionMinSize());
+            if (compression.getEncodingName().equals("gzip") && cfg.getCompressionLevel() != -1) {
+                compression.getDefaultEncoderConfig().setCompressionLevel(cfg.getCompressionLevel());
+            }
+            compressionHandler.putCompression(compression);
+            encodings.add(compression.getEncodingName());
+        }
+
+        final CompressionConfig.Builder config = CompressionConfig.builder().defaults()
+                // prefer the encodings with the best ratio
+                .compressPreferredEncodings(PREFERRED_ENCODINGS);
+        if (cfg.isCompression()) {
+            cfg.getCompressionMimeTypes().forEach(config::compressIncludeMimeType);
+            // compressing would rule out the zero-copy transfer; the files are usually already compressed anyway.
+            for (String contextRoot : getContextRoots(cfg)) {
+                cfg.getZeroCopyStaticPaths().forEach(path -> config.compressExcludePath(contextRoot + path));
+            }
+        } else {
+            config.compressExcludePath("/*");
+        }
+        if (!cfg.isInflateRequestBodies()) {
+            config.decompressExcludePath("/*");
+        }
+        compressionHandler.putConfiguration("/", config.build());
+        log.info("Jetty compression configured: encodings " + encodings + ", compress responses: " + cfg.isCompression() + ", inflate request bodies: " + cfg.isInflateRequestBodies());
+        return compressionHandler;
+    }
+
+    /**
+     * Rejects the request bodies inflated by the {@link CompressionHandler} with 413 once they inflate over given size;
+     * see {@link VaadinBootBase#inflatedRequestMaxSize(long)}. The request bodies which weren't inflated aren't limited.
+     * <br/>
+     * Needs to be wrapped by the {@link CompressionHandler}, so that it counts the inflated bytes.
+     */
+    private static final class InflatedSizeLimitHandler extends SizeLimitHandler {
+        InflatedSizeLimitHandler(@NotNull Handler handler, long maxSize) {
+            super(maxSize, -1);
+            setHandler(handler);
+        }
+
+        @Override
+        public boolean handle(Request request, Response response, Callback callback) throws Exception {
+            // the CompressionHandler replaces the Content-Encoding header of the inflated requests with X-Content-Encoding
+            if (request.getHeaders().contains("X-Content-Encoding")) {
+                return super.handle(request, response, callback);
+            }
+            final Handler handler = getHandler();
+            return handler != null && handler.handle(request, response, callback);
+        }
+    }
+
+    @NotNull
+    private static final List<String> PREFERRED_ENCODINGS = List.of("zstd", "br", "gzip");
+
+    /**
+     * Finds all Jetty compression implementations on the classpath.
+     * @return the compression implementations, sorted according to {@link #PREFERRED_ENCODINGS}.
+     */
+    @NotNull
+    private static List<Compression> findCompressions() {
+        final List<Compression> result = new ArrayList<>();
+        final Iterator<Compression> iterator = ServiceLoader.load(Compression.class).iterator();
+        while (true) {
+            try {
+                if (!iterator.hasNext()) {
+                    break;
+                }
+                result.add(iterator.next());
+            } catch (ServiceConfigurationError | LinkageError e) {
+                // e.g. the brotli module without its native library
+                log.warn("Failed to load Jetty compression implementation: " + e, e);
+            }
+        }
+        result.sort(Comparator.comparingInt(it -> {
+            final int index = PREFERRED_ENCODINGS.indexOf(it.getEncodingName());
+            return index < 0 ? PREFERRED_ENCODINGS.size() : index;
+        }));
+        return result;
+    }
+
     /**
      * Returns the Jetty webapp context.
      * @return the webapp context, not null.
-     * @throws IllegalStateException if {@link #configure(VaadinBootBase)} wasn't called or the web server is already stopped.
+     * @throws IllegalStateException if {@link #configure(VaadinBootBase)} wasn't called, the web server is already stopped,
+     * or the web server hosts apps: use {@link #getContexts()} then.
      */
     public @NotNull WebAppContext getContext() {
+        if (context == null && contexts != null) {
+            throw new IllegalStateException("Invalid state: hosting multiple apps, use getContexts()");
+        }
         return Util.checkNotNull(context, "configure() wasn't called or stop() was already called");
     }
 
+    /**
+     * Returns all Jetty webapp contexts: either just {@link #getContext()}, or the contexts of the hosted apps,
+     * in the order of {@link VaadinBoot#getHostedApps()}.
+     * @return the webapp contexts, not null, not empty.
+     * @throws IllegalStateException if {@link #configure(VaadinBootBase)} wasn't called or the web server is already stopped.
+     */
+    public @NotNull List<WebAppContext> getContexts() {
+        return Util.checkNotNull(contexts, "configure() wasn't called or stop() was already called");
+    }
+
+    @NotNull
+    private static List<String> getContextRoots(@NotNull VaadinBoot cfg) {
+        if (cfg.getHostedApps().isEmpty()) {
+            return List.of(cfg.getContextRoot());
+        }
+        return cfg.getHostedApps().stream().map(HostedApp::getContextRoot).toList();
+    }
+
     /**
      * Creates the Jetty {@link WebAppContext}.
      * @param cfg the VaadinBoot config.
@@ -131,8 +722,8 @@ public class JettyWebServer implements WebServer {
      */
     @NotNull
     protected WebAppContext createWebAppContext(@NotNull VaadinBoot cfg) throws IOException {
-        final WebAppContext context = new WebAppContext();
-        final Resource webRoot = findWebRoot(context.getResourceFactory());
+        final WebAppContext context = cfg.isFlatClassLoader() ? newFlatWebAppContext() : new WebAppContext();
+        final Resource webRoot = findWebRoot(context.getResourceFactory(), cfg.isExtractWebRoot());
         context.setBaseResource(webRoot);
         final String contextRoot = cfg.getContextRoot();
         context.setContextPath(contextRoot.isEmpty() ? "/" : contextRoot);
@@ -141,8 +732,29 @@ public class JettyWebServer implements WebServer {
         // https://github.com/mvysny/vaadin-boot/issues/22
 //        context.addServlet(servlet, "/*");
 
-        // when the webapp fails to initialize, make sure that start() throws.
-        context.setThrowUnavailableOnStartupException(true);
+        configureWebSocket(context, cfg);
+        if (cfg.isMinimalContainer()) {
+            configureMinimalContainer(context, cfg);
+        }
+        configureFeatures(context, cfg);
+        if (cfg.isFlatClassLoader()) {
+            if (cfg.isRestartOnClassChange()) {
+                throw new IllegalStateException("Invalid state: flatClassLoader can't be combined with restartOnClassChange");
+            }
+            // the app's classes are loaded by the application classloader anyway.
+            context.setClassLoader(Thread.currentThread().getContextClassLoader());
+            log.info("Jetty running the app on the application classloader, without a WebAppClassLoader");
+        }
+        if (cfg.isRestartOnClassChange()) {
+            // Load the app's classes child-first via the WebAppClassLoader, rather than from the parent (application) classloader.
+            // The WebAppClassLoader is thrown away on restart, and the app's classes are then loaded anew. The dependency jars
+            // stay loaded in the parent classloader.
+            final String classesFolders = Env.findClassesJarOrFolder(Env.findWebRoot()).stream()
+                    .map(File::getAbsolutePath)
+                    .collect(Collectors.joining(","));
+            context.setParentLoaderPriority(false);
+            context.setExtraClasspath(classesFolders);
+        }
         if (!cfg.isDisableClasspathScanning()) {
             // this will properly scan the classpath for all @WebListeners, including the most important
             // com.vaadin.flow.server.startup.ServletContextListeners.
@@ -156,10 +768,318 @@ public class JettyWebServer implements WebServer {
             // must be set to true, to enable classpath scanning:
             // https://eclipse.dev/jetty/documentation/jetty-12/operations-guide/index.html#og-annotations-scanning
             context.setConfigurationDiscovered(true);
+            if (cfg.isUseAnnotationIndex()) {
+                configureAnnotationIndex(context);
+            }
         }
         return context;
     }
 
+    /**
+     * Replaces Jetty's classpath scanning by the annotation index generated at build time, see {@link VaadinBoot#useAnnotationIndex(boolean)}.
+     * @param context the web app context.
+     * @throws IOException if the index can't be read.
+     */
+    protected void configureAnnotationIndex(@NotNull WebAppContext context) throws IOException {
+        final AnnotationIndex index = AnnotationIndex.read(Thread.currentThread().getContextClassLoader());
+        if (index == null) {
+            throw new IllegalStateException("Invalid state: useAnnotationIndex is on but " + AnnotationIndex.RESOURCE
+                    + " is missing on the classpath: generate it at build time via AnnotationIndex.main()");
+        }
+        // adding the configuration loads the default ones first, so that AnnotationConfiguration can then be removed.
+        context.addConfiguration(new AnnotationIndexConfiguration(index));
+        // by instance: the generic Class... overload of removeConfiguration() is an unchecked generic array creation.
+        final AnnotationConfiguration annotationConfiguration = context.getConfiguration(AnnotationConfiguration.class);
+        if (annotationConfiguration != null) {
+            context.removeConfiguration(annotationConfiguration);
+        }
+        log.info("Jetty classpath scanning replaced by " + AnnotationIndex.RESOURCE + ": " + index.getClassNames().size() + " classes indexed");
+    }
+
+    /**
+     * Creates a {@link WebAppContext} which runs the app directly on the classloader set via {@link WebAppContext#setClassLoader(ClassLoader)},
+     * see {@link VaadinBootBase#flatClassLoader(boolean)}. The stock context always wraps that classloader in a <code>WebAppClassLoader</code>.
+     * @return the context, not null.
+     */
+    @NotNull
+    private static WebAppContext newFlatWebAppContext() {
+        return new WebAppContext() {
+            @Override
+            protected ClassLoader configureClassLoader(ClassLoader loader) {
+                return loader;
+            }
+        };
+    }
+
+    /**
+     * Configures the features shared by the app on the classpath and the hosted apps.
+     * @param context the web app context.
+     * @param cfg the VaadinBoot config.
+     */
+    private void configureFeatures(@NotNull WebAppContext context, @NotNull VaadinBoot cfg) {
+        // when the webapp fails to initialize, make sure that start() throws.
+        context.setThrowUnavailableOnStartupException(true);
+        addZeroCopyStaticServlet(context, cfg);
+        configurePush(context, cfg);
+        // the filters are prepended: the profiler runs after the watchdog, so that the watchdog measures the profiler as well,
+        // then the dispatcher, and the concurrency limiter runs last, so that the requests waiting in their session's queue
+        // hold no slot. The rate limiter rejects the requests before any other filter but the readiness check.
+        addConcurrencyLimiter(context, cfg);
+        addSessionSerialDispatcher(context, cfg);
+        addSessionLockProfiler(context, cfg);
+        addSlowRequestWatchdog(context, cfg);
+        addPinningReport(context, cfg);
+        addRateLimiter(context, cfg);
+        addReadinessCheck(context, cfg);
+    }
+
+    /**
+     * Fails if the configuration enables a feature which doesn't support hosting apps, see {@link VaadinBoot#hostApp(HostedApp)}.
+     * @param cfg the VaadinBoot config.
+     */
+    private static void checkHostingSupported(@NotNull VaadinBoot cfg) {
+        if (cfg.isRestartOnClassChange()) {
+            throw new IllegalStateException("Invalid state: restartOnClassChange isn't supported when hosting apps");
+        }
+        if (cfg.isFlatClassLoader()) {
+            throw new IllegalStateException("Invalid state: flatClassLoader isn't supported when hosting apps: every app needs a classloader of its own");
+        }
+        // the profiler hooks into Vaadin on the host's classpath, while the dispatcher would mix up the sessions of the apps:
+        // Jetty shares the session id among the contexts.
+        if (cfg.getSessionLockProfiler() != null) {
+            throw new IllegalStateException("Invalid state: sessionLockProfiling isn't supported when hosting apps");
+        }
+        if (cfg.getSessionSerialDispatcher() != null) {
+            throw new IllegalStateException("Invalid state: sessionSerialDispatch isn't supported when hosting apps");
+        }
+    }
+
+    /**
+     * Creates the Jetty {@link WebAppContext} of a hosted app, see {@link VaadinBoot#hostApp(HostedApp)}. The app's classes
+     * and jars are loaded child-first by the context's own classloader; the web root, the Vaadin mode, the <code>@WebListener</code>s
+     * and the <code>@WebServlet</code>s are looked up in the app's classpath only.
+     * @param app the hosted app.
+     * @param cfg the VaadinBoot config.
+     * @return the {@link WebAppContext}
+     * @throws IOException on i/o exception
+     */
+    @NotNull
+    protected WebAppContext createHostedAppContext(@NotNull HostedApp app, @NotNull VaadinBoot cfg) throws IOException {
+        final WebAppContext context = new WebAppContext();
+        final URL webRoot;
+        final boolean productionMode;
+        try (URLClassLoader classLoader = new URLClassLoader(toURLs(app.getClasspath()), null)) {
+            webRoot = Env.findWebRoot(classLoader);
+            productionMode = app.getProductionMode() != null ? app.getProductionMode() : Env.detectProductionMode(classLoader);
+        }
+        context.setBaseResource(findWebRoot(context.getResourceFactory(), webRoot, cfg.isExtractWebRoot()));
+        context.setContextPath(app.getContextRoot().isEmpty() ? "/" : app.getContextRoot());
+        context.setParentLoaderPriority(false);
+        context.setExtraClasspath(app.getClasspath().stream().map(File::getAbsolutePath).collect(Collectors.joining(",")));
+        context.addHiddenClassMatcher(newVaadinBootClassMatcher());
+        // per-app, rather than the JVM-wide vaadin.productionMode system property.
+        context.setInitParameter("productionMode", String.valueOf(productionMode));
+        app.getInitParameters().forEach(context::setInitParameter);
+        // scans the app's classpath, the extra classpath; the host's classpath isn't scanned.
+        context.setConfigurationDiscovered(true);
+        configureFeatures(context, cfg);
+        log.info("Hosting " + app + " in " + (productionMode ? "production" : "development") + " mode");
+        return context;
+    }
+
+    @NotNull
+    private static URL[] toURLs(@NotNull List<File> files) throws MalformedURLException {
+        final URL[] urls = new URL[files.size()];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = files.get(i).toURI().toURL();
+        }
+        return urls;
+    }
+
+    @NotNull
+    private static final String SERVICE_INIT_LISTENERS = "META-INF/services/com.vaadin.flow.server.VaadinServiceInitListener";
+
+    /**
+     * Hides Vaadin-Boot's own classes and resources from a hosted app. The app brings its own Vaadin: Vaadin-Boot's
+     * Vaadin service (the {@link SessionLockProfiler} installer), loaded from the host's classpath, isn't a service of the app's Vaadin
+     * and would fail the app's startup.
+     * @return the class matcher matching the locations of Vaadin-Boot's classes and resources.
+     * @throws IOException on i/o exception
+     */
+    @NotNull
+    private static ClassMatcher newVaadinBootClassMatcher() throws IOException {
+        final Set<String> locations = new LinkedHashSet<>();
+        for (Class<?> clazz : List.of(VaadinBootBase.class, JettyWebServer.class)) {
+            final URI location = TypeUtil.getLocationOfClass(clazz);
+            if (location != null) {
+                locations.add(location.toString());
+            }
+        }
+        // when running from Gradle or an IDE, the resources live in a folder of their own.
+        final Enumeration<URL> services = JettyWebServer.class.getClassLoader().getResources(SERVICE_INIT_LISTENERS);
+        while (services.hasMoreElements()) {
+            final URL url = services.nextElement();
+            if (Util.toString(url, StandardCharsets.UTF_8).contains(SessionLockProfiler.class.getName())) {
+                try {
+                    final String location = URIUtil.unwrapContainer(url.toURI()).toString();
+                    locations.add(location.endsWith(SERVICE_INIT_LISTENERS) ? location.substring(0, location.length() - SERVICE_INIT_LISTENERS.length()) : location);
+                } catch (URISyntaxException e) {
+                    throw new IOException(e);
+                }
+            }
+        }
+        return new ClassMatcher(locations.toArray(String[]::new));
+    }
+
+    /**
+     * Serves {@link VaadinBootBase#getZeroCopyStaticPaths()} by Jetty's {@link ResourceServlet} rather than by Vaadin. Files served
+     * from a folder are memory-mapped, and Jetty writes the mapped buffers to the socket directly, without copying them to the heap.
+     * @param context the web app context.
+     * @param cfg the VaadinBoot config.
+     */
+    protected void addZeroCopyStaticServlet(@NotNull WebAppContext context, @NotNull VaadinBoot cfg) {
+        // also applies to the Jetty's own "default" servlet, declared in Jetty's webdefault.xml
+        context.setInitParameter("org.eclipse.jetty.servlet.Default.useFileMappedBuffer", "true");
+        if (cfg.getZeroCopyStaticPaths().isEmpty()) {
+            return;
+        }
+        final ServletHolder holder = new ServletHolder("vaadin-boot-static", ResourceServlet.class);
+        holder.setInitParameter("useFileMappedBuffer", "true");
+        holder.setInitParameter("dirAllowed", "false");
+        // resolve the full path against the webapp folder: /fonts/font.woff2 is served from /webapp/fonts/font.woff2
+        holder.setInitParameter("pathInfoOnly", "false");
+        for (String path : cfg.getZeroCopyStaticPaths()) {
+            context.addServlet(holder, path);
+        }
+        // Vaadin's ServletDeployer inspects all registered servlets: make the ResourceServlet class visible to the webapp.
+        context.addHiddenClassMatcher(new ClassMatcher("-" + ResourceServlet.class.getName()));
+        log.info("Serving " + cfg.getZeroCopyStaticPaths() + " by Jetty's ResourceServlet");
+    }
+
+    /**
+     * Registers the slow request watchdog as the very first filter, see {@link VaadinBootBase#slowRequestThreshold(java.time.Duration)}.
+     * The filter is mapped to the <code>ASYNC</code> dispatches as well, in order to watch the requests resumed by the
+     * {@link SessionSerialDispatcher}.
+     * @param context the web app context.
+     * @param cfg the configuration.
+     */
+    protected void addSlowRequestWatchdog(@NotNull WebAppContext context, @NotNull VaadinBoot cfg) {
+        final SlowRequestWatchdog watchdog = cfg.getSlowRequestWatchdog();
+        if (watchdog == null) {
+            return;
+        }
+        addFilter(context, "vaadin-boot-slow-request-watchdog", watchdog, "/*", DispatcherType.REQUEST, DispatcherType.ASYNC);
+        log.info("Watching for requests slower than " + cfg.getSlowRequestThreshold());
+    }
+
+    /**
+     * Registers the session serial dispatcher, see {@link VaadinBootBase#sessionSerialDispatch(boolean)}. The filter
+     * is mapped to the <code>ASYNC</code> dispatches as well, in order to serve the resumed requests.
+     * @param context the web app context.
+     * @param cfg the configuration.
+     */
+    protected void addSessionSerialDispatcher(@NotNull WebAppContext context, @NotNull VaadinBoot cfg) {
+        final SessionSerialDispatcher dispatcher = cfg.getSessionSerialDispatcher();
+        if (dispatcher == null) {
+            return;
+        }
+        addFilter(context, "vaadin-boot-session-serial-dispatcher", dispatcher, "/*", DispatcherType.REQUEST, DispatcherType.ASYNC);
+        log.info("Serving the Vaadin requests of a session one at a time");
+    }
+
+    /**
+     * Registers the session lock profiler, see {@link VaadinBootBase#sessionLockProfiling(boolean)}. The filter is mapped
+     * to the <code>ASYNC</code> dispatches as well, in order to profile the requests resumed by the {@link SessionSerialDispatcher}.
+     * @param context the web app context.
+     * @param cfg the configuration.
+     */
+    protected void addSessionLockProfiler(@NotNull WebAppContext context, @NotNull VaadinBoot cfg) {
+        final SessionLockProfiler profiler = cfg.getSessionLockProfiler();
+        if (profiler == null) {
+            return;
+        }
+        addFilter(context, "vaadin-boot-session-lock-profiler", profiler, "/*", DispatcherType.REQUEST, DispatcherType.ASYNC);
+        log.info("Profiling the VaadinSession lock");
+    }
+
+    /**
+     * Serves the virtual thread pinning report, see {@link VaadinBootBase#pinningReportPath(String)}.
+     * @param context the web app context.
+     * @param cfg the configuration.
+     */
+    protected void addPinningReport(@NotNull WebAppContext context, @NotNull VaadinBoot cfg) {
+        final PinningMonitor pinningMonitor = cfg.getPinningMonitor();
+        if (pinningMonitor == null || cfg.getPinningReportPath() == null) {
+            return;
+        }
+        addFilter(context, "vaadin-boot-pinning-report", pinningMonitor, cfg.getPinningReportPath());
+        log.info("Serving the virtual thread pinning report at " + cfg.getPinningReportPath());
+    }
+
+    /**
+     * Registers the concurrency limiter, see {@link VaadinBootBase#adaptiveConcurrency(boolean)}. The filter is mapped
+     * to the <code>ASYNC</code> dispatches as well, in order to limit the requests resumed by the {@link SessionSerialDispatcher}
+     * and to serve the requests it has queued itself.
+     * @param context the web app context.
+     * @param cfg the configuration.
+     */
+    protected void addConcurrencyLimiter(@NotNull WebAppContext context, @NotNull VaadinBoot cfg) {
+        final ConcurrencyLimiter concurrencyLimiter = cfg.getConcurrencyLimiter();
+        if (concurrencyLimiter == null) {
+            return;
+        }
+        addFilter(context, "vaadin-boot-concurrency-limiter", concurrencyLimiter, "/*", DispatcherType.REQUEST, DispatcherType.ASYNC);
+        log.info("Adapting the concurrency limit to the latency");
+    }
+
+    /**
+     * Registers the rate limiter, see {@link VaadinBootBase#rateLimit(int, int)}.
+     * @param context the web app context.
+     * @param cfg the configuration.
+     */
+    protected void addRateLimiter(@NotNull WebAppContext context, @NotNull VaadinBoot cfg) {
+        final RateLimiter rateLimiter = cfg.getRateLimiter();
+        if (rateLimiter == null) {
+            return;
+        }
+        addFilter(context, "vaadin-boot-rate-limiter", rateLimiter, "/*");
+        log.info("Limiting the request rate of every client");
+    }
+
+    /**
+     * Serves the readiness of the app, see {@link VaadinBootBase#readinessPath(String)}.
+     * @param context the web app context.
+     * @param cfg the configuration.
+     */
+    protected void addReadinessCheck(@NotNull WebAppContext context, @NotNull VaadinBoot cfg) {
+        final ReadinessCheck readinessCheck = cfg.getReadinessCheck();
+        if (readinessCheck == null) {
+            return;
+        }
+        addFilter(context, "vaadin-boot-readiness-check", readinessCheck, cfg.getReadinessPath());
+        log.info("Serving the readiness at " + cfg.getReadinessPath());
+    }
+
+    /**
+     * Registers given filter, mapped to given path and running before any filter registered so far.
+     * @param context the web app context.
+     * @param name the filter name.
+     * @param filter the filter.
+     * @param pathSpec the path spec, e.g. <code>/*</code>.
+     * @param dispatcherTypes the dispatches the filter is mapped to; none maps the filter to <code>REQUEST</code> dispatches only.
+     */
+    private static void addFilter(@NotNull WebAppContext context, @NotNull String name, @NotNull Filter filter, @NotNull String pathSpec, @NotNull DispatcherType... dispatcherTypes) {
+        final FilterHolder holder = new FilterHolder(filter);
+        holder.setName(name);
+        holder.setAsyncSupported(true);
+        final FilterMapping mapping = new FilterMapping();
+        mapping.setFilterName(name);
+        mapping.setPathSpec(pathSpec);
+        mapping.setDispatcherTypes(dispatcherTypes.length == 0 ? EnumSet.of(DispatcherType.REQUEST) : EnumSet.copyOf(Arrays.asList(dispatcherTypes)));
+        context.getServletHandler().addFilter(holder);
+        context.getServletHandler().prependFilterMapping(mapping);
+    }
+
     /**
      * Detects the web root folder, used to serve static content.
      * @return resource serving web root.
@@ -167,8 +1087,50 @@ public class JettyWebServer implements WebServer {
      */
     @NotNull
     static Resource findWebRoot(ResourceFactory resourceFactory) throws MalformedURLException {
-        final URL webRoot = Env.findWebRoot();
-        final Resource resource = resourceFactory.newResource(webRoot);
+        return checkWebRoot(resourceFactory.newResource(Env.findWebRoot()));
+    }
+
+    /**
+     * Detects the web root folder, used to serve static content.
+     * @param extractWebRoot if true and the web root is packaged in a jar file, extract it via {@link Env#extractWebRoot(File)}
+     *                       and serve it from the extracted folder.
+     * @return resource serving web root.
+     * @throws IOException when the webroot URL auto-detection fails, or the extraction fails.
+     */
+    @NotNull
+    static Resource findWebRoot(ResourceFactory resourceFactory, boolean extractWebRoot) throws IOException {
+        return findWebRoot(resourceFactory, Env.findWebRoot(), extractWebRoot);
+    }
+
+    /**
+     * Serves given web root folder.
+     * @param webRoot the web root folder, as detected by {@link Env#findWebRoot(ClassLoader)}.
+     * @param extractWebRoot if true and the web root is packaged in a jar file, extract it via {@link Env#extractWebRoot(File)}
+     *                       and serve it from the extracted folder.
+     * @return resource serving web root.
+     * @throws IOException when the extraction fails.
+     */
+    @NotNull
+    static Resource findWebRoot(ResourceFactory resourceFactory, @NotNull URL webRoot, boolean extractWebRoot) throws IOException {
+        if (!ResourceFactory.isSupported(webRoot.getProtocol())) {
+            // e.g. the resource: URLs of a GraalVM native image; served via the URL's own connection.
+            ResourceFactory.registerResourceFactory(webRoot.getProtocol(), new URLResourceFactory());
+            log.debug("Serving " + webRoot.getProtocol() + ": URLs via " + URLResourceFactory.class.getSimpleName());
+        }
+        if (extractWebRoot) {
+            if (Env.isNativeImage) {
+                throw new IllegalStateException("Invalid state: extractWebRoot isn't supported in a native image: the web root is baked into the executable");
+            }
+            final File resourcesJarOrFolder = Env.findResourcesJarOrFolder(webRoot);
+            if (resourcesJarOrFolder.isFile()) {
+                return checkWebRoot(resourceFactory.newResource(Env.extractWebRoot(resourcesJarOrFolder).toPath()));
+            }
+        }
+        return checkWebRoot(resourceFactory.newResource(webRoot));
+    }
+
+    @NotNull
+    private static Resource checkWebRoot(@NotNull Resource resource) {
         if (!resource.exists()) {
             log.warn(resource + " (" + resource.getClass().getName() + ") claims it doesn't exist");
         }
@@ -1,10 +1,58 @@
 package com.github.mvysny.vaadinboot;
 
+import org.eclipse.jetty.server.Server;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 public class VaadinBootTest {
     @Test
     public void smoke() {
         new VaadinBoot();
     }
+
+    @Test
+    public void testBufferPool() {
+        final VaadinBoot boot = new VaadinBoot();
+        assertTrue(boot.isDirectBuffers());
+        assertEquals(boot.getResourceDefaults().bufferPoolMaxHeapMemory(), boot.getBufferPoolMaxHeapMemory());
+        assertEquals(boot.getResourceDefaults().bufferPoolMaxDirectMemory(), boot.getBufferPoolMaxDirectMemory());
+        assertEquals(4096, boot.getBufferPoolBucketFactor());
+        assertEquals(65536, boot.getBufferPoolMaxCapacity());
+        assertEquals(Integer.MAX_VALUE, boot.getBufferPoolMaxBucketSize());
+        assertFalse(boot.isBufferPoolLeakTracking());
+        assertNull(boot.getBufferPoolStatistics());
+        assertNull(boot.getBufferPoolLeaks());
+
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().bufferPoolMaxHeapMemory(-2));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().bufferPoolMaxDirectMemory(-2));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().bufferPoolBuckets(0, 65536));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().bufferPoolBuckets(4096, 10000));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().bufferPoolBuckets(4096, 2048));
+        assertThrows(IllegalArgumentException.class, () -> new VaadinBoot().bufferPoolMaxBucketSize(0));
+    }
+
+    @Test
+    public void testHostedApps(@TempDir File classes) throws Exception {
+        final VaadinBoot boot = new VaadinBoot();
+        assertTrue(boot.getHostedApps().isEmpty());
+        final HostedApp app = new HostedApp("crm/", List.of(classes));
+        assertEquals("/crm", app.getContextRoot());
+        assertEquals(List.of(classes.getAbsoluteFile()), app.getClasspath());
+        assertNull(app.getProductionMode());
+        assertEquals("", new HostedApp("/", List.of(classes)).getContextRoot());
+        boot.hostApp(app);
+        assertEquals(List.of(app), boot.getHostedApps());
+        assertThrows(IllegalArgumentException.class, () -> boot.hostApp(new HostedApp("/crm", List.of(classes))));
+
+        // the Jetty jar is provided by the host.
+        final File jettyJar = new File(Server.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        assertEquals(List.of(classes.getAbsoluteFile()), new HostedApp("/crm", List.of(jettyJar, classes)).getClasspath());
+        assertThrows(IllegalArgumentException.class, () -> new HostedApp("/crm", List.of(jettyJar)));
+        assertThrows(IllegalArgumentException.class, () -> new HostedApp("/crm", List.of(new File(classes, "nonexisting"))));
+    }
 }
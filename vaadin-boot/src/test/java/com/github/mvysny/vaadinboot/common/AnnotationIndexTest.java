@@ -0,0 +1,37 @@
+package com.github.mvysny.vaadinboot.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnnotationIndexTest {
+    private static final AnnotationIndex INDEX = new AnnotationIndex(
+            List.of("ContainerInitializer{com.vaadin.flow.server.startup.RouteRegistryInitializer,interested=[com.example.MainView, com.example.OtherView],applicable=[],annotated=[]}",
+                    "ContainerInitializer{org.atmosphere.cpr.ContainerInitializer,interested=[],applicable=[],annotated=[]}"),
+            List.of("com.example.Bootstrap"), List.of("com.example.MyServlet"), List.of("com.example.MyFilter"));
+
+    @Test
+    public void testFormatParse() {
+        assertEquals(INDEX, AnnotationIndex.parse(INDEX.format()));
+        assertEquals(new AnnotationIndex(List.of(), List.of(), List.of(), List.of()), AnnotationIndex.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> AnnotationIndex.parse("servlets com.example.MyServlet"));
+    }
+
+    @Test
+    public void testClassNames() {
+        assertEquals(Set.of("com.vaadin.flow.server.startup.RouteRegistryInitializer", "com.example.MainView", "com.example.OtherView",
+                "org.atmosphere.cpr.ContainerInitializer", "com.example.Bootstrap", "com.example.MyServlet", "com.example.MyFilter"), INDEX.getClassNames());
+        assertThrows(IllegalStateException.class, () -> new AnnotationIndex(List.of("RouteRegistryInitializer"), List.of(), List.of(), List.of()).getClassNames());
+    }
+
+    @Test
+    public void testReflectConfig() {
+        final String config = INDEX.toReflectConfig();
+        assertTrue(config.startsWith("[\n"), config);
+        assertTrue(config.contains("{\"name\": \"com.example.MainView\", \"allDeclaredConstructors\": true, \"allPublicMethods\": true},"), config);
+        assertTrue(config.endsWith("}\n]\n"), config);
+    }
+}
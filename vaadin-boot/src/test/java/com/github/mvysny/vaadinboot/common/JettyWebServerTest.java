@@ -1,11 +1,33 @@
 package com.github.mvysny.vaadinboot.common;
 
 import com.github.mvysny.vaadinboot.VaadinBoot;
+import org.eclipse.jetty.ee10.annotations.AnnotationConfiguration;
 import org.eclipse.jetty.ee10.webapp.WebAppContext;
+import org.eclipse.jetty.io.ArrayByteBufferPool;
+import org.eclipse.jetty.io.Content;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.resource.URLResourceFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -52,4 +74,143 @@ class JettyWebServerTest {
         final WebAppContext ctx = s.getContext();
         assertEquals(".*\\.jar|.*/classes/.*|.*/test-classes/.*", ctx.getAttribute("org.eclipse.jetty.server.webapp.ContainerIncludeJarPattern"));
     }
+
+    @Test
+    public void testNewByteBufferPool() {
+        final JettyWebServer s = new JettyWebServer();
+        final ArrayByteBufferPool pool = s.newByteBufferPool(new VaadinBoot().bufferPoolBuckets(1024, 32768));
+        assertFalse(pool instanceof ArrayByteBufferPool.Tracking);
+        assertEquals(32768, pool.getMaxCapacity());
+        assertTrue(pool.isStatisticsEnabled());
+        assertInstanceOf(ArrayByteBufferPool.Tracking.class, s.newByteBufferPool(new VaadinBoot().bufferPoolLeakTracking(true)));
+    }
+
+    @Test
+    public void testNewHttpConfiguration() {
+        final JettyWebServer s = new JettyWebServer();
+        final HttpConfiguration defaults = s.newHttpConfiguration(new VaadinBoot());
+        assertEquals(new HttpConfiguration().getOutputBufferSize(), defaults.getOutputBufferSize());
+        final HttpConfiguration lowFootprint = s.newHttpConfiguration(new VaadinBoot().httpPreset(HttpPreset.LOW_FOOTPRINT));
+        assertEquals(4096, lowFootprint.getOutputBufferSize());
+        assertEquals(1024, lowFootprint.getOutputAggregationSize());
+        assertEquals(4096, lowFootprint.getRequestHeaderSize());
+        assertEquals(256, lowFootprint.getHeaderCacheSize());
+        assertEquals(15000, lowFootprint.getIdleTimeout());
+    }
+
+    @Test
+    public void testResources() throws Exception {
+        final JettyWebServer s = new JettyWebServer();
+        s.configure(new VaadinBoot().acceptors(2).selectors(3).maxThreads(40).httpPreset(HttpPreset.LOW_LATENCY));
+        final Server server = s.getContext().getServer();
+        final QueuedThreadPool threadPool = (QueuedThreadPool) server.getThreadPool();
+        assertEquals(40, threadPool.getMaxThreads());
+        assertEquals(16, threadPool.getMinThreads());
+        final ServerConnector connector = (ServerConnector) server.getConnectors()[0];
+        assertEquals(2, connector.getAcceptors());
+        assertEquals(3, connector.getSelectorManager().getSelectorCount());
+
+        final JettyWebServer s2 = new JettyWebServer();
+        final VaadinBoot derived = new VaadinBoot();
+        s2.configure(derived);
+        final Server server2 = s2.getContext().getServer();
+        assertEquals(derived.getResourceDefaults().maxThreads(), ((QueuedThreadPool) server2.getThreadPool()).getMaxThreads());
+        assertEquals(derived.getResourceDefaults().acceptors(), ((ServerConnector) server2.getConnectors()[0]).getAcceptors());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedNewThreadPoolOverride() throws Exception {
+        final QueuedThreadPool custom = new QueuedThreadPool(7, 7);
+        final JettyWebServer s = new JettyWebServer() {
+            @Override
+            protected ThreadPool newThreadPool(boolean useVirtualThreadsIfAvailable) {
+                return custom;
+            }
+        };
+        s.configure(new VaadinBoot());
+        assertSame(custom, s.getContext().getServer().getThreadPool());
+    }
+
+    @Test
+    public void testWebSocketSkipped() throws Exception {
+        final JettyWebServer s = new JettyWebServer();
+        s.configure(new VaadinBoot().webSocket(false));
+        assertNotNull(s.getContext().getAttribute(AnnotationConfiguration.SERVLET_CONTAINER_INITIALIZER_EXCLUSION_PATTERN));
+
+        final JettyWebServer s2 = new JettyWebServer();
+        s2.configure(new VaadinBoot().webSocket(true));
+        assertNull(s2.getContext().getAttribute(AnnotationConfiguration.SERVLET_CONTAINER_INITIALIZER_EXCLUSION_PATTERN));
+    }
+
+    @Test
+    public void testMinimalContainer() throws Exception {
+        final JettyWebServer s = new JettyWebServer();
+        s.configure(new VaadinBoot().minimalContainer(true).webSocket(false));
+        assertNull(s.getContext().getDefaultsDescriptor());
+        final List<String> configurations = s.getContext().getConfigurations().stream().map(it -> it.getClass().getSimpleName()).toList();
+        assertEquals(List.of("WebInfConfiguration", "WebXmlConfiguration", "MetaInfConfiguration", "AnnotationConfiguration", "WebAppConfiguration"), configurations);
+
+        final JettyWebServer s2 = new JettyWebServer();
+        s2.configure(new VaadinBoot());
+        assertNotNull(s2.getContext().getDefaultsDescriptor());
+    }
+
+    @Test
+    public void testFlatClassLoader() throws Exception {
+        final JettyWebServer s = new JettyWebServer();
+        s.configure(new VaadinBoot().flatClassLoader(true));
+        assertSame(Thread.currentThread().getContextClassLoader(), s.getContext().getClassLoader());
+
+        final JettyWebServer s2 = new JettyWebServer();
+        s2.configure(new VaadinBoot());
+        assertNull(s2.getContext().getClassLoader());
+    }
+
+    @Test
+    public void testInflatedRequestMaxSize() throws Exception {
+        final Handler bodyLength = new Handler.Abstract() {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback) throws Exception {
+                final byte[] body = Content.Source.asInputStream(request).readAllBytes();
+                Content.Sink.write(response, true, String.valueOf(body.length), callback);
+                return true;
+            }
+        };
+        final Server server = new Server(0);
+        server.setHandler(new JettyWebServer().newCompressionHandler(bodyLength, new VaadinBoot().inflateRequestBodies(true).inflatedRequestMaxSize(1000)));
+        server.start();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            final URI uri = URI.create("http://localhost:" + ((ServerConnector) server.getConnectors()[0]).getLocalPort() + "/");
+            assertEquals("1000", post(client, uri, gzip(1000), "gzip").body());
+            assertEquals(413, post(client, uri, gzip(1024 * 1024), "gzip").statusCode());
+            // uncompressed bodies aren't limited
+            assertEquals("5000", post(client, uri, new byte[5000], null).body());
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static byte @NotNull [] gzip(int zeroes) throws IOException {
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bout)) {
+            out.write(new byte[zeroes]);
+        }
+        return bout.toByteArray();
+    }
+
+    @NotNull
+    private static HttpResponse<String> post(@NotNull HttpClient client, @NotNull URI uri, byte @NotNull [] body, @Nullable String contentEncoding) throws IOException, InterruptedException {
+        final HttpRequest.Builder request = HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (contentEncoding != null) {
+            request.header("Content-Encoding", contentEncoding);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testAnnotationIndexMissing() {
+        final IllegalStateException ex = assertThrows(IllegalStateException.class, () -> new JettyWebServer().configure(new VaadinBoot().useAnnotationIndex(true)));
+        assertTrue(ex.getMessage().contains(AnnotationIndex.RESOURCE), ex.getMessage());
+    }
 }